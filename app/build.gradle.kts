@@ -35,6 +35,14 @@ android {
     buildFeatures {
         viewBinding = true
     }
+    testOptions {
+        // Repository code logs through android.util.Log, which JVM tests run against stubs of
+        unitTests.isReturnDefaultValues = true
+        // CodecBenchmarkTest only times the codecs when run with -PcodecBenchmark
+        unitTests.all {
+            it.systemProperty("codecBenchmark", project.hasProperty("codecBenchmark").toString())
+        }
+    }
 }
 
 dependencies {
@@ -48,6 +48,34 @@ public class SignupRepositoryTest {
         signupRepository.removeSignup(retrievedSignup).get();
     }
 
+    @Test
+    public void testAddSignup_usesDeterministicDocumentId() throws ExecutionException, InterruptedException {
+        Signup signup = new Signup("testUserId", "testEventId");
+
+        String documentId = signupRepository.addSignup(signup).get();
+        assertEquals(SignupRepository.getSignupDocumentId("testUserId", "testEventId"), documentId);
+
+        // Cleanup
+        signupRepository.removeSignup("testUserId", "testEventId").get();
+    }
+
+    @Test
+    public void testAddSignup_twiceKeepsOriginalSignup() throws ExecutionException, InterruptedException {
+        Signup first = new Signup("testUserId", "testEventId");
+        String firstId = signupRepository.addSignup(first).get();
+        Signup retrievedFirst = signupRepository.getSignup("testUserId", "testEventId").get();
+
+        Signup second = new Signup("testUserId", "testEventId");
+        String secondId = signupRepository.addSignup(second).get();
+        Signup retrievedSecond = signupRepository.getSignup("testUserId", "testEventId").get();
+
+        assertEquals(firstId, secondId);
+        assertEquals(retrievedFirst.getSignupTimestamp(), retrievedSecond.getSignupTimestamp());
+
+        // Cleanup
+        signupRepository.removeSignup("testUserId", "testEventId").get();
+    }
+
     @Test(expected = ExecutionException.class)
     public void testAddSignup_nullUserId() throws ExecutionException, InterruptedException {
         Signup signup = new Signup(null, "testEventId");
@@ -24,6 +24,7 @@ import com.example.eventapp.models.Event;
 import com.example.eventapp.models.Notification;
 import com.example.eventapp.models.User;
 import com.example.eventapp.repositories.EventRepository;
+import com.example.eventapp.repositories.ReadPolicy;
 import com.example.eventapp.repositories.UserRepository;
 import com.example.eventapp.services.NotificationService;
 import com.example.eventapp.ui.notifications.NotificationDialogFragment;
@@ -382,10 +383,15 @@ public class MainActivity extends AppCompatActivity {
         EventRepository eventRepository = EventRepository.getInstance();
 
         if ("Invite".equals(notification.getType())) {
-            return eventRepository.getEventById(notification.getEventId())
+            // Open the invitation with the cached event and update it once the server copy arrives
+            CompletableFuture<NotificationDialogFragment> shownDialog = new CompletableFuture<>();
+            return eventRepository.getEventById(notification.getEventId(), ReadPolicy.CACHE_THEN_SERVER,
+                            refreshed -> shownDialog.thenAccept(dialog ->
+                                    runOnUiThread(() -> dialog.updateEvent(refreshed))))
                     .thenCompose(event -> {
                         if (event != null) {
-                            return showNotificationDialog(notification, event);
+                            return showNotificationDialog(notification, event)
+                                    .thenAccept(shownDialog::complete);
                         } else {
                             Log.e(TAG, "Event not found for notification: " + notification.getEventId());
                             return CompletableFuture.completedFuture(null);
@@ -397,7 +403,7 @@ public class MainActivity extends AppCompatActivity {
                         return null;
                     });
         } else {
-            return showNotificationDialog(notification, null);
+            return showNotificationDialog(notification, null).thenAccept(dialog -> { });
         }
     }
 
@@ -406,14 +412,14 @@ public class MainActivity extends AppCompatActivity {
      *
      * @param notification The notification to display in the dialog.
      * @param event The event associated with the notification, if applicable. Can be null.
-     * @return A CompletableFuture that completes when the dialog has been shown.
+     * @return A CompletableFuture containing the dialog once it has been shown.
      */
-    private CompletableFuture<Void> showNotificationDialog(Notification notification, @Nullable Event event) {
-        CompletableFuture<Void> future = new CompletableFuture<>();
+    private CompletableFuture<NotificationDialogFragment> showNotificationDialog(Notification notification, @Nullable Event event) {
+        CompletableFuture<NotificationDialogFragment> future = new CompletableFuture<>();
         runOnUiThread(() -> {
             NotificationDialogFragment dialog = NotificationDialogFragment.newInstance(notification, event);
             dialog.show(getSupportFragmentManager(), "NotificationDialog");
-            future.complete(null);
+            future.complete(dialog);
         });
         return future;
     }
@@ -0,0 +1,29 @@
+package com.example.eventapp.interfaces;
+
+import java.util.Map;
+
+/**
+ * Interface for hand-written converters between a model and its Firestore document data.
+ * Codecs read and write fields explicitly instead of going through Firestore's reflection-based
+ * mapper, and are responsible for setting the document ID on decoded models.
+ *
+ * @param <T> The model type.
+ */
+public interface DocumentCodec<T> {
+    /**
+     * Builds a model from the data of a document.
+     *
+     * @param documentId the ID of the document
+     * @param data the document data
+     * @return the decoded model
+     */
+    T decode(String documentId, Map<String, Object> data);
+
+    /**
+     * Converts a model into the data to store in its document.
+     *
+     * @param item the model to encode
+     * @return the document data
+     */
+    Map<String, Object> encode(T item);
+}
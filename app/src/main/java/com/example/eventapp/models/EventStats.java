@@ -0,0 +1,133 @@
+package com.example.eventapp.models;
+
+import java.util.List;
+
+/**
+ * Represents the signup counters of an Event, in total and per status. Counters are stored as
+ * shards under `eventStats/{eventId}/shards` and maintained by Cloud Function triggers; each
+ * shard has the same fields and the event's counts are the sum over all shards.
+ */
+public class EventStats {
+    private String eventId;
+    private long total;
+    private long cancelled;
+    private long waitlisted;
+    private long chosen;
+    private long enrolled;
+    private int shardCount;
+
+    public EventStats() {
+        // default constructor for firebase
+    }
+
+    /**
+     * Creates EventStats with the given counts.
+     *
+     * @param eventId    the ID of the event
+     * @param total      the number of signups, including cancelled ones
+     * @param cancelled  the number of cancelled signups
+     * @param waitlisted the number of waitlisted signups
+     * @param chosen     the number of chosen signups
+     * @param enrolled   the number of enrolled signups
+     */
+    public EventStats(String eventId, long total, long cancelled, long waitlisted, long chosen, long enrolled) {
+        this.eventId = eventId;
+        this.total = total;
+        this.cancelled = cancelled;
+        this.waitlisted = waitlisted;
+        this.chosen = chosen;
+        this.enrolled = enrolled;
+    }
+
+    /**
+     * Sums counter shards into the stats of an event.
+     *
+     * @param eventId the ID of the event
+     * @param shards  the counter shards of the event
+     * @return the summed stats
+     */
+    public static EventStats sum(String eventId, List<EventStats> shards) {
+        EventStats stats = new EventStats(eventId, 0, 0, 0, 0, 0);
+        for (EventStats shard : shards) {
+            stats.total += shard.total;
+            stats.cancelled += shard.cancelled;
+            stats.waitlisted += shard.waitlisted;
+            stats.chosen += shard.chosen;
+            stats.enrolled += shard.enrolled;
+        }
+        stats.shardCount = shards.size();
+        return stats;
+    }
+
+    /**
+     * Gets the ID of the event these counts belong to.
+     *
+     * @return the event ID
+     */
+    public String getEventId() {
+        return eventId;
+    }
+
+    /**
+     * Sets the ID of the event these counts belong to.
+     *
+     * @param eventId the event ID
+     */
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    /**
+     * Gets the number of signups, including cancelled ones.
+     *
+     * @return the total number of signups
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    public void setCancelled(long cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    public long getWaitlisted() {
+        return waitlisted;
+    }
+
+    public void setWaitlisted(long waitlisted) {
+        this.waitlisted = waitlisted;
+    }
+
+    public long getChosen() {
+        return chosen;
+    }
+
+    public void setChosen(long chosen) {
+        this.chosen = chosen;
+    }
+
+    public long getEnrolled() {
+        return enrolled;
+    }
+
+    public void setEnrolled(long enrolled) {
+        this.enrolled = enrolled;
+    }
+
+    /**
+     * Gets the number of shards these counts were summed from; 0 if the event has no counters yet.
+     *
+     * @return the number of shards
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+}
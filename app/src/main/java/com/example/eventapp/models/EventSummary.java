@@ -0,0 +1,137 @@
+package com.example.eventapp.models;
+
+import android.net.Uri;
+
+import com.example.eventapp.interfaces.HasDocumentId;
+import com.google.firebase.firestore.Exclude;
+
+import java.io.Serializable;
+
+/**
+ * A compact projection of an {@link Event} for list screens, holding only what an event card
+ * shows. Summaries are stored in `eventSummaries/{eventId}` and kept in sync with their event by
+ * a Cloud Function trigger; the app never writes them. Open the full event with
+ * {@link #getDocumentId()} when more than the card is needed.
+ */
+public class EventSummary implements HasDocumentId, Serializable {
+    @Exclude
+    private String documentId;
+    private String organizerId;
+    private String facilityId;
+    private String eventName;
+    private String posterUriString;
+    private long startDate;
+    private long endDate;
+    private long deadline;
+
+    public EventSummary() {
+        // default constructor for firebase
+    }
+
+    /**
+     * Creates the summary of an event.
+     *
+     * @param event the event to summarize
+     * @return the summary, with the same document ID as the event
+     */
+    public static EventSummary of(Event event) {
+        EventSummary summary = new EventSummary();
+        summary.documentId = event.getDocumentId();
+        summary.organizerId = event.getOrganizerId();
+        summary.facilityId = event.getFacilityId();
+        summary.eventName = event.getEventName();
+        summary.posterUriString = event.getPosterUriString();
+        summary.startDate = event.getStartDate();
+        summary.endDate = event.getEndDate();
+        summary.deadline = event.getDeadline();
+        return summary;
+    }
+
+    /**
+     * Returns the document ID of the summary, which is the ID of its event.
+     *
+     * @return the document ID
+     */
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    @Override
+    public void setDocumentId(String documentId) {
+        this.documentId = documentId;
+    }
+
+    public String getOrganizerId() {
+        return organizerId;
+    }
+
+    public void setOrganizerId(String organizerId) {
+        this.organizerId = organizerId;
+    }
+
+    public String getFacilityId() {
+        return facilityId;
+    }
+
+    public void setFacilityId(String facilityId) {
+        this.facilityId = facilityId;
+    }
+
+    public String getEventName() {
+        return eventName;
+    }
+
+    public void setEventName(String eventName) {
+        this.eventName = eventName;
+    }
+
+    public String getPosterUriString() {
+        return posterUriString;
+    }
+
+    public void setPosterUriString(String posterUriString) {
+        this.posterUriString = posterUriString;
+    }
+
+    /**
+     * Returns the URI of the event's poster.
+     *
+     * @return a URI pointing to the event's poster, or null if none exists
+     */
+    public Uri getPosterUri() {
+        return hasPoster() ? Uri.parse(posterUriString) : null;
+    }
+
+    /**
+     * Determines if the event has a poster associated with it.
+     *
+     * @return true if a poster exists, otherwise false
+     */
+    public boolean hasPoster() {
+        return posterUriString != null && !posterUriString.isEmpty();
+    }
+
+    public long getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(long startDate) {
+        this.startDate = startDate;
+    }
+
+    public long getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(long endDate) {
+        this.endDate = endDate;
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+
+    public void setDeadline(long deadline) {
+        this.deadline = deadline;
+    }
+}
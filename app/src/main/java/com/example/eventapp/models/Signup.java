@@ -2,6 +2,7 @@ package com.example.eventapp.models;
 
 import com.example.eventapp.interfaces.HasDocumentId;
 import com.google.firebase.firestore.Exclude;
+import com.google.firebase.firestore.PropertyName;
 
 /**
  * Represents a Signup record for an Event, containing information about the user and event,
@@ -16,7 +17,15 @@ public class Signup implements HasDocumentId {
     private Double longitude;
     private String eventId;
     private long signupTimestamp;
+    // Capacity slot of the event that admitted this signup, null if the event has no capacity limit
+    private Integer capacitySlot;
+    // Lottery rank assigned by Cloud Functions, null until assigned
+    private Double rank;
 
+    @Exclude
+    private SignupStatus status = SignupStatus.WAITLISTED;
+
+    // Mirrors of the status, kept while clients and functions that read them are phased out
     private boolean isCancelled = false;
     private boolean isWaitlisted = true;
     // Chosen means that a user is selected, but has not accepted the invitation yet
@@ -154,6 +163,91 @@ public class Signup implements HasDocumentId {
         this.signupTimestamp = signupTimestamp;
     }
 
+    /**
+     * Gets the capacity slot of the event that admitted this signup. The slot is given back when
+     * the signup is removed.
+     *
+     * @return the capacity slot, or null if the signup was not admitted against a capacity limit
+     */
+    public Integer getCapacitySlot() {
+        return capacitySlot;
+    }
+
+    /**
+     * Sets the capacity slot of the event that admitted this signup.
+     *
+     * @param capacitySlot the capacity slot, or null
+     */
+    public void setCapacitySlot(Integer capacitySlot) {
+        this.capacitySlot = capacitySlot;
+    }
+
+    /**
+     * Gets the lottery rank of the signup. Ranks are assigned by Cloud Functions when the signup is
+     * created; the app only carries the rank along so that rewriting a signup keeps it.
+     *
+     * @return the rank, or null if not assigned yet
+     */
+    public Double getRank() {
+        return rank;
+    }
+
+    /**
+     * Sets the lottery rank of the signup, as read from Firestore.
+     *
+     * @param rank the rank, or null
+     */
+    public void setRank(Double rank) {
+        this.rank = rank;
+    }
+
+    /**
+     * Gets the status of the signup.
+     *
+     * @return the status
+     */
+    @Exclude
+    public SignupStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Sets the status of the signup, updating the boolean flags to match.
+     *
+     * @param status the new status
+     */
+    @Exclude
+    public void setStatus(SignupStatus status) {
+        this.status = status;
+        isCancelled = status == SignupStatus.CANCELLED;
+        isWaitlisted = status == SignupStatus.WAITLISTED;
+        isChosen = status == SignupStatus.CHOSEN;
+        isEnrolled = status == SignupStatus.ENROLLED;
+    }
+
+    /**
+     * Gets the stored value of the status, for Firestore.
+     *
+     * @return the status value
+     */
+    @PropertyName("status")
+    public String getStatusValue() {
+        return status.getValue();
+    }
+
+    /**
+     * Sets the status from its stored value, for Firestore. Unknown values are ignored.
+     *
+     * @param value the status value
+     */
+    @PropertyName("status")
+    public void setStatusValue(String value) {
+        SignupStatus parsed = SignupStatus.fromValue(value);
+        if (parsed != null) {
+            setStatus(parsed);
+        }
+    }
+
     /**
      * Checks if the signup has been cancelled.
      *
@@ -164,12 +258,13 @@ public class Signup implements HasDocumentId {
     }
 
     /**
-     * Sets whether the signup has been cancelled.
+     * Sets whether the signup has been cancelled, and derives the status from the flags.
      *
      * @param cancelled true if cancelled, otherwise false
      */
     public void setCancelled(boolean cancelled) {
         isCancelled = cancelled;
+        status = SignupStatus.fromFlags(isCancelled, isWaitlisted, isChosen, isEnrolled);
     }
 
     /**
@@ -182,12 +277,13 @@ public class Signup implements HasDocumentId {
     }
 
     /**
-     * Sets if the signed up user has been waitlisted.
+     * Sets if the signed up user has been waitlisted, and derives the status from the flags.
      *
      * @param waitlisted true if waitlisted, otherwise false
      */
     public void setWaitlisted(boolean waitlisted) {
         isWaitlisted = waitlisted;
+        status = SignupStatus.fromFlags(isCancelled, isWaitlisted, isChosen, isEnrolled);
     }
 
     /**
@@ -200,12 +296,13 @@ public class Signup implements HasDocumentId {
     }
 
     /**
-     * Sets if the signed up user has been chosen for the event.
+     * Sets if the signed up user has been chosen for the event, and derives the status from the flags.
      *
      * @param chosen true if chosen, otherwise false
      */
     public void setChosen(boolean chosen) {
         isChosen = chosen;
+        status = SignupStatus.fromFlags(isCancelled, isWaitlisted, isChosen, isEnrolled);
     }
 
     /**
@@ -218,11 +315,12 @@ public class Signup implements HasDocumentId {
     }
 
     /**
-     * Sets if the signed up user has been enrolled into the event.
+     * Sets if the signed up user has been enrolled into the event, and derives the status from the flags.
      *
      * @param enrolled true if enrolled, otherwise false
      */
     public void setEnrolled(boolean enrolled) {
         isEnrolled = enrolled;
+        status = SignupStatus.fromFlags(isCancelled, isWaitlisted, isChosen, isEnrolled);
     }
 }
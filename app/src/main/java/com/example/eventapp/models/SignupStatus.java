@@ -0,0 +1,91 @@
+package com.example.eventapp.models;
+
+/**
+ * The state of a {@link Signup}. A signup is in exactly one state, stored as the lowercase
+ * {@link #getValue() value} in the signup's `status` field so that filters can select several
+ * states with a single `in` query.
+ */
+public enum SignupStatus {
+    /**
+     * Signed up and waiting for the lottery.
+     */
+    WAITLISTED("waitlisted", "Waitlisted"),
+
+    /**
+     * Selected by the lottery, but has not accepted the invitation yet.
+     */
+    CHOSEN("chosen", "Chosen"),
+
+    /**
+     * Accepted the invitation.
+     */
+    ENROLLED("enrolled", "Enrolled"),
+
+    /**
+     * Declined the invitation or was cancelled by the organizer.
+     */
+    CANCELLED("cancelled", "Cancelled");
+
+    private final String value;
+    private final String displayName;
+
+    SignupStatus(String value, String displayName) {
+        this.value = value;
+        this.displayName = displayName;
+    }
+
+    /**
+     * Gets the value stored in the `status` field.
+     *
+     * @return the stored value
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the name shown to organizers in the entrants list.
+     *
+     * @return the display name
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Parses a stored status value.
+     *
+     * @param value the stored value, may be null
+     * @return the status, or null if the value is null or unknown
+     */
+    public static SignupStatus fromValue(String value) {
+        for (SignupStatus status : values()) {
+            if (status.value.equals(value)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Derives the status of a signup written before the `status` field existed from its boolean
+     * flags. Accepting or declining an invitation used to leave `chosen` set, so cancelled and
+     * enrolled take precedence over chosen.
+     *
+     * @param cancelled the `cancelled` flag
+     * @param waitlisted the `waitlisted` flag
+     * @param chosen the `chosen` flag
+     * @param enrolled the `enrolled` flag
+     * @return the status; a signup with no flag set is treated as waitlisted
+     */
+    public static SignupStatus fromFlags(boolean cancelled, boolean waitlisted, boolean chosen, boolean enrolled) {
+        if (cancelled) {
+            return CANCELLED;
+        } else if (enrolled) {
+            return ENROLLED;
+        } else if (chosen) {
+            return CHOSEN;
+        }
+        return WAITLISTED;
+    }
+}
@@ -2,13 +2,15 @@ package com.example.eventapp.models;
 
 import android.net.Uri;
 
+import com.example.eventapp.interfaces.HasDocumentId;
 import com.google.firebase.firestore.Exclude;
 
 /**
  * Represents a User in the application, including attributes such as name, role, and contact details.
  * Provides functionality to track a user’s settings and organizational/admin role.
+ * Implements the {@link HasDocumentId} interface for Firestore integration; the document ID is the user ID.
  */
-public class User {
+public class User implements HasDocumentId {
     @Exclude
     private String userId;
     private String name;
@@ -84,6 +86,17 @@ public class User {
         this.userId = userId;
     }
 
+    /**
+     * Sets the Firestore document ID for the user, which is the user device ID.
+     *
+     * @param documentId the document ID of the user
+     */
+    @Exclude
+    @Override
+    public void setDocumentId(String documentId) {
+        this.userId = documentId;
+    }
+
     /**
      * Returns the name of the user.
      *
@@ -0,0 +1,251 @@
+package com.example.eventapp.repositories;
+
+import com.example.eventapp.repositories.DTOs.BatchWriteResult;
+import com.example.eventapp.repositories.backend.FirestoreBackend;
+import com.example.eventapp.repositories.backend.StorageBackend;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes many keyed items with as few round trips as possible. Each item is one or more write
+ * operations (e.g. a set and a delete); items are packed into atomic batches of at most
+ * {@link #MAX_OPERATIONS_PER_BATCH} operations, keeping every item's operations in the same batch,
+ * and at most {@code parallelism} batches are committed at a time.
+ *
+ * Each batch is atomic, so the returned {@link BatchWriteResult} reports every item of a failed
+ * batch as failed and every item of a committed batch as written. A writer can be committed once.
+ */
+public class BatchWriter {
+
+    /** Kept below Firestore's limit of 500 writes per batch. */
+    public static final int MAX_OPERATIONS_PER_BATCH = 450;
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    /**
+     * A single write added to a batch.
+     */
+    public interface Operation {
+        void apply(StorageBackend.Writer batch);
+    }
+
+    /**
+     * Commits the operations of one batch.
+     */
+    interface ChunkCommitter {
+        CompletableFuture<Void> commit(List<Operation> operations);
+    }
+
+    private final int maxOperationsPerBatch;
+    private final int parallelism;
+    private final ChunkCommitter committer;
+    private final Map<String, List<Operation>> items = new LinkedHashMap<>();
+    private boolean committed = false;
+
+    /**
+     * Creates a writer with the default batch size and parallelism.
+     *
+     * @param db The Firestore instance to write to.
+     */
+    public BatchWriter(FirebaseFirestore db) {
+        this(new FirestoreBackend(db));
+    }
+
+    /**
+     * Creates a writer on a storage backend with the default batch size and parallelism.
+     *
+     * @param backend The backend to write to.
+     */
+    public BatchWriter(StorageBackend backend) {
+        this(operations -> commitBatch(backend, operations), MAX_OPERATIONS_PER_BATCH, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Creates a writer.
+     *
+     * @param db The Firestore instance to write to.
+     * @param maxOperationsPerBatch The maximum number of operations per batch, at most 500.
+     * @param parallelism The maximum number of batches committed at a time.
+     * @throws IllegalArgumentException if maxOperationsPerBatch is not in [1, 500] or parallelism is < 1.
+     */
+    public BatchWriter(FirebaseFirestore db, int maxOperationsPerBatch, int parallelism) {
+        this(operations -> commitBatch(new FirestoreBackend(db), operations), maxOperationsPerBatch, parallelism);
+    }
+
+    /**
+     * Creates a writer that commits batches through the given committer.
+     *
+     * @param committer Commits the operations of one batch.
+     * @param maxOperationsPerBatch The maximum number of operations per batch, at most 500.
+     * @param parallelism The maximum number of batches committed at a time.
+     * @throws IllegalArgumentException if maxOperationsPerBatch is not in [1, 500] or parallelism is < 1.
+     */
+    BatchWriter(ChunkCommitter committer, int maxOperationsPerBatch, int parallelism) {
+        if (maxOperationsPerBatch < 1 || maxOperationsPerBatch > 500) {
+            throw new IllegalArgumentException("maxOperationsPerBatch must be between 1 and 500");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism cannot be < 1");
+        }
+        this.committer = committer;
+        this.maxOperationsPerBatch = maxOperationsPerBatch;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Adds the operations of an item. Adding to a key that was already added appends to its
+     * operations, which are still committed in one batch.
+     *
+     * @param key The key the item is reported under, e.g. a user ID.
+     * @param operations The writes of the item.
+     * @return This writer.
+     * @throws IllegalArgumentException if the item has more operations than fit in one batch.
+     * @throws IllegalStateException if the writer was already committed.
+     */
+    public BatchWriter add(String key, Operation... operations) {
+        if (committed) {
+            throw new IllegalStateException("BatchWriter was already committed");
+        }
+        List<Operation> itemOperations = items.get(key);
+        if (itemOperations == null) {
+            itemOperations = new ArrayList<>();
+            items.put(key, itemOperations);
+        }
+        Collections.addAll(itemOperations, operations);
+        if (itemOperations.size() > maxOperationsPerBatch) {
+            throw new IllegalArgumentException("item " + key + " has more than " + maxOperationsPerBatch + " operations");
+        }
+        return this;
+    }
+
+    /**
+     * Gets the number of items added.
+     *
+     * @return The number of items.
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Commits every item in batches, at most {@code parallelism} at a time.
+     *
+     * @return A future completed with the per-item result once every batch has finished; it never
+     *         completes exceptionally because of a failed batch.
+     * @throws IllegalStateException if the writer was already committed.
+     */
+    public CompletableFuture<BatchWriteResult> commit() {
+        if (committed) {
+            throw new IllegalStateException("BatchWriter was already committed");
+        }
+        committed = true;
+
+        BatchWriteResult result = new BatchWriteResult();
+        CompletableFuture<BatchWriteResult> future = new CompletableFuture<>();
+        List<List<String>> chunks = planChunks();
+        if (chunks.isEmpty()) {
+            future.complete(result);
+            return future;
+        }
+
+        AtomicInteger nextChunk = new AtomicInteger();
+        AtomicInteger remainingChunks = new AtomicInteger(chunks.size());
+        int workers = Math.min(parallelism, chunks.size());
+        for (int i = 0; i < workers; i++) {
+            commitNextChunk(chunks, nextChunk, remainingChunks, result, future);
+        }
+        return future;
+    }
+
+    /**
+     * Splits the items into batches in insertion order, keeping each item's operations together.
+     *
+     * @return The keys of the items in each batch.
+     */
+    List<List<String>> planChunks() {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int currentOperations = 0;
+        for (Map.Entry<String, List<Operation>> item : items.entrySet()) {
+            int itemOperations = item.getValue().size();
+            if (!current.isEmpty() && currentOperations + itemOperations > maxOperationsPerBatch) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                currentOperations = 0;
+            }
+            current.add(item.getKey());
+            currentOperations += itemOperations;
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    /**
+     * Commits the next unclaimed batch, then moves on to the one after it until none are left.
+     */
+    private void commitNextChunk(
+            List<List<String>> chunks,
+            AtomicInteger nextChunk,
+            AtomicInteger remainingChunks,
+            BatchWriteResult result,
+            CompletableFuture<BatchWriteResult> future) {
+        int index = nextChunk.getAndIncrement();
+        if (index >= chunks.size()) {
+            return;
+        }
+        List<String> keys = chunks.get(index);
+        List<Operation> operations = new ArrayList<>();
+        for (String key : keys) {
+            operations.addAll(items.get(key));
+        }
+
+        CompletableFuture<Void> commit;
+        try {
+            commit = committer.commit(operations);
+        } catch (RuntimeException e) {
+            commit = new CompletableFuture<>();
+            commit.completeExceptionally(e);
+        }
+        commit.whenComplete((ignored, throwable) -> {
+            if (throwable == null) {
+                for (String key : keys) {
+                    result.addSuccess(key);
+                }
+            } else {
+                Exception error = throwable instanceof Exception ? (Exception) throwable : new RuntimeException(throwable);
+                for (String key : keys) {
+                    result.addFailure(key, error);
+                }
+            }
+
+            if (remainingChunks.decrementAndGet() == 0) {
+                future.complete(result);
+            } else {
+                commitNextChunk(chunks, nextChunk, remainingChunks, result, future);
+            }
+        });
+    }
+
+    /**
+     * Commits operations as one atomic batch.
+     *
+     * @param backend The backend to write to.
+     * @param operations The operations of the batch.
+     * @return A future completed once the batch has been committed.
+     */
+    private static CompletableFuture<Void> commitBatch(StorageBackend backend, List<Operation> operations) {
+        return backend.commitBatch(batch -> {
+            for (Operation operation : operations) {
+                operation.apply(batch);
+            }
+        });
+    }
+}
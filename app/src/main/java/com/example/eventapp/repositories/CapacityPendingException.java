@@ -0,0 +1,18 @@
+package com.example.eventapp.repositories;
+
+/**
+ * Thrown (as the cause of a failed future) when a signup to an event with a maximum number of
+ * entrants arrives before Cloud Functions have set up the event's capacity. The signup can be
+ * retried shortly.
+ */
+public class CapacityPendingException extends IllegalStateException {
+
+    /**
+     * Creates the exception for an event.
+     *
+     * @param eventId The ID of the event.
+     */
+    public CapacityPendingException(String eventId) {
+        super("Capacity of event " + eventId + " is not set up yet");
+    }
+}
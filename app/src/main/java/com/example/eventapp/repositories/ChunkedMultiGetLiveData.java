@@ -0,0 +1,247 @@
+package com.example.eventapp.repositories;
+
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * LiveData that fetches a set of documents by ID from one collection and keeps them live.
+ *
+ * Firestore caps `whereIn` at 30 values, so the IDs are split into bounded chunks, each backed by
+ * its own shared snapshot listener (see {@link Common#runQueryLiveData}). The chunk results are
+ * merged into a single list ordered by the requested IDs. When the ID set changes, only chunks
+ * whose membership changed are re-subscribed; untouched chunks keep their listener.
+ *
+ * @param <T> The type of documents being fetched.
+ */
+public class ChunkedMultiGetLiveData<T> extends MediatorLiveData<List<T>> {
+
+    /**
+     * The maximum number of values Firestore accepts in a single `whereIn` filter.
+     */
+    public static final int MAX_CHUNK_SIZE = 30;
+
+    private final String methodName;
+    private final CollectionReference collection;
+    private final Class<T> clazz;
+    private final Function<T, String> idGetter;
+    private final String tag;
+
+    private final List<Chunk<T>> chunks = new ArrayList<>();
+    private List<String> orderedIds = new ArrayList<>();
+
+    /**
+     * Creates a chunked multi-get over a collection.
+     *
+     * @param methodName The name of the calling method, used for logging.
+     * @param collection The collection the IDs belong to.
+     * @param clazz The class type of the documents being fetched.
+     * @param idGetter Function returning the document ID of a parsed item.
+     * @param tag The log tag of the calling repository.
+     */
+    public ChunkedMultiGetLiveData(
+            String methodName,
+            CollectionReference collection,
+            Class<T> clazz,
+            Function<T, String> idGetter,
+            String tag) {
+        this.methodName = methodName;
+        this.collection = collection;
+        this.clazz = clazz;
+        this.idGetter = idGetter;
+        this.tag = tag;
+    }
+
+    /**
+     * Updates the set of IDs to fetch. Chunks whose membership is unchanged keep their listener.
+     *
+     * @param ids The IDs to fetch, in the order results should be emitted. Duplicates and nulls are ignored.
+     */
+    public void setIds(Collection<String> ids) {
+        LinkedHashSet<String> requested = new LinkedHashSet<>();
+        if (ids != null) {
+            for (String id : ids) {
+                if (id != null) {
+                    requested.add(id);
+                }
+            }
+        }
+        orderedIds = new ArrayList<>(requested);
+
+        List<Set<String>> currentMembership = new ArrayList<>();
+        for (Chunk<T> chunk : chunks) {
+            currentMembership.add(chunk.ids);
+        }
+        List<Set<String>> plannedMembership = planChunks(currentMembership, requested, MAX_CHUNK_SIZE);
+
+        List<Chunk<T>> nextChunks = new ArrayList<>();
+        int resubscribed = 0;
+        for (int i = 0; i < plannedMembership.size(); i++) {
+            Set<String> planned = plannedMembership.get(i);
+            Chunk<T> existing = i < chunks.size() ? chunks.get(i) : null;
+
+            if (existing != null && existing.ids.equals(planned)) {
+                nextChunks.add(existing);
+                continue;
+            }
+            if (existing != null) {
+                removeSource(existing.source);
+            }
+            if (planned.isEmpty()) {
+                continue;
+            }
+            nextChunks.add(subscribe(planned));
+            resubscribed++;
+        }
+        for (int i = plannedMembership.size(); i < chunks.size(); i++) {
+            removeSource(chunks.get(i).source);
+        }
+        chunks.clear();
+        chunks.addAll(nextChunks);
+
+        Log.d(tag, methodName + ": " + orderedIds.size() + " ids in " + chunks.size()
+                + " chunks, re-subscribed " + resubscribed);
+        emitIfComplete();
+    }
+
+    /**
+     * Gets the number of chunks (and therefore listeners) currently backing this LiveData.
+     *
+     * @return The current chunk count.
+     */
+    public int getChunkCount() {
+        return chunks.size();
+    }
+
+    /**
+     * Creates a chunk for a set of IDs and starts observing its query.
+     *
+     * @param ids The IDs in the chunk.
+     * @return The subscribed chunk.
+     */
+    private Chunk<T> subscribe(Set<String> ids) {
+        Query query = collection.whereIn(FieldPath.documentId(), new ArrayList<>(ids));
+        Chunk<T> chunk = new Chunk<>(ids, Common.runQueryLiveData(methodName, query, clazz, tag));
+        addSource(chunk.source, items -> {
+            chunk.latest = items != null ? items : new ArrayList<>();
+            emitIfComplete();
+        });
+        return chunk;
+    }
+
+    /**
+     * Merges the chunk results in requested-ID order once every chunk has delivered a result.
+     */
+    private void emitIfComplete() {
+        if (chunks.isEmpty()) {
+            setValue(new ArrayList<>());
+            return;
+        }
+        Map<String, T> byId = new HashMap<>();
+        for (Chunk<T> chunk : chunks) {
+            if (chunk.latest == null) {
+                return;
+            }
+            for (T item : chunk.latest) {
+                byId.put(idGetter.apply(item), item);
+            }
+        }
+
+        List<T> merged = new ArrayList<>(byId.size());
+        for (String id : orderedIds) {
+            T item = byId.get(id);
+            if (item != null) {
+                merged.add(item);
+            }
+        }
+        setValue(merged);
+    }
+
+    /**
+     * Plans chunk membership for a new ID set while disturbing as few existing chunks as possible.
+     *
+     * A chunk that still contains exactly the same IDs is returned unchanged. Chunks that lost IDs
+     * are refilled with newly requested IDs before any new chunk is opened, since they need to be
+     * re-subscribed anyway. The returned list is index-aligned with {@code current}; an empty set
+     * at an index means that chunk should be dropped, and any extra sets are new chunks.
+     *
+     * @param current The membership of the existing chunks.
+     * @param requested The full set of requested IDs.
+     * @param maxChunkSize The maximum number of IDs per chunk.
+     * @return The planned membership of each chunk.
+     */
+    static List<Set<String>> planChunks(List<Set<String>> current, Set<String> requested, int maxChunkSize) {
+        List<Set<String>> planned = new ArrayList<>();
+        List<Integer> dirtyIndexes = new ArrayList<>();
+        Set<String> assigned = new LinkedHashSet<>();
+
+        for (int i = 0; i < current.size(); i++) {
+            Set<String> retained = new LinkedHashSet<>();
+            for (String id : current.get(i)) {
+                if (requested.contains(id)) {
+                    retained.add(id);
+                }
+            }
+            if (retained.size() != current.get(i).size()) {
+                dirtyIndexes.add(i);
+                planned.add(retained);
+            } else {
+                planned.add(current.get(i));
+            }
+            assigned.addAll(retained);
+        }
+
+        List<String> missing = new ArrayList<>();
+        for (String id : requested) {
+            if (!assigned.contains(id)) {
+                missing.add(id);
+            }
+        }
+
+        int next = 0;
+        for (int index : dirtyIndexes) {
+            Set<String> chunk = planned.get(index);
+            while (next < missing.size() && chunk.size() < maxChunkSize) {
+                chunk.add(missing.get(next++));
+            }
+        }
+        while (next < missing.size()) {
+            Set<String> chunk = new LinkedHashSet<>();
+            while (next < missing.size() && chunk.size() < maxChunkSize) {
+                chunk.add(missing.get(next++));
+            }
+            planned.add(chunk);
+        }
+        return planned;
+    }
+
+    /**
+     * One bounded `whereIn` query and its latest result.
+     *
+     * @param <T> The type of documents being fetched.
+     */
+    private static final class Chunk<T> {
+        final Set<String> ids;
+        final LiveData<List<T>> source;
+        List<T> latest;
+
+        Chunk(Set<String> ids, LiveData<List<T>> source) {
+            this.ids = ids;
+            this.source = source;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.eventapp.repositories;
+
+/**
+ * How long a live query holds back results so that a burst of snapshots (e.g. a lottery updating
+ * hundreds of signups) reaches observers as one emission instead of hundreds.
+ *
+ * The first result after a quiet period is delivered straight away. Results arriving within
+ * {@link #getWindowMs()} of the previous one are merged and delivered once the stream has been
+ * quiet for the window, but never later than {@link #getMaxLatencyMs()} after the first held
+ * result, so the UI keeps updating during a long burst.
+ */
+public final class CoalescingWindow {
+
+    /**
+     * Delivers every result as soon as it is parsed.
+     */
+    public static final CoalescingWindow NONE = new CoalescingWindow(0, 0);
+
+    /**
+     * The window live queries use unless they ask for another one.
+     */
+    public static final CoalescingWindow DEFAULT = new CoalescingWindow(100, 500);
+
+    private final long windowMs;
+    private final long maxLatencyMs;
+
+    private CoalescingWindow(long windowMs, long maxLatencyMs) {
+        this.windowMs = windowMs;
+        this.maxLatencyMs = maxLatencyMs;
+    }
+
+    /**
+     * Creates a coalescing window.
+     *
+     * @param windowMs How long the stream must be quiet before held results are delivered; 0 to
+     *                 deliver every result immediately.
+     * @param maxLatencyMs The longest a result is held back, at least windowMs.
+     * @return The window.
+     * @throws IllegalArgumentException if windowMs is < 0 or maxLatencyMs is < windowMs.
+     */
+    public static CoalescingWindow of(long windowMs, long maxLatencyMs) {
+        if (windowMs < 0) {
+            throw new IllegalArgumentException("windowMs cannot be < 0");
+        }
+        if (maxLatencyMs < windowMs) {
+            throw new IllegalArgumentException("maxLatencyMs cannot be < windowMs");
+        }
+        return windowMs == 0 ? NONE : new CoalescingWindow(windowMs, maxLatencyMs);
+    }
+
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    public long getMaxLatencyMs() {
+        return maxLatencyMs;
+    }
+
+    /**
+     * Checks whether results are held back at all.
+     *
+     * @return true if every result is delivered immediately
+     */
+    public boolean isNone() {
+        return windowMs == 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CoalescingWindow)) return false;
+        CoalescingWindow other = (CoalescingWindow) o;
+        return windowMs == other.windowMs && maxLatencyMs == other.maxLatencyMs;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(windowMs) + Long.hashCode(maxLatencyMs);
+    }
+
+    @Override
+    public String toString() {
+        return "CoalescingWindow{" + windowMs + "ms, max " + maxLatencyMs + "ms}";
+    }
+}
@@ -1,14 +1,19 @@
 package com.example.eventapp.repositories;
 
-import android.util.Log;
 import androidx.lifecycle.LiveData;
-import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
 
+import com.example.eventapp.interfaces.DocumentCodec;
 import com.example.eventapp.interfaces.HasDocumentId;
+import com.example.eventapp.repositories.DTOs.QueryChangeSet;
+import com.example.eventapp.repositories.codecs.Codecs;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
+
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Common utility class providing shared methods for Firestore data handling.
@@ -16,12 +21,16 @@ import java.util.List;
  * This class includes methods to execute Firestore queries and convert query results into
  * LiveData for easy observation in the application. Additionally, it supports parsing Firestore
  * documents into specific model objects, with document IDs automatically assigned when applicable.
+ * Models with a {@link DocumentCodec} are decoded by hand; others use Firestore's reflection-based mapping.
  */
 public class Common {
 
     /**
      * Runs a Firestore query and returns the results as LiveData.
      *
+     * Identical queries share a single snapshot listener through {@link ListenerRegistry}; the
+     * listener is attached while the returned LiveData has active observers.
+     *
      * @param methodName The name of the method calling this function, used for logging.
      * @param query The Firestore query to run.
      * @param clazz The class type of the documents being queried.
@@ -29,25 +38,43 @@ public class Common {
      * @return LiveData containing a list of queried documents of type T.
      */
     public static <T> LiveData<List<T>> runQueryLiveData(String methodName, Query query, Class<T> clazz, String tag) {
-        MutableLiveData<List<T>> liveData = new MutableLiveData<>();
+        return Transformations.map(runQueryChangesLiveData(methodName, query, clazz, tag), QueryChangeSet::getItems);
+    }
 
-        query.addSnapshotListener((querySnapshot, e) -> {
-            if (e != null) {
-                Log.e(tag, "runQueryLiveData: " + methodName + ": listen failed", e);
-                liveData.setValue(new ArrayList<>());
-                return;
-            }
+    /**
+     * Runs a Firestore query and returns the results as LiveData, merging results that arrive in
+     * quick succession according to the given window instead of the registry's default.
+     *
+     * @param methodName The name of the method calling this function, used for logging.
+     * @param query The Firestore query to run.
+     * @param clazz The class type of the documents being queried.
+     * @param window How results arriving in quick succession are merged.
+     * @param <T> The type of documents being queried.
+     * @return LiveData containing a list of queried documents of type T.
+     */
+    public static <T> LiveData<List<T>> runQueryLiveData(
+            String methodName, Query query, Class<T> clazz, CoalescingWindow window, String tag) {
+        return Transformations.map(
+                ListenerRegistry.getInstance().getQueryLiveData(methodName, query, clazz, window, tag),
+                QueryChangeSet::getItems);
+    }
 
-            if (querySnapshot != null && !querySnapshot.isEmpty()) {
-                List<T> items = parseDocuments(querySnapshot, clazz);
-                Log.d(tag, "runQueryLiveData: " + methodName + ": success, retrieved " + items.size() + " items");
-                liveData.setValue(items);
-            } else {
-                Log.d(tag, "runQueryLiveData: " + methodName + ": no documents found");
-                liveData.setValue(new ArrayList<>());
-            }
-        });
-        return liveData;
+    /**
+     * Runs a Firestore query and returns each result together with the document changes that
+     * produced it, so adapters can apply minimal updates instead of redrawing the whole list.
+     *
+     * Only added and modified documents are deserialized on each snapshot; the rest of the list
+     * is carried over from the previous result.
+     *
+     * @param methodName The name of the method calling this function, used for logging.
+     * @param query The Firestore query to run.
+     * @param clazz The class type of the documents being queried.
+     * @param <T> The type of documents being queried.
+     * @return LiveData containing the ordered list of documents and the changes applied to it.
+     */
+    public static <T> LiveData<QueryChangeSet<T>> runQueryChangesLiveData(
+            String methodName, Query query, Class<T> clazz, String tag) {
+        return ListenerRegistry.getInstance().getQueryLiveData(methodName, query, clazz, tag);
     }
 
     /**
@@ -58,14 +85,34 @@ public class Common {
      * @param <T> The type of documents being parsed.
      * @return A list of objects of type T parsed from the QuerySnapshot.
      */
-    private static <T> List<T> parseDocuments(QuerySnapshot querySnapshot, Class<T> clazz) {
-        List<T> items = querySnapshot.toObjects(clazz);
-        for (int i = 0; i < items.size(); i++) {
-            T item = items.get(i);
-            if (item instanceof HasDocumentId) {
-                ((HasDocumentId) item).setDocumentId(querySnapshot.getDocuments().get(i).getId());
-            }
+    static <T> List<T> parseDocuments(QuerySnapshot querySnapshot, Class<T> clazz) {
+        List<DocumentSnapshot> documents = querySnapshot.getDocuments();
+        List<T> items = new ArrayList<>(documents.size());
+        for (DocumentSnapshot document : documents) {
+            items.add(parseDocument(document, clazz));
         }
         return items;
     }
+
+    /**
+     * Parses a single document into an object of type T, setting the document ID if applicable.
+     *
+     * @param document The document to parse.
+     * @param clazz The class type of the document being parsed.
+     * @param <T> The type of the document being parsed.
+     * @return The parsed object, or null if the document does not exist.
+     */
+    public static <T> T parseDocument(DocumentSnapshot document, Class<T> clazz) {
+        DocumentCodec<T> codec = Codecs.forClass(clazz);
+        if (codec != null) {
+            Map<String, Object> data = document.getData();
+            return data != null ? codec.decode(document.getId(), data) : null;
+        }
+
+        T item = document.toObject(clazz);
+        if (item instanceof HasDocumentId) {
+            ((HasDocumentId) item).setDocumentId(document.getId());
+        }
+        return item;
+    }
 }
@@ -0,0 +1,73 @@
+package com.example.eventapp.repositories.DTOs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-item outcome of a batched write. Items are written in atomic batches, so an item fails
+ * together with the rest of its batch; items in other batches are unaffected.
+ */
+public class BatchWriteResult {
+    private final Map<String, Exception> failures = new LinkedHashMap<>();
+    private final List<String> succeeded = new ArrayList<>();
+
+    public BatchWriteResult() {
+    }
+
+    /**
+     * Records an item as written.
+     *
+     * @param key the key of the item, e.g. a user ID
+     */
+    public synchronized void addSuccess(String key) {
+        succeeded.add(key);
+    }
+
+    /**
+     * Records an item as failed.
+     *
+     * @param key the key of the item, e.g. a user ID
+     * @param error the reason its batch failed
+     */
+    public synchronized void addFailure(String key, Exception error) {
+        failures.put(key, error);
+    }
+
+    /**
+     * Gets the keys of the items that were written, in completion order.
+     *
+     * @return the keys of the written items
+     */
+    public synchronized List<String> getSucceeded() {
+        return Collections.unmodifiableList(new ArrayList<>(succeeded));
+    }
+
+    /**
+     * Gets the keys of the items that failed, with the reason their batch failed.
+     *
+     * @return the failed items and their errors
+     */
+    public synchronized Map<String, Exception> getFailures() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(failures));
+    }
+
+    public synchronized int getSuccessCount() {
+        return succeeded.size();
+    }
+
+    public synchronized int getFailureCount() {
+        return failures.size();
+    }
+
+    /**
+     * Checks whether every item was written.
+     *
+     * @return true if no item failed
+     */
+    public synchronized boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.eventapp.repositories.DTOs;
+
+/**
+ * Progress of a server-side notification broadcast, as reported by the `broadcastNotification`
+ * function in `broadcasts/{broadcastId}`.
+ */
+public class BroadcastProgress {
+    private final String broadcastId;
+    private final long total;
+    private final long written;
+    private final long failed;
+    private final boolean done;
+
+    public BroadcastProgress(String broadcastId, long total, long written, long failed, boolean done) {
+        this.broadcastId = broadcastId;
+        this.total = total;
+        this.written = written;
+        this.failed = failed;
+        this.done = done;
+    }
+
+    public String getBroadcastId() {
+        return broadcastId;
+    }
+
+    /**
+     * Gets the number of entrants being notified. Until the broadcast is done this is an estimate,
+     * since a user with several signups to the event is only notified once.
+     *
+     * @return the number of entrants being notified
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.eventapp.repositories.DTOs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The result of a live query snapshot: the full ordered list of items together with the
+ * document changes that produced it, so adapters can apply minimal updates.
+ *
+ * @param <T> The type of documents in the query.
+ */
+public class QueryChangeSet<T> {
+
+    /**
+     * The kind of change applied to a single document.
+     */
+    public enum Type { ADDED, MODIFIED, REMOVED }
+
+    /**
+     * A single document change, with indexes into the list before and after the change.
+     *
+     * @param <T> The type of documents in the query.
+     */
+    public static class Change<T> {
+        private final Type type;
+        private final String documentId;
+        private final T item;
+        private final int oldIndex;
+        private final int newIndex;
+
+        public Change(Type type, String documentId, T item, int oldIndex, int newIndex) {
+            this.type = type;
+            this.documentId = documentId;
+            this.item = item;
+            this.oldIndex = oldIndex;
+            this.newIndex = newIndex;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public String getDocumentId() {
+            return documentId;
+        }
+
+        /**
+         * Gets the changed item; for removals this is the item that was removed.
+         *
+         * @return the changed item
+         */
+        public T getItem() {
+            return item;
+        }
+
+        /**
+         * Gets the index of the item before the change, or -1 if it was added.
+         *
+         * @return the old index
+         */
+        public int getOldIndex() {
+            return oldIndex;
+        }
+
+        /**
+         * Gets the index of the item after the change, or -1 if it was removed.
+         *
+         * @return the new index
+         */
+        public int getNewIndex() {
+            return newIndex;
+        }
+    }
+
+    private final List<T> items;
+    private final List<Change<T>> changes;
+    private final boolean fullReload;
+
+    public QueryChangeSet(List<T> items, List<Change<T>> changes, boolean fullReload) {
+        this.items = items;
+        this.changes = changes;
+        this.fullReload = fullReload;
+    }
+
+    /**
+     * Merges two consecutive results into one that takes the list from its state before the
+     * earlier result to its state after the later one. The changes are concatenated, so applying
+     * them in order still gives the right indexes; if either result is a full reload, so is the
+     * merged one.
+     *
+     * @param earlier The earlier result.
+     * @param later The result that followed it.
+     * @param <T> The type of documents in the query.
+     * @return The merged result.
+     */
+    public static <T> QueryChangeSet<T> merge(QueryChangeSet<T> earlier, QueryChangeSet<T> later) {
+        if (later.fullReload) {
+            return later;
+        }
+        List<Change<T>> changes = new ArrayList<>(earlier.changes.size() + later.changes.size());
+        changes.addAll(earlier.changes);
+        changes.addAll(later.changes);
+        return new QueryChangeSet<>(later.items, changes, earlier.fullReload);
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public List<Change<T>> getChanges() {
+        return changes;
+    }
+
+    /**
+     * Checks whether this is the first result of a listener (or a reset after an error), in
+     * which case consumers should replace their whole list instead of applying the changes.
+     *
+     * @return true if the list should be reloaded in full
+     */
+    public boolean isFullReload() {
+        return fullReload;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.eventapp.repositories.DTOs;
+
+/**
+ * Number of signups of an event, in total and per status.
+ */
+public class SignupCounts {
+    private final long total;
+    private final long cancelled;
+    private final long waitlisted;
+    private final long chosen;
+    private final long enrolled;
+
+    public SignupCounts(long total, long cancelled, long waitlisted, long chosen, long enrolled) {
+        this.total = total;
+        this.cancelled = cancelled;
+        this.waitlisted = waitlisted;
+        this.chosen = chosen;
+        this.enrolled = enrolled;
+    }
+
+    /**
+     * Gets the number of signups regardless of status, including cancelled ones.
+     *
+     * @return the total number of signups
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    public long getWaitlisted() {
+        return waitlisted;
+    }
+
+    public long getChosen() {
+        return chosen;
+    }
+
+    public long getEnrolled() {
+        return enrolled;
+    }
+}
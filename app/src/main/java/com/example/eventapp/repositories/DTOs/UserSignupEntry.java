@@ -20,6 +20,10 @@ public class UserSignupEntry {
         return attendanceStatus;
     }
 
+    public void setAttendanceStatus(String attendanceStatus) {
+        this.attendanceStatus = attendanceStatus;
+    }
+
     public boolean isSelected() {
         return isSelected;
     }
@@ -0,0 +1,127 @@
+package com.example.eventapp.repositories;
+
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Merges values offered in quick succession into one emission, following a
+ * {@link CoalescingWindow}: a value offered after a quiet period is emitted immediately, later
+ * values are merged and emitted once no value has been offered for the window, or once the
+ * oldest held value reaches the maximum latency.
+ *
+ * Not thread-safe; values must be offered on the thread the scheduler runs tasks on.
+ *
+ * @param <T> The type of values emitted.
+ */
+class EmissionCoalescer<T> {
+
+    /**
+     * Runs delayed tasks, e.g. on the main thread's Handler.
+     */
+    interface Scheduler {
+        void schedule(Runnable task, long delayMs);
+
+        void cancel(Runnable task);
+    }
+
+    private final CoalescingWindow window;
+    private final Scheduler scheduler;
+    private final LongSupplier clock;
+    private final BinaryOperator<T> merge;
+    private final Consumer<T> emit;
+    private final Runnable flushTask = this::flush;
+
+    private T pending;
+    private long firstPendingAt;
+    private long lastEmittedAt;
+    private boolean emitted = false;
+    private long mergedCount = 0;
+
+    /**
+     * Creates a coalescer.
+     *
+     * @param window How long values are held back.
+     * @param scheduler Runs the delayed flush.
+     * @param clock Monotonic time in milliseconds.
+     * @param merge Combines a held value with a newer one; the result must describe both.
+     * @param emit Receives the coalesced values.
+     */
+    EmissionCoalescer(CoalescingWindow window, Scheduler scheduler, LongSupplier clock,
+                      BinaryOperator<T> merge, Consumer<T> emit) {
+        this.window = window;
+        this.scheduler = scheduler;
+        this.clock = clock;
+        this.merge = merge;
+        this.emit = emit;
+    }
+
+    /**
+     * Offers a value, emitting it now or holding it to be merged with the values that follow.
+     *
+     * @param value The value to emit.
+     */
+    void offer(T value) {
+        long now = clock.getAsLong();
+        if (pending == null) {
+            if (window.isNone() || !emitted || now - lastEmittedAt >= window.getWindowMs()) {
+                emitNow(value, now);
+                return;
+            }
+            pending = value;
+            firstPendingAt = now;
+        } else {
+            pending = merge.apply(pending, value);
+            mergedCount++;
+        }
+
+        long deadline = Math.min(now + window.getWindowMs(), firstPendingAt + window.getMaxLatencyMs());
+        scheduler.cancel(flushTask);
+        scheduler.schedule(flushTask, Math.max(0, deadline - now));
+    }
+
+    /**
+     * Emits the held value, if any.
+     */
+    void flush() {
+        scheduler.cancel(flushTask);
+        if (pending == null) {
+            return;
+        }
+        T value = pending;
+        pending = null;
+        emitNow(value, clock.getAsLong());
+    }
+
+    /**
+     * Drops the held value without emitting it, e.g. when the source it came from is discarded.
+     */
+    void cancel() {
+        scheduler.cancel(flushTask);
+        pending = null;
+    }
+
+    /**
+     * Checks whether a value is being held back.
+     *
+     * @return true if a flush is pending
+     */
+    boolean hasPending() {
+        return pending != null;
+    }
+
+    /**
+     * Gets the number of values merged into an earlier one instead of being emitted separately.
+     *
+     * @return The number of merged values.
+     */
+    long getMergedCount() {
+        return mergedCount;
+    }
+
+    private void emitNow(T value, long now) {
+        emitted = true;
+        lastEmittedAt = now;
+        emit.accept(value);
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.eventapp.repositories;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.eventapp.interfaces.DocumentCodec;
+import com.example.eventapp.models.Event;
+import com.example.eventapp.models.Facility;
+import com.example.eventapp.models.User;
+import com.example.eventapp.repositories.DTOs.QueryChangeSet;
+import com.example.eventapp.repositories.codecs.Codecs;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-bounded, least-recently-used cache of documents from one collection, used by point
+ * lookups such as `getEventById` to avoid going to the network for documents that were read
+ * recently. Entries expire after a time-to-live.
+ *
+ * The cache is fed by the repositories' own reads and by every active snapshot listener that
+ * sees a document ({@link ListenerRegistry}), and entries are invalidated when a listener sees a
+ * document leave its results or the app writes to it. Documents are stored as encoded data, so
+ * each hit returns a fresh model that callers are free to modify.
+ *
+ * @param <T> The type of documents in the collection.
+ */
+public class EntityCache<T> {
+
+    private static final String TAG = "EntityCache";
+    public static final long DEFAULT_TTL_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final Map<Class<?>, EntityCache<?>> CACHES = new HashMap<>();
+
+    static {
+        CACHES.put(Event.class, new EntityCache<>("events", Event.class, 256, DEFAULT_TTL_MS));
+        CACHES.put(Facility.class, new EntityCache<>("facilities", Facility.class, 128, DEFAULT_TTL_MS));
+        CACHES.put(User.class, new EntityCache<>("users", User.class, 512, DEFAULT_TTL_MS));
+    }
+
+    private final String name;
+    private final DocumentCodec<T> codec;
+    private final long ttlMs;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Creates a cache that uses the system's elapsed realtime clock.
+     *
+     * @param name The name of the collection, used for logging.
+     * @param clazz The class type of the cached documents; must have a {@link DocumentCodec}.
+     * @param maxSize The maximum number of documents to keep.
+     * @param ttlMs How long a document stays valid after it was cached, in milliseconds.
+     */
+    EntityCache(String name, Class<T> clazz, int maxSize, long ttlMs) {
+        this(name, clazz, maxSize, ttlMs, SystemClock::elapsedRealtime);
+    }
+
+    /**
+     * Creates a cache with a given clock.
+     *
+     * @param name The name of the collection, used for logging.
+     * @param clazz The class type of the cached documents; must have a {@link DocumentCodec}.
+     * @param maxSize The maximum number of documents to keep.
+     * @param ttlMs How long a document stays valid after it was cached, in milliseconds.
+     * @param clock Supplies the current time in milliseconds.
+     * @throws IllegalArgumentException if maxSize is < 1, ttlMs is < 0, or the class has no codec.
+     */
+    EntityCache(String name, Class<T> clazz, int maxSize, long ttlMs, LongSupplier clock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize cannot be < 1");
+        }
+        if (ttlMs < 0) {
+            throw new IllegalArgumentException("ttlMs cannot be < 0");
+        }
+        this.codec = Codecs.getCodec(clazz);
+        if (codec == null) {
+            throw new IllegalArgumentException("no codec for " + clazz.getSimpleName());
+        }
+        this.name = name;
+        this.ttlMs = ttlMs;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Gets the cache for a model class.
+     *
+     * @param clazz The model class.
+     * @param <T> The model type.
+     * @return The cache, or null if documents of this class are not cached.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> EntityCache<T> forClass(Class<T> clazz) {
+        return (EntityCache<T>) CACHES.get(clazz);
+    }
+
+    /**
+     * Gets a cached document if it has not expired.
+     *
+     * @param documentId The ID of the document.
+     * @return A fresh copy of the cached document, or null on a miss.
+     */
+    public T get(String documentId) {
+        Map<String, Object> data;
+        synchronized (entries) {
+            Entry entry = entries.get(documentId);
+            if (entry != null && clock.getAsLong() - entry.cachedAt > ttlMs) {
+                entries.remove(documentId);
+                entry = null;
+            }
+            data = entry != null ? entry.data : null;
+        }
+        if (data == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return codec.decode(documentId, data);
+    }
+
+    /**
+     * Caches a document, replacing any previous entry.
+     *
+     * @param documentId The ID of the document.
+     * @param item The document, or null to invalidate the entry.
+     */
+    public void put(String documentId, T item) {
+        if (documentId == null) {
+            return;
+        }
+        if (item == null) {
+            invalidate(documentId);
+            return;
+        }
+        Entry entry = new Entry(codec.encode(item), clock.getAsLong());
+        synchronized (entries) {
+            entries.put(documentId, entry);
+        }
+    }
+
+    /**
+     * Removes a document from the cache.
+     *
+     * @param documentId The ID of the document.
+     */
+    public void invalidate(String documentId) {
+        synchronized (entries) {
+            entries.remove(documentId);
+        }
+    }
+
+    /**
+     * Removes every document from the cache. Counters are kept.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Updates the cache from a live query result: added and modified documents are cached, and
+     * documents that left the results are invalidated.
+     *
+     * @param ids The document IDs of the result, in the same order as its items.
+     * @param changeSet The result of the snapshot.
+     */
+    void update(List<String> ids, QueryChangeSet<T> changeSet) {
+        if (changeSet.isFullReload()) {
+            List<T> items = changeSet.getItems();
+            for (int i = 0; i < items.size() && i < ids.size(); i++) {
+                put(ids.get(i), items.get(i));
+            }
+            return;
+        }
+        for (QueryChangeSet.Change<T> change : changeSet.getChanges()) {
+            if (change.getType() == QueryChangeSet.Type.REMOVED) {
+                invalidate(change.getDocumentId());
+            } else {
+                put(change.getDocumentId(), change.getItem());
+            }
+        }
+    }
+
+    /**
+     * Gets the number of documents currently cached, including expired ones not yet evicted.
+     *
+     * @return The number of cached documents.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Gets the number of lookups that were answered from the cache.
+     *
+     * @return The number of hits.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Gets the number of lookups that had to go to Firestore.
+     *
+     * @return The number of misses.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Logs the hit and miss counters of the cache.
+     */
+    public void logStats() {
+        Log.d(TAG, name + ": " + size() + " cached, " + hitCount.get() + " hits, " + missCount.get() + " misses");
+    }
+
+    /**
+     * A cached document and the time it was cached.
+     */
+    private static final class Entry {
+        final Map<String, Object> data;
+        final long cachedAt;
+
+        Entry(Map<String, Object> data, long cachedAt) {
+            this.data = data;
+            this.cachedAt = cachedAt;
+        }
+    }
+}
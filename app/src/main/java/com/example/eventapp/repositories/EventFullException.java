@@ -0,0 +1,17 @@
+package com.example.eventapp.repositories;
+
+/**
+ * Thrown (as the cause of a failed future) when a signup is rejected because the event's
+ * waitlist has reached its maximum number of entrants.
+ */
+public class EventFullException extends IllegalStateException {
+
+    /**
+     * Creates the exception for an event.
+     *
+     * @param eventId The ID of the full event.
+     */
+    public EventFullException(String eventId) {
+        super("Event " + eventId + " is full");
+    }
+}
@@ -5,22 +5,26 @@ import android.util.Log;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
-import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.Transformations;
 
 import com.example.eventapp.models.Event;
+import com.example.eventapp.models.EventStats;
+import com.example.eventapp.models.EventSummary;
 import com.example.eventapp.models.Signup;
+import com.example.eventapp.repositories.codecs.Codecs;
 import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.Source;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * The `EventRepository` class is a singleton repository that provides access to Firestore operations
@@ -33,13 +37,23 @@ public class EventRepository {
     private static final String TAG = "EventRepository";
     private static EventRepository instance;
     private final CollectionReference eventCollection;
+    private final CollectionReference eventStatsCollection;
+    private final CollectionReference eventSummaryCollection;
+    private final DocumentReference summaryBackfillDocument;
     private final SignupRepository signupRepository;
+    private final EntityCache<Event> eventCache = EntityCache.forClass(Event.class);
+    private volatile boolean summariesBackfilled;
+    private final SingleFlight<String, Event> eventByIdFlight = new SingleFlight<>(
+            "getEventById", event -> Codecs.copy(Event.class, event.getDocumentId(), event));
 
     /**
      * Initializes a new instance of EventRepository with the default Firebase instance.
      */
     private EventRepository() {
         eventCollection = FirebaseFirestore.getInstance().collection("events");
+        eventStatsCollection = FirebaseFirestore.getInstance().collection("eventStats");
+        eventSummaryCollection = FirebaseFirestore.getInstance().collection("eventSummaries");
+        summaryBackfillDocument = FirebaseFirestore.getInstance().collection("migrations").document("eventSummaries");
         signupRepository = SignupRepository.getInstance();
     }
 
@@ -50,6 +64,9 @@ public class EventRepository {
      */
     private EventRepository(FirebaseFirestore testInstance) {
         eventCollection = testInstance.collection("events");
+        eventStatsCollection = testInstance.collection("eventStats");
+        eventSummaryCollection = testInstance.collection("eventSummaries");
+        summaryBackfillDocument = testInstance.collection("migrations").document("eventSummaries");
         signupRepository = SignupRepository.getTestInstance(testInstance);
     }
 
@@ -106,7 +123,7 @@ public class EventRepository {
             return future;
         }
 
-        eventCollection.add(event)
+        eventCollection.add(Codecs.encode(event))
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful()) {
                         String documentId = task.getResult().getId();
@@ -138,8 +155,10 @@ public class EventRepository {
             return future;
         }
 
-        eventCollection.document(documentId).set(event)
+        eventCache.invalidate(documentId);
+        eventCollection.document(documentId).set(Codecs.encode(event))
                 .addOnCompleteListener(task -> {
+                    eventCache.invalidate(documentId);
                     if (task.isSuccessful()) {
                         Log.d(TAG, "updateEvent: success - ID: " + documentId);
                         future.complete(null);
@@ -168,8 +187,10 @@ public class EventRepository {
             return future;
         }
 
+        eventCache.invalidate(documentId);
         eventCollection.document(documentId).delete()
                 .addOnCompleteListener(task -> {
+                    eventCache.invalidate(documentId);
                     if (task.isSuccessful()) {
                         Log.d(TAG, "removeEvent: success - ID: " + documentId);
                         future.complete(null);
@@ -189,19 +210,41 @@ public class EventRepository {
      */
     public CompletableFuture<Event> getEventByQrCodeHash(String qrCodeHash) {
         Objects.requireNonNull(qrCodeHash);
+        return fetchEventByQrCodeHash(qrCodeHash, Source.DEFAULT);
+    }
+
+    /**
+     * Retrieves an event by the hash of its QR code under a read policy.
+     *
+     * @param qrCodeHash The hash of the QR code to search for.
+     * @param policy Where to read the event from.
+     * @param onRefresh Receives the server copy of an event answered from the cache under
+     *                  {@link ReadPolicy#CACHE_THEN_SERVER}; may be null.
+     * @return A CompletableFuture containing the event matching the QR code hash, or null if not found.
+     */
+    public CompletableFuture<Event> getEventByQrCodeHash(String qrCodeHash, ReadPolicy policy, Consumer<Event> onRefresh) {
+        Objects.requireNonNull(qrCodeHash);
+        return PolicyReader.read(policy, source -> fetchEventByQrCodeHash(qrCodeHash, source), onRefresh);
+    }
+
+    /**
+     * Queries an event by the hash of its QR code from the given source.
+     *
+     * @param qrCodeHash The hash of the QR code to search for.
+     * @param source Where to read the event from.
+     * @return A CompletableFuture containing the event matching the QR code hash, or null if not found.
+     */
+    private CompletableFuture<Event> fetchEventByQrCodeHash(String qrCodeHash, Source source) {
         CompletableFuture<Event> future = new CompletableFuture<>();
 
         eventCollection
                 .whereEqualTo("qrCodeHash", qrCodeHash)
                 .limit(1)
-                .get()
+                .get(source)
                 .addOnSuccessListener(querySnapshot -> {
                     if (querySnapshot != null && !querySnapshot.isEmpty()) {
                         DocumentSnapshot document = querySnapshot.getDocuments().get(0);
-                        Event event = document.toObject(Event.class);
-                        if (event != null) {
-                            event.setDocumentId(document.getId());
-                        }
+                        Event event = Common.parseDocument(document, Event.class);
                         future.complete(event);
                     } else {
                         Log.w(TAG, "getEventByQrCodeHash: no event found");
@@ -216,7 +259,8 @@ public class EventRepository {
     }
 
     /**
-     * Retrieves an event by its ID.
+     * Retrieves an event by its ID, answering from the {@link EntityCache} when the event was
+     * read recently. Concurrent lookups of the same ID share one request.
      *
      * @param eventId The ID of the event to retrieve.
      * @return A CompletableFuture containing the event matching the ID, or null if not found.
@@ -225,15 +269,49 @@ public class EventRepository {
         Objects.requireNonNull(eventId, "Event ID cannot be null");
         CompletableFuture<Event> future = new CompletableFuture<>();
 
+        Event cached = eventCache.get(eventId);
+        if (cached != null) {
+            Log.d(TAG, "getEventById: cache hit for ID: " + eventId);
+            future.complete(cached);
+            return future;
+        }
+        return eventByIdFlight.run(eventId, () -> fetchEventById(eventId, Source.DEFAULT));
+    }
+
+    /**
+     * Retrieves an event by its ID under a read policy. The {@link EntityCache} is bypassed, but
+     * events read from the server are still put into it.
+     *
+     * @param eventId The ID of the event to retrieve.
+     * @param policy Where to read the event from.
+     * @param onRefresh Receives the server copy of an event answered from the cache under
+     *                  {@link ReadPolicy#CACHE_THEN_SERVER}; may be null.
+     * @return A CompletableFuture containing the event matching the ID, or null if not found.
+     */
+    public CompletableFuture<Event> getEventById(String eventId, ReadPolicy policy, Consumer<Event> onRefresh) {
+        Objects.requireNonNull(eventId, "Event ID cannot be null");
+        return PolicyReader.read(policy, source -> fetchEventById(eventId, source), onRefresh);
+    }
+
+    /**
+     * Reads an event from Firestore and caches it, unless it was read from the local cache.
+     *
+     * @param eventId The ID of the event to retrieve.
+     * @param source Where to read the event from.
+     * @return A CompletableFuture containing the event matching the ID, or null if not found.
+     */
+    private CompletableFuture<Event> fetchEventById(String eventId, Source source) {
+        CompletableFuture<Event> future = new CompletableFuture<>();
+
         // Reference to the specific event document
         eventCollection.document(eventId)
-                .get()
+                .get(source)
                 .addOnSuccessListener(documentSnapshot -> {
                     if (documentSnapshot.exists()) {
                         // Convert the document to an Event object
-                        Event event = documentSnapshot.toObject(Event.class);
-                        if (event != null) {
-                            event.setDocumentId(documentSnapshot.getId()); // Store document ID if needed
+                        Event event = Common.parseDocument(documentSnapshot, Event.class);
+                        if (source != Source.CACHE) {
+                            eventCache.put(eventId, event);
                         }
                         future.complete(event); // Complete the future with the event
                     } else {
@@ -260,16 +338,13 @@ public class EventRepository {
         CompletableFuture<Event> future = new CompletableFuture<>();
 
         eventCollection
-                .whereEqualTo("posterUri", imageUri)
+                .whereEqualTo("posterUriString", imageUri.toString())
                 .limit(1)
                 .get()
                 .addOnSuccessListener(querySnapshot -> {
                     if (querySnapshot != null && !querySnapshot.isEmpty()) {
                         DocumentSnapshot document = querySnapshot.getDocuments().get(0);
-                        Event event = document.toObject(Event.class);
-                        if (event != null) {
-                            event.setDocumentId(document.getId());
-                        }
+                        Event event = Common.parseDocument(document, Event.class);
                         future.complete(event);
                     } else {
                         Log.w(TAG, "getEventByUri: no event found with Image Uri: " + imageUri);
@@ -284,28 +359,27 @@ public class EventRepository {
     }
 
     /**
-     * Retrieves a LiveData list of events that a user has signed up for.
+     * Retrieves a LiveData list of events that a user has signed up for. Event IDs are fetched in
+     * chunks, and only chunks affected by a signup change are re-queried.
      *
      * @param userId The ID of the user.
      * @return LiveData containing a list of events the user is signed up for.
      */
     public LiveData<List<Event>> getSignedUpEventsOfUserLiveData(String userId) {
         LiveData<List<Signup>> signupsLiveData = signupRepository.getSignupsOfUserLiveData(userId);
+        ChunkedMultiGetLiveData<Event> eventsLiveData = new ChunkedMultiGetLiveData<>(
+                "getSignedUpEventsOfUserLiveData", eventCollection, Event.class, Event::getDocumentId, TAG);
 
-        return Transformations.switchMap(signupsLiveData, signups -> {
-            if (signups == null || signups.isEmpty()) {
-                MutableLiveData<List<Event>> emptyLiveData = new MutableLiveData<>();
-                emptyLiveData.setValue(new ArrayList<>());
-                return emptyLiveData;
-            }
-
+        eventsLiveData.addSource(signupsLiveData, signups -> {
             List<String> eventIds = new ArrayList<>();
-            for (Signup signup : signups) {
-                eventIds.add(signup.getEventId());
+            if (signups != null) {
+                for (Signup signup : signups) {
+                    eventIds.add(signup.getEventId());
+                }
             }
-            Query query = eventCollection.whereIn(FieldPath.documentId(), eventIds);
-            return Common.runQueryLiveData("getSignedUpEventsOfUserLiveData", query, Event.class, TAG);
+            eventsLiveData.setIds(eventIds);
         });
+        return eventsLiveData;
     }
 
     /**
@@ -320,6 +394,104 @@ public class EventRepository {
         return Common.runQueryLiveData("getEventsOfOrganizerLiveData", query, Event.class, TAG);
     }
 
+    /**
+     * Retrieves a LiveData list of the summaries of events that a user has signed up for. Like
+     * {@link #getSignedUpEventsOfUserLiveData(String)}, but reads the compact `eventSummaries`
+     * projection, which is all an event card needs, once it has been backfilled.
+     *
+     * @param userId The ID of the user.
+     * @return LiveData containing the summaries of the events the user is signed up for.
+     */
+    public LiveData<List<EventSummary>> getSignedUpEventSummariesOfUserLiveData(String userId) {
+        return summariesOnceBackfilled("getSignedUpEventSummariesOfUserLiveData",
+                () -> querySignedUpEventSummariesOfUser(userId),
+                () -> getSignedUpEventsOfUserLiveData(userId));
+    }
+
+    /**
+     * Reads the summaries of events that a user has signed up for from `eventSummaries`, fetched in
+     * chunks like {@link #getSignedUpEventsOfUserLiveData(String)}.
+     *
+     * @param userId The ID of the user.
+     * @return LiveData containing the summaries of the events the user is signed up for.
+     */
+    private LiveData<List<EventSummary>> querySignedUpEventSummariesOfUser(String userId) {
+        LiveData<List<Signup>> signupsLiveData = signupRepository.getSignupsOfUserLiveData(userId);
+        ChunkedMultiGetLiveData<EventSummary> summariesLiveData = new ChunkedMultiGetLiveData<>(
+                "getSignedUpEventSummariesOfUserLiveData", eventSummaryCollection, EventSummary.class,
+                EventSummary::getDocumentId, TAG);
+
+        summariesLiveData.addSource(signupsLiveData, signups -> {
+            List<String> eventIds = new ArrayList<>();
+            if (signups != null) {
+                for (Signup signup : signups) {
+                    eventIds.add(signup.getEventId());
+                }
+            }
+            summariesLiveData.setIds(eventIds);
+        });
+        return summariesLiveData;
+    }
+
+    /**
+     * Retrieves a LiveData list of the summaries of events organized by a specific user, read from
+     * the `eventSummaries` projection once it has been backfilled.
+     *
+     * @param organizerId The ID of the organizer.
+     * @return LiveData containing the summaries of the events organized by the specified user.
+     */
+    public LiveData<List<EventSummary>> getEventSummariesOfOrganizerLiveData(String organizerId) {
+        Query query = eventSummaryCollection.whereEqualTo("organizerId", organizerId);
+
+        return summariesOnceBackfilled("getEventSummariesOfOrganizerLiveData",
+                () -> Common.runQueryLiveData(
+                        "getEventSummariesOfOrganizerLiveData", query, EventSummary.class, TAG),
+                () -> getEventsOfOrganizerLiveData(organizerId));
+    }
+
+    /**
+     * Serves a list from `eventSummaries` once the backfill of summaries for events created before
+     * they were maintained is done, as recorded in `migrations/eventSummaries`. Until then, or if
+     * that cannot be read, the full events are read and summarized instead, so no event is missing
+     * from the list. Once the backfill is seen done it is not checked again.
+     *
+     * @param methodName The name of the calling method, for logs.
+     * @param summaries Creates the LiveData reading summaries.
+     * @param events Creates the LiveData reading the full events instead.
+     * @return LiveData containing the summaries.
+     */
+    private LiveData<List<EventSummary>> summariesOnceBackfilled(
+            String methodName,
+            Supplier<LiveData<List<EventSummary>>> summaries,
+            Supplier<LiveData<List<Event>>> events
+    ) {
+        if (summariesBackfilled) {
+            return summaries.get();
+        }
+
+        MediatorLiveData<List<EventSummary>> summariesLiveData = new MediatorLiveData<>();
+        summaryBackfillDocument.get().addOnCompleteListener(task -> {
+            if (task.isSuccessful() && Boolean.TRUE.equals(task.getResult().getBoolean("done"))) {
+                summariesBackfilled = true;
+                summariesLiveData.addSource(summaries.get(), summariesLiveData::setValue);
+                return;
+            }
+            Log.d(TAG, methodName + ": event summaries are not backfilled yet, reading events");
+            summariesLiveData.addSource(events.get(), eventList -> {
+                if (eventList == null) {
+                    summariesLiveData.setValue(null);
+                    return;
+                }
+                List<EventSummary> summaryList = new ArrayList<>();
+                for (Event event : eventList) {
+                    summaryList.add(EventSummary.of(event));
+                }
+                summariesLiveData.setValue(summaryList);
+            });
+        });
+        return summariesLiveData;
+    }
+
     /**
      * Retrieves a LiveData list of events organized by a specific user for a specific facility.
      *
@@ -355,4 +527,63 @@ public class EventRepository {
     public LiveData<List<Event>> getAllExistingEventsLiveData() {
         return Common.runQueryLiveData("getAllEventsLiveData", eventCollection, Event.class, TAG);
     }
+
+    /**
+     * Retrieves the signup counters of an event by summing its counter shards, which costs one
+     * read per shard regardless of how many signups the event has.
+     *
+     * @param eventId The ID of the event.
+     * @return A CompletableFuture containing the counters; all zero with a shard count of 0 if the
+     *         event has no counters yet.
+     */
+    public CompletableFuture<EventStats> getEventStats(String eventId) {
+        Objects.requireNonNull(eventId, "Event ID cannot be null");
+        CompletableFuture<EventStats> future = new CompletableFuture<>();
+
+        eventStatsCollection.document(eventId).collection("shards").get()
+                .addOnSuccessListener(querySnapshot -> {
+                    EventStats stats = EventStats.sum(eventId, Common.parseDocuments(querySnapshot, EventStats.class));
+                    Log.d(TAG, "getEventStats: summed " + stats.getShardCount() + " shards for event ID: " + eventId);
+                    future.complete(stats);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "getEventStats: failed to retrieve counters", e);
+                    future.completeExceptionally(e);
+                });
+        return future;
+    }
+
+    /**
+     * Retrieves the signup counters of an event as LiveData, kept up to date by a listener on its
+     * counter shards. Events created before counters existed have no shards until their signups
+     * are counted by the server (on their next signup change, or by the scheduled backfill); for
+     * those the counts are read once with aggregation queries instead.
+     *
+     * @param eventId The ID of the event.
+     * @return LiveData containing the counters of the event.
+     */
+    public LiveData<EventStats> getEventStatsLiveData(String eventId) {
+        Objects.requireNonNull(eventId, "Event ID cannot be null");
+        Query shardsQuery = eventStatsCollection.document(eventId).collection("shards");
+        LiveData<List<EventStats>> shardsLiveData =
+                Common.runQueryLiveData("getEventStatsLiveData", shardsQuery, EventStats.class, TAG);
+
+        MediatorLiveData<EventStats> statsLiveData = new MediatorLiveData<>();
+        statsLiveData.addSource(shardsLiveData, shards -> {
+            if (shards != null && !shards.isEmpty()) {
+                statsLiveData.setValue(EventStats.sum(eventId, shards));
+                return;
+            }
+            Log.d(TAG, "getEventStatsLiveData: no counters for event ID: " + eventId + ", counting signups");
+            signupRepository.getSignupCounts(eventId).thenAccept(counts -> {
+                EventStats current = statsLiveData.getValue();
+                if (current == null || current.getShardCount() == 0) {
+                    statsLiveData.postValue(new EventStats(
+                            eventId, counts.getTotal(), counts.getCancelled(), counts.getWaitlisted(),
+                            counts.getChosen(), counts.getEnrolled()));
+                }
+            });
+        });
+        return statsLiveData;
+    }
 }
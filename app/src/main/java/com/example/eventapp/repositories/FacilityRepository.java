@@ -6,14 +6,17 @@ import android.util.Log;
 import androidx.lifecycle.LiveData;
 
 import com.example.eventapp.models.Facility;
+import com.example.eventapp.repositories.codecs.Codecs;
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.Source;
 
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * The `FacilityRepository` class is a singleton repository responsible for managing Firestore
@@ -26,6 +29,7 @@ public class FacilityRepository {
     private static final String TAG = "FacilityRepository";
     private static FacilityRepository instance;
     private final CollectionReference facilityCollection;
+    private final EntityCache<Facility> facilityCache = EntityCache.forClass(Facility.class);
 
     /**
      * Initializes a new instance of FacilityRepository with the default Firebase instance.
@@ -86,7 +90,7 @@ public class FacilityRepository {
             return future;
         }
 
-        facilityCollection.add(facility)
+        facilityCollection.add(Codecs.encode(facility))
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful()) {
                         String documentId = task.getResult().getId();
@@ -119,8 +123,10 @@ public class FacilityRepository {
             return future;
         }
 
-        facilityCollection.document(documentId).set(facility)
+        facilityCache.invalidate(documentId);
+        facilityCollection.document(documentId).set(Codecs.encode(facility))
                 .addOnCompleteListener(task -> {
+                    facilityCache.invalidate(documentId);
                     if (task.isSuccessful()) {
                         Log.d(TAG, "updateFacility: success - ID: " + documentId);
                         future.complete(null);
@@ -149,8 +155,10 @@ public class FacilityRepository {
             return future;
         }
 
+        facilityCache.invalidate(documentId);
         facilityCollection.document(documentId).delete()
                 .addOnCompleteListener(task -> {
+                    facilityCache.invalidate(documentId);
                     if (task.isSuccessful()) {
                         Log.d(TAG, "removeFacility: success - ID: " + documentId);
                         future.complete(null);
@@ -163,7 +171,8 @@ public class FacilityRepository {
     }
 
     /**
-     * Retrieves a facility by its document ID
+     * Retrieves a facility by its document ID, answering from the {@link EntityCache} when the
+     * facility was read recently.
      *
      * @param facilityId The document ID of the facility
      * @return A CompletableFuture containing the facility matching the id, or null if not found
@@ -172,15 +181,49 @@ public class FacilityRepository {
         Objects.requireNonNull(facilityId, "Facility ID cannot be null");
         CompletableFuture<Facility> future = new CompletableFuture<>();
 
+        Facility cached = facilityCache.get(facilityId);
+        if (cached != null) {
+            Log.d(TAG, "getFacilityById: cache hit for ID: " + facilityId);
+            future.complete(cached);
+            return future;
+        }
+        return fetchFacilityById(facilityId, Source.DEFAULT);
+    }
+
+    /**
+     * Retrieves a facility by its document ID under a read policy. The {@link EntityCache} is
+     * bypassed, but facilities read from the server are still put into it.
+     *
+     * @param facilityId The document ID of the facility
+     * @param policy Where to read the facility from
+     * @param onRefresh Receives the server copy of a facility answered from the cache under
+     *                  {@link ReadPolicy#CACHE_THEN_SERVER}; may be null
+     * @return A CompletableFuture containing the facility matching the id, or null if not found
+     */
+    public CompletableFuture<Facility> getFacilityById(String facilityId, ReadPolicy policy, Consumer<Facility> onRefresh) {
+        Objects.requireNonNull(facilityId, "Facility ID cannot be null");
+        return PolicyReader.read(policy, source -> fetchFacilityById(facilityId, source), onRefresh);
+    }
+
+    /**
+     * Reads a facility from Firestore and caches it, unless it was read from the local cache.
+     *
+     * @param facilityId The document ID of the facility
+     * @param source Where to read the facility from
+     * @return A CompletableFuture containing the facility matching the id, or null if not found
+     */
+    private CompletableFuture<Facility> fetchFacilityById(String facilityId, Source source) {
+        CompletableFuture<Facility> future = new CompletableFuture<>();
+
         // Reference to the specific event document
         facilityCollection.document(facilityId)
-                .get()
+                .get(source)
                 .addOnSuccessListener(documentSnapshot -> {
                     if (documentSnapshot.exists()) {
                         // Convert the document to an Event object
-                        Facility facility = documentSnapshot.toObject(Facility.class);
-                        if (facility != null) {
-                            facility.setDocumentId(documentSnapshot.getId()); // Store document ID if needed
+                        Facility facility = Common.parseDocument(documentSnapshot, Facility.class);
+                        if (source != Source.CACHE) {
+                            facilityCache.put(facilityId, facility);
                         }
                         future.complete(facility); // Complete the future with the event
                     } else {
@@ -207,16 +250,13 @@ public class FacilityRepository {
         CompletableFuture<Facility> future = new CompletableFuture<>();
 
         facilityCollection
-                .whereEqualTo("photoUri", imageUri)
+                .whereEqualTo("photoUriString", imageUri.toString())
                 .limit(1)
                 .get()
                 .addOnSuccessListener(querySnapshot -> {
                     if (querySnapshot != null && !querySnapshot.isEmpty()) {
                         DocumentSnapshot document = querySnapshot.getDocuments().get(0);
-                        Facility facility = document.toObject(Facility.class);
-                        if (facility != null) {
-                            facility.setDocumentId(document.getId());
-                        }
+                        Facility facility = Common.parseDocument(document, Facility.class);
                         future.complete(facility);
                     } else {
                         Log.w(TAG, "getFacilityByUri: no facility found with Image Uri: " + imageUri);
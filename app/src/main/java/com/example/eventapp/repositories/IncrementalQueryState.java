@@ -0,0 +1,196 @@
+package com.example.eventapp.repositories;
+
+import android.util.Log;
+
+import com.example.eventapp.repositories.DTOs.QueryChangeSet;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keyed, ordered result set of a live query that is updated from `getDocumentChanges()` instead
+ * of re-deserializing every document on every snapshot. Only added and modified documents are
+ * parsed; unchanged items are carried over as-is.
+ *
+ * @param <T> The type of documents in the query.
+ */
+class IncrementalQueryState<T> {
+
+    private static final String TAG = "IncrementalQueryState";
+
+    private final Class<T> clazz;
+    private final List<T> items = new ArrayList<>();
+    private final List<String> ids = new ArrayList<>();
+    private boolean initialized = false;
+
+    /**
+     * Creates an empty result set.
+     *
+     * @param clazz The class type of the documents in the query.
+     */
+    IncrementalQueryState(Class<T> clazz) {
+        this.clazz = clazz;
+    }
+
+    /**
+     * Applies the document changes of a snapshot to the result set.
+     *
+     * @param querySnapshot The snapshot delivered by the listener.
+     * @return The updated list and the changes that were applied.
+     */
+    QueryChangeSet<T> apply(QuerySnapshot querySnapshot) {
+        boolean fullReload = !initialized;
+        List<QueryChangeSet.Change<T>> changes = new ArrayList<>();
+
+        try {
+            for (DocumentChange documentChange : querySnapshot.getDocumentChanges()) {
+                DocumentSnapshot document = documentChange.getDocument();
+                switch (documentChange.getType()) {
+                    case ADDED:
+                        changes.add(applyChange(QueryChangeSet.Type.ADDED, documentChange.getOldIndex(),
+                                documentChange.getNewIndex(), document.getId(), Common.parseDocument(document, clazz)));
+                        break;
+                    case MODIFIED:
+                        changes.add(applyChange(QueryChangeSet.Type.MODIFIED, documentChange.getOldIndex(),
+                                documentChange.getNewIndex(), document.getId(), Common.parseDocument(document, clazz)));
+                        break;
+                    case REMOVED:
+                        changes.add(applyChange(QueryChangeSet.Type.REMOVED, documentChange.getOldIndex(),
+                                documentChange.getNewIndex(), document.getId(), null));
+                        break;
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            Log.w(TAG, "apply: change indexes out of sync, rebuilding from snapshot", e);
+            rebuild(querySnapshot);
+            changes.clear();
+            fullReload = true;
+        }
+
+        initialized = true;
+        return new QueryChangeSet<>(new ArrayList<>(items), changes, fullReload);
+    }
+
+    /**
+     * Brings the result set up to date with a snapshot when earlier snapshots were skipped, so
+     * their individual changes can no longer be applied in order. The list is rebuilt from the
+     * snapshot, but only documents that were touched by any of the snapshots (or are new) are
+     * deserialized; everything else is reused.
+     *
+     * @param latest The snapshot to bring the result set up to.
+     * @param superseded The skipped snapshots that preceded it, oldest first.
+     * @return The updated list, flagged as a full reload.
+     */
+    QueryChangeSet<T> resync(QuerySnapshot latest, List<QuerySnapshot> superseded) {
+        Set<String> changedIds = new HashSet<>();
+        for (QuerySnapshot snapshot : superseded) {
+            collectChangedIds(snapshot, changedIds);
+        }
+        collectChangedIds(latest, changedIds);
+
+        Map<String, T> previous = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            previous.put(ids.get(i), items.get(i));
+        }
+        items.clear();
+        ids.clear();
+
+        for (DocumentSnapshot document : latest.getDocuments()) {
+            String documentId = document.getId();
+            T item = previous.get(documentId);
+            if (item == null || changedIds.contains(documentId)) {
+                item = Common.parseDocument(document, clazz);
+            }
+            items.add(item);
+            ids.add(documentId);
+        }
+
+        initialized = true;
+        return new QueryChangeSet<>(new ArrayList<>(items), new ArrayList<>(), true);
+    }
+
+    /**
+     * Applies a single change using Firestore's index semantics: removals use the old index,
+     * additions the new index, and modifications move the item if its position changed.
+     *
+     * @param type The kind of change.
+     * @param oldIndex The index before the change, or -1 for additions.
+     * @param newIndex The index after the change, or -1 for removals.
+     * @param documentId The ID of the changed document.
+     * @param item The parsed document, or null for removals.
+     * @return The applied change; for removals it carries the removed item.
+     */
+    QueryChangeSet.Change<T> applyChange(QueryChangeSet.Type type, int oldIndex, int newIndex, String documentId, T item) {
+        switch (type) {
+            case ADDED:
+                items.add(newIndex, item);
+                ids.add(newIndex, documentId);
+                return new QueryChangeSet.Change<>(type, documentId, item, -1, newIndex);
+            case MODIFIED:
+                if (oldIndex == newIndex) {
+                    items.set(newIndex, item);
+                } else {
+                    items.remove(oldIndex);
+                    ids.remove(oldIndex);
+                    items.add(newIndex, item);
+                    ids.add(newIndex, documentId);
+                }
+                return new QueryChangeSet.Change<>(type, documentId, item, oldIndex, newIndex);
+            case REMOVED:
+            default:
+                T removed = items.remove(oldIndex);
+                ids.remove(oldIndex);
+                return new QueryChangeSet.Change<>(QueryChangeSet.Type.REMOVED, documentId, removed, oldIndex, -1);
+        }
+    }
+
+    /**
+     * Gets the document IDs in result order.
+     *
+     * @return The ordered document IDs.
+     */
+    List<String> getIds() {
+        return ids;
+    }
+
+    /**
+     * Clears the result set, e.g. when the listener is detached or fails.
+     */
+    void reset() {
+        items.clear();
+        ids.clear();
+        initialized = false;
+    }
+
+    /**
+     * Adds the IDs of every document changed in a snapshot, without deserializing anything.
+     *
+     * @param querySnapshot The snapshot to inspect.
+     * @param changedIds The set to add the IDs to.
+     */
+    private static void collectChangedIds(QuerySnapshot querySnapshot, Set<String> changedIds) {
+        for (DocumentChange documentChange : querySnapshot.getDocumentChanges()) {
+            changedIds.add(documentChange.getDocument().getId());
+        }
+    }
+
+    /**
+     * Replaces the result set with the full contents of a snapshot.
+     *
+     * @param querySnapshot The snapshot to rebuild from.
+     */
+    private void rebuild(QuerySnapshot querySnapshot) {
+        reset();
+        items.addAll(Common.parseDocuments(querySnapshot, clazz));
+        for (DocumentSnapshot document : querySnapshot.getDocuments()) {
+            ids.add(document.getId());
+        }
+    }
+}
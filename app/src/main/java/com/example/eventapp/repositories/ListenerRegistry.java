@@ -0,0 +1,411 @@
+package com.example.eventapp.repositories;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.eventapp.repositories.DTOs.QueryChangeSet;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The `ListenerRegistry` class is a singleton that shares Firestore snapshot listeners between
+ * every observer of an identical query. Queries are canonicalized by Firestore's own query
+ * equality together with the model class they are parsed into, so repeated calls for the same
+ * query return the same LiveData and are backed by a single `addSnapshotListener`.
+ *
+ * The underlying listener is attached lazily when the first observer becomes active and is
+ * removed once the last observer goes inactive and a short grace period has passed, which lets
+ * configuration changes and quick fragment swaps reuse the listener instead of paying for a
+ * fresh set of document reads. Live counters are exposed so read amplification can be verified.
+ *
+ * Results are delivered through a {@link CoalescingWindow}, so a burst of snapshots (e.g. a
+ * lottery rewriting many signups) reaches observers as a few merged emissions.
+ */
+public class ListenerRegistry {
+
+    private static final String TAG = "ListenerRegistry";
+    static final long DEFAULT_GRACE_PERIOD_MS = 5000;
+
+    private static ListenerRegistry instance;
+
+    private final Map<QueryKey, SharedQueryLiveData<?>> sharedQueries = new HashMap<>();
+    private final Handler handler;
+    private final long gracePeriodMs;
+    private final EmissionCoalescer.Scheduler scheduler;
+    private volatile CoalescingWindow defaultWindow = CoalescingWindow.DEFAULT;
+
+    private final AtomicInteger attachedListenerCount = new AtomicInteger();
+    private final AtomicLong totalAttachCount = new AtomicLong();
+    private final AtomicLong coalescedSnapshotCount = new AtomicLong();
+    private final MutableLiveData<Integer> attachedListenerCountLiveData = new MutableLiveData<>(0);
+
+    /**
+     * Initializes a new instance of ListenerRegistry.
+     *
+     * @param gracePeriodMs How long a listener stays attached after its last observer goes inactive.
+     */
+    private ListenerRegistry(long gracePeriodMs) {
+        this.handler = new Handler(Looper.getMainLooper());
+        this.gracePeriodMs = gracePeriodMs;
+        this.scheduler = new EmissionCoalescer.Scheduler() {
+            @Override
+            public void schedule(Runnable task, long delayMs) {
+                handler.postDelayed(task, delayMs);
+            }
+
+            @Override
+            public void cancel(Runnable task) {
+                handler.removeCallbacks(task);
+            }
+        };
+    }
+
+    /**
+     * Retrieves the singleton instance of ListenerRegistry.
+     *
+     * @return The singleton instance of ListenerRegistry.
+     */
+    public static synchronized ListenerRegistry getInstance() {
+        if (instance == null) {
+            instance = new ListenerRegistry(DEFAULT_GRACE_PERIOD_MS);
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the shared LiveData for a query, creating it if no observer has requested it yet.
+     * Results are coalesced with the {@link #getDefaultCoalescingWindow() default window}.
+     *
+     * @param methodName The name of the method requesting the query, used for logging.
+     * @param query The Firestore query to listen to.
+     * @param clazz The class type of the documents being queried.
+     * @param tag The log tag of the calling repository.
+     * @param <T> The type of documents being queried.
+     * @return LiveData containing the queried documents of type T and their changes, shared across callers.
+     */
+    public <T> LiveData<QueryChangeSet<T>> getQueryLiveData(String methodName, Query query, Class<T> clazz, String tag) {
+        return getQueryLiveData(methodName, query, clazz, defaultWindow, tag);
+    }
+
+    /**
+     * Returns the shared LiveData for a query and coalescing window, creating it if no observer
+     * has requested it yet. Callers asking for the same query with different windows get
+     * separate listeners.
+     *
+     * @param methodName The name of the method requesting the query, used for logging.
+     * @param query The Firestore query to listen to.
+     * @param clazz The class type of the documents being queried.
+     * @param window How results arriving in quick succession are merged.
+     * @param tag The log tag of the calling repository.
+     * @param <T> The type of documents being queried.
+     * @return LiveData containing the queried documents of type T and their changes, shared across callers.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> LiveData<QueryChangeSet<T>> getQueryLiveData(
+            String methodName, Query query, Class<T> clazz, CoalescingWindow window, String tag) {
+        QueryKey key = new QueryKey(query, clazz, window);
+
+        synchronized (sharedQueries) {
+            SharedQueryLiveData<?> existing = sharedQueries.get(key);
+            if (existing != null) {
+                Log.d(tag, "getQueryLiveData: " + methodName + ": reusing shared listener");
+                return (LiveData<QueryChangeSet<T>>) existing;
+            }
+            SharedQueryLiveData<T> created = new SharedQueryLiveData<>(key, methodName, query, clazz, window, tag);
+            sharedQueries.put(key, created);
+            return created;
+        }
+    }
+
+    /**
+     * Gets the coalescing window used by queries that don't ask for one.
+     *
+     * @return The default window.
+     */
+    public CoalescingWindow getDefaultCoalescingWindow() {
+        return defaultWindow;
+    }
+
+    /**
+     * Sets the coalescing window used by queries that don't ask for one. Queries that are already
+     * shared keep the window they were created with.
+     *
+     * @param window The default window.
+     */
+    public void setDefaultCoalescingWindow(CoalescingWindow window) {
+        defaultWindow = Objects.requireNonNull(window);
+    }
+
+    /**
+     * Gets the number of snapshots that were merged into another emission instead of being
+     * delivered on their own.
+     *
+     * @return The cumulative number of coalesced snapshots.
+     */
+    public long getCoalescedSnapshotCount() {
+        return coalescedSnapshotCount.get();
+    }
+
+    /**
+     * Gets the number of Firestore listeners currently attached through the registry.
+     *
+     * @return The number of attached listeners.
+     */
+    public int getAttachedListenerCount() {
+        return attachedListenerCount.get();
+    }
+
+    /**
+     * Gets LiveData that tracks the number of Firestore listeners currently attached.
+     *
+     * @return LiveData containing the number of attached listeners.
+     */
+    public LiveData<Integer> getAttachedListenerCountLiveData() {
+        return attachedListenerCountLiveData;
+    }
+
+    /**
+     * Gets the total number of times a listener has been attached since the app started.
+     *
+     * @return The cumulative number of listener attachments.
+     */
+    public long getTotalAttachCount() {
+        return totalAttachCount.get();
+    }
+
+    /**
+     * Gets the number of distinct queries currently tracked by the registry.
+     *
+     * @return The number of shared queries.
+     */
+    public int getSharedQueryCount() {
+        synchronized (sharedQueries) {
+            return sharedQueries.size();
+        }
+    }
+
+    /**
+     * Re-registers a shared query that was dropped after detaching but is being observed again.
+     *
+     * @param key The canonical key of the query.
+     * @param liveData The shared LiveData for the query.
+     */
+    private void registerIfAbsent(QueryKey key, SharedQueryLiveData<?> liveData) {
+        synchronized (sharedQueries) {
+            if (!sharedQueries.containsKey(key)) {
+                sharedQueries.put(key, liveData);
+            }
+        }
+    }
+
+    /**
+     * Drops a shared query from the registry once its listener has been detached.
+     *
+     * @param key The canonical key of the query.
+     * @param liveData The shared LiveData for the query.
+     */
+    private void unregister(QueryKey key, SharedQueryLiveData<?> liveData) {
+        synchronized (sharedQueries) {
+            if (sharedQueries.get(key) == liveData) {
+                sharedQueries.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Records that a listener was attached or detached and publishes the new count.
+     *
+     * @param delta +1 when a listener is attached, -1 when it is removed.
+     */
+    private void onListenerCountChanged(int delta) {
+        if (delta > 0) {
+            totalAttachCount.incrementAndGet();
+        }
+        attachedListenerCountLiveData.postValue(attachedListenerCount.addAndGet(delta));
+    }
+
+    /**
+     * Canonical identity of a shared query: Firestore's query equality plus the parsed model class
+     * and the coalescing window.
+     */
+    private static final class QueryKey {
+        private final Query query;
+        private final Class<?> clazz;
+        private final CoalescingWindow window;
+
+        QueryKey(Query query, Class<?> clazz, CoalescingWindow window) {
+            this.query = Objects.requireNonNull(query);
+            this.clazz = Objects.requireNonNull(clazz);
+            this.window = Objects.requireNonNull(window);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof QueryKey)) return false;
+            QueryKey other = (QueryKey) o;
+            return query.equals(other.query) && clazz.equals(other.clazz) && window.equals(other.window);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * query.hashCode() + clazz.hashCode()) + window.hashCode();
+        }
+    }
+
+    /**
+     * LiveData backed by one Firestore snapshot listener that is attached while it has active
+     * observers and removed a grace period after the last one goes inactive.
+     *
+     * @param <T> The type of documents being queried.
+     */
+    private final class SharedQueryLiveData<T> extends LiveData<QueryChangeSet<T>> {
+        private final QueryKey key;
+        private final String methodName;
+        private final Query query;
+        private final String tag;
+        private final Class<T> clazz;
+        private final CoalescingWindow window;
+        private final Runnable detachRunnable = this::detach;
+
+        private SnapshotParser.Lane<QuerySnapshot, QueryChangeSet<T>> lane;
+        private EmissionCoalescer<QueryChangeSet<T>> coalescer;
+        private int generation = 0;
+
+        private ListenerRegistration registration;
+
+        SharedQueryLiveData(QueryKey key, String methodName, Query query, Class<T> clazz,
+                            CoalescingWindow window, String tag) {
+            this.key = key;
+            this.methodName = methodName;
+            this.query = query;
+            this.tag = tag;
+            this.clazz = clazz;
+            this.window = window;
+        }
+
+        @Override
+        protected void onActive() {
+            handler.removeCallbacks(detachRunnable);
+            if (registration != null) {
+                return;
+            }
+            registerIfAbsent(key, this);
+            startGeneration();
+            registration = query.addSnapshotListener((querySnapshot, e) -> {
+                if (e != null) {
+                    Log.e(tag, "runQueryLiveData: " + methodName + ": listen failed", e);
+                    startGeneration();
+                    setValue(new QueryChangeSet<>(new ArrayList<>(), new ArrayList<>(), true));
+                    return;
+                }
+                if (querySnapshot != null) {
+                    lane.submit(querySnapshot);
+                }
+            });
+            onListenerCountChanged(1);
+            Log.d(TAG, "attached listener for " + methodName + ", attached: " + attachedListenerCount.get());
+        }
+
+        /**
+         * Starts a fresh result set, parse lane and coalescer, so results from a previous
+         * listener or a failed one are never delivered. Parsed results also feed the
+         * {@link EntityCache} of the queried class, if it has one.
+         */
+        private void startGeneration() {
+            int current = ++generation;
+            if (coalescer != null) {
+                coalescer.cancel();
+            }
+            coalescer = new EmissionCoalescer<>(window, scheduler, SystemClock::uptimeMillis,
+                    (earlier, later) -> {
+                        coalescedSnapshotCount.incrementAndGet();
+                        return QueryChangeSet.merge(earlier, later);
+                    },
+                    changeSet -> publish(current, changeSet));
+            IncrementalQueryState<T> currentState = new IncrementalQueryState<>(clazz);
+            EntityCache<T> cache = EntityCache.forClass(clazz);
+            lane = SnapshotParser.getInstance().newLane(
+                    (latest, superseded) -> {
+                        QueryChangeSet<T> changeSet = superseded.isEmpty()
+                                ? currentState.apply(latest)
+                                : currentState.resync(latest, superseded);
+                        if (cache != null) {
+                            cache.update(currentState.getIds(), changeSet);
+                        }
+                        return changeSet;
+                    },
+                    changeSet -> deliver(current, changeSet));
+        }
+
+        /**
+         * Hands a parsed result to the coalescer on the main thread if it belongs to the current
+         * listener and changed anything.
+         *
+         * @param resultGeneration The generation the result was parsed for.
+         * @param changeSet The parsed result.
+         */
+        private void deliver(int resultGeneration, QueryChangeSet<T> changeSet) {
+            if (resultGeneration != generation) {
+                return;
+            }
+            if (!changeSet.isFullReload() && changeSet.getChanges().isEmpty()) {
+                return;
+            }
+            coalescer.offer(changeSet);
+        }
+
+        /**
+         * Publishes a coalesced result if it belongs to the current listener.
+         *
+         * @param resultGeneration The generation the result was parsed for.
+         * @param changeSet The coalesced result.
+         */
+        private void publish(int resultGeneration, QueryChangeSet<T> changeSet) {
+            if (resultGeneration != generation) {
+                return;
+            }
+            if (changeSet.getItems().isEmpty()) {
+                Log.d(tag, "runQueryLiveData: " + methodName + ": no documents found");
+            } else {
+                Log.d(tag, "runQueryLiveData: " + methodName + ": success, retrieved " + changeSet.getItems().size()
+                        + " items, " + changeSet.getChanges().size() + " changed");
+            }
+            setValue(changeSet);
+        }
+
+        @Override
+        protected void onInactive() {
+            handler.postDelayed(detachRunnable, gracePeriodMs);
+        }
+
+        /**
+         * Removes the Firestore listener if no observer became active during the grace period.
+         */
+        private void detach() {
+            if (hasActiveObservers() || registration == null) {
+                return;
+            }
+            registration.remove();
+            registration = null;
+            generation++;
+            coalescer.cancel();
+            unregister(key, this);
+            onListenerCountChanged(-1);
+            Log.d(TAG, "detached listener for " + methodName + ", attached: " + attachedListenerCount.get());
+        }
+    }
+}
@@ -5,10 +5,18 @@ import android.util.Log;
 import androidx.lifecycle.LiveData;
 
 import com.example.eventapp.models.Notification;
+import com.example.eventapp.repositories.DTOs.BatchWriteResult;
+import com.example.eventapp.repositories.DTOs.BroadcastProgress;
+import com.example.eventapp.repositories.codecs.Codecs;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.Query;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 
 public class NotificationRepository {
@@ -68,7 +76,7 @@ public class NotificationRepository {
         db.collection("users")
                 .document(notification.getUserId())
                 .collection("notifications")
-                .add(notification)
+                .add(Codecs.encode(notification))
                 .addOnCompleteListener(task -> {
                     if (task.isSuccessful()) {
                         future.complete(task.getResult().getId());
@@ -82,6 +90,108 @@ public class NotificationRepository {
         return future;
     }
 
+    /**
+     * Uploads many notifications with batched writes instead of one request per notification.
+     *
+     * @param notifications The notifications to upload; each is added to its user's notifications subcollection.
+     * @return A CompletableFuture containing the result per user ID. If a user appears more than
+     *         once, their notifications are written in the same batch and reported once.
+     * @throws NullPointerException if notifications, or any notification, is null.
+     */
+    public CompletableFuture<BatchWriteResult> uploadNotifications(List<Notification> notifications) {
+        Objects.requireNonNull(notifications);
+        BatchWriter writer = new BatchWriter(db);
+        BatchWriteResult invalid = new BatchWriteResult();
+
+        for (Notification notification : notifications) {
+            Objects.requireNonNull(notification);
+            String userId = notification.getUserId();
+            if (userId == null) {
+                invalid.addFailure("null", new NullPointerException("userId cannot be null"));
+                continue;
+            }
+            String collectionPath = "users/" + userId + "/notifications";
+            String notificationId = db.collection(collectionPath).document().getId();
+            Object encoded = Codecs.encode(notification);
+            writer.add(userId, batch -> batch.set(collectionPath, notificationId, encoded));
+        }
+
+        return writer.commit().thenApply(result -> {
+            for (Map.Entry<String, Exception> failure : invalid.getFailures().entrySet()) {
+                result.addFailure(failure.getKey(), failure.getValue());
+            }
+            if (result.getFailureCount() > 0) {
+                Log.e(TAG, "uploadNotifications: notified " + result.getSuccessCount() + " users, "
+                        + result.getFailureCount() + " failed", result.getFailures().values().iterator().next());
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Reserves an ID for a server-side broadcast, so its progress can be observed before the
+     * `broadcastNotification` function has been called.
+     *
+     * @return A new broadcast ID.
+     */
+    public String newBroadcastId() {
+        return db.collection("broadcasts").document().getId();
+    }
+
+    /**
+     * Observes the progress of a server-side broadcast.
+     *
+     * @param broadcastId The ID passed to the `broadcastNotification` function.
+     * @return LiveData containing the progress, or null until the broadcast has started.
+     */
+    public LiveData<BroadcastProgress> getBroadcastProgressLiveData(String broadcastId) {
+        DocumentReference progressRef = db.collection("broadcasts").document(broadcastId);
+
+        return new LiveData<BroadcastProgress>() {
+            private ListenerRegistration registration;
+
+            @Override
+            protected void onActive() {
+                registration = progressRef.addSnapshotListener((documentSnapshot, e) -> {
+                    if (e != null) {
+                        Log.e(TAG, "getBroadcastProgressLiveData: Listen failed.", e);
+                        return;
+                    }
+                    if (documentSnapshot != null && documentSnapshot.exists()) {
+                        setValue(parseBroadcastProgress(documentSnapshot));
+                    }
+                });
+            }
+
+            @Override
+            protected void onInactive() {
+                if (registration != null) {
+                    registration.remove();
+                    registration = null;
+                }
+            }
+        };
+    }
+
+    /**
+     * Reads the progress written by the `broadcastNotification` function.
+     *
+     * @param document The progress document.
+     * @return The progress.
+     */
+    private static BroadcastProgress parseBroadcastProgress(DocumentSnapshot document) {
+        Long total = document.getLong("total");
+        Long written = document.getLong("written");
+        Long failed = document.getLong("failed");
+        Boolean done = document.getBoolean("done");
+        return new BroadcastProgress(
+                document.getId(),
+                total != null ? total : 0,
+                written != null ? written : 0,
+                failed != null ? failed : 0,
+                Boolean.TRUE.equals(done));
+    }
+
     /**
      * Deletes a specific notification from a user's notifications subcollection.
      * @param userId The ID of the user from whose notifications the notification will be deleted.
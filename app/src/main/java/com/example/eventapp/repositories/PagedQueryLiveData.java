@@ -0,0 +1,358 @@
+package com.example.eventapp.repositories;
+
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * LiveData that pages through a query with `startAfter` cursors instead of streaming the whole
+ * result set. Results are ordered by an optional field with the document ID as a tie-breaker, so
+ * cursors are stable even when several documents share the same key.
+ *
+ * The last page is a `limit(pageSize)` query; when the next page is requested it is closed off
+ * with `endAt` its last item, so documents inserted inside an already-loaded range still show up
+ * instead of falling into a gap between pages. Consumers call {@link #onItemVisible(int)} as items
+ * are shown and the next page is fetched once the visible position is within the prefetch
+ * distance of the end of the loaded window.
+ *
+ * Only the pages around the visible position keep listeners, at most {@code maxLivePages} of
+ * them. Pages scrolled out of that window are detached and keep their last result, so positions
+ * in the list stay put; when one is scrolled back into the window it is listened to again from
+ * its cursors and brought up to date.
+ *
+ * @param <T> The type of documents being paged.
+ */
+public class PagedQueryLiveData<T> extends MediatorLiveData<List<T>> {
+
+    public static final int DEFAULT_PAGE_SIZE = 25;
+    public static final int DEFAULT_PREFETCH_DISTANCE = 10;
+    public static final int DEFAULT_MAX_LIVE_PAGES = 4;
+
+    private final String methodName;
+    private final Query baseQuery;
+    private final String orderField;
+    private final Class<T> clazz;
+    private final Function<T, String> idGetter;
+    private final Function<T, Object> keyGetter;
+    private final int pageSize;
+    private final int prefetchDistance;
+    private final int maxLivePages;
+    private final String tag;
+
+    private final List<Page<T>> pages = new ArrayList<>();
+    private boolean endReached = false;
+
+    /**
+     * Creates a paged query ordered by document ID.
+     *
+     * @param methodName The name of the calling method, used for logging.
+     * @param baseQuery The query (or collection) to page through.
+     * @param clazz The class type of the documents being paged.
+     * @param idGetter Function returning the document ID of a parsed item.
+     * @param pageSize The number of documents per page.
+     * @param prefetchDistance How many items before the end of the loaded window the next page is requested.
+     * @param tag The log tag of the calling repository.
+     */
+    public PagedQueryLiveData(
+            String methodName,
+            Query baseQuery,
+            Class<T> clazz,
+            Function<T, String> idGetter,
+            int pageSize,
+            int prefetchDistance,
+            String tag) {
+        this(methodName, baseQuery, null, clazz, idGetter, null, pageSize, prefetchDistance,
+                DEFAULT_MAX_LIVE_PAGES, tag);
+    }
+
+    /**
+     * Creates a paged query ordered by a field, with the document ID as a tie-breaker.
+     *
+     * @param methodName The name of the calling method, used for logging.
+     * @param baseQuery The query (or collection) to page through.
+     * @param orderField The field to order by, or null to order by document ID only.
+     * @param clazz The class type of the documents being paged.
+     * @param idGetter Function returning the document ID of a parsed item.
+     * @param keyGetter Function returning the value of {@code orderField} for a parsed item.
+     * @param pageSize The number of documents per page.
+     * @param prefetchDistance How many items before the end of the loaded window the next page is requested.
+     * @param maxLivePages How many pages around the visible position keep listeners.
+     * @param tag The log tag of the calling repository.
+     * @throws IllegalArgumentException if pageSize is < 1, prefetchDistance is < 0, maxLivePages
+     *         is < 2, or orderField is set without a keyGetter.
+     */
+    public PagedQueryLiveData(
+            String methodName,
+            Query baseQuery,
+            String orderField,
+            Class<T> clazz,
+            Function<T, String> idGetter,
+            Function<T, Object> keyGetter,
+            int pageSize,
+            int prefetchDistance,
+            int maxLivePages,
+            String tag) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize cannot be < 1");
+        }
+        if (prefetchDistance < 0) {
+            throw new IllegalArgumentException("prefetchDistance cannot be < 0");
+        }
+        // the page being read and the one being prefetched must both be live
+        if (maxLivePages < 2) {
+            throw new IllegalArgumentException("maxLivePages cannot be < 2");
+        }
+        if (orderField != null && keyGetter == null) {
+            throw new IllegalArgumentException("keyGetter is required when ordering by a field");
+        }
+        this.methodName = methodName;
+        this.baseQuery = baseQuery;
+        this.orderField = orderField;
+        this.clazz = clazz;
+        this.idGetter = idGetter;
+        this.keyGetter = keyGetter;
+        this.pageSize = pageSize;
+        this.prefetchDistance = prefetchDistance;
+        this.maxLivePages = maxLivePages;
+        this.tag = tag;
+
+        appendPage(null);
+    }
+
+    /**
+     * Notifies the pager that the item at a position is visible, loading the next page if the
+     * position is within the prefetch distance of the end of the loaded window, and moving the
+     * window of live pages to the page of the item.
+     *
+     * @param position The adapter position of the visible item.
+     */
+    public void onItemVisible(int position) {
+        List<T> loaded = getValue();
+        int loadedCount = loaded != null ? loaded.size() : 0;
+        if (position >= loadedCount - prefetchDistance - 1) {
+            loadNextPage();
+        }
+        updateLiveWindow(pageOf(position));
+    }
+
+    /**
+     * Loads the next page after the last loaded item. Does nothing while a page is still loading
+     * or once the end of the query has been reached.
+     */
+    public void loadNextPage() {
+        if (pages.isEmpty()) {
+            return;
+        }
+        Page<T> tail = pages.get(pages.size() - 1);
+        if (tail.latest == null || endReached || tail.latest.isEmpty()) {
+            return;
+        }
+        T last = tail.latest.get(tail.latest.size() - 1);
+        Object[] cursor = cursorOf(last);
+
+        // Close off the current tail so inserts inside its range stay visible
+        detach(tail);
+        Page<T> bounded = new Page<>(tail.startCursor, cursor);
+        bounded.latest = tail.latest;
+        subscribe(bounded);
+        pages.set(pages.size() - 1, bounded);
+
+        appendPage(cursor);
+        Log.d(tag, methodName + ": loading page " + pages.size());
+        updateLiveWindow(pages.size() - 1);
+    }
+
+    /**
+     * Checks whether the last page came back short, meaning there is nothing more to load.
+     *
+     * @return true if the end of the query has been reached.
+     */
+    public boolean isEndReached() {
+        return endReached;
+    }
+
+    /**
+     * Checks whether a page is still waiting for its first result.
+     *
+     * @return true if a page is loading.
+     */
+    public boolean isLoading() {
+        return !pages.isEmpty() && pages.get(pages.size() - 1).latest == null;
+    }
+
+    /**
+     * Gets the number of pages loaded so far, live or detached.
+     *
+     * @return The number of loaded pages.
+     */
+    public int getLoadedPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * Gets the number of pages that currently have listeners.
+     *
+     * @return The number of live pages, at most {@code maxLivePages}.
+     */
+    public int getLivePageCount() {
+        int live = 0;
+        for (Page<T> page : pages) {
+            if (page.source != null) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Finds the page an item of the emitted list belongs to.
+     *
+     * @param position The position of the item.
+     * @return The index of its page, or of the last page with a result if the position is past them.
+     */
+    private int pageOf(int position) {
+        int end = 0;
+        int index = 0;
+        for (; index < pages.size(); index++) {
+            Page<T> page = pages.get(index);
+            if (page.latest == null) {
+                break;
+            }
+            end += page.latest.size();
+            if (position < end) {
+                return index;
+            }
+        }
+        return Math.max(0, index - 1);
+    }
+
+    /**
+     * Keeps listeners on at most {@code maxLivePages} pages around a page and detaches the rest.
+     * Detached pages that come back into the window are listened to again.
+     *
+     * @param center The index of the page being viewed.
+     */
+    private void updateLiveWindow(int center) {
+        int last = pages.size() - 1;
+        int first = Math.max(0, Math.min(center - (maxLivePages - 1) / 2, last - maxLivePages + 1));
+        int end = Math.min(last, first + maxLivePages - 1);
+        for (int index = 0; index <= last; index++) {
+            Page<T> page = pages.get(index);
+            boolean inWindow = index >= first && index <= end;
+            if (!inWindow && page.source != null) {
+                detach(page);
+                Log.d(tag, methodName + ": detached page " + (index + 1));
+            } else if (inWindow && page.source == null) {
+                subscribe(page);
+                Log.d(tag, methodName + ": reattached page " + (index + 1));
+            }
+        }
+    }
+
+    /**
+     * Stops observing a page, keeping its last result.
+     *
+     * @param page The page to detach.
+     */
+    private void detach(Page<T> page) {
+        if (page.source != null) {
+            removeSource(page.source);
+            page.source = null;
+        }
+    }
+
+    /**
+     * Adds an open-ended page starting after a cursor.
+     *
+     * @param startCursor The cursor to start after, or null for the first page.
+     */
+    private void appendPage(Object[] startCursor) {
+        Page<T> page = new Page<>(startCursor, null);
+        pages.add(page);
+        subscribe(page);
+    }
+
+    /**
+     * Builds the query for a page and starts observing it.
+     *
+     * @param page The page to subscribe.
+     */
+    private void subscribe(Page<T> page) {
+        Query query = orderField != null
+                ? baseQuery.orderBy(orderField).orderBy(FieldPath.documentId())
+                : baseQuery.orderBy(FieldPath.documentId());
+        if (page.startCursor != null) {
+            query = query.startAfter(page.startCursor);
+        }
+        if (page.endCursor != null) {
+            query = query.endAt(page.endCursor);
+        } else {
+            query = query.limit(pageSize);
+        }
+
+        page.source = Common.runQueryLiveData(methodName, query, clazz, tag);
+        addSource(page.source, items -> {
+            page.latest = items != null ? items : new ArrayList<>();
+            if (page == pages.get(pages.size() - 1)) {
+                endReached = page.endCursor == null && page.latest.size() < pageSize;
+            }
+            emit();
+        });
+    }
+
+    /**
+     * Concatenates the loaded pages in order and emits them.
+     */
+    private void emit() {
+        Map<String, T> merged = new LinkedHashMap<>();
+        for (Page<T> page : pages) {
+            if (page.latest == null) {
+                break;
+            }
+            for (T item : page.latest) {
+                merged.put(idGetter.apply(item), item);
+            }
+        }
+        setValue(new ArrayList<>(merged.values()));
+    }
+
+    /**
+     * Builds the cursor values for an item, matching the query's ordering.
+     *
+     * @param item The item to build a cursor for.
+     * @return The cursor values.
+     */
+    private Object[] cursorOf(T item) {
+        if (orderField != null) {
+            return new Object[] { keyGetter.apply(item), idGetter.apply(item) };
+        }
+        return new Object[] { idGetter.apply(item) };
+    }
+
+    /**
+     * One page of the loaded window, bounded by cursors.
+     *
+     * @param <T> The type of documents being paged.
+     */
+    private static final class Page<T> {
+        final Object[] startCursor;
+        final Object[] endCursor;
+        LiveData<List<T>> source;
+        List<T> latest;
+
+        Page(Object[] startCursor, Object[] endCursor) {
+            this.startCursor = startCursor;
+            this.endCursor = endCursor;
+        }
+    }
+}
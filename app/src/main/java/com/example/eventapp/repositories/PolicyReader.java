@@ -0,0 +1,89 @@
+package com.example.eventapp.repositories;
+
+import com.google.firebase.firestore.Source;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs a point lookup under a {@link ReadPolicy}. The lookup itself is given as a reader that
+ * reads from a Firestore {@link Source} and completes with the parsed document, or null if there
+ * is none. Failures are logged by the reader, so this class does not log.
+ */
+class PolicyReader {
+
+    private PolicyReader() {
+    }
+
+    /**
+     * Reads a document under a read policy.
+     *
+     * @param policy The read policy.
+     * @param reader Reads the document from the given source.
+     * @param onRefresh Receives the server copy of a document that was answered from the cache
+     *                  under {@link ReadPolicy#CACHE_THEN_SERVER}, or null if it was deleted since;
+     *                  pass null to skip the refresh.
+     * @param <T> The type of the document.
+     * @return A future completed with the first value read, or null if the document was not found.
+     */
+    static <T> CompletableFuture<T> read(
+            ReadPolicy policy,
+            Function<Source, CompletableFuture<T>> reader,
+            Consumer<T> onRefresh) {
+        Objects.requireNonNull(policy, "Read policy cannot be null");
+        switch (policy) {
+            case SERVER_ONLY:
+                return reader.apply(Source.SERVER);
+            case CACHE_ONLY:
+                return readCache(reader);
+            case CACHE_THEN_SERVER:
+                return readCacheThenServer(reader, onRefresh);
+            default:
+                return reader.apply(Source.DEFAULT);
+        }
+    }
+
+    /**
+     * Reads from the cache, treating a cache miss as not found. Firestore fails cache-only
+     * document reads when the document is not cached.
+     */
+    private static <T> CompletableFuture<T> readCache(Function<Source, CompletableFuture<T>> reader) {
+        return reader.apply(Source.CACHE).exceptionally(throwable -> null);
+    }
+
+    /**
+     * Answers from the cache and refreshes from the server, or waits for the server on a cache miss.
+     */
+    private static <T> CompletableFuture<T> readCacheThenServer(
+            Function<Source, CompletableFuture<T>> reader,
+            Consumer<T> onRefresh) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        readCache(reader).thenAccept(cached -> {
+            if (cached == null) {
+                reader.apply(Source.SERVER).whenComplete((value, throwable) -> {
+                    if (throwable != null) {
+                        future.completeExceptionally(throwable);
+                    } else {
+                        future.complete(value);
+                    }
+                });
+                return;
+            }
+
+            future.complete(cached);
+            if (onRefresh == null) {
+                return;
+            }
+            reader.apply(Source.SERVER).whenComplete((value, throwable) -> {
+                // On failure the caller already has the cached copy; keep showing it
+                if (throwable == null) {
+                    onRefresh.accept(value);
+                }
+            });
+        });
+        return future;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.eventapp.repositories;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * LiveData for values that are read on demand rather than streamed by a snapshot listener, such
+ * as aggregate counts. The value is loaded when the LiveData becomes active and, if a refresh
+ * interval is set, reloaded periodically while it stays active. {@link #refresh()} reloads it
+ * immediately, e.g. after the current user changes the underlying data.
+ *
+ * A failed load keeps the previous value.
+ *
+ * @param <T> The type of the value.
+ */
+public class PollingLiveData<T> extends LiveData<T> {
+
+    /** Refresh interval that disables polling; the value is only loaded on activation and refresh(). */
+    public static final long NO_POLLING = 0;
+
+    private final String methodName;
+    private final Supplier<CompletableFuture<T>> loader;
+    private final long refreshIntervalMs;
+    private final String tag;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable pollRunnable = this::poll;
+
+    private boolean loading = false;
+    private boolean refreshPending = false;
+
+    /**
+     * Creates a polling LiveData.
+     *
+     * @param methodName The name of the calling method, used for logging.
+     * @param loader Starts a load of the current value.
+     * @param refreshIntervalMs How often to reload while active, or {@link #NO_POLLING}.
+     * @param tag The log tag of the calling repository.
+     * @throws IllegalArgumentException if refreshIntervalMs is < 0.
+     */
+    public PollingLiveData(String methodName, Supplier<CompletableFuture<T>> loader, long refreshIntervalMs, String tag) {
+        if (refreshIntervalMs < 0) {
+            throw new IllegalArgumentException("refreshIntervalMs cannot be < 0");
+        }
+        this.methodName = methodName;
+        this.loader = loader;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.tag = tag;
+    }
+
+    /**
+     * Reloads the value now. Safe to call from any thread; if a load is already running, another
+     * one is started once it finishes.
+     */
+    public void refresh() {
+        handler.post(this::load);
+    }
+
+    @Override
+    protected void onActive() {
+        load();
+    }
+
+    @Override
+    protected void onInactive() {
+        handler.removeCallbacks(pollRunnable);
+    }
+
+    private void poll() {
+        if (hasActiveObservers()) {
+            load();
+        }
+    }
+
+    private void load() {
+        if (loading) {
+            refreshPending = true;
+            return;
+        }
+        loading = true;
+        handler.removeCallbacks(pollRunnable);
+
+        loader.get().whenComplete((value, error) -> handler.post(() -> {
+            loading = false;
+            if (error != null) {
+                Log.e(tag, methodName + ": refresh failed", error);
+            } else {
+                setValue(value);
+            }
+
+            if (refreshPending) {
+                refreshPending = false;
+                load();
+            } else if (refreshIntervalMs > 0 && hasActiveObservers()) {
+                handler.postDelayed(pollRunnable, refreshIntervalMs);
+            }
+        }));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.eventapp.repositories;
+
+/**
+ * Where a repository point lookup reads its document from. Lookups that take a policy let each
+ * call site choose between showing something immediately and waiting for the latest data.
+ */
+public enum ReadPolicy {
+    /**
+     * Reads from the server, falling back to Firestore's local cache when offline. This is what
+     * lookups without a policy do.
+     */
+    DEFAULT,
+
+    /**
+     * Reads from the server only; fails when the server cannot be reached.
+     */
+    SERVER_ONLY,
+
+    /**
+     * Reads from Firestore's local cache only; completes with null when the document is not cached.
+     */
+    CACHE_ONLY,
+
+    /**
+     * Stale-while-revalidate: completes with the cached document straight away, then reads the
+     * server and delivers the refreshed document to the caller's refresh callback. When the
+     * document is not cached the lookup waits for the server and no refresh is delivered.
+     */
+    CACHE_THEN_SERVER
+}
@@ -1,23 +1,38 @@
 package com.example.eventapp.repositories;
 
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
-import androidx.lifecycle.Transformations;
 
 import com.example.eventapp.models.Signup;
-import com.example.eventapp.models.User;
-import com.google.firebase.firestore.Filter;
+import com.example.eventapp.models.SignupStatus;
+import com.example.eventapp.repositories.DTOs.BatchWriteResult;
+import com.example.eventapp.repositories.DTOs.SignupCounts;
 import com.example.eventapp.repositories.DTOs.SignupFilter;
 import com.example.eventapp.repositories.DTOs.UserSignupEntry;
-import com.google.firebase.firestore.*;
+import com.example.eventapp.repositories.backend.BackendQuery;
+import com.example.eventapp.repositories.backend.DocumentNotFoundException;
+import com.example.eventapp.repositories.backend.FirestoreBackend;
+import com.example.eventapp.repositories.backend.StorageBackend;
+import com.example.eventapp.repositories.backend.StoredDocument;
+import com.example.eventapp.repositories.codecs.Codecs;
+import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The `SignupRepository` class is a singleton repository that provides access to Firestore operations
@@ -25,19 +40,57 @@ import java.util.concurrent.CompletableFuture;
  * along with providing LiveData-based methods for observing lists of signups filtered by user ID
  * or event ID. This class enables seamless interaction with Firestore for sign-up data management
  * within the application.
+ *
+ * Signups are stored under a deterministic document ID built from their user and event IDs (see
+ * {@link #getSignupDocumentId(String, String)}), so a user's signup to an event is read, updated
+ * and deleted directly instead of being looked up with a query. Signups written before this used
+ * auto IDs; until they have all been migrated by the `migrateSignupKeys` function, lookups fall
+ * back to a query when the keyed document does not exist. The function records that it has
+ * finished in `migrations/signupKeys`; from then on every lookup is a single document read.
+ *
+ * All reads and writes go through a {@link StorageBackend}: Firestore in the app, or an
+ * {@link com.example.eventapp.repositories.backend.InMemoryBackend} for JVM tests (see
+ * {@link #withBackend(StorageBackend)}).
  */
 public class SignupRepository {
 
     private static final String TAG = "SignupRepository";
+    public static final long DEFAULT_COUNTS_REFRESH_MS = TimeUnit.SECONDS.toMillis(30);
+    private static final String DOCUMENT_ID_SEPARATOR = "_";
+    private static final String SIGNUP_COLLECTION = "signups";
+    private static final String CAPACITY_COLLECTION = "eventCapacity";
+    private static final String EVENT_COLLECTION = "events";
+    private static final String MIGRATION_COLLECTION = "migrations";
+    private static final String STATUS_MIGRATION_ID = "signupStatus";
+    private static final String KEYS_MIGRATION_ID = "signupKeys";
     private static SignupRepository instance;
-    private final CollectionReference signupCollection;
-    private final UserRepository userRepository;
+
+    /** Number of capacity slots per event; must match CAPACITY_SLOT_COUNT in the Cloud Functions. */
+    public static final int CAPACITY_SLOT_COUNT = 10;
+
+    /**
+     * Coalescing window of the live signup lists of an event. A lottery rewrites hundreds of
+     * signups in one run; a wider window than the default keeps the user join behind
+     * {@link #getSignedUpUsersByFilterLiveData} from re-running for each of them.
+     */
+    public static final CoalescingWindow EVENT_SIGNUPS_WINDOW = CoalescingWindow.of(250, 1000);
+
+    /**
+     * Outcome of one admission attempt.
+     */
+    private enum Admission { ADMITTED, EXISTING, SLOT_FULL, EVENT_FULL, CAPACITY_PENDING }
+    private final StorageBackend backend;
+    private UserRepository userRepository;
+    private volatile boolean statusMigrated;
+    private volatile boolean keysMigrated;
+    private final SingleFlight<String, Signup> signupFlight = new SingleFlight<>(
+            "getSignup", signup -> Codecs.copy(Signup.class, signup.getDocumentId(), signup));
 
     /**
      * Private constructor for initializing the repository with the default Firestore instance.
      */
     private SignupRepository() {
-        signupCollection = FirebaseFirestore.getInstance().collection("signups");
+        backend = new FirestoreBackend(FirebaseFirestore.getInstance());
         userRepository = UserRepository.getInstance();
     }
 
@@ -47,10 +100,20 @@ public class SignupRepository {
      * @param testInstance The test Firestore instance.
      */
     private SignupRepository(FirebaseFirestore testInstance) {
-        signupCollection = testInstance.collection("signups");
+        backend = new FirestoreBackend(testInstance);
         userRepository = UserRepository.getTestInstance(testInstance);
     }
 
+    /**
+     * Private constructor for initializing the repository on a storage backend. The user
+     * repository is only created once a query needs to join users.
+     *
+     * @param backend The storage backend.
+     */
+    private SignupRepository(StorageBackend backend) {
+        this.backend = backend;
+    }
+
     /**
      * Retrieves a singleton instance of SignupRepository.
      *
@@ -77,10 +140,75 @@ public class SignupRepository {
     }
 
     /**
-     * Adds a signup document to Firestore.
+     * Creates a repository on a storage backend, e.g. an in-memory backend for JVM tests. Unlike
+     * the other instances it is not a singleton, so each test can use a fresh backend.
+     *
+     * @param backend The storage backend.
+     * @return A new SignupRepository.
+     * @throws NullPointerException if backend is null.
+     */
+    public static SignupRepository withBackend(StorageBackend backend) {
+        return new SignupRepository(Objects.requireNonNull(backend));
+    }
+
+    /**
+     * Builds the document ID of the signup of a user to an event. User IDs and event IDs are
+     * alphanumeric, so joining them with an underscore cannot collide.
+     *
+     * @param userId The user ID of the signup.
+     * @param eventId The event ID of the signup.
+     * @return The document ID of the signup.
+     * @throws NullPointerException if userId or eventId is null.
+     * @throws IllegalArgumentException if userId or eventId is empty or contains a '/'.
+     */
+    public static String getSignupDocumentId(String userId, String eventId) {
+        Objects.requireNonNull(userId, "userId cannot be null");
+        Objects.requireNonNull(eventId, "eventId cannot be null");
+        if (userId.isEmpty() || eventId.isEmpty()) {
+            throw new IllegalArgumentException("userId and eventId cannot be empty");
+        }
+        if (userId.contains("/") || eventId.contains("/")) {
+            throw new IllegalArgumentException("userId and eventId cannot contain '/'");
+        }
+        return userId + DOCUMENT_ID_SEPARATOR + eventId;
+    }
+
+    /**
+     * Checks whether signups may still be stored under auto IDs, i.e. whether the signup key
+     * migration has not finished yet, as recorded in `migrations/signupKeys`. Once it has, the
+     * answer is kept and no further reads are made. If the record cannot be read the legacy
+     * lookup is kept, as skipping it could miss an unmigrated signup.
+     *
+     * @return A CompletableFuture containing true if lookups must fall back to a query.
+     */
+    private CompletableFuture<Boolean> needsLegacyLookup() {
+        if (keysMigrated) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return backend.get(MIGRATION_COLLECTION, KEYS_MIGRATION_ID).handle((migration, error) -> {
+            if (error == null && migration != null && Boolean.TRUE.equals(migration.get("done"))) {
+                keysMigrated = true;
+                return false;
+            }
+            if (error != null) {
+                Log.e(TAG, "needsLegacyLookup: failed to read the signup key migration", error);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Adds a signup document to Firestore under its deterministic document ID. Adding a signup
+     * that already exists does not overwrite it, so a repeated request (e.g. a double tap) leaves
+     * the original signup in place and returns its ID.
+     *
+     * If the event has a maximum number of entrants, the signup is admitted against the event's
+     * capacity in the same transaction that creates it, so concurrent signups cannot exceed it.
      *
      * @param signup The signup details to be added.
-     * @return A CompletableFuture containing the document ID of the added signup.
+     * @return A CompletableFuture containing the document ID of the added (or existing) signup.
+     *         It fails with an {@link EventFullException} if the event is full, or with a
+     *         {@link CapacityPendingException} if the event's capacity is not set up yet.
      * @throws NullPointerException if signup, userId, or eventId is null.
      */
     public CompletableFuture<String> addSignup(Signup signup) {
@@ -98,25 +226,154 @@ public class SignupRepository {
             future.completeExceptionally(new NullPointerException("eventId cannot be null"));
             return future;
         }
+        String documentId;
+        try {
+            documentId = getSignupDocumentId(userId, eventId);
+        } catch (IllegalArgumentException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
         signup.setSignupTimestamp(System.currentTimeMillis());
 
-        signupCollection.add(signup)
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful()) {
-                        String documentId = task.getResult().getId();
-                        signup.setDocumentId(documentId);
-                        Log.d(TAG, "addSignup: success - ID: " + documentId);
-                        future.complete(documentId);
-                    } else {
-                        Log.e(TAG, "addSignup: fail", task.getException());
-                        future.completeExceptionally(task.getException());
+        fetchLegacySignup(userId, eventId).whenComplete((legacy, throwable) -> {
+            if (throwable != null) {
+                Log.e(TAG, "addSignup: fail", throwable);
+                future.completeExceptionally(throwable);
+                return;
+            }
+            if (legacy != null) {
+                Log.d(TAG, "addSignup: signup already exists - ID: " + legacy.getDocumentId());
+                signup.setDocumentId(legacy.getDocumentId());
+                future.complete(legacy.getDocumentId());
+                return;
+            }
+
+            admitSignup(signup, documentId, 0, future);
+        });
+        return forgetSignupReads(future, Collections.singletonList(signupFlightKey(userId, eventId)));
+    }
+
+    /**
+     * Creates a signup if its event has capacity left. The event's capacity is split across
+     * {@link #CAPACITY_SLOT_COUNT} slot documents in `eventCapacity/{eventId}/slots` (maintained by
+     * Cloud Functions), each with a `limit` and a `used` count. The slots are read with one query,
+     * and the signup takes a place in one with room left, chosen at random, in the transaction
+     * that creates it. The transaction only reads that slot, so a burst of signups to one event
+     * contends on many documents instead of one; if the slot filled up in the meantime, the slots
+     * are read again. The signup is rejected once every slot is full.
+     *
+     * Events without slots have no capacity limit, unless the event has a maximum number of
+     * entrants and Cloud Functions have not set up its slots yet; then the signup is rejected
+     * rather than created without a place.
+     *
+     * @param signup The signup to create.
+     * @param documentId The document ID of the signup.
+     * @param attempt The number of earlier attempts whose slot filled up before they took a place.
+     * @param future Completed with the document ID, or with an {@link EventFullException} or a
+     *        {@link CapacityPendingException}.
+     */
+    private void admitSignup(Signup signup, String documentId, int attempt, CompletableFuture<String> future) {
+        String eventId = signup.getEventId();
+        String slotCollection = CAPACITY_COLLECTION + "/" + eventId + "/slots";
+
+        backend.query(BackendQuery.collection(slotCollection)).thenCompose(slots -> {
+            List<String> freeSlotIds = new ArrayList<>();
+            for (StoredDocument slot : slots) {
+                Long limit = slot.getLong("limit");
+                Long used = slot.getLong("used");
+                if (limit != null && used != null && used < limit) {
+                    freeSlotIds.add(slot.getId());
+                }
+            }
+            if (!slots.isEmpty() && freeSlotIds.isEmpty()) {
+                return CompletableFuture.completedFuture(Admission.EVENT_FULL);
+            }
+            String slotId = freeSlotIds.isEmpty()
+                    ? null
+                    : freeSlotIds.get(ThreadLocalRandom.current().nextInt(freeSlotIds.size()));
+            return backend.runTransaction(transaction -> admit(transaction, signup, documentId, slotCollection, slotId));
+        }).whenComplete((admission, throwable) -> {
+            if (throwable != null) {
+                Log.e(TAG, "addSignup: fail", throwable);
+                future.completeExceptionally(unwrap(throwable));
+                return;
+            }
+            switch (admission) {
+                case ADMITTED:
+                    signup.setDocumentId(documentId);
+                    Log.d(TAG, "addSignup: success - ID: " + documentId);
+                    future.complete(documentId);
+                    break;
+                case EXISTING:
+                    signup.setDocumentId(documentId);
+                    Log.d(TAG, "addSignup: signup already exists - ID: " + documentId);
+                    future.complete(documentId);
+                    break;
+                case SLOT_FULL:
+                    if (attempt + 1 < CAPACITY_SLOT_COUNT) {
+                        admitSignup(signup, documentId, attempt + 1, future);
+                        break;
                     }
-                });
-        return future;
+                    // every attempt lost its slot to another signup; the event is all but full
+                case EVENT_FULL:
+                    Log.d(TAG, "addSignup: event is full - eventId: " + eventId);
+                    future.completeExceptionally(new EventFullException(eventId));
+                    break;
+                case CAPACITY_PENDING:
+                default:
+                    Log.d(TAG, "addSignup: capacity not set up yet - eventId: " + eventId);
+                    future.completeExceptionally(new CapacityPendingException(eventId));
+                    break;
+            }
+        });
     }
 
     /**
-     * Updates an existing signup document in Firestore.
+     * Runs one admission in a transaction: creates the signup and takes a place in the given
+     * slot, or creates it without a place if the event has no capacity limit.
+     *
+     * @param transaction The transaction.
+     * @param signup The signup to create.
+     * @param documentId The document ID of the signup.
+     * @param slotCollection The path of the event's capacity slots.
+     * @param slotId The ID of the slot to take a place in, or null if the event had no slots.
+     * @return The outcome of the admission.
+     */
+    private static Admission admit(StorageBackend.Transaction transaction, Signup signup, String documentId,
+                                   String slotCollection, String slotId) {
+        if (transaction.get(SIGNUP_COLLECTION, documentId) != null) {
+            return Admission.EXISTING;
+        }
+        StoredDocument slotDocument = slotId != null ? transaction.get(slotCollection, slotId) : null;
+        if (slotDocument == null) {
+            StoredDocument event = transaction.get(EVENT_COLLECTION, signup.getEventId());
+            Long maxEntrants = event != null ? event.getLong("maxEntrants") : null;
+            if (maxEntrants != null && maxEntrants > 0) {
+                return Admission.CAPACITY_PENDING;
+            }
+            signup.setCapacitySlot(null);
+            transaction.set(SIGNUP_COLLECTION, documentId, signup);
+            return Admission.ADMITTED;
+        }
+        Long limit = slotDocument.getLong("limit");
+        Long used = slotDocument.getLong("used");
+        if (limit == null || used == null || used >= limit) {
+            return Admission.SLOT_FULL;
+        }
+        // Security rules check that the slot records the signup whose creation takes the place
+        Map<String, Object> place = new HashMap<>();
+        place.put("used", used + 1);
+        place.put("admittedSignup", documentId);
+        signup.setCapacitySlot(Integer.valueOf(slotId));
+        transaction.update(slotCollection, slotId, place);
+        transaction.set(SIGNUP_COLLECTION, documentId, signup);
+        return Admission.ADMITTED;
+    }
+
+    /**
+     * Updates an existing signup document in Firestore. If the signup is not stored under the
+     * document ID of its user and event (a legacy signup, or one whose event changed), it is
+     * moved there in the same batch and its document ID is updated.
      *
      * @param signup The signup document with updated information.
      * @return A CompletableFuture indicating the completion of the update.
@@ -132,42 +389,187 @@ public class SignupRepository {
             future.completeExceptionally(new NullPointerException("documentId is null - never set documentId"));
             return future;
         }
+        List<String> flightKeys = Collections.singletonList(signupFlightKey(signup.getUserId(), signup.getEventId()));
 
-        signupCollection.document(documentId).set(signup)
-                .addOnCompleteListener(task -> {
-                    if (task.isSuccessful()) {
+        String keyedDocumentId = signup.getUserId() != null && signup.getEventId() != null
+                ? getSignupDocumentId(signup.getUserId(), signup.getEventId())
+                : documentId;
+        if (!keyedDocumentId.equals(documentId)) {
+            Map<String, Object> moved = encodeForMove(signup, documentId);
+            backend.commitBatch(batch -> {
+                batch.set(SIGNUP_COLLECTION, keyedDocumentId, moved);
+                batch.delete(SIGNUP_COLLECTION, documentId);
+            }).whenComplete((ignored, throwable) -> {
+                if (throwable == null) {
+                    Log.d(TAG, "updateSignup: success - moved ID: " + documentId + " to " + keyedDocumentId);
+                    signup.setDocumentId(keyedDocumentId);
+                    future.complete(null);
+                } else {
+                    Log.e(TAG, "updateSignup: fail", throwable);
+                    future.completeExceptionally(throwable);
+                }
+            });
+            return forgetSignupReads(future, flightKeys);
+        }
+
+        backend.set(SIGNUP_COLLECTION, documentId, signup)
+                .whenComplete((ignored, throwable) -> {
+                    if (throwable == null) {
                         Log.d(TAG, "updateSignup: success - ID: " + documentId);
                         future.complete(null);
                     } else {
-                        Log.e(TAG, "updateSignup: fail", task.getException());
-                        future.completeExceptionally(task.getException());
+                        Log.e(TAG, "updateSignup: fail", throwable);
+                        future.completeExceptionally(throwable);
                     }
                 });
-        return future;
+        return forgetSignupReads(future, flightKeys);
+    }
+
+    /**
+     * Updates fields of the signup of a user to an event directly by its document ID, without
+     * reading it first. Falls back to the legacy lookup if the keyed document does not exist.
+     *
+     * @param userId The user ID associated with the signup.
+     * @param eventId The event ID associated with the signup.
+     * @param fields The fields to update, keyed by their Firestore field names.
+     * @return A CompletableFuture indicating the completion of the update; it fails with an
+     *         IllegalStateException if the signup does not exist.
+     * @throws NullPointerException if fields is null.
+     */
+    public CompletableFuture<Void> updateSignupFields(String userId, String eventId, Map<String, Object> fields) {
+        Objects.requireNonNull(fields);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+
+        String documentId;
+        try {
+            documentId = getSignupDocumentId(userId, eventId);
+        } catch (NullPointerException | IllegalArgumentException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        backend.update(SIGNUP_COLLECTION, documentId, fields)
+                .whenComplete((updated, error) -> {
+                    if (error == null) {
+                        Log.d(TAG, "updateSignupFields: success - ID: " + documentId);
+                        future.complete(null);
+                    } else if (isNotFound(error)) {
+                        fetchLegacySignup(userId, eventId)
+                                .thenCompose(legacy -> {
+                                    if (legacy == null) {
+                                        Log.e(TAG, "updateSignupFields: signup does not exist - ID: " + documentId);
+                                        throw new IllegalStateException("Signup not found.");
+                                    }
+                                    return updateLegacySignupFields(legacy.getDocumentId(), fields);
+                                })
+                                .whenComplete((ignored, throwable) -> {
+                                    if (throwable != null) {
+                                        Log.e(TAG, "updateSignupFields: fail", throwable);
+                                        future.completeExceptionally(unwrap(throwable));
+                                    } else {
+                                        future.complete(null);
+                                    }
+                                });
+                    } else {
+                        Log.e(TAG, "updateSignupFields: fail", error);
+                        future.completeExceptionally(error);
+                    }
+                });
+        return forgetSignupReads(future, Collections.singletonList(signupFlightKey(userId, eventId)));
     }
 
     /**
-     * Removes a signup document from Firestore based on userId and eventId.
+     * Moves the signup of a user to an event to a new status. The status flags are written along
+     * with it for readers that have not moved to the `status` field.
+     *
+     * @param userId The user ID associated with the signup.
+     * @param eventId The event ID associated with the signup.
+     * @param status The new status.
+     * @return A CompletableFuture indicating the completion of the update; it fails with an
+     *         IllegalStateException if the signup does not exist.
+     * @throws NullPointerException if status is null.
+     */
+    public CompletableFuture<Void> updateSignupStatus(String userId, String eventId, SignupStatus status) {
+        Objects.requireNonNull(status);
+        Signup signup = new Signup();
+        signup.setStatus(status);
+
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("status", status.getValue());
+        fields.put("cancelled", signup.isCancelled());
+        fields.put("waitlisted", signup.isWaitlisted());
+        fields.put("chosen", signup.isChosen());
+        fields.put("enrolled", signup.isEnrolled());
+        return updateSignupFields(userId, eventId, fields);
+    }
+
+    /**
+     * Updates fields of a signup that is still stored under an auto ID.
+     *
+     * @param documentId The auto ID of the signup.
+     * @param fields The fields to update.
+     * @return A CompletableFuture indicating the completion of the update.
+     */
+    private CompletableFuture<Void> updateLegacySignupFields(String documentId, Map<String, Object> fields) {
+        return backend.update(SIGNUP_COLLECTION, documentId, fields)
+                .thenRun(() -> Log.d(TAG, "updateSignupFields: success (legacy) - ID: " + documentId));
+    }
+
+    /**
+     * Removes a signup document from Firestore based on userId and eventId. The keyed document is
+     * deleted directly; the legacy lookup is only needed while unmigrated signups may remain.
      *
      * @param userId The user ID associated with the signup.
      * @param eventId The event ID associated with the signup.
      * @return A CompletableFuture indicating the completion of the removal.
      */
     public CompletableFuture<Void> removeSignup(String userId, String eventId) {
+        return needsLegacyLookup().thenCompose(legacy -> {
+            if (!legacy) {
+                return removeKeyedSignup(userId, eventId);
+            }
+            return getSignup(userId, eventId)
+                .thenCompose(signup -> {
+                    if (signup != null) {
+                        return removeSignup(signup);
+                    } else {
+                        Log.d(TAG, "removeSignup: no signup found for userId: " + userId + ", eventId: " + eventId);
+                        return CompletableFuture.completedFuture(null);
+                    }
+                });
+        }).exceptionally(throwable -> {
+            Log.e(TAG, "removeSignup: failed to remove signup", throwable);
+            return null;
+        });
+    }
 
-        return getSignup(userId, eventId)
-            .thenCompose(signup -> {
-                if (signup != null) {
-                    return removeSignup(signup);
+    /**
+     * Deletes the signup of a user to an event by its document ID, without reading it first.
+     *
+     * @param userId The user ID associated with the signup.
+     * @param eventId The event ID associated with the signup.
+     * @return A CompletableFuture indicating the completion of the removal.
+     */
+    private CompletableFuture<Void> removeKeyedSignup(String userId, String eventId) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        String documentId;
+        try {
+            documentId = getSignupDocumentId(userId, eventId);
+        } catch (NullPointerException | IllegalArgumentException e) {
+            Log.e(TAG, "removeSignup: failed to remove signup", e);
+            future.complete(null);
+            return future;
+        }
+        backend.delete(SIGNUP_COLLECTION, documentId)
+            .whenComplete((ignored, throwable) -> {
+                if (throwable == null) {
+                    Log.d(TAG, "removeSignup: success - ID: " + documentId);
                 } else {
-                    Log.d(TAG, "removeSignup: no signup found for userId: " + userId + ", eventId: " + eventId);
-                    return CompletableFuture.completedFuture(null);
+                    Log.e(TAG, "removeSignup: failed to remove signup", throwable);
                 }
-            })
-            .exceptionally(throwable -> {
-                Log.e(TAG, "removeSignup: failed to remove signup", throwable);
-                return null;
+                future.complete(null);
             });
+        return forgetSignupReads(future, Collections.singletonList(signupFlightKey(userId, eventId)));
     }
 
     /**
@@ -189,53 +591,342 @@ public class SignupRepository {
             return future;
         }
 
-        signupCollection.document(documentId).delete()
-            .addOnCompleteListener(task -> {
-                if (task.isSuccessful()) {
+        backend.delete(SIGNUP_COLLECTION, documentId)
+            .whenComplete((ignored, throwable) -> {
+                if (throwable == null) {
                     Log.d(TAG, "removeSignup: success - ID: " + documentId);
                     future.complete(null);
                 } else {
-                    Log.e(TAG, "removeSignup: fail", task.getException());
-                    future.completeExceptionally(task.getException());
+                    Log.e(TAG, "removeSignup: fail", throwable);
+                    future.completeExceptionally(throwable);
                 }
             });
-        return future;
+        return forgetSignupReads(future,
+                Collections.singletonList(signupFlightKey(signup.getUserId(), signup.getEventId())));
+    }
+
+    /**
+     * Encodes a signup to create it under another document ID. The rank is left out: only Cloud
+     * Functions may assign ranks, so the moved signup is ranked like a new one. The capacity slot
+     * is kept, and the document records where it was moved from, so security rules can check that
+     * it replaces a signup of the same user and event instead of taking a new place.
+     *
+     * @param signup The signup to move.
+     * @param fromDocumentId The document ID the signup is moved from, deleted in the same batch.
+     * @return The document data of the moved signup.
+     */
+    private static Map<String, Object> encodeForMove(Signup signup, String fromDocumentId) {
+        Map<String, Object> data = Codecs.forClass(Signup.class).encode(signup);
+        data.remove("rank");
+        data.put("movedFrom", fromDocumentId);
+        return data;
+    }
+
+    /**
+     * Updates many signups with batched writes instead of one request per signup. A signup not
+     * stored under the document ID of its user and event is moved there, as in
+     * {@link #updateSignup(Signup)}.
+     *
+     * @param signups The signups with updated information; each must have a documentId.
+     * @return A CompletableFuture containing the result per signup, keyed by document ID (as given).
+     * @throws NullPointerException if signups, or any signup, is null.
+     */
+    public CompletableFuture<BatchWriteResult> updateSignups(List<Signup> signups) {
+        Objects.requireNonNull(signups);
+        BatchWriter writer = new BatchWriter(backend);
+        BatchWriteResult invalid = new BatchWriteResult();
+        List<String> flightKeys = new ArrayList<>();
+
+        for (Signup signup : signups) {
+            Objects.requireNonNull(signup);
+            flightKeys.add(signupFlightKey(signup.getUserId(), signup.getEventId()));
+            String documentId = signup.getDocumentId();
+            if (documentId == null) {
+                invalid.addFailure(String.valueOf(signup.getUserId()),
+                        new NullPointerException("documentId is null - never set documentId"));
+                continue;
+            }
+            String keyedDocumentId = signup.getUserId() != null && signup.getEventId() != null
+                    ? getSignupDocumentId(signup.getUserId(), signup.getEventId())
+                    : documentId;
+            if (keyedDocumentId.equals(documentId)) {
+                Object encoded = Codecs.encode(signup);
+                writer.add(documentId, batch -> batch.set(SIGNUP_COLLECTION, keyedDocumentId, encoded));
+            } else {
+                Map<String, Object> moved = encodeForMove(signup, documentId);
+                writer.add(documentId,
+                        batch -> batch.set(SIGNUP_COLLECTION, keyedDocumentId, moved),
+                        batch -> batch.delete(SIGNUP_COLLECTION, documentId));
+            }
+        }
+
+        return forgetSignupReads(
+                writer.commit().thenApply(result -> mergeResults("updateSignups", result, invalid)), flightKeys);
+    }
+
+    /**
+     * Removes the signups of many users to an event with batched deletes instead of one request
+     * per signup. Until the signup key migration is done, signups still stored under auto IDs are
+     * resolved with `whereIn` queries and deleted in the same batch as the user's keyed document.
+     *
+     * @param eventId The ID of the event.
+     * @param userIds The IDs of the users whose signups to remove.
+     * @return A CompletableFuture containing the result per user ID. Removing a signup that does
+     *         not exist counts as a success.
+     * @throws NullPointerException if eventId or userIds is null.
+     */
+    public CompletableFuture<BatchWriteResult> removeSignups(String eventId, List<String> userIds) {
+        Objects.requireNonNull(eventId);
+        Objects.requireNonNull(userIds);
+
+        CompletableFuture<Map<String, List<String>>> legacyDocumentIds = needsLegacyLookup()
+                .thenCompose(legacy -> legacy
+                        ? fetchLegacyDocumentIds(eventId, userIds)
+                        : CompletableFuture.completedFuture(new HashMap<>()));
+
+        List<String> flightKeys = new ArrayList<>();
+        for (String userId : userIds) {
+            flightKeys.add(signupFlightKey(userId, eventId));
+        }
+
+        return forgetSignupReads(legacyDocumentIds.thenCompose(legacy -> {
+            BatchWriter writer = new BatchWriter(backend);
+            BatchWriteResult invalid = new BatchWriteResult();
+
+            for (String userId : userIds) {
+                String documentId;
+                try {
+                    documentId = getSignupDocumentId(userId, eventId);
+                } catch (NullPointerException | IllegalArgumentException e) {
+                    invalid.addFailure(String.valueOf(userId), e);
+                    continue;
+                }
+                writer.add(userId, batch -> batch.delete(SIGNUP_COLLECTION, documentId));
+
+                List<String> legacyIds = legacy.get(userId);
+                if (legacyIds != null) {
+                    for (String legacyId : legacyIds) {
+                        writer.add(userId, batch -> batch.delete(SIGNUP_COLLECTION, legacyId));
+                    }
+                }
+            }
+            return writer.commit().thenApply(result -> mergeResults("removeSignups", result, invalid));
+        }), flightKeys);
+    }
+
+    /**
+     * Finds the auto IDs of signups of users to an event that have not been migrated yet.
+     *
+     * @param eventId The ID of the event.
+     * @param userIds The IDs of the users.
+     * @return A CompletableFuture containing the legacy document IDs per user ID.
+     */
+    private CompletableFuture<Map<String, List<String>>> fetchLegacyDocumentIds(String eventId, List<String> userIds) {
+        List<String> distinctUserIds = new ArrayList<>(new LinkedHashSet<>(userIds));
+        distinctUserIds.remove(null);
+        List<CompletableFuture<List<StoredDocument>>> queries = new ArrayList<>();
+
+        for (int i = 0; i < distinctUserIds.size(); i += ChunkedMultiGetLiveData.MAX_CHUNK_SIZE) {
+            List<String> chunk = distinctUserIds.subList(i, Math.min(i + ChunkedMultiGetLiveData.MAX_CHUNK_SIZE, distinctUserIds.size()));
+            BackendQuery query = BackendQuery.collection(SIGNUP_COLLECTION)
+                    .whereEqualTo("eventId", eventId)
+                    .whereIn("userId", new ArrayList<>(chunk));
+            queries.add(backend.query(query).whenComplete((documents, throwable) -> {
+                if (throwable != null) {
+                    Log.e(TAG, "removeSignups: failed to look up legacy signups", throwable);
+                }
+            }));
+        }
+
+        return CompletableFuture.allOf(queries.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    Map<String, List<String>> legacyDocumentIds = new HashMap<>();
+                    for (CompletableFuture<List<StoredDocument>> query : queries) {
+                        for (StoredDocument document : query.join()) {
+                            String userId = document.getString("userId");
+                            if (!document.getId().equals(getSignupDocumentId(userId, eventId))) {
+                                List<String> ids = legacyDocumentIds.get(userId);
+                                if (ids == null) {
+                                    ids = new ArrayList<>();
+                                    legacyDocumentIds.put(userId, ids);
+                                }
+                                ids.add(document.getId());
+                            }
+                        }
+                    }
+                    return legacyDocumentIds;
+                });
+    }
+
+    /**
+     * Adds the items rejected before writing to the result of a batched write and logs it.
+     *
+     * @param methodName The name of the calling method, used for logging.
+     * @param result The result of the batched write.
+     * @param invalid The items that were never written.
+     * @return The combined result.
+     */
+    private static BatchWriteResult mergeResults(String methodName, BatchWriteResult result, BatchWriteResult invalid) {
+        for (Map.Entry<String, Exception> failure : invalid.getFailures().entrySet()) {
+            result.addFailure(failure.getKey(), failure.getValue());
+        }
+        if (result.getFailureCount() > 0) {
+            Log.e(TAG, methodName + ": wrote " + result.getSuccessCount() + " signups, "
+                    + result.getFailureCount() + " failed", result.getFailures().values().iterator().next());
+        } else {
+            Log.d(TAG, methodName + ": wrote " + result.getSuccessCount() + " signups");
+        }
+        return result;
     }
 
     /**
-     * Retrieves a signup document based on userId and eventId.
+     * Retrieves a signup document based on userId and eventId. Concurrent lookups of the same
+     * signup share one request.
      *
      * @param userId The user ID associated with the signup.
      * @param eventId The event ID associated with the signup.
      * @return A CompletableFuture containing the signup, or null if not found.
      */
     public CompletableFuture<Signup> getSignup(String userId, String eventId) {
+        return signupFlight.run(signupFlightKey(userId, eventId), () -> fetchSignup(userId, eventId));
+    }
+
+    /**
+     * Gets the key under which {@link #getSignup(String, String)} shares reads of a signup.
+     *
+     * @param userId The user ID associated with the signup.
+     * @param eventId The event ID associated with the signup.
+     * @return The single-flight key of the signup.
+     */
+    private static String signupFlightKey(String userId, String eventId) {
+        return userId + "/" + eventId;
+    }
+
+    /**
+     * Forgets the in-flight reads of the written signups before a write's future completes, so a
+     * {@link #getSignup(String, String)} issued after the write does not join a read that was
+     * started before it and may not see it.
+     *
+     * @param write The future of the write.
+     * @param flightKeys The single-flight keys of the written signups.
+     * @return A future completed like the write, once the reads are forgotten.
+     */
+    private <T> CompletableFuture<T> forgetSignupReads(CompletableFuture<T> write, List<String> flightKeys) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        write.whenComplete((result, throwable) -> {
+            for (String flightKey : flightKeys) {
+                signupFlight.forget(flightKey);
+            }
+            if (throwable != null) {
+                future.completeExceptionally(throwable);
+            } else {
+                future.complete(result);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Reads the signup of a user to an event by its document ID, falling back to the legacy
+     * lookup if it does not exist and the signup key migration is not done.
+     *
+     * @param userId The user ID associated with the signup.
+     * @param eventId The event ID associated with the signup.
+     * @return A CompletableFuture containing the signup, or null if not found.
+     */
+    private CompletableFuture<Signup> fetchSignup(String userId, String eventId) {
         CompletableFuture<Signup> future = new CompletableFuture<>();
 
-        signupCollection
-            .whereEqualTo("userId", userId)
-            .whereEqualTo("eventId", eventId)
-            .get()
-            .addOnCompleteListener(task -> {
-                if (task.isSuccessful() && !task.getResult().isEmpty()) {
-                    QuerySnapshot querySnapshot = task.getResult();
-                    Signup signup = querySnapshot.toObjects(Signup.class).get(0);
+        String documentId;
+        try {
+            documentId = getSignupDocumentId(userId, eventId);
+        } catch (NullPointerException | IllegalArgumentException e) {
+            Log.e(TAG, "getSignup: invalid userId: " + userId + " or eventId: " + eventId);
+            future.completeExceptionally(e);
+            return future;
+        }
 
+        backend.get(SIGNUP_COLLECTION, documentId)
+            .whenComplete((document, throwable) -> {
+                if (throwable == null && document != null) {
+                    Signup signup = document.toObject(Signup.class);
                     if (signup != null) {
                         Log.d(TAG, "getSignup: success for userId: " + userId + " eventId: " + eventId);
-                        signup.setDocumentId(querySnapshot.getDocuments().get(0).getId());
+                        signup.setDocumentId(documentId);
+                    } else {
+                        Log.e(TAG, "getSignup: signup is null after deserialization");
+                    }
+                    future.complete(signup);
+                }
+                else if (throwable == null) {
+                    fetchLegacySignup(userId, eventId).whenComplete((signup, legacyThrowable) -> {
+                        if (legacyThrowable != null) {
+                            future.completeExceptionally(legacyThrowable);
+                        } else {
+                            future.complete(signup);
+                        }
+                    });
+                }
+                else {
+                    Log.e(TAG, "getSignup: fail", throwable);
+                    future.completeExceptionally(throwable);
+                }
+            });
+        return future;
+    }
+
+    /**
+     * Looks up a signup of a user to an event that is still stored under an auto ID, unless the
+     * signup key migration is done and no such signups are left.
+     *
+     * @param userId The user ID associated with the signup.
+     * @param eventId The event ID associated with the signup.
+     * @return A CompletableFuture containing the signup, or null if not found.
+     */
+    private CompletableFuture<Signup> fetchLegacySignup(String userId, String eventId) {
+        return needsLegacyLookup().thenCompose(legacy -> {
+            if (!legacy) {
+                Log.d(TAG, "getSignup: signup does not exist for userId: " + userId + " eventId: " + eventId);
+                return CompletableFuture.completedFuture(null);
+            }
+            return queryLegacySignup(userId, eventId);
+        });
+    }
+
+    /**
+     * Queries Firestore for a signup of a user to an event that is still stored under an auto ID.
+     *
+     * @param userId The user ID associated with the signup.
+     * @param eventId The event ID associated with the signup.
+     * @return A CompletableFuture containing the signup, or null if not found.
+     */
+    private CompletableFuture<Signup> queryLegacySignup(String userId, String eventId) {
+        CompletableFuture<Signup> future = new CompletableFuture<>();
+
+        BackendQuery query = BackendQuery.collection(SIGNUP_COLLECTION)
+                .whereEqualTo("userId", userId)
+                .whereEqualTo("eventId", eventId);
+        backend.query(query)
+            .whenComplete((documents, throwable) -> {
+                if (throwable == null && !documents.isEmpty()) {
+                    StoredDocument document = documents.get(0);
+                    Signup signup = document.toObject(Signup.class);
+
+                    if (signup != null) {
+                        Log.d(TAG, "getSignup: found legacy signup for userId: " + userId + " eventId: " + eventId);
+                        signup.setDocumentId(document.getId());
                     } else {
                         Log.e(TAG, "getSignup: signup is null after deserialization");
                     }
                     future.complete(signup);
                 }
-                else if (task.isSuccessful() && task.getResult().isEmpty()) {
+                else if (throwable == null) {
                     Log.d(TAG, "getSignup: signup does not exist for userId: " + userId + " eventId: " + eventId);
                     future.complete(null);
                 }
                 else {
-                    Log.e(TAG, "getSignup: fail", task.getException());
-                    future.completeExceptionally(task.getException());
+                    Log.e(TAG, "getSignup: fail", throwable);
+                    future.completeExceptionally(throwable);
                 }
             });
         return future;
@@ -254,6 +945,10 @@ public class SignupRepository {
     /**
      * Retrieves all users signed up for a specific event, wrapped in UserSignupEntry.
      *
+     * The users are joined incrementally (see {@link SignupUserJoin}): when the signups change,
+     * only users that newly appear are read, and entries whose status changed are updated in
+     * place. The list is emitted once every user of the current signups has been read.
+     *
      * @param eventId The ID of the event.
      * @param filter An instance of SignupFilter
      * @return LiveData containing a list of UserSignupEntry instances signed up for the event.
@@ -262,7 +957,7 @@ public class SignupRepository {
            String eventId,
            SignupFilter filter) {
         Objects.requireNonNull(filter);
-        Query query = signupCollection.whereEqualTo("eventId", eventId);
+        BackendQuery query = BackendQuery.collection(SIGNUP_COLLECTION).whereEqualTo("eventId", eventId);
 
         if ((filter.isCancelled == null || !filter.isCancelled) &&
                 (filter.isWaitlisted == null || !filter.isWaitlisted) &&
@@ -277,81 +972,111 @@ public class SignupRepository {
         Log.d(TAG, "filter isChosen: " + filter.isChosen);
         Log.d(TAG, "filter isEnrolled: " + filter.isEnrolled);
 
-        List<Filter> filters = new ArrayList<>();
+        List<String> statuses = new ArrayList<>();
 
         if (filter.isCancelled != null && filter.isCancelled) {
-            filters.add(Filter.equalTo("cancelled", true));
+            statuses.add(SignupStatus.CANCELLED.getValue());
         }
         if (filter.isWaitlisted != null && filter.isWaitlisted) {
-            filters.add(Filter.equalTo("waitlisted", true));
+            statuses.add(SignupStatus.WAITLISTED.getValue());
         }
         if (filter.isChosen != null && filter.isChosen) {
-            filters.add(Filter.equalTo("chosen", true));
+            statuses.add(SignupStatus.CHOSEN.getValue());
         }
         if (filter.isEnrolled != null && filter.isEnrolled) {
-            filters.add(Filter.equalTo("enrolled", true));
+            statuses.add(SignupStatus.ENROLLED.getValue());
         }
 
-        if (!filters.isEmpty()) {
-            query = query.where(Filter.or(filters.toArray(new Filter[0])));
-        }
+        LiveData<List<Signup>> signupLiveData = getSignupsWithStatusesLiveData(query, statuses);
 
-        LiveData<List<Signup>> signupLiveData = Common.runQueryLiveData(
-                "getSignedUpUsersByFilter", query, Signup.class, TAG);
+        MediatorLiveData<List<UserSignupEntry>> entriesLiveData = new MediatorLiveData<>();
+        SignupUserJoin join = new SignupUserJoin(this::determineAttendanceStatus);
+        Handler mainHandler = new Handler(Looper.getMainLooper());
 
-        return Transformations.switchMap(signupLiveData, signups -> {
-            if (signups == null || signups.isEmpty()) {
-                MutableLiveData<List<UserSignupEntry>> emptyLiveData = new MutableLiveData<>();
-                emptyLiveData.setValue(new ArrayList<>());
-                return emptyLiveData;
+        entriesLiveData.addSource(signupLiveData, signups -> {
+            Set<String> toFetch = join.onSignups(signups);
+            if (!toFetch.isEmpty()) {
+                Log.d(TAG, "getSignedUpUsersByFilter: fetching " + toFetch.size() + " new users, "
+                        + join.getUserCount() + " already known");
+                getUserRepository().getUsersByIds(toFetch).whenComplete((users, throwable) -> mainHandler.post(() -> {
+                    if (throwable != null) {
+                        Log.e(TAG, "getSignedUpUsersByFilter: failed to fetch users", throwable);
+                        join.onFetchFailed(toFetch);
+                    } else {
+                        join.onUsersFetched(toFetch, users);
+                    }
+                    if (join.isSettled()) {
+                        entriesLiveData.setValue(join.getEntries());
+                    }
+                }));
             }
-
-            // Mapping from userId to Signup
-            List<String> userIds = new ArrayList<>();
-            Map<String, Signup> signupMap = new HashMap<>();
-            for (Signup signup : signups) {
-                userIds.add(signup.getUserId());
-                signupMap.put(signup.getUserId(), signup);
+            if (join.isSettled()) {
+                entriesLiveData.setValue(join.getEntries());
             }
+        });
+        return entriesLiveData;
+    }
 
-            LiveData<List<User>> usersLiveData = userRepository.getUsersByIdsLiveData(userIds);
-
-            // Mapping from User to UserSignupEntry
-            return Transformations.map(usersLiveData, users -> {
-                List<UserSignupEntry> entries = new ArrayList<>();
-                if (users != null) {
-                    for (User user : users) {
-                        Signup signup = signupMap.get(user.getUserId());
-                        Objects.requireNonNull(signup);
+    /**
+     * Runs a query of signups as LiveData, keeping only signups with one of the given statuses.
+     * Once the signup status migration is done, as recorded in `migrations/signupStatus`, the
+     * statuses are filtered by the (eventId, status) index. Until then, signups written before the
+     * status field existed would be missing from that query, so the statuses are filtered here
+     * instead, from the status the codec derives from their flags.
+     *
+     * @param query The query of signups.
+     * @param statuses The values of the statuses to keep.
+     * @return LiveData containing the matching signups.
+     */
+    private LiveData<List<Signup>> getSignupsWithStatusesLiveData(BackendQuery query, List<String> statuses) {
+        // selecting every status needs no status filter
+        if (statuses.size() == SignupStatus.values().length) {
+            return backend.getQueryLiveData(
+                    "getSignedUpUsersByFilter", query, Signup.class, EVENT_SIGNUPS_WINDOW, TAG);
+        }
+        BackendQuery statusQuery = query.whereIn("status", statuses);
+        if (statusMigrated) {
+            return backend.getQueryLiveData(
+                    "getSignedUpUsersByFilter", statusQuery, Signup.class, EVENT_SIGNUPS_WINDOW, TAG);
+        }
 
-                        String attendanceStatus = determineAttendanceStatus(signup);
-                        UserSignupEntry entry = new UserSignupEntry(user, attendanceStatus);
-                        entries.add(entry);
+        MediatorLiveData<List<Signup>> signupsLiveData = new MediatorLiveData<>();
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        backend.get(MIGRATION_COLLECTION, STATUS_MIGRATION_ID).whenComplete((migration, error) -> mainHandler.post(() -> {
+            if (error == null && migration != null && Boolean.TRUE.equals(migration.get("done"))) {
+                statusMigrated = true;
+                signupsLiveData.addSource(backend.getQueryLiveData(
+                        "getSignedUpUsersByFilter", statusQuery, Signup.class, EVENT_SIGNUPS_WINDOW, TAG),
+                        signupsLiveData::setValue);
+                return;
+            }
+            Log.d(TAG, "getSignedUpUsersByFilter: signup status migration not done, filtering statuses locally");
+            signupsLiveData.addSource(backend.getQueryLiveData(
+                    "getSignedUpUsersByFilter", query, Signup.class, EVENT_SIGNUPS_WINDOW, TAG), signups -> {
+                if (signups == null) {
+                    signupsLiveData.setValue(null);
+                    return;
+                }
+                List<Signup> matching = new ArrayList<>();
+                for (Signup signup : signups) {
+                    if (statuses.contains(signup.getStatusValue())) {
+                        matching.add(signup);
                     }
                 }
-                return entries;
+                signupsLiveData.setValue(matching);
             });
-        });
+        }));
+        return signupsLiveData;
     }
 
     /**
-     * Determines the attendance status string based on the signup's fields.
+     * Determines the attendance status string based on the signup's status.
      *
      * @param signup the Signup object to determine the status for.
      * @return the attendance status string.
      */
     private String determineAttendanceStatus(Signup signup) {
-        if (signup.isCancelled()) {
-            return "Cancelled";
-        } else if (signup.isWaitlisted()) {
-            return "Waitlisted";
-        } else if (signup.isChosen()) {
-            return "Chosen";
-        } else if (signup.isEnrolled()) {
-            return "Enrolled";
-        } else {
-            return "Unknown";
-        }
+        return signup.getStatus().getDisplayName();
     }
 
     /**
@@ -361,8 +1086,8 @@ public class SignupRepository {
      * @return LiveData containing a list of signups for the specified user.
      */
     public LiveData<List<Signup>> getSignupsOfUserLiveData(String userId) {
-        Query query = signupCollection.whereEqualTo("userId", userId);
-        return Common.runQueryLiveData("getSignupsOfUserLiveData", query, Signup.class, TAG);
+        BackendQuery query = BackendQuery.collection(SIGNUP_COLLECTION).whereEqualTo("userId", userId);
+        return backend.getQueryLiveData("getSignupsOfUserLiveData", query, Signup.class, TAG);
     }
 
     /**
@@ -372,7 +1097,134 @@ public class SignupRepository {
      * @return LiveData containing a list of signups for the specified event.
      */
     public LiveData<List<Signup>> getSignupsOfEventLiveData(String eventId) {
-        Query query = signupCollection.whereEqualTo("eventId", eventId);
-        return Common.runQueryLiveData("getSignupsOfEventLiveData", query, Signup.class, TAG);
+        BackendQuery query = BackendQuery.collection(SIGNUP_COLLECTION).whereEqualTo("eventId", eventId);
+        return backend.getQueryLiveData("getSignupsOfEventLiveData", query, Signup.class, EVENT_SIGNUPS_WINDOW, TAG);
+    }
+
+    /**
+     * Counts the signups of an event with a server-side aggregation query, which costs one read
+     * per batch of up to 1000 index entries instead of one read per signup.
+     *
+     * @param eventId The ID of the event.
+     * @return A CompletableFuture containing the number of signups, including cancelled ones.
+     */
+    public CompletableFuture<Long> countSignupsOfEvent(String eventId) {
+        return countSignups("countSignupsOfEvent",
+                BackendQuery.collection(SIGNUP_COLLECTION).whereEqualTo("eventId", eventId));
+    }
+
+    /**
+     * Counts the signups of an event that have a status, with a server-side aggregation query.
+     *
+     * @param eventId The ID of the event.
+     * @param status The status to count.
+     * @return A CompletableFuture containing the number of signups with that status.
+     * @throws NullPointerException if status is null.
+     */
+    public CompletableFuture<Long> countSignupsOfEvent(String eventId, SignupStatus status) {
+        Objects.requireNonNull(status);
+        BackendQuery query = BackendQuery.collection(SIGNUP_COLLECTION)
+                .whereEqualTo("eventId", eventId)
+                .whereEqualTo("status", status.getValue());
+        return countSignups("countSignupsOfEvent(" + status.getValue() + ")", query);
+    }
+
+    /**
+     * Counts the signups of an event in total and per status. The five aggregation queries run in
+     * parallel.
+     *
+     * @param eventId The ID of the event.
+     * @return A CompletableFuture containing the counts.
+     */
+    public CompletableFuture<SignupCounts> getSignupCounts(String eventId) {
+        CompletableFuture<Long> total = countSignupsOfEvent(eventId);
+        CompletableFuture<Long> cancelled = countSignupsOfEvent(eventId, SignupStatus.CANCELLED);
+        CompletableFuture<Long> waitlisted = countSignupsOfEvent(eventId, SignupStatus.WAITLISTED);
+        CompletableFuture<Long> chosen = countSignupsOfEvent(eventId, SignupStatus.CHOSEN);
+        CompletableFuture<Long> enrolled = countSignupsOfEvent(eventId, SignupStatus.ENROLLED);
+
+        return CompletableFuture.allOf(total, cancelled, waitlisted, chosen, enrolled)
+                .thenApply(ignored -> new SignupCounts(
+                        total.join(), cancelled.join(), waitlisted.join(), chosen.join(), enrolled.join()));
+    }
+
+    /**
+     * Retrieves the signup counts of an event as LiveData, refreshed every
+     * {@link #DEFAULT_COUNTS_REFRESH_MS} while observed.
+     *
+     * @param eventId The ID of the event.
+     * @return LiveData containing the counts; call refresh() to reload them immediately.
+     */
+    public PollingLiveData<SignupCounts> getSignupCountsLiveData(String eventId) {
+        return getSignupCountsLiveData(eventId, DEFAULT_COUNTS_REFRESH_MS);
+    }
+
+    /**
+     * Retrieves the signup counts of an event as LiveData.
+     *
+     * @param eventId The ID of the event.
+     * @param refreshIntervalMs How often to reload the counts while observed, or
+     *        {@link PollingLiveData#NO_POLLING} to only load them on activation and refresh().
+     * @return LiveData containing the counts; call refresh() to reload them immediately.
+     */
+    public PollingLiveData<SignupCounts> getSignupCountsLiveData(String eventId, long refreshIntervalMs) {
+        return new PollingLiveData<>("getSignupCountsLiveData", () -> getSignupCounts(eventId), refreshIntervalMs, TAG);
+    }
+
+    /**
+     * Gets the user repository used to join users to signups, creating it on first use.
+     *
+     * @return The user repository.
+     */
+    private synchronized UserRepository getUserRepository() {
+        if (userRepository == null) {
+            userRepository = UserRepository.getInstance();
+        }
+        return userRepository;
+    }
+
+    /**
+     * Checks whether a failed write failed because the document does not exist.
+     *
+     * @param throwable The exception the write completed with.
+     * @return true if the document was not found.
+     */
+    private static boolean isNotFound(Throwable throwable) {
+        return unwrap(throwable) instanceof DocumentNotFoundException;
+    }
+
+    /**
+     * Unwraps the CompletionException added by a future chain.
+     *
+     * @param throwable The exception a future completed with.
+     * @return The underlying cause.
+     */
+    private static Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+    }
+
+    /**
+     * Runs a count aggregation on the server.
+     *
+     * @param methodName The name of the calling method, used for logging.
+     * @param query The query to count.
+     * @return A CompletableFuture containing the count.
+     */
+    private CompletableFuture<Long> countSignups(String methodName, BackendQuery query) {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+
+        backend.count(query)
+            .whenComplete((count, throwable) -> {
+                if (throwable == null) {
+                    Log.d(TAG, methodName + ": counted " + count + " signups");
+                    future.complete(count);
+                } else {
+                    Log.e(TAG, methodName + ": fail", throwable);
+                    future.completeExceptionally(throwable);
+                }
+            });
+        return future;
     }
 }
@@ -0,0 +1,153 @@
+package com.example.eventapp.repositories;
+
+import com.example.eventapp.models.Signup;
+import com.example.eventapp.models.User;
+import com.example.eventapp.repositories.DTOs.UserSignupEntry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Joins a live list of signups with their users, keeping the users it has read keyed by ID.
+ *
+ * When the signups change, only users that newly appear are returned to be fetched, users whose
+ * signups went away are dropped, and the entries of everyone else are updated in place: a signup
+ * whose status flipped gets its entry's status recomputed without re-reading the user, and keeps
+ * the same {@link UserSignupEntry} so UI state like selection survives. User documents are read
+ * once, so profile edits made while the list is open are not picked up.
+ *
+ * Not thread-safe; all calls must come from the same thread.
+ */
+class SignupUserJoin {
+
+    private final Function<Signup, String> statusOf;
+    private final Map<String, User> users = new HashMap<>();
+    private final Map<String, UserSignupEntry> entries = new HashMap<>();
+    private final Set<String> notFound = new HashSet<>();
+    private final Set<String> inFlight = new HashSet<>();
+    private Map<String, Signup> signups = new LinkedHashMap<>();
+
+    /**
+     * Creates a join.
+     *
+     * @param statusOf Gives the attendance status shown for a signup.
+     */
+    SignupUserJoin(Function<Signup, String> statusOf) {
+        this.statusOf = statusOf;
+    }
+
+    /**
+     * Applies a new list of signups.
+     *
+     * @param latest The current signups, in the order entries should be listed; may be null.
+     * @return The IDs of users that must be fetched, now marked as in flight.
+     */
+    Set<String> onSignups(List<Signup> latest) {
+        Map<String, Signup> next = new LinkedHashMap<>();
+        if (latest != null) {
+            for (Signup signup : latest) {
+                if (signup.getUserId() != null) {
+                    next.put(signup.getUserId(), signup);
+                }
+            }
+        }
+        signups = next;
+
+        users.keySet().retainAll(next.keySet());
+        entries.keySet().retainAll(next.keySet());
+        notFound.retainAll(next.keySet());
+
+        Set<String> toFetch = new LinkedHashSet<>();
+        for (String userId : next.keySet()) {
+            if (!users.containsKey(userId) && !notFound.contains(userId) && !inFlight.contains(userId)) {
+                toFetch.add(userId);
+            }
+        }
+        inFlight.addAll(toFetch);
+        return toFetch;
+    }
+
+    /**
+     * Stores the users read for a fetch returned by {@link #onSignups}. Users whose signups went
+     * away in the meantime are ignored.
+     *
+     * @param requested The IDs that were fetched.
+     * @param fetched The users found; requested IDs that are missing are remembered as not found.
+     */
+    void onUsersFetched(Collection<String> requested, List<User> fetched) {
+        inFlight.removeAll(requested);
+        Set<String> missing = new HashSet<>(requested);
+        for (User user : fetched) {
+            missing.remove(user.getUserId());
+            if (signups.containsKey(user.getUserId())) {
+                users.put(user.getUserId(), user);
+            }
+        }
+        for (String userId : missing) {
+            if (signups.containsKey(userId)) {
+                notFound.add(userId);
+            }
+        }
+    }
+
+    /**
+     * Gives up on a failed fetch; its users are fetched again on the next change of the signups.
+     *
+     * @param requested The IDs that were fetched.
+     */
+    void onFetchFailed(Collection<String> requested) {
+        inFlight.removeAll(requested);
+    }
+
+    /**
+     * Checks whether every user of the current signups has been read or found missing.
+     *
+     * @return true if no fetch is in flight
+     */
+    boolean isSettled() {
+        return inFlight.isEmpty();
+    }
+
+    /**
+     * Gets the number of users currently held.
+     *
+     * @return The number of users.
+     */
+    int getUserCount() {
+        return users.size();
+    }
+
+    /**
+     * Builds the entries of the current signups whose users are known, updating the status of
+     * existing entries in place.
+     *
+     * @return The entries in signup order.
+     */
+    List<UserSignupEntry> getEntries() {
+        List<UserSignupEntry> result = new ArrayList<>(signups.size());
+        for (Map.Entry<String, Signup> signup : signups.entrySet()) {
+            User user = users.get(signup.getKey());
+            if (user == null) {
+                continue;
+            }
+            String status = statusOf.apply(signup.getValue());
+            UserSignupEntry entry = entries.get(signup.getKey());
+            if (entry == null) {
+                entry = new UserSignupEntry(user, status);
+                entries.put(signup.getKey(), entry);
+            } else {
+                entry.setAttendanceStatus(status);
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+}
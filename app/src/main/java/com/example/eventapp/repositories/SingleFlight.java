@@ -0,0 +1,138 @@
+package com.example.eventapp.repositories;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Collapses concurrent identical reads into one request. While a load for a key is in flight,
+ * further calls for the same key wait on that load instead of issuing their own; once it
+ * completes (or is forgotten) the key is released and the next call loads again.
+ *
+ * Every caller gets its own future derived from the shared load, and each result is passed
+ * through a copier so callers that modify the returned model do not affect each other.
+ *
+ * @param <K> The key type.
+ * @param <V> The result type.
+ */
+public class SingleFlight<K, V> {
+
+    private static final AtomicLong totalCollapsedCount = new AtomicLong();
+
+    private final String name;
+    private final UnaryOperator<V> copier;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong collapsedCount = new AtomicLong();
+
+    /**
+     * Creates a single-flight group.
+     *
+     * @param name The name of the read, used in {@link #toString()}.
+     * @param copier Makes an independent copy of a non-null result for each caller.
+     */
+    public SingleFlight(String name, UnaryOperator<V> copier) {
+        this.name = name;
+        this.copier = copier;
+    }
+
+    /**
+     * Runs a load for a key, or joins the load already in flight for it.
+     *
+     * @param key The key identifying the read.
+     * @param loader Starts the load; only called if no load for the key is in flight.
+     * @return A future completed with (a copy of) the result of the shared load.
+     */
+    public CompletableFuture<V> run(K key, Supplier<CompletableFuture<V>> loader) {
+        requestCount.incrementAndGet();
+        CompletableFuture<V> shared = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            collapsedCount.incrementAndGet();
+            totalCollapsedCount.incrementAndGet();
+            return existing.thenApply(this::copy);
+        }
+
+        CompletableFuture<V> load;
+        try {
+            load = loader.get();
+        } catch (RuntimeException e) {
+            load = new CompletableFuture<>();
+            load.completeExceptionally(e);
+        }
+        load.whenComplete((value, error) -> {
+            inFlight.remove(key, shared);
+            if (error != null) {
+                shared.completeExceptionally(error);
+            } else {
+                shared.complete(value);
+            }
+        });
+        return shared.thenApply(this::copy);
+    }
+
+    /**
+     * Releases a key, so the next call for it starts a new load instead of joining the one in
+     * flight. Callers already waiting on that load still get its result. Writers call this once
+     * their write is done, as a load started before the write may not see it.
+     *
+     * @param key The key identifying the read.
+     */
+    public void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    /**
+     * Gets the number of reads requested through this group.
+     *
+     * @return The number of requests.
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * Gets the number of reads that joined an in-flight request instead of issuing their own.
+     *
+     * @return The number of collapsed requests.
+     */
+    public long getCollapsedCount() {
+        return collapsedCount.get();
+    }
+
+    /**
+     * Gets the number of collapsed reads across every single-flight group in the app.
+     *
+     * @return The total number of collapsed requests.
+     */
+    public static long getTotalCollapsedCount() {
+        return totalCollapsedCount.get();
+    }
+
+    /**
+     * Gets the number of keys currently being loaded.
+     *
+     * @return The number of in-flight requests.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Describes the group and how many of its reads were collapsed.
+     *
+     * @return The name of the read with its request counts.
+     */
+    @Override
+    public String toString() {
+        return name + ": collapsed " + collapsedCount.get() + " of " + requestCount.get() + " requests";
+    }
+
+    private V copy(V value) {
+        return value != null ? copier.apply(value) : null;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.eventapp.repositories;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * The `SnapshotParser` class is a singleton that moves deserialization of Firestore snapshots off
+ * the main thread. It owns a small, bounded thread pool and hands out {@link Lane}s: each listener
+ * gets its own lane, which processes snapshots one at a time in arrival order and delivers the
+ * results back on the main thread in the same order.
+ *
+ * If newer snapshots arrive while a lane is busy, they are batched and only the latest one is
+ * processed; the superseded snapshots are passed along so callers can still account for the
+ * documents they touched. If the pool and its queue are both full, work runs on the calling
+ * thread rather than being dropped.
+ */
+class SnapshotParser {
+
+    private static final String TAG = "SnapshotParser";
+    private static final int THREAD_COUNT = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+    private static final int QUEUE_CAPACITY = 512;
+
+    private static SnapshotParser instance;
+
+    private final ThreadPoolExecutor executor;
+    private final Handler mainHandler;
+    private final AtomicLong supersededSnapshotCount = new AtomicLong();
+
+    /**
+     * Processes the latest snapshot of a lane, given any snapshots it superseded.
+     *
+     * @param <S> The snapshot type.
+     * @param <R> The result type.
+     */
+    interface Processor<S, R> {
+        R process(S latest, List<S> superseded);
+    }
+
+    /**
+     * Initializes the parser with its bounded executor.
+     */
+    private SnapshotParser() {
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-parser-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        };
+        executor = new ThreadPoolExecutor(
+                THREAD_COUNT, THREAD_COUNT, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), threadFactory,
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        mainHandler = new Handler(Looper.getMainLooper());
+    }
+
+    /**
+     * Retrieves the singleton instance of SnapshotParser.
+     *
+     * @return The singleton instance of SnapshotParser.
+     */
+    static synchronized SnapshotParser getInstance() {
+        if (instance == null) {
+            instance = new SnapshotParser();
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a new lane for one listener.
+     *
+     * @param processor Parses the latest snapshot on a background thread.
+     * @param deliver Receives each result on the main thread, in order.
+     * @param <S> The snapshot type.
+     * @param <R> The result type.
+     * @return A new lane.
+     */
+    <S, R> Lane<S, R> newLane(Processor<S, R> processor, Consumer<R> deliver) {
+        return new Lane<>(processor, deliver);
+    }
+
+    /**
+     * Gets the number of snapshots that were skipped because a newer one arrived first.
+     *
+     * @return The number of superseded snapshots.
+     */
+    long getSupersededSnapshotCount() {
+        return supersededSnapshotCount.get();
+    }
+
+    /**
+     * A serial queue of snapshots for one listener.
+     *
+     * @param <S> The snapshot type.
+     * @param <R> The result type.
+     */
+    final class Lane<S, R> {
+        private final Processor<S, R> processor;
+        private final Consumer<R> deliver;
+        private final Object lock = new Object();
+        private final List<S> pending = new ArrayList<>();
+        private boolean scheduled = false;
+
+        private Lane(Processor<S, R> processor, Consumer<R> deliver) {
+            this.processor = processor;
+            this.deliver = deliver;
+        }
+
+        /**
+         * Queues a snapshot for parsing.
+         *
+         * @param snapshot The snapshot delivered by the listener.
+         */
+        void submit(S snapshot) {
+            synchronized (lock) {
+                pending.add(snapshot);
+                if (scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            executor.execute(this::drain);
+        }
+
+        /**
+         * Processes queued snapshots until the lane is empty, collapsing each batch to its latest snapshot.
+         */
+        private void drain() {
+            while (true) {
+                List<S> batch;
+                synchronized (lock) {
+                    if (pending.isEmpty()) {
+                        scheduled = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(pending);
+                    pending.clear();
+                }
+                S latest = batch.get(batch.size() - 1);
+                List<S> superseded = batch.subList(0, batch.size() - 1);
+                supersededSnapshotCount.addAndGet(superseded.size());
+
+                try {
+                    R result = processor.process(latest, superseded);
+                    mainHandler.post(() -> deliver.accept(result));
+                } catch (RuntimeException e) {
+                    Log.e(TAG, "drain: failed to process snapshot", e);
+                }
+            }
+        }
+    }
+}
@@ -7,18 +7,23 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
 import com.example.eventapp.models.User;
+import com.example.eventapp.repositories.codecs.Codecs;
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Source;
 
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 
 /**
@@ -33,6 +38,9 @@ public class UserRepository {
     private static final String TAG = "UserRepository";
     private static UserRepository instance;
     private final CollectionReference userCollection;
+    private final EntityCache<User> userCache = EntityCache.forClass(User.class);
+    private final SingleFlight<String, User> userFlight = new SingleFlight<>(
+            "getUser", user -> Codecs.copy(User.class, user.getUserId(), user));
 
     private final MutableLiveData<User> currentUserLiveData = new MutableLiveData<>();
     private String currentUserId = null;
@@ -121,8 +129,10 @@ public class UserRepository {
         String userId = getUserIdOrThrow(user);
         CompletableFuture<Void> future = new CompletableFuture<>();
 
-        userCollection.document(userId).set(user)
+        userCache.invalidate(userId);
+        userCollection.document(userId).set(Codecs.encode(user))
                 .addOnCompleteListener(task -> {
+                    userCache.invalidate(userId);
                     if (task.isSuccessful()) {
                         Log.d(TAG, "saveUser: success for user with ID: " + userId);
                         future.complete(null);
@@ -163,8 +173,10 @@ public class UserRepository {
             return future;
         }
 
+        userCache.invalidate(userId);
         userCollection.document(userId).delete()
                 .addOnCompleteListener(task -> {
+                    userCache.invalidate(userId);
                     if (task.isSuccessful()) {
                         Log.d(TAG, "removeUser: success for user with ID: " + userId);
                         future.complete(null);
@@ -177,7 +189,8 @@ public class UserRepository {
     }
 
     /**
-     * Retrieves a user document by userId.
+     * Retrieves a user document by userId, answering from the {@link EntityCache} when the user
+     * was read recently. Concurrent lookups of the same user share one request.
      *
      * @param userId The ID of the user to retrieve.
      * @return A CompletableFuture containing the user document, or null if not found.
@@ -185,11 +198,48 @@ public class UserRepository {
     public CompletableFuture<User> getUser(String userId) {
         CompletableFuture<User> future = new CompletableFuture<>();
 
-        userCollection.document(userId).get()
+        User cached = userCache.get(userId);
+        if (cached != null) {
+            Log.d(TAG, "getUser: cache hit for user with ID: " + userId);
+            future.complete(cached);
+            return future;
+        }
+        return userFlight.run(userId, () -> fetchUser(userId, Source.DEFAULT));
+    }
+
+    /**
+     * Retrieves a user document by userId under a read policy. The {@link EntityCache} is
+     * bypassed, but users read from the server are still put into it.
+     *
+     * @param userId The ID of the user to retrieve.
+     * @param policy Where to read the user from.
+     * @param onRefresh Receives the server copy of a user answered from the cache under
+     *                  {@link ReadPolicy#CACHE_THEN_SERVER}; may be null.
+     * @return A CompletableFuture containing the user document, or null if not found.
+     */
+    public CompletableFuture<User> getUser(String userId, ReadPolicy policy, Consumer<User> onRefresh) {
+        Objects.requireNonNull(userId, "User ID cannot be null");
+        return PolicyReader.read(policy, source -> fetchUser(userId, source), onRefresh);
+    }
+
+    /**
+     * Reads a user document from Firestore and caches it, unless it was read from the local cache.
+     *
+     * @param userId The ID of the user to retrieve.
+     * @param source Where to read the user from.
+     * @return A CompletableFuture containing the user document, or null if not found.
+     */
+    private CompletableFuture<User> fetchUser(String userId, Source source) {
+        CompletableFuture<User> future = new CompletableFuture<>();
+
+        userCollection.document(userId).get(source)
             .addOnCompleteListener(task -> {
                 if (task.isSuccessful() && task.getResult().exists()) {
                     DocumentSnapshot documentSnapshot = task.getResult();
-                    User user = documentSnapshot.toObject(User.class);
+                    User user = Common.parseDocument(documentSnapshot, User.class);
+                    if (source != Source.CACHE) {
+                        userCache.put(userId, user);
+                    }
 
                     if (user != null) {
                         Log.d(TAG, "getUser: success for user with ID: " + userId);
@@ -235,16 +285,13 @@ public class UserRepository {
         CompletableFuture<User> future = new CompletableFuture<>();
 
         userCollection
-                .whereEqualTo("photoUri", imageUri)
+                .whereEqualTo("photoUriString", imageUri.toString())
                 .limit(1)
                 .get()
                 .addOnSuccessListener(querySnapshot -> {
                     if (querySnapshot != null && !querySnapshot.isEmpty()) {
                         DocumentSnapshot document = querySnapshot.getDocuments().get(0);
-                        User user = document.toObject(User.class);
-                        if (user != null) {
-                            user.setUserId(document.getId());
-                        }
+                        User user = Common.parseDocument(document, User.class);
                         future.complete(user);
                     } else {
                         Log.w(TAG, "getUserByUri: no user found with Image Uri: " + imageUri);
@@ -260,6 +307,8 @@ public class UserRepository {
 
     /**
      * Sets up real-time updates for a user's LiveData by adding a snapshot listener to the user's document.
+     * Snapshots are deserialized on the {@link SnapshotParser} pool and delivered back on the main
+     * thread in order; results for a user that is no longer current are dropped.
      *
      * @param liveData The LiveData object to update with user data.
      * @param userId The ID of the user to listen for updates on.
@@ -267,6 +316,23 @@ public class UserRepository {
      */
     private ListenerRegistration setUserLiveData(MutableLiveData<User> liveData, String userId) {
         DocumentReference userDocRef = userCollection.document(userId);
+        SnapshotParser.Lane<DocumentSnapshot, User> lane = SnapshotParser.getInstance().newLane(
+                (latest, superseded) -> {
+                    User user = latest.exists() ? Common.parseDocument(latest, User.class) : null;
+                    userCache.put(userId, user);
+                    return user;
+                },
+                user -> {
+                    if (!userId.equals(currentUserId)) {
+                        return;
+                    }
+                    if (user != null) {
+                        Log.d(TAG, "setUserLiveData: success for user with ID: " + userId);
+                    } else {
+                        Log.e(TAG, "setUserLiveData: document does not exist or failed to deserialize for ID: " + userId);
+                    }
+                    liveData.setValue(user);
+                });
 
         return userDocRef.addSnapshotListener((documentSnapshot, e) -> {
             if (e != null) {
@@ -274,19 +340,8 @@ public class UserRepository {
                 liveData.setValue(null);
                 return;
             }
-            if (documentSnapshot != null && !documentSnapshot.exists()) {
-                Log.e(TAG, "setUserLiveData: document does not exist for ID: " + userId);
-                liveData.setValue(null);
-                return;
-            }
             if (documentSnapshot != null) {
-                User user = documentSnapshot.toObject(User.class);
-                if (user != null) {
-                    Log.d(TAG, "setUserLiveData: success for user with ID: " + userId);
-                } else {
-                    Log.e(TAG, "setUserLiveData: user is null after deserialization");
-                }
-                liveData.setValue(user);
+                lane.submit(documentSnapshot);
             }
         });
     }
@@ -320,7 +375,8 @@ public class UserRepository {
     }
 
     /**
-     * Retrieves a LiveData list of all users.
+     * Retrieves a LiveData list of all users. This streams the whole collection; list screens
+     * should prefer {@link #getUsersPagedLiveData()}.
      *
      * @return LiveData containing a list of all users.
      */
@@ -341,39 +397,107 @@ public class UserRepository {
     }
 
     /**
-     * Retrieves a LiveData list of users by their IDs.
+     * Retrieves a LiveData list of users by their IDs. The IDs are fetched in chunks so lists
+     * longer than Firestore's `whereIn` limit are supported.
      *
      * @param userIds The list of user IDs to retrieve.
      * @return LiveData containing a list of users matching the given IDs.
      */
     public LiveData<List<User>> getUsersByIdsLiveData(List<String> userIds) {
-        MutableLiveData<List<User>> usersLiveData = new MutableLiveData<>();
+        ChunkedMultiGetLiveData<User> usersLiveData = new ChunkedMultiGetLiveData<>(
+                "getUsersByIdsLiveData", userCollection, User.class, User::getUserId, TAG);
 
         if (userIds == null || userIds.isEmpty()) {
             Log.d(TAG, "getUsersByIdsLiveData: No user IDs provided");
-            usersLiveData.setValue(new ArrayList<>());
-            return usersLiveData;
         }
+        usersLiveData.setIds(userIds);
+        return usersLiveData;
+    }
 
-        userCollection.whereIn(FieldPath.documentId(), userIds).addSnapshotListener((userQuerySnapshot, e) -> {
-            if (e != null) {
-                Log.e(TAG, "getUsersByIdsLiveData: Failed to listen for users", e);
-                usersLiveData.setValue(new ArrayList<>());
-                return;
+    /**
+     * Reads a set of users once, answering from the {@link EntityCache} where possible and
+     * fetching the rest with `whereIn` queries of at most
+     * {@link ChunkedMultiGetLiveData#MAX_CHUNK_SIZE} IDs each. Users that don't exist are left out.
+     *
+     * @param userIds The IDs of the users to retrieve.
+     * @return A CompletableFuture containing the users found, in no particular order.
+     */
+    public CompletableFuture<List<User>> getUsersByIds(Collection<String> userIds) {
+        Objects.requireNonNull(userIds, "User IDs cannot be null");
+        List<User> users = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String userId : new LinkedHashSet<>(userIds)) {
+            User cached = userId != null ? userCache.get(userId) : null;
+            if (cached != null) {
+                users.add(cached);
+            } else if (userId != null) {
+                missing.add(userId);
             }
+        }
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(users);
+        }
 
-            if (userQuerySnapshot != null && !userQuerySnapshot.isEmpty()) {
-                List<User> users = userQuerySnapshot.toObjects(User.class);
-                for (int i = 0; i < users.size(); i++) {
-                    users.get(i).setUserId(userQuerySnapshot.getDocuments().get(i).getId());
-                }
-                usersLiveData.setValue(users);
-                Log.d(TAG, "getUsersByIdsLiveData: Retrieved " + users.size() + " users");
-            } else {
-                Log.d(TAG, "getUsersByIdsLiveData: No users found");
-                usersLiveData.setValue(new ArrayList<>());
+        List<CompletableFuture<List<User>>> chunks = new ArrayList<>();
+        for (int start = 0; start < missing.size(); start += ChunkedMultiGetLiveData.MAX_CHUNK_SIZE) {
+            List<String> chunk = missing.subList(
+                    start, Math.min(missing.size(), start + ChunkedMultiGetLiveData.MAX_CHUNK_SIZE));
+            chunks.add(fetchUsers(new ArrayList<>(chunk)));
+        }
+        Log.d(TAG, "getUsersByIds: " + users.size() + " cached, fetching " + missing.size()
+                + " in " + chunks.size() + " chunks");
+
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).thenApply(discard -> {
+            for (CompletableFuture<List<User>> chunk : chunks) {
+                users.addAll(chunk.join());
             }
+            return users;
         });
-        return usersLiveData;
+    }
+
+    /**
+     * Reads up to {@link ChunkedMultiGetLiveData#MAX_CHUNK_SIZE} users with one query and caches them.
+     *
+     * @param userIds The IDs of the users to retrieve.
+     * @return A CompletableFuture containing the users found.
+     */
+    private CompletableFuture<List<User>> fetchUsers(List<String> userIds) {
+        CompletableFuture<List<User>> future = new CompletableFuture<>();
+
+        userCollection.whereIn(FieldPath.documentId(), userIds).get()
+                .addOnSuccessListener(querySnapshot -> {
+                    List<User> users = Common.parseDocuments(querySnapshot, User.class);
+                    for (User user : users) {
+                        userCache.put(user.getUserId(), user);
+                    }
+                    future.complete(users);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "getUsersByIds: failed to retrieve users", e);
+                    future.completeExceptionally(e);
+                });
+        return future;
+    }
+
+    /**
+     * Retrieves users one page at a time, ordered by user ID, using the default page size.
+     *
+     * @return PagedQueryLiveData containing the loaded window of users.
+     */
+    public PagedQueryLiveData<User> getUsersPagedLiveData() {
+        return getUsersPagedLiveData(PagedQueryLiveData.DEFAULT_PAGE_SIZE, PagedQueryLiveData.DEFAULT_PREFETCH_DISTANCE);
+    }
+
+    /**
+     * Retrieves users one page at a time, ordered by user ID. Only the pages around the visible
+     * position are kept live.
+     *
+     * @param pageSize The number of users per page.
+     * @param prefetchDistance How many items before the end of the loaded window the next page is requested.
+     * @return PagedQueryLiveData containing the loaded window of users.
+     */
+    public PagedQueryLiveData<User> getUsersPagedLiveData(int pageSize, int prefetchDistance) {
+        return new PagedQueryLiveData<>(
+                "getUsersPagedLiveData", userCollection, User.class, User::getUserId, pageSize, prefetchDistance, TAG);
     }
 }
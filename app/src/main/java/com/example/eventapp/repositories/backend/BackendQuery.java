@@ -0,0 +1,126 @@
+package com.example.eventapp.repositories.backend;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable query over the documents of one collection: every condition must match, and at
+ * most {@code limit} documents are returned. Results are ordered by document ID, as Firestore
+ * orders queries without an `orderBy`.
+ */
+public final class BackendQuery {
+
+    /** Limit of a query that returns every matching document. */
+    public static final int NO_LIMIT = -1;
+
+    private final String collectionPath;
+    private final List<Condition> conditions;
+    private final int limit;
+
+    private BackendQuery(String collectionPath, List<Condition> conditions, int limit) {
+        this.collectionPath = collectionPath;
+        this.conditions = conditions;
+        this.limit = limit;
+    }
+
+    /**
+     * Creates a query over every document of a collection.
+     *
+     * @param collectionPath The path of the collection, e.g. "signups" or "eventCapacity/{eventId}/slots".
+     * @return The query.
+     * @throws NullPointerException if collectionPath is null.
+     */
+    public static BackendQuery collection(String collectionPath) {
+        Objects.requireNonNull(collectionPath, "collectionPath cannot be null");
+        return new BackendQuery(collectionPath, Collections.emptyList(), NO_LIMIT);
+    }
+
+    /**
+     * Returns a copy of this query that also requires a field to equal a value.
+     *
+     * @param field The name of the field.
+     * @param value The value to match.
+     * @return The new query.
+     */
+    public BackendQuery whereEqualTo(String field, Object value) {
+        return where(Condition.equalTo(field, value));
+    }
+
+    /**
+     * Returns a copy of this query that also requires a field to equal one of the values.
+     *
+     * @param field The name of the field.
+     * @param values The values to match.
+     * @return The new query.
+     */
+    public BackendQuery whereIn(String field, List<?> values) {
+        return where(Condition.in(field, values));
+    }
+
+    /**
+     * Returns a copy of this query that also requires a condition to match.
+     *
+     * @param condition The condition.
+     * @return The new query.
+     * @throws NullPointerException if condition is null.
+     */
+    public BackendQuery where(Condition condition) {
+        Objects.requireNonNull(condition, "condition cannot be null");
+        List<Condition> combined = new ArrayList<>(conditions);
+        combined.add(condition);
+        return new BackendQuery(collectionPath, Collections.unmodifiableList(combined), limit);
+    }
+
+    /**
+     * Returns a copy of this query that returns at most {@code limit} documents.
+     *
+     * @param limit The maximum number of documents.
+     * @return The new query.
+     * @throws IllegalArgumentException if limit is < 1.
+     */
+    public BackendQuery limit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit cannot be < 1");
+        }
+        return new BackendQuery(collectionPath, conditions, limit);
+    }
+
+    public String getCollectionPath() {
+        return collectionPath;
+    }
+
+    public List<Condition> getConditions() {
+        return conditions;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public boolean hasLimit() {
+        return limit != NO_LIMIT;
+    }
+
+    /**
+     * Checks whether document data matches every condition of this query.
+     *
+     * @param data The data of the document.
+     * @return true if the document matches.
+     */
+    public boolean matches(Map<String, Object> data) {
+        for (Condition condition : conditions) {
+            if (!condition.matches(data)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return collectionPath + conditions + (hasLimit() ? " limit " + limit : "");
+    }
+}
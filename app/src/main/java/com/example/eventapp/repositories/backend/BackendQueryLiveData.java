@@ -0,0 +1,60 @@
+package com.example.eventapp.repositories.backend;
+
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * LiveData of the decoded results of a backend query. The query is listened to while the
+ * LiveData has active observers, and results are posted from the thread that delivers them.
+ *
+ * @param <T> The model type.
+ */
+class BackendQueryLiveData<T> extends LiveData<List<T>> {
+
+    private final StorageBackend backend;
+    private final String methodName;
+    private final BackendQuery query;
+    private final Class<T> clazz;
+    private final String tag;
+    private StorageBackend.Registration registration;
+
+    BackendQueryLiveData(StorageBackend backend, String methodName, BackendQuery query, Class<T> clazz, String tag) {
+        this.backend = backend;
+        this.methodName = methodName;
+        this.query = query;
+        this.clazz = clazz;
+        this.tag = tag;
+    }
+
+    @Override
+    protected void onActive() {
+        registration = backend.listen(query, new StorageBackend.QueryListener() {
+            @Override
+            public void onSnapshot(List<StoredDocument> documents) {
+                List<T> items = new ArrayList<>(documents.size());
+                for (StoredDocument document : documents) {
+                    items.add(document.toObject(clazz));
+                }
+                Log.d(tag, methodName + ": " + items.size() + " documents");
+                postValue(items);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e(tag, methodName + ": listen failed", e);
+            }
+        });
+    }
+
+    @Override
+    protected void onInactive() {
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+    }
+}
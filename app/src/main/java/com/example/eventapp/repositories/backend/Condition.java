@@ -0,0 +1,199 @@
+package com.example.eventapp.repositories.backend;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A filter on the fields of a document, as supported by every {@link StorageBackend}: equality,
+ * membership in a list of values (`whereIn`), and OR / AND combinations of other conditions.
+ *
+ * Values are compared the way Firestore compares them, so integral numbers match regardless of
+ * their boxed type (an Integer 1 matches a Long 1 and a Double 1.0). A condition on a missing
+ * field never matches, not even {@code equalTo(field, null)}.
+ */
+public final class Condition {
+
+    /**
+     * The kind of a condition.
+     */
+    enum Operator { EQUAL_TO, IN, OR, AND }
+
+    private final Operator operator;
+    private final String field;
+    private final List<Object> values;
+    private final List<Condition> conditions;
+
+    private Condition(Operator operator, String field, List<Object> values, List<Condition> conditions) {
+        this.operator = operator;
+        this.field = field;
+        this.values = values;
+        this.conditions = conditions;
+    }
+
+    /**
+     * Creates a condition that matches documents whose field equals a value.
+     *
+     * @param field The name of the field.
+     * @param value The value to match.
+     * @return The condition.
+     * @throws NullPointerException if field is null.
+     */
+    public static Condition equalTo(String field, Object value) {
+        Objects.requireNonNull(field, "field cannot be null");
+        return new Condition(Operator.EQUAL_TO, field, Collections.singletonList(value), Collections.emptyList());
+    }
+
+    /**
+     * Creates a condition that matches documents whose field equals any of the values.
+     *
+     * @param field The name of the field.
+     * @param values The values to match.
+     * @return The condition.
+     * @throws NullPointerException if field or values is null.
+     * @throws IllegalArgumentException if values is empty.
+     */
+    public static Condition in(String field, List<?> values) {
+        Objects.requireNonNull(field, "field cannot be null");
+        Objects.requireNonNull(values, "values cannot be null");
+        if (values.isEmpty()) {
+            throw new IllegalArgumentException("values cannot be empty");
+        }
+        return new Condition(Operator.IN, field, Collections.unmodifiableList(new ArrayList<>(values)),
+                Collections.emptyList());
+    }
+
+    /**
+     * Creates a condition that matches documents matching any of the conditions.
+     *
+     * @param conditions The conditions to combine.
+     * @return The condition.
+     * @throws IllegalArgumentException if no conditions are given.
+     */
+    public static Condition or(Condition... conditions) {
+        return combine(Operator.OR, conditions);
+    }
+
+    /**
+     * Creates a condition that matches documents matching every condition.
+     *
+     * @param conditions The conditions to combine.
+     * @return The condition.
+     * @throws IllegalArgumentException if no conditions are given.
+     */
+    public static Condition and(Condition... conditions) {
+        return combine(Operator.AND, conditions);
+    }
+
+    private static Condition combine(Operator operator, Condition... conditions) {
+        if (conditions.length == 0) {
+            throw new IllegalArgumentException("at least one condition is required");
+        }
+        for (Condition condition : conditions) {
+            Objects.requireNonNull(condition, "conditions cannot contain null");
+        }
+        return new Condition(operator, null, Collections.emptyList(),
+                Collections.unmodifiableList(Arrays.asList(conditions.clone())));
+    }
+
+    Operator getOperator() {
+        return operator;
+    }
+
+    String getField() {
+        return field;
+    }
+
+    /**
+     * Gets the values of an equality or `in` condition; an equality condition has exactly one.
+     */
+    List<Object> getValues() {
+        return values;
+    }
+
+    List<Condition> getConditions() {
+        return conditions;
+    }
+
+    /**
+     * Checks whether document data matches this condition.
+     *
+     * @param data The data of the document.
+     * @return true if the document matches.
+     */
+    public boolean matches(Map<String, Object> data) {
+        switch (operator) {
+            case EQUAL_TO:
+            case IN:
+                if (!data.containsKey(field)) {
+                    return false;
+                }
+                Object value = normalize(data.get(field));
+                for (Object candidate : values) {
+                    if (Objects.equals(value, normalize(candidate))) {
+                        return true;
+                    }
+                }
+                return false;
+            case OR:
+                for (Condition condition : conditions) {
+                    if (condition.matches(data)) {
+                        return true;
+                    }
+                }
+                return false;
+            case AND:
+            default:
+                for (Condition condition : conditions) {
+                    if (!condition.matches(data)) {
+                        return false;
+                    }
+                }
+                return true;
+        }
+    }
+
+    /**
+     * Converts a value into the form it is compared in: integral numbers become Longs and other
+     * numbers Doubles, so equal numbers of different boxed types compare and hash equally.
+     *
+     * @param value The value to normalize.
+     * @return The normalized value.
+     */
+    static Object normalize(Object value) {
+        if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            if (number == Math.rint(number) && !Double.isInfinite(number)
+                    && Math.abs(number) < 0x1p53) {
+                return (long) number;
+            }
+            return number;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        switch (operator) {
+            case EQUAL_TO:
+                return field + " == " + values.get(0);
+            case IN:
+                return field + " in " + values;
+            default:
+                StringBuilder builder = new StringBuilder("(");
+                for (int i = 0; i < conditions.size(); i++) {
+                    if (i > 0) {
+                        builder.append(operator == Operator.OR ? " || " : " && ");
+                    }
+                    builder.append(conditions.get(i));
+                }
+                return builder.append(')').toString();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.eventapp.repositories.backend;
+
+/**
+ * Thrown when a {@link StorageBackend} is asked to update a document that does not exist.
+ */
+public class DocumentNotFoundException extends IllegalStateException {
+
+    private final String collectionPath;
+    private final String documentId;
+
+    public DocumentNotFoundException(String collectionPath, String documentId) {
+        super("Document not found: " + collectionPath + "/" + documentId);
+        this.collectionPath = collectionPath;
+        this.documentId = documentId;
+    }
+
+    public String getCollectionPath() {
+        return collectionPath;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+}
@@ -0,0 +1,340 @@
+package com.example.eventapp.repositories.backend;
+
+import android.util.Log;
+
+import androidx.lifecycle.LiveData;
+
+import com.example.eventapp.repositories.CoalescingWindow;
+import com.example.eventapp.repositories.Common;
+import com.example.eventapp.repositories.codecs.Codecs;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Filter;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * The {@link StorageBackend} of the app, backed by Firestore. Queries are translated into
+ * Firestore filters, live queries share snapshot listeners through the `ListenerRegistry`, and
+ * models are encoded and decoded exactly as the Firestore repositories do, honouring
+ * {@link Codecs#isEnabled()}.
+ */
+public class FirestoreBackend implements StorageBackend {
+
+    private static final String TAG = "FirestoreBackend";
+
+    private final FirebaseFirestore db;
+
+    /**
+     * Creates a backend on a Firestore instance.
+     *
+     * @param db The Firestore instance.
+     */
+    public FirestoreBackend(FirebaseFirestore db) {
+        this.db = Objects.requireNonNull(db);
+    }
+
+    /**
+     * Gets the Firestore instance of this backend.
+     *
+     * @return The Firestore instance.
+     */
+    public FirebaseFirestore getFirestore() {
+        return db;
+    }
+
+    @Override
+    public CompletableFuture<StoredDocument> get(String collectionPath, String documentId) {
+        CompletableFuture<StoredDocument> future = new CompletableFuture<>();
+        document(collectionPath, documentId).get().addOnCompleteListener(task -> {
+            if (task.isSuccessful()) {
+                DocumentSnapshot snapshot = task.getResult();
+                future.complete(snapshot.exists() ? new SnapshotDocument(snapshot) : null);
+            } else {
+                future.completeExceptionally(task.getException());
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Void> set(String collectionPath, String documentId, Object data) {
+        return complete(document(collectionPath, documentId).set(encode(data)), collectionPath, documentId);
+    }
+
+    @Override
+    public CompletableFuture<Void> update(String collectionPath, String documentId, Map<String, Object> fields) {
+        return complete(document(collectionPath, documentId).update(fields), collectionPath, documentId);
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String collectionPath, String documentId) {
+        return complete(document(collectionPath, documentId).delete(), collectionPath, documentId);
+    }
+
+    @Override
+    public CompletableFuture<Void> commitBatch(Consumer<Writer> writes) {
+        WriteBatch batch = db.batch();
+        writes.accept(new Writer() {
+            @Override
+            public void set(String collectionPath, String documentId, Object data) {
+                batch.set(document(collectionPath, documentId), encode(data));
+            }
+
+            @Override
+            public void update(String collectionPath, String documentId, Map<String, Object> fields) {
+                batch.update(document(collectionPath, documentId), fields);
+            }
+
+            @Override
+            public void delete(String collectionPath, String documentId) {
+                batch.delete(document(collectionPath, documentId));
+            }
+        });
+        return complete(batch.commit(), null, null);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> runTransaction(TransactionFunction<T> function) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        db.runTransaction((com.google.firebase.firestore.Transaction transaction) -> {
+            try {
+                return function.apply(new FirestoreTransaction(transaction));
+            } catch (WrappedFirestoreException e) {
+                // Rethrown so Firestore can retry the transaction if it was contended
+                throw e.getCause();
+            }
+        }).addOnCompleteListener(task -> {
+            if (task.isSuccessful()) {
+                future.complete(task.getResult());
+            } else {
+                future.completeExceptionally(task.getException());
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<List<StoredDocument>> query(BackendQuery query) {
+        CompletableFuture<List<StoredDocument>> future = new CompletableFuture<>();
+        toFirestoreQuery(query).get().addOnCompleteListener(task -> {
+            if (task.isSuccessful()) {
+                future.complete(toDocuments(task.getResult().getDocuments()));
+            } else {
+                future.completeExceptionally(task.getException());
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Long> count(BackendQuery query) {
+        CompletableFuture<Long> future = new CompletableFuture<>();
+        toFirestoreQuery(query).count().get(AggregateSource.SERVER).addOnCompleteListener(task -> {
+            if (task.isSuccessful()) {
+                future.complete(task.getResult().getCount());
+            } else {
+                future.completeExceptionally(task.getException());
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public Registration listen(BackendQuery query, QueryListener listener) {
+        ListenerRegistration registration = toFirestoreQuery(query).addSnapshotListener((snapshot, e) -> {
+            if (e != null) {
+                Log.e(TAG, "listen: " + query + " failed", e);
+                listener.onError(e);
+            } else if (snapshot != null) {
+                listener.onSnapshot(toDocuments(snapshot.getDocuments()));
+            }
+        });
+        return registration::remove;
+    }
+
+    @Override
+    public <T> LiveData<List<T>> getQueryLiveData(String methodName, BackendQuery query, Class<T> clazz, String tag) {
+        return Common.runQueryLiveData(methodName, toFirestoreQuery(query), clazz, tag);
+    }
+
+    @Override
+    public <T> LiveData<List<T>> getQueryLiveData(
+            String methodName, BackendQuery query, Class<T> clazz, CoalescingWindow window, String tag) {
+        return Common.runQueryLiveData(methodName, toFirestoreQuery(query), clazz, window, tag);
+    }
+
+    /**
+     * Translates a query into a Firestore query.
+     *
+     * @param query The query.
+     * @return The Firestore query.
+     */
+    public Query toFirestoreQuery(BackendQuery query) {
+        Query firestoreQuery = db.collection(query.getCollectionPath());
+        for (Condition condition : query.getConditions()) {
+            firestoreQuery = firestoreQuery.where(toFilter(condition));
+        }
+        if (query.hasLimit()) {
+            firestoreQuery = firestoreQuery.limit(query.getLimit());
+        }
+        return firestoreQuery;
+    }
+
+    private static Filter toFilter(Condition condition) {
+        switch (condition.getOperator()) {
+            case EQUAL_TO:
+                return Filter.equalTo(condition.getField(), condition.getValues().get(0));
+            case IN:
+                return Filter.inArray(condition.getField(), condition.getValues());
+            default:
+                List<Condition> conditions = condition.getConditions();
+                Filter[] filters = new Filter[conditions.size()];
+                for (int i = 0; i < filters.length; i++) {
+                    filters[i] = toFilter(conditions.get(i));
+                }
+                return condition.getOperator() == Condition.Operator.OR ? Filter.or(filters) : Filter.and(filters);
+        }
+    }
+
+    private DocumentReference document(String collectionPath, String documentId) {
+        return db.collection(collectionPath).document(documentId);
+    }
+
+    /**
+     * Converts written data into the value to pass to Firestore: maps as they are, models through
+     * their codec (or by reflection if codecs are disabled).
+     */
+    private static Object encode(Object data) {
+        return data instanceof Map ? data : Codecs.encode(data);
+    }
+
+    private static List<StoredDocument> toDocuments(List<? extends DocumentSnapshot> snapshots) {
+        List<StoredDocument> documents = new ArrayList<>(snapshots.size());
+        for (DocumentSnapshot snapshot : snapshots) {
+            documents.add(new SnapshotDocument(snapshot));
+        }
+        return documents;
+    }
+
+    /**
+     * Completes a future with the result of a write task, reporting a missing document as a
+     * {@link DocumentNotFoundException}.
+     */
+    private static CompletableFuture<Void> complete(Task<Void> task, String collectionPath, String documentId) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        task.addOnCompleteListener(result -> {
+            if (result.isSuccessful()) {
+                future.complete(null);
+            } else if (collectionPath != null && isNotFound(result.getException())) {
+                future.completeExceptionally(new DocumentNotFoundException(collectionPath, documentId));
+            } else {
+                future.completeExceptionally(result.getException());
+            }
+        });
+        return future;
+    }
+
+    private static boolean isNotFound(Exception exception) {
+        return exception instanceof FirebaseFirestoreException
+                && ((FirebaseFirestoreException) exception).getCode() == FirebaseFirestoreException.Code.NOT_FOUND;
+    }
+
+    /**
+     * A Firestore transaction seen through the backend interface.
+     */
+    private class FirestoreTransaction implements Transaction {
+        private final com.google.firebase.firestore.Transaction transaction;
+
+        FirestoreTransaction(com.google.firebase.firestore.Transaction transaction) {
+            this.transaction = transaction;
+        }
+
+        @Override
+        public StoredDocument get(String collectionPath, String documentId) {
+            try {
+                DocumentSnapshot snapshot = transaction.get(document(collectionPath, documentId));
+                return snapshot.exists() ? new SnapshotDocument(snapshot) : null;
+            } catch (FirebaseFirestoreException e) {
+                throw new WrappedFirestoreException(e);
+            }
+        }
+
+        @Override
+        public void set(String collectionPath, String documentId, Object data) {
+            transaction.set(document(collectionPath, documentId), encode(data));
+        }
+
+        @Override
+        public void update(String collectionPath, String documentId, Map<String, Object> fields) {
+            transaction.update(document(collectionPath, documentId), fields);
+        }
+
+        @Override
+        public void delete(String collectionPath, String documentId) {
+            transaction.delete(document(collectionPath, documentId));
+        }
+    }
+
+    /**
+     * Carries a checked Firestore exception out of a transaction read.
+     */
+    private static class WrappedFirestoreException extends RuntimeException {
+        WrappedFirestoreException(FirebaseFirestoreException cause) {
+            super(cause);
+        }
+
+        @Override
+        public synchronized FirebaseFirestoreException getCause() {
+            return (FirebaseFirestoreException) super.getCause();
+        }
+    }
+
+    /**
+     * A document read from Firestore. Models are decoded with {@link Common#parseDocument}, so
+     * models without an enabled codec are still mapped by reflection.
+     */
+    private static class SnapshotDocument extends StoredDocument {
+        private final DocumentSnapshot snapshot;
+        private Map<String, Object> data;
+
+        SnapshotDocument(DocumentSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public String getId() {
+            return snapshot.getId();
+        }
+
+        @Override
+        public Map<String, Object> getData() {
+            if (data == null) {
+                data = snapshot.getData();
+            }
+            return data;
+        }
+
+        @Override
+        public Object get(String field) {
+            return snapshot.get(field);
+        }
+
+        @Override
+        public <T> T toObject(Class<T> clazz) {
+            return Common.parseDocument(snapshot, clazz);
+        }
+    }
+}
@@ -0,0 +1,559 @@
+package com.example.eventapp.repositories.backend;
+
+import androidx.lifecycle.LiveData;
+
+import com.example.eventapp.interfaces.DocumentCodec;
+import com.example.eventapp.repositories.CoalescingWindow;
+import com.example.eventapp.repositories.codecs.Codecs;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * A concurrent, in-memory {@link StorageBackend} for JVM tests. It evaluates the same queries as
+ * Firestore (equality, `whereIn`, OR and AND conditions, limits, ordering by document ID) and
+ * supports batches, transactions and live listeners, so repositories can be exercised with
+ * hundreds of thousands of documents without an emulator.
+ *
+ * Reads never block. Writes, batches and transactions are serialized by one lock, which makes
+ * every transaction trivially serializable; they are applied atomically and each one delivers at
+ * most one snapshot to every affected listener. Equality indexes are built per field the first
+ * time a query filters on it and maintained on every write after that, so a query on an indexed
+ * field only looks at the documents with a matching value.
+ *
+ * Every operation completes before it returns. Listener snapshots are delivered in commit order
+ * on the thread that committed the write (or added the listener); listeners must not block.
+ * Field values are compared as Firestore compares them, but sentinel values such as
+ * `FieldValue.increment` and dotted field paths are not supported.
+ */
+public class InMemoryBackend implements StorageBackend {
+
+    private static final Object NULL_KEY = new Object();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Map<String, StoredCollection> collections = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Runnable> pendingDeliveries = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean delivering = new AtomicBoolean();
+
+    @Override
+    public CompletableFuture<StoredDocument> get(String collectionPath, String documentId) {
+        return CompletableFuture.completedFuture(read(collectionPath, documentId));
+    }
+
+    @Override
+    public CompletableFuture<Void> set(String collectionPath, String documentId, Object data) {
+        return commitBatch(writer -> writer.set(collectionPath, documentId, data));
+    }
+
+    @Override
+    public CompletableFuture<Void> update(String collectionPath, String documentId, Map<String, Object> fields) {
+        return commitBatch(writer -> writer.update(collectionPath, documentId, fields));
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(String collectionPath, String documentId) {
+        return commitBatch(writer -> writer.delete(collectionPath, documentId));
+    }
+
+    @Override
+    public CompletableFuture<Void> commitBatch(Consumer<Writer> writes) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        PendingWrites pending = new PendingWrites();
+        try {
+            writes.accept(pending);
+            writeLock.lock();
+            try {
+                apply(pending);
+            } finally {
+                writeLock.unlock();
+            }
+            future.complete(null);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        deliverPending();
+        return future;
+    }
+
+    @Override
+    public <T> CompletableFuture<T> runTransaction(TransactionFunction<T> function) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        LockedTransaction transaction = new LockedTransaction();
+        writeLock.lock();
+        try {
+            T result = function.apply(transaction);
+            apply(transaction.pending);
+            future.complete(result);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        } finally {
+            writeLock.unlock();
+        }
+        deliverPending();
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<List<StoredDocument>> query(BackendQuery query) {
+        StoredCollection collection = collections.get(query.getCollectionPath());
+        if (collection == null) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+        List<StoredDocument> documents = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> entry : collection.matching(query, true)) {
+            documents.add(new MapDocument(entry.getKey(), entry.getValue()));
+            if (query.hasLimit() && documents.size() >= query.getLimit()) {
+                break;
+            }
+        }
+        return CompletableFuture.completedFuture(documents);
+    }
+
+    @Override
+    public CompletableFuture<Long> count(BackendQuery query) {
+        StoredCollection collection = collections.get(query.getCollectionPath());
+        long count = 0;
+        if (collection != null) {
+            count = collection.matching(query, false).size();
+        }
+        if (query.hasLimit()) {
+            count = Math.min(count, query.getLimit());
+        }
+        return CompletableFuture.completedFuture(count);
+    }
+
+    @Override
+    public Registration listen(BackendQuery query, QueryListener listener) {
+        Objects.requireNonNull(listener);
+        StoredCollection collection = getCollection(query.getCollectionPath());
+        ListenerEntry entry = new ListenerEntry(query, listener);
+
+        writeLock.lock();
+        try {
+            for (Map.Entry<String, Map<String, Object>> match : collection.matching(query, true)) {
+                entry.results.put(match.getKey(), new MapDocument(match.getKey(), match.getValue()));
+            }
+            collection.listeners.add(entry);
+            entry.enqueueSnapshot();
+        } finally {
+            writeLock.unlock();
+        }
+        deliverPending();
+
+        return () -> {
+            entry.removed = true;
+            collection.listeners.remove(entry);
+        };
+    }
+
+    @Override
+    public <T> LiveData<List<T>> getQueryLiveData(String methodName, BackendQuery query, Class<T> clazz, String tag) {
+        return new BackendQueryLiveData<>(this, methodName, query, clazz, tag);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The window is not applied: snapshots are delivered with {@code postValue}, which already
+     * keeps only the latest value until the main thread picks it up.
+     */
+    @Override
+    public <T> LiveData<List<T>> getQueryLiveData(
+            String methodName, BackendQuery query, Class<T> clazz, CoalescingWindow window, String tag) {
+        return getQueryLiveData(methodName, query, clazz, tag);
+    }
+
+    /**
+     * Gets the number of documents in a collection.
+     *
+     * @param collectionPath The path of the collection.
+     * @return The number of documents.
+     */
+    public int getDocumentCount(String collectionPath) {
+        StoredCollection collection = collections.get(collectionPath);
+        return collection == null ? 0 : collection.documents.size();
+    }
+
+    private StoredDocument read(String collectionPath, String documentId) {
+        StoredCollection collection = collections.get(collectionPath);
+        Map<String, Object> data = collection == null ? null : collection.documents.get(documentId);
+        return data == null ? null : new MapDocument(documentId, data);
+    }
+
+    private StoredCollection getCollection(String collectionPath) {
+        return collections.computeIfAbsent(collectionPath, path -> new StoredCollection());
+    }
+
+    /**
+     * Applies the writes of a batch or transaction; must hold the write lock. Every update is
+     * checked before anything is written, so a failed batch leaves no trace.
+     *
+     * @throws DocumentNotFoundException if an update targets a missing document.
+     */
+    private void apply(PendingWrites pending) {
+        Map<String, Map<String, Map<String, Object>>> finalStates = new LinkedHashMap<>();
+        for (PendingWrite write : pending.writes) {
+            Map<String, Map<String, Object>> states = finalStates.get(write.collectionPath);
+            if (states == null) {
+                states = new LinkedHashMap<>();
+                finalStates.put(write.collectionPath, states);
+            }
+            Map<String, Object> current;
+            if (states.containsKey(write.documentId)) {
+                current = states.get(write.documentId);
+            } else {
+                StoredDocument stored = read(write.collectionPath, write.documentId);
+                current = stored == null ? null : stored.getData();
+            }
+
+            if (write.data == null) {
+                states.put(write.documentId, null);
+            } else if (write.merge) {
+                if (current == null) {
+                    throw new DocumentNotFoundException(write.collectionPath, write.documentId);
+                }
+                Map<String, Object> merged = new HashMap<>(current);
+                merged.putAll(write.data);
+                states.put(write.documentId, Collections.unmodifiableMap(merged));
+            } else {
+                states.put(write.documentId, write.data);
+            }
+        }
+
+        Set<ListenerEntry> touched = new LinkedHashSet<>();
+        for (Map.Entry<String, Map<String, Map<String, Object>>> states : finalStates.entrySet()) {
+            StoredCollection collection = getCollection(states.getKey());
+            for (Map.Entry<String, Map<String, Object>> state : states.getValue().entrySet()) {
+                collection.store(state.getKey(), state.getValue(), touched);
+            }
+        }
+        for (ListenerEntry entry : touched) {
+            entry.enqueueSnapshot();
+        }
+    }
+
+    /**
+     * Delivers queued snapshots in order. Only one thread delivers at a time; a thread that finds
+     * another one delivering leaves its snapshots to it.
+     */
+    private void deliverPending() {
+        while (!pendingDeliveries.isEmpty() && delivering.compareAndSet(false, true)) {
+            try {
+                Runnable delivery;
+                while ((delivery = pendingDeliveries.poll()) != null) {
+                    delivery.run();
+                }
+            } finally {
+                delivering.set(false);
+            }
+        }
+    }
+
+    /**
+     * Copies written data into an immutable map, encoding models with their codec.
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> toData(Object data) {
+        Objects.requireNonNull(data, "data cannot be null");
+        if (data instanceof Map) {
+            return Collections.unmodifiableMap(new HashMap<>((Map<String, Object>) data));
+        }
+        DocumentCodec<Object> codec = (DocumentCodec<Object>) Codecs.getCodec(data.getClass());
+        if (codec == null) {
+            throw new IllegalArgumentException("no codec for " + data.getClass().getSimpleName());
+        }
+        return Collections.unmodifiableMap(new HashMap<>(codec.encode(data)));
+    }
+
+    private static Object indexKey(Object value) {
+        Object normalized = Condition.normalize(value);
+        return normalized == null ? NULL_KEY : normalized;
+    }
+
+    /**
+     * The documents of one collection, ordered by ID, with their equality indexes and listeners.
+     */
+    private final class StoredCollection {
+        final ConcurrentSkipListMap<String, Map<String, Object>> documents = new ConcurrentSkipListMap<>();
+        final Map<String, Map<Object, Set<String>>> indexes = new ConcurrentHashMap<>();
+        final List<ListenerEntry> listeners = new CopyOnWriteArrayList<>();
+
+        /**
+         * Writes or deletes a document, updating the indexes and the results of affected
+         * listeners; must hold the write lock.
+         */
+        void store(String documentId, Map<String, Object> data, Set<ListenerEntry> touched) {
+            Map<String, Object> previous = data == null
+                    ? documents.remove(documentId)
+                    : documents.put(documentId, data);
+            for (Map.Entry<String, Map<Object, Set<String>>> index : indexes.entrySet()) {
+                String field = index.getKey();
+                if (previous != null && previous.containsKey(field)) {
+                    Set<String> ids = index.getValue().get(indexKey(previous.get(field)));
+                    if (ids != null) {
+                        ids.remove(documentId);
+                    }
+                }
+                if (data != null && data.containsKey(field)) {
+                    index.getValue()
+                            .computeIfAbsent(indexKey(data.get(field)), key -> ConcurrentHashMap.newKeySet())
+                            .add(documentId);
+                }
+            }
+            for (ListenerEntry entry : listeners) {
+                if (entry.apply(documentId, data)) {
+                    touched.add(entry);
+                }
+            }
+        }
+
+        /**
+         * Gets the index of a field, building it if no query has filtered on the field yet.
+         */
+        Map<Object, Set<String>> getIndex(String field) {
+            Map<Object, Set<String>> index = indexes.get(field);
+            if (index != null) {
+                return index;
+            }
+            writeLock.lock();
+            try {
+                index = indexes.get(field);
+                if (index == null) {
+                    index = new ConcurrentHashMap<>();
+                    for (Map.Entry<String, Map<String, Object>> document : documents.entrySet()) {
+                        if (document.getValue().containsKey(field)) {
+                            index.computeIfAbsent(indexKey(document.getValue().get(field)),
+                                    key -> ConcurrentHashMap.newKeySet()).add(document.getKey());
+                        }
+                    }
+                    indexes.put(field, index);
+                }
+                return index;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+
+        /**
+         * Finds the documents matching a query. The most selective equality or `in` condition of
+         * the query narrows the candidates through its index; without one the whole collection
+         * is scanned.
+         *
+         * @param query The query.
+         * @param sorted Whether to order the matches by document ID.
+         * @return The IDs and data of the matching documents.
+         */
+        List<Map.Entry<String, Map<String, Object>>> matching(BackendQuery query, boolean sorted) {
+            Condition narrowest = null;
+            Map<Object, Set<String>> narrowestIndex = null;
+            int narrowestSize = Integer.MAX_VALUE;
+            for (Condition condition : query.getConditions()) {
+                if (condition.getOperator() != Condition.Operator.EQUAL_TO
+                        && condition.getOperator() != Condition.Operator.IN) {
+                    continue;
+                }
+                Map<Object, Set<String>> index = getIndex(condition.getField());
+                int size = 0;
+                for (Object value : condition.getValues()) {
+                    Set<String> ids = index.get(indexKey(value));
+                    size += ids == null ? 0 : ids.size();
+                }
+                if (size < narrowestSize) {
+                    narrowest = condition;
+                    narrowestIndex = index;
+                    narrowestSize = size;
+                }
+            }
+
+            List<Map.Entry<String, Map<String, Object>>> matches = new ArrayList<>();
+            if (narrowest == null) {
+                // The skip list is already ordered by ID
+                for (Map.Entry<String, Map<String, Object>> document : documents.entrySet()) {
+                    if (query.matches(document.getValue())) {
+                        matches.add(document);
+                    }
+                }
+                return matches;
+            }
+
+            Set<String> candidates = new HashSet<>();
+            for (Object value : narrowest.getValues()) {
+                Set<String> ids = narrowestIndex.get(indexKey(value));
+                if (ids != null) {
+                    candidates.addAll(ids);
+                }
+            }
+            for (String documentId : candidates) {
+                Map<String, Object> data = documents.get(documentId);
+                if (data != null && query.matches(data)) {
+                    matches.add(new AbstractMap.SimpleImmutableEntry<>(documentId, data));
+                }
+            }
+            if (sorted) {
+                Collections.sort(matches, (first, second) -> first.getKey().compareTo(second.getKey()));
+            }
+            return matches;
+        }
+    }
+
+    /**
+     * A live query and the results it has delivered.
+     */
+    private final class ListenerEntry {
+        final BackendQuery query;
+        final QueryListener listener;
+        /** Every matching document, ordered by ID; only accessed with the write lock held. */
+        final TreeMap<String, StoredDocument> results = new TreeMap<>();
+        volatile boolean removed = false;
+
+        ListenerEntry(BackendQuery query, QueryListener listener) {
+            this.query = query;
+            this.listener = listener;
+        }
+
+        /**
+         * Applies a write to the results.
+         *
+         * @return true if the results changed.
+         */
+        boolean apply(String documentId, Map<String, Object> data) {
+            if (data != null && query.matches(data)) {
+                results.put(documentId, new MapDocument(documentId, data));
+                return true;
+            }
+            return results.remove(documentId) != null;
+        }
+
+        /**
+         * Queues the current results for delivery; must hold the write lock.
+         */
+        void enqueueSnapshot() {
+            Collection<StoredDocument> values = results.values();
+            List<StoredDocument> snapshot = new ArrayList<>(query.hasLimit()
+                    ? Math.min(values.size(), query.getLimit())
+                    : values.size());
+            for (StoredDocument document : values) {
+                if (query.hasLimit() && snapshot.size() >= query.getLimit()) {
+                    break;
+                }
+                snapshot.add(document);
+            }
+            pendingDeliveries.add(() -> {
+                if (!removed) {
+                    listener.onSnapshot(Collections.unmodifiableList(snapshot));
+                }
+            });
+        }
+    }
+
+    /**
+     * A write that has not been applied yet. Deletes have no data; updates are merged.
+     */
+    private static final class PendingWrite {
+        final String collectionPath;
+        final String documentId;
+        final Map<String, Object> data;
+        final boolean merge;
+
+        PendingWrite(String collectionPath, String documentId, Map<String, Object> data, boolean merge) {
+            this.collectionPath = Objects.requireNonNull(collectionPath, "collectionPath cannot be null");
+            this.documentId = Objects.requireNonNull(documentId, "documentId cannot be null");
+            this.data = data;
+            this.merge = merge;
+        }
+    }
+
+    /**
+     * Collects the writes of a batch.
+     */
+    private static class PendingWrites implements Writer {
+        final List<PendingWrite> writes = new ArrayList<>();
+
+        @Override
+        public void set(String collectionPath, String documentId, Object data) {
+            writes.add(new PendingWrite(collectionPath, documentId, toData(data), false));
+        }
+
+        @Override
+        public void update(String collectionPath, String documentId, Map<String, Object> fields) {
+            writes.add(new PendingWrite(collectionPath, documentId, toData(fields), true));
+        }
+
+        @Override
+        public void delete(String collectionPath, String documentId) {
+            writes.add(new PendingWrite(collectionPath, documentId, null, false));
+        }
+    }
+
+    /**
+     * A transaction that runs with the write lock held, so its reads cannot go stale.
+     */
+    private final class LockedTransaction implements Transaction {
+        final PendingWrites pending = new PendingWrites();
+
+        @Override
+        public StoredDocument get(String collectionPath, String documentId) {
+            if (!pending.writes.isEmpty()) {
+                throw new IllegalStateException("Transactions require all reads to be executed before all writes.");
+            }
+            return read(collectionPath, documentId);
+        }
+
+        @Override
+        public void set(String collectionPath, String documentId, Object data) {
+            pending.set(collectionPath, documentId, data);
+        }
+
+        @Override
+        public void update(String collectionPath, String documentId, Map<String, Object> fields) {
+            pending.update(collectionPath, documentId, fields);
+        }
+
+        @Override
+        public void delete(String collectionPath, String documentId) {
+            pending.delete(collectionPath, documentId);
+        }
+    }
+
+    /**
+     * A document held in memory.
+     */
+    private static final class MapDocument extends StoredDocument {
+        private final String id;
+        private final Map<String, Object> data;
+
+        MapDocument(String id, Map<String, Object> data) {
+            this.id = id;
+            this.data = data;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public Map<String, Object> getData() {
+            return data;
+        }
+    }
+}
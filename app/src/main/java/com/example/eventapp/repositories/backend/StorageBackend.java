@@ -0,0 +1,213 @@
+package com.example.eventapp.repositories.backend;
+
+import androidx.lifecycle.LiveData;
+
+import com.example.eventapp.repositories.CoalescingWindow;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * The document store behind a repository. Repositories written against this interface run on
+ * Firestore in the app ({@link FirestoreBackend}) and on the concurrent {@link InMemoryBackend} in
+ * JVM tests, which evaluates the same queries without an emulator.
+ *
+ * Documents are addressed by a collection path (e.g. "signups" or "eventCapacity/{eventId}/slots")
+ * and a document ID. Written data is either a map of fields or a model with a codec; documents are
+ * read back as {@link StoredDocument}s. Every operation completes its future instead of throwing.
+ */
+public interface StorageBackend {
+
+    /**
+     * Writes to documents as part of a batch or transaction.
+     */
+    interface Writer {
+        /**
+         * Creates or overwrites a document.
+         *
+         * @param collectionPath The path of the collection.
+         * @param documentId The ID of the document.
+         * @param data A map of fields, or a model with a codec.
+         */
+        void set(String collectionPath, String documentId, Object data);
+
+        /**
+         * Updates fields of a document; the whole batch or transaction fails with a
+         * {@link DocumentNotFoundException} if it does not exist.
+         *
+         * @param collectionPath The path of the collection.
+         * @param documentId The ID of the document.
+         * @param fields The fields to update.
+         */
+        void update(String collectionPath, String documentId, Map<String, Object> fields);
+
+        /**
+         * Deletes a document; deleting a missing document succeeds.
+         *
+         * @param collectionPath The path of the collection.
+         * @param documentId The ID of the document.
+         */
+        void delete(String collectionPath, String documentId);
+    }
+
+    /**
+     * Reads and writes documents atomically. As in Firestore, every read must happen before the
+     * first write.
+     */
+    interface Transaction extends Writer {
+        /**
+         * Reads a document.
+         *
+         * @param collectionPath The path of the collection.
+         * @param documentId The ID of the document.
+         * @return The document, or null if it does not exist.
+         */
+        StoredDocument get(String collectionPath, String documentId);
+    }
+
+    /**
+     * The body of a transaction. It may be run more than once if the transaction is contended,
+     * so it must not have side effects other than through the transaction.
+     *
+     * @param <T> The result type.
+     */
+    interface TransactionFunction<T> {
+        T apply(Transaction transaction);
+    }
+
+    /**
+     * Receives the results of a live query.
+     */
+    interface QueryListener {
+        /**
+         * Called with the full result of the query when the listener is added and every time it changes.
+         *
+         * @param documents The matching documents, ordered by document ID.
+         */
+        void onSnapshot(List<StoredDocument> documents);
+
+        /**
+         * Called if the query fails; no further snapshots are delivered.
+         *
+         * @param e The error.
+         */
+        void onError(Exception e);
+    }
+
+    /**
+     * A live query listener that can be removed.
+     */
+    interface Registration {
+        void remove();
+    }
+
+    /**
+     * Reads a document.
+     *
+     * @param collectionPath The path of the collection.
+     * @param documentId The ID of the document.
+     * @return A future containing the document, or null if it does not exist.
+     */
+    CompletableFuture<StoredDocument> get(String collectionPath, String documentId);
+
+    /**
+     * Creates or overwrites a document.
+     *
+     * @param collectionPath The path of the collection.
+     * @param documentId The ID of the document.
+     * @param data A map of fields, or a model with a codec.
+     * @return A future completed once the document is written.
+     */
+    CompletableFuture<Void> set(String collectionPath, String documentId, Object data);
+
+    /**
+     * Updates fields of an existing document.
+     *
+     * @param collectionPath The path of the collection.
+     * @param documentId The ID of the document.
+     * @param fields The fields to update.
+     * @return A future completed once the document is updated; it fails with a
+     *         {@link DocumentNotFoundException} if the document does not exist.
+     */
+    CompletableFuture<Void> update(String collectionPath, String documentId, Map<String, Object> fields);
+
+    /**
+     * Deletes a document; deleting a missing document succeeds.
+     *
+     * @param collectionPath The path of the collection.
+     * @param documentId The ID of the document.
+     * @return A future completed once the document is deleted.
+     */
+    CompletableFuture<Void> delete(String collectionPath, String documentId);
+
+    /**
+     * Applies writes atomically in one batch.
+     *
+     * @param writes Adds the writes of the batch to the given writer.
+     * @return A future completed once the batch is committed.
+     */
+    CompletableFuture<Void> commitBatch(Consumer<Writer> writes);
+
+    /**
+     * Runs a transaction.
+     *
+     * @param function The body of the transaction.
+     * @param <T> The result type.
+     * @return A future containing the result of the function once the transaction is committed.
+     */
+    <T> CompletableFuture<T> runTransaction(TransactionFunction<T> function);
+
+    /**
+     * Runs a query once.
+     *
+     * @param query The query.
+     * @return A future containing the matching documents, ordered by document ID.
+     */
+    CompletableFuture<List<StoredDocument>> query(BackendQuery query);
+
+    /**
+     * Counts the documents matching a query without reading them.
+     *
+     * @param query The query.
+     * @return A future containing the number of matching documents.
+     */
+    CompletableFuture<Long> count(BackendQuery query);
+
+    /**
+     * Listens to the results of a query.
+     *
+     * @param query The query.
+     * @param listener Receives every result.
+     * @return The registration, to remove the listener.
+     */
+    Registration listen(BackendQuery query, QueryListener listener);
+
+    /**
+     * Runs a query as LiveData of decoded models, listening while the LiveData is observed.
+     *
+     * @param methodName The name of the calling method, used for logging.
+     * @param query The query.
+     * @param clazz The model class of the documents.
+     * @param tag The log tag of the calling repository.
+     * @param <T> The model type.
+     * @return LiveData containing the matching documents as models.
+     */
+    <T> LiveData<List<T>> getQueryLiveData(String methodName, BackendQuery query, Class<T> clazz, String tag);
+
+    /**
+     * Runs a query as LiveData of decoded models, merging results that arrive in quick succession
+     * according to the given window.
+     *
+     * @param methodName The name of the calling method, used for logging.
+     * @param query The query.
+     * @param clazz The model class of the documents.
+     * @param window How results arriving in quick succession are merged.
+     * @param tag The log tag of the calling repository.
+     * @param <T> The model type.
+     * @return LiveData containing the matching documents as models.
+     */
+    <T> LiveData<List<T>> getQueryLiveData(
+            String methodName, BackendQuery query, Class<T> clazz, CoalescingWindow window, String tag);
+}
@@ -0,0 +1,75 @@
+package com.example.eventapp.repositories.backend;
+
+import com.example.eventapp.interfaces.DocumentCodec;
+import com.example.eventapp.repositories.codecs.Codecs;
+
+import java.util.Map;
+
+/**
+ * A document read from a {@link StorageBackend}: its ID and field data.
+ */
+public abstract class StoredDocument {
+
+    /**
+     * Gets the ID of the document.
+     *
+     * @return The document ID.
+     */
+    public abstract String getId();
+
+    /**
+     * Gets the fields of the document.
+     *
+     * @return The document data; must not be modified.
+     */
+    public abstract Map<String, Object> getData();
+
+    /**
+     * Gets the value of a field.
+     *
+     * @param field The name of the field.
+     * @return The value, or null if the field is missing.
+     */
+    public Object get(String field) {
+        return getData().get(field);
+    }
+
+    /**
+     * Gets the value of a numeric field as a long.
+     *
+     * @param field The name of the field.
+     * @return The value, or null if the field is missing or not a number.
+     */
+    public Long getLong(String field) {
+        Object value = get(field);
+        return value instanceof Number ? ((Number) value).longValue() : null;
+    }
+
+    /**
+     * Gets the value of a string field.
+     *
+     * @param field The name of the field.
+     * @return The value, or null if the field is missing or not a string.
+     */
+    public String getString(String field) {
+        Object value = get(field);
+        return value instanceof String ? (String) value : null;
+    }
+
+    /**
+     * Decodes the document into a model with the model's {@link DocumentCodec}, setting its
+     * document ID.
+     *
+     * @param clazz The model class.
+     * @param <T> The model type.
+     * @return The decoded model.
+     * @throws IllegalArgumentException if the class has no codec.
+     */
+    public <T> T toObject(Class<T> clazz) {
+        DocumentCodec<T> codec = Codecs.getCodec(clazz);
+        if (codec == null) {
+            throw new IllegalArgumentException("no codec for " + clazz.getSimpleName());
+        }
+        return codec.decode(getId(), getData());
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.eventapp.repositories.codecs;
+
+import com.example.eventapp.interfaces.DocumentCodec;
+import com.example.eventapp.models.Event;
+import com.example.eventapp.models.EventStats;
+import com.example.eventapp.models.EventSummary;
+import com.example.eventapp.models.Facility;
+import com.example.eventapp.models.Notification;
+import com.example.eventapp.models.Signup;
+import com.example.eventapp.models.User;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry of the {@link DocumentCodec}s used by the repositories, with shared helpers for
+ * reading typed values out of document data.
+ *
+ * Repositories look up codecs by model class; if codecs are disabled (or no codec exists for a
+ * class) they fall back to Firestore's reflection-based mapping.
+ */
+public class Codecs {
+
+    private static final Map<Class<?>, DocumentCodec<?>> CODECS = new HashMap<>();
+    private static volatile boolean enabled = true;
+
+    static {
+        CODECS.put(Event.class, new EventCodec());
+        CODECS.put(EventStats.class, new EventStatsCodec());
+        CODECS.put(EventSummary.class, new EventSummaryCodec());
+        CODECS.put(Facility.class, new FacilityCodec());
+        CODECS.put(Notification.class, new NotificationCodec());
+        CODECS.put(Signup.class, new SignupCodec());
+        CODECS.put(User.class, new UserCodec());
+    }
+
+    private Codecs() {
+    }
+
+    /**
+     * Checks whether repositories should use codecs instead of reflection.
+     *
+     * @return true if codecs are enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switches repositories between codecs and Firestore's reflection-based mapping.
+     *
+     * @param enabled true to use codecs, false to fall back to reflection
+     */
+    public static void setEnabled(boolean enabled) {
+        Codecs.enabled = enabled;
+    }
+
+    /**
+     * Gets the codec for a model class.
+     *
+     * @param clazz the model class
+     * @param <T> the model type
+     * @return the codec, or null if codecs are disabled or none exists for the class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> DocumentCodec<T> forClass(Class<T> clazz) {
+        if (!enabled) {
+            return null;
+        }
+        return (DocumentCodec<T>) CODECS.get(clazz);
+    }
+
+    /**
+     * Gets the codec for a model class regardless of whether codecs are enabled for repository
+     * reads and writes, e.g. to copy models held in memory.
+     *
+     * @param clazz the model class
+     * @param <T> the model type
+     * @return the codec, or null if none exists for the class
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> DocumentCodec<T> getCodec(Class<T> clazz) {
+        return (DocumentCodec<T>) CODECS.get(clazz);
+    }
+
+    /**
+     * Makes an independent copy of a model by encoding and decoding it.
+     *
+     * @param clazz the model class; must have a codec
+     * @param documentId the document ID to give the copy
+     * @param item the model to copy, or null
+     * @param <T> the model type
+     * @return the copy, or null if item is null
+     * @throws IllegalArgumentException if the class has no codec
+     */
+    public static <T> T copy(Class<T> clazz, String documentId, T item) {
+        if (item == null) {
+            return null;
+        }
+        DocumentCodec<T> codec = getCodec(clazz);
+        if (codec == null) {
+            throw new IllegalArgumentException("no codec for " + clazz.getSimpleName());
+        }
+        return codec.decode(documentId, codec.encode(item));
+    }
+
+    /**
+     * Converts a model into the value to pass to Firestore's `set` or `add`: its encoded data if a
+     * codec is available, otherwise the model itself so Firestore maps it by reflection.
+     *
+     * @param item the model to write
+     * @param <T> the model type
+     * @return the document data, or the model itself
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Object encode(T item) {
+        DocumentCodec<T> codec = forClass((Class<T>) item.getClass());
+        return codec != null ? codec.encode(item) : item;
+    }
+
+    /**
+     * Reads a string field.
+     *
+     * @param data the document data
+     * @param key the field name
+     * @param defaultValue the value to use if the field is missing
+     * @return the field value, null if it is stored as null, or the default if missing
+     */
+    static String getString(Map<String, Object> data, String key, String defaultValue) {
+        if (!data.containsKey(key)) {
+            return defaultValue;
+        }
+        Object value = data.get(key);
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Reads a boolean field.
+     *
+     * @param data the document data
+     * @param key the field name
+     * @param defaultValue the value to use if the field is missing or not a boolean
+     * @return the field value
+     */
+    static boolean getBoolean(Map<String, Object> data, String key, boolean defaultValue) {
+        Object value = data.get(key);
+        return value instanceof Boolean ? (Boolean) value : defaultValue;
+    }
+
+    /**
+     * Reads a whole-number field. Firestore returns integers as longs, but doubles are accepted too.
+     *
+     * @param data the document data
+     * @param key the field name
+     * @param defaultValue the value to use if the field is missing or not a number
+     * @return the field value
+     */
+    static long getLong(Map<String, Object> data, String key, long defaultValue) {
+        Object value = data.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+    }
+
+    /**
+     * Reads a whole-number field as an int.
+     *
+     * @param data the document data
+     * @param key the field name
+     * @param defaultValue the value to use if the field is missing or not a number
+     * @return the field value
+     */
+    static int getInt(Map<String, Object> data, String key, int defaultValue) {
+        Object value = data.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+
+    /**
+     * Reads a nullable integer field.
+     *
+     * @param data the document data
+     * @param key the field name
+     * @return the field value, or null if it is missing or not a number
+     */
+    static Integer getInteger(Map<String, Object> data, String key) {
+        Object value = data.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : null;
+    }
+
+    /**
+     * Reads a nullable floating-point field.
+     *
+     * @param data the document data
+     * @param key the field name
+     * @return the field value, or null if it is missing or not a number
+     */
+    static Double getDouble(Map<String, Object> data, String key) {
+        Object value = data.get(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.eventapp.repositories.codecs;
+
+import com.example.eventapp.interfaces.DocumentCodec;
+import com.example.eventapp.models.Event;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts {@link Event}s to and from document data in the `events` collection.
+ */
+class EventCodec implements DocumentCodec<Event> {
+
+    @Override
+    public Event decode(String documentId, Map<String, Object> data) {
+        Event event = new Event();
+        event.setDocumentId(documentId);
+        event.setOrganizerId(Codecs.getString(data, "organizerId", null));
+        event.setFacilityId(Codecs.getString(data, "facilityId", null));
+        event.setLotteryProcessed(Codecs.getBoolean(data, "lotteryProcessed", false));
+        // the setter rejects values < 1, which older documents may still hold
+        int numberOfAttendees = Codecs.getInt(data, "numberOfAttendees", 0);
+        if (numberOfAttendees >= 1) {
+            event.setNumberOfAttendees(numberOfAttendees);
+        }
+        event.setEventName(Codecs.getString(data, "eventName", null));
+        event.setPosterUriString(Codecs.getString(data, "posterUriString", null));
+        event.setEventDescription(Codecs.getString(data, "eventDescription", null));
+        event.setQrCodeHash(Codecs.getString(data, "qrCodeHash", null));
+        event.setGeolocationRequired(Codecs.getBoolean(data, "geolocationRequired", false));
+        event.setMaxEntrants(Codecs.getInt(data, "maxEntrants", 0));
+        event.setStartDate(Codecs.getLong(data, "startDate", 0));
+        event.setEndDate(Codecs.getLong(data, "endDate", 0));
+        event.setDeadline(Codecs.getLong(data, "deadline", 0));
+        return event;
+    }
+
+    @Override
+    public Map<String, Object> encode(Event event) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("organizerId", event.getOrganizerId());
+        data.put("facilityId", event.getFacilityId());
+        data.put("lotteryProcessed", event.isLotteryProcessed());
+        data.put("numberOfAttendees", event.getNumberOfAttendees());
+        data.put("eventName", event.getEventName());
+        data.put("posterUriString", event.getPosterUriString());
+        data.put("eventDescription", event.getEventDescription());
+        data.put("qrCodeHash", event.getQrCodeHash());
+        data.put("geolocationRequired", event.isGeolocationRequired());
+        data.put("maxEntrants", event.getMaxEntrants());
+        data.put("startDate", event.getStartDate());
+        data.put("endDate", event.getEndDate());
+        data.put("deadline", event.getDeadline());
+        return data;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.eventapp.repositories.codecs;
+
+import com.example.eventapp.interfaces.DocumentCodec;
+import com.example.eventapp.models.EventStats;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts counter shards in `eventStats/{eventId}/shards` to and from {@link EventStats}. The
+ * shards are written by Cloud Functions; the event ID is not stored in them.
+ */
+class EventStatsCodec implements DocumentCodec<EventStats> {
+
+    @Override
+    public EventStats decode(String documentId, Map<String, Object> data) {
+        EventStats stats = new EventStats();
+        stats.setTotal(Codecs.getLong(data, "total", 0));
+        stats.setCancelled(Codecs.getLong(data, "cancelled", 0));
+        stats.setWaitlisted(Codecs.getLong(data, "waitlisted", 0));
+        stats.setChosen(Codecs.getLong(data, "chosen", 0));
+        stats.setEnrolled(Codecs.getLong(data, "enrolled", 0));
+        return stats;
+    }
+
+    @Override
+    public Map<String, Object> encode(EventStats stats) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("total", stats.getTotal());
+        data.put("cancelled", stats.getCancelled());
+        data.put("waitlisted", stats.getWaitlisted());
+        data.put("chosen", stats.getChosen());
+        data.put("enrolled", stats.getEnrolled());
+        return data;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.eventapp.repositories.codecs;
+
+import com.example.eventapp.interfaces.DocumentCodec;
+import com.example.eventapp.models.EventSummary;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts {@link EventSummary}s to and from document data in the `eventSummaries` collection.
+ * The summaries are written by Cloud Functions.
+ */
+class EventSummaryCodec implements DocumentCodec<EventSummary> {
+
+    @Override
+    public EventSummary decode(String documentId, Map<String, Object> data) {
+        EventSummary summary = new EventSummary();
+        summary.setDocumentId(documentId);
+        summary.setOrganizerId(Codecs.getString(data, "organizerId", null));
+        summary.setFacilityId(Codecs.getString(data, "facilityId", null));
+        summary.setEventName(Codecs.getString(data, "eventName", null));
+        summary.setPosterUriString(Codecs.getString(data, "posterUriString", null));
+        summary.setStartDate(Codecs.getLong(data, "startDate", 0));
+        summary.setEndDate(Codecs.getLong(data, "endDate", 0));
+        summary.setDeadline(Codecs.getLong(data, "deadline", 0));
+        return summary;
+    }
+
+    @Override
+    public Map<String, Object> encode(EventSummary summary) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("organizerId", summary.getOrganizerId());
+        data.put("facilityId", summary.getFacilityId());
+        data.put("eventName", summary.getEventName());
+        data.put("posterUriString", summary.getPosterUriString());
+        data.put("startDate", summary.getStartDate());
+        data.put("endDate", summary.getEndDate());
+        data.put("deadline", summary.getDeadline());
+        return data;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.eventapp.repositories.codecs;
+
+import com.example.eventapp.interfaces.DocumentCodec;
+import com.example.eventapp.models.Facility;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts {@link Facility} objects to and from document data in the `facilities` collection.
+ */
+class FacilityCodec implements DocumentCodec<Facility> {
+
+    @Override
+    public Facility decode(String documentId, Map<String, Object> data) {
+        Facility facility = new Facility();
+        facility.setDocumentId(documentId);
+        facility.setOrganizerId(Codecs.getString(data, "organizerId", null));
+        facility.setPhotoUriString(Codecs.getString(data, "photoUriString", ""));
+        facility.setFacilityName(Codecs.getString(data, "facilityName", null));
+        facility.setFacilityDescription(Codecs.getString(data, "facilityDescription", null));
+        return facility;
+    }
+
+    @Override
+    public Map<String, Object> encode(Facility facility) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("organizerId", facility.getOrganizerId());
+        data.put("photoUriString", facility.getPhotoUriString());
+        data.put("facilityName", facility.getFacilityName());
+        data.put("facilityDescription", facility.getFacilityDescription());
+        return data;
+    }
+}
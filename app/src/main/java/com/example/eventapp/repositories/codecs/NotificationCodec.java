@@ -0,0 +1,36 @@
+package com.example.eventapp.repositories.codecs;
+
+import com.example.eventapp.interfaces.DocumentCodec;
+import com.example.eventapp.models.Notification;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts {@link Notification}s to and from document data in `users/{userId}/notifications`.
+ */
+class NotificationCodec implements DocumentCodec<Notification> {
+
+    @Override
+    public Notification decode(String documentId, Map<String, Object> data) {
+        Notification notification = new Notification();
+        notification.setDocumentId(documentId);
+        notification.setUserId(Codecs.getString(data, "userId", null));
+        notification.setTitle(Codecs.getString(data, "title", null));
+        notification.setMessage(Codecs.getString(data, "message", null));
+        notification.setEventId(Codecs.getString(data, "eventId", null));
+        notification.setType(Codecs.getString(data, "type", null));
+        return notification;
+    }
+
+    @Override
+    public Map<String, Object> encode(Notification notification) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("userId", notification.getUserId());
+        data.put("title", notification.getTitle());
+        data.put("message", notification.getMessage());
+        data.put("eventId", notification.getEventId());
+        data.put("type", notification.getType());
+        return data;
+    }
+}
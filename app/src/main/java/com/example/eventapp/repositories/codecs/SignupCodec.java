@@ -0,0 +1,60 @@
+package com.example.eventapp.repositories.codecs;
+
+import com.example.eventapp.interfaces.DocumentCodec;
+import com.example.eventapp.models.Signup;
+import com.example.eventapp.models.SignupStatus;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts {@link Signup}s to and from document data in the `signups` collection. The state is
+ * stored as a single `status` value; the status flags are still written under their bean names
+ * (`cancelled`, `waitlisted`, ...) for readers that have not moved to `status`, and are used to
+ * derive the status of documents written before it existed.
+ */
+class SignupCodec implements DocumentCodec<Signup> {
+
+    @Override
+    public Signup decode(String documentId, Map<String, Object> data) {
+        Signup signup = new Signup();
+        signup.setDocumentId(documentId);
+        signup.setUserId(Codecs.getString(data, "userId", null));
+        signup.setEventId(Codecs.getString(data, "eventId", null));
+        signup.setLatitude(Codecs.getDouble(data, "latitude"));
+        signup.setLongitude(Codecs.getDouble(data, "longitude"));
+        signup.setSignupTimestamp(Codecs.getLong(data, "signupTimestamp", 0));
+        signup.setCapacitySlot(Codecs.getInteger(data, "capacitySlot"));
+        signup.setRank(Codecs.getDouble(data, "rank"));
+        signup.setCancelled(Codecs.getBoolean(data, "cancelled", false));
+        signup.setWaitlisted(Codecs.getBoolean(data, "waitlisted", true));
+        signup.setChosen(Codecs.getBoolean(data, "chosen", false));
+        signup.setEnrolled(Codecs.getBoolean(data, "enrolled", false));
+        SignupStatus status = SignupStatus.fromValue(Codecs.getString(data, "status", null));
+        if (status != null) {
+            signup.setStatus(status);
+        }
+        return signup;
+    }
+
+    @Override
+    public Map<String, Object> encode(Signup signup) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("userId", signup.getUserId());
+        data.put("eventId", signup.getEventId());
+        data.put("latitude", signup.getLatitude());
+        data.put("longitude", signup.getLongitude());
+        data.put("signupTimestamp", signup.getSignupTimestamp());
+        data.put("capacitySlot", signup.getCapacitySlot());
+        // assigned by Cloud Functions; left out until then
+        if (signup.getRank() != null) {
+            data.put("rank", signup.getRank());
+        }
+        data.put("status", signup.getStatus().getValue());
+        data.put("cancelled", signup.isCancelled());
+        data.put("waitlisted", signup.isWaitlisted());
+        data.put("chosen", signup.isChosen());
+        data.put("enrolled", signup.isEnrolled());
+        return data;
+    }
+}
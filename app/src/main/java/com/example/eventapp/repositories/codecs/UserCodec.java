@@ -0,0 +1,42 @@
+package com.example.eventapp.repositories.codecs;
+
+import com.example.eventapp.interfaces.DocumentCodec;
+import com.example.eventapp.models.User;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Converts {@link User}s to and from document data in the `users` collection. The user ID is
+ * the document ID, but is also stored in the document for the Cloud Functions.
+ */
+class UserCodec implements DocumentCodec<User> {
+
+    @Override
+    public User decode(String documentId, Map<String, Object> data) {
+        User user = new User();
+        user.setUserId(documentId);
+        user.setName(Codecs.getString(data, "name", null));
+        user.setOrganizer(Codecs.getBoolean(data, "organizer", false));
+        user.setAdmin(Codecs.getBoolean(data, "admin", false));
+        user.setPhotoUriString(Codecs.getString(data, "photoUriString", ""));
+        user.setEmail(Codecs.getString(data, "email", ""));
+        user.setPhoneNumber(Codecs.getString(data, "phoneNumber", ""));
+        user.setNotificationOptOut(Codecs.getBoolean(data, "notificationOptOut", false));
+        return user;
+    }
+
+    @Override
+    public Map<String, Object> encode(User user) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("userId", user.getUserId());
+        data.put("name", user.getName());
+        data.put("organizer", user.isOrganizer());
+        data.put("admin", user.isAdmin());
+        data.put("photoUriString", user.getPhotoUriString());
+        data.put("email", user.getEmail());
+        data.put("phoneNumber", user.getPhoneNumber());
+        data.put("notificationOptOut", user.isNotificationOptOut());
+        return data;
+    }
+}
@@ -9,14 +9,14 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
-import com.example.eventapp.models.Event;
+import com.example.eventapp.models.EventSummary;
 import com.example.eventapp.R;
 import com.example.eventapp.services.photos.PhotoManager;
 
 import java.util.ArrayList;
 
 /**
- * EventAdapter is a RecyclerView adapter for displaying a list of {@link Event} objects in a RecyclerView.
+ * EventAdapter is a RecyclerView adapter for displaying a list of {@link EventSummary} objects in a RecyclerView.
  * Each item in the list is represented by an {@link EventAdapter.ViewHolder} that displays the event's
  * name and poster image. The adapter supports item click events through the {@link OnEventClickListener} interface.
  * <p>
@@ -30,11 +30,11 @@ import java.util.ArrayList;
  * </ul>
  */
 public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder> {
-    private final ArrayList<Event> eventList;
+    private final ArrayList<EventSummary> eventList;
     private final OnEventClickListener onEventClickListener;
 
     public interface OnEventClickListener {
-        void onEventClick(Event event);
+        void onEventClick(EventSummary event);
     }
 
     public static class ViewHolder extends RecyclerView.ViewHolder{
@@ -56,7 +56,7 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>
         }
     }
 
-    public EventAdapter(ArrayList<Event> events, OnEventClickListener onEventClickListener) {
+    public EventAdapter(ArrayList<EventSummary> events, OnEventClickListener onEventClickListener) {
         eventList = events;
         this.onEventClickListener = onEventClickListener;
     }
@@ -70,7 +70,7 @@ public class EventAdapter extends RecyclerView.Adapter<EventAdapter.ViewHolder>
 
     @Override
     public void onBindViewHolder(ViewHolder viewHolder, final int position) {
-        Event event = eventList.get(position);
+        EventSummary event = eventList.get(position);
         viewHolder.getTextView().setText(event.getEventName());
 
         if (event.hasPoster()) {
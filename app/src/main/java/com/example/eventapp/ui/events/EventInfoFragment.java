@@ -20,7 +20,6 @@ import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.cardview.widget.CardView;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
-import androidx.lifecycle.LiveData;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.NavController;
 import androidx.navigation.fragment.NavHostFragment;
@@ -28,7 +27,8 @@ import androidx.navigation.fragment.NavHostFragment;
 import com.bumptech.glide.Glide;
 import com.example.eventapp.R;
 import com.example.eventapp.models.Event;
-import com.example.eventapp.models.Signup;
+import com.example.eventapp.repositories.CapacityPendingException;
+import com.example.eventapp.repositories.EventFullException;
 import com.example.eventapp.repositories.FacilityRepository;
 import com.example.eventapp.services.FormatDate;
 import com.example.eventapp.services.photos.PhotoManager;
@@ -42,8 +42,9 @@ import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
-import java.util.List;
 import java.util.TimeZone;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * A fragment displaying detailed information about an event in a bottom sheet dialog.
@@ -196,8 +197,7 @@ public class EventInfoFragment extends BottomSheetDialogFragment {
             facilityName.setText(facility.getFacilityName());
         });
 
-        observeEventSignups(eventEntrantsCount, waitlistButton);
-        observeEventSignups(eventEntrantsText, waitlistButton);
+        observeEventSignups(eventEntrantsCount, eventEntrantsText, waitlistButton);
         updateWaitlistButtonState(waitlistButton);
 
         // Initialize location service
@@ -299,28 +299,31 @@ public class EventInfoFragment extends BottomSheetDialogFragment {
     }
 
     /**
-     * This method shows an error if the event id is null and
+     * Observes the signup counters of the event and shows the total in the entrant count views.
+     * The counters are live, so the user's own join/leave shows up without a reload.
+     * Shows an error if the event id is null.
      *
-     * @param eventEntrantsCount The number of entrants in the event
+     * @param eventEntrantsCount The entrant count view shown to organizers
+     * @param eventEntrantsText The entrant count view shown to entrants
      * @param waitlistButton The button to join the waitlist
      */
-    private void observeEventSignups(TextView eventEntrantsCount, Button waitlistButton) {
+    private void observeEventSignups(TextView eventEntrantsCount, TextView eventEntrantsText, Button waitlistButton) {
         if (event.getDocumentId() == null) {
             Log.e(TAG, "Event document ID is null");
             return;
         }
 
-        LiveData<List<Signup>> signupsLiveData = eventsViewModel.getSignupsOfEvent(event.getDocumentId());
-
-        signupsLiveData.observe(getViewLifecycleOwner(), signups -> {
-            int entrantsCount = signups != null ? signups.size() : 0;
+        eventsViewModel.getEventStatsOfEvent(event.getDocumentId()).observe(getViewLifecycleOwner(), eventStats -> {
+            int entrantsCount = eventStats != null ? (int) eventStats.getTotal() : 0;
             int maxEntrants = event.getMaxEntrants();
 
             if (maxEntrants != -1) {
-                eventEntrantsCount.setText(getString(
+                String text = getString(
                         R.string.entrants_count_with_max,
                         entrantsCount,
-                        maxEntrants));
+                        maxEntrants);
+                eventEntrantsCount.setText(text);
+                eventEntrantsText.setText(text);
 
                 if (entrantsCount >= maxEntrants) {
                     if (!isAlreadyOnWaitlist(event)) {
@@ -330,7 +333,9 @@ public class EventInfoFragment extends BottomSheetDialogFragment {
                     waitlistButton.setEnabled(true);
                 }
             } else {
-                eventEntrantsCount.setText(getString(R.string.entrants_count, entrantsCount));
+                String text = getString(R.string.entrants_count, entrantsCount);
+                eventEntrantsCount.setText(text);
+                eventEntrantsText.setText(text);
                 waitlistButton.setEnabled(true);
             }
         });
@@ -371,7 +376,7 @@ public class EventInfoFragment extends BottomSheetDialogFragment {
      * @param event This is the event that the user is joining
      */
     private void joinEventWaitlist(Event event){
-        eventsViewModel.registerToEvent(event);
+        handleJoinResult(eventsViewModel.registerToEvent(event));
     }
 
     /**
@@ -381,7 +386,37 @@ public class EventInfoFragment extends BottomSheetDialogFragment {
      * @param event This is the event that the user is joining
      */
     private void joinEventWaitlist(Event event, double lat, double lon){
-        eventsViewModel.registerToEvent(event, lat, lon);
+        handleJoinResult(eventsViewModel.registerToEvent(event, lat, lon));
+    }
+
+    /**
+     * Switches the waitlist button back if the signup was rejected, e.g. because the event filled
+     * up between showing the screen and joining
+     * @param future The pending signup, or null if there is none
+     */
+    private void handleJoinResult(CompletableFuture<String> future){
+        if (future == null) {
+            return;
+        }
+        future.exceptionally(throwable -> {
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause()
+                    : throwable;
+            if (!isAdded()) {
+                return null;
+            }
+            waitlistButton.setText(R.string.join_waitlist);
+            currentWaitlistButtonState = 0;
+            if (cause instanceof EventFullException) {
+                Toast.makeText(requireContext(), "This event's waitlist is full", Toast.LENGTH_SHORT).show();
+            } else if (cause instanceof CapacityPendingException) {
+                Toast.makeText(requireContext(), "This event is not open for signups yet, try again in a moment",
+                        Toast.LENGTH_SHORT).show();
+            } else {
+                Toast.makeText(requireContext(), "Failed to join the waitlist", Toast.LENGTH_SHORT).show();
+            }
+            return null;
+        });
     }
 
     /**
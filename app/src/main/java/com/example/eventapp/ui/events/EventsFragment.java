@@ -17,6 +17,7 @@ import androidx.viewpager2.widget.ViewPager2;
 
 import com.example.eventapp.R;
 import com.example.eventapp.models.Event;
+import com.example.eventapp.models.EventSummary;
 import com.example.eventapp.databinding.FragmentEventsBinding;
 import com.example.eventapp.models.User;
 import com.example.eventapp.repositories.UserRepository;
@@ -49,8 +50,8 @@ public class EventsFragment extends Fragment implements
         EditEventFragment.EditEventListener {
 
     private EventsViewModel eventsViewModel;
-    private ArrayList<Event> organizedEvents;
-    private ArrayList<Event> signedUpEvents;
+    private ArrayList<EventSummary> organizedEvents;
+    private ArrayList<EventSummary> signedUpEvents;
     private EventAdapter organizedEventsAdapter;
     private EventAdapter signedUpEventsAdapter;
     private EditEventFragment currentEditEventFragment;
@@ -150,7 +151,7 @@ public class EventsFragment extends Fragment implements
      *
      * @param newOrganizedEvents
      */
-    private void updateOrganizedEventsList(List<Event> newOrganizedEvents) {
+    private void updateOrganizedEventsList(List<EventSummary> newOrganizedEvents) {
         organizedEvents.clear();
         organizedEvents.addAll(newOrganizedEvents);
         organizedEventsAdapter.notifyDataSetChanged();
@@ -161,7 +162,7 @@ public class EventsFragment extends Fragment implements
      *
      * @param newSignedUpEvents
      */
-    private void updateSignedUpEventsList(List<Event> newSignedUpEvents) {
+    private void updateSignedUpEventsList(List<EventSummary> newSignedUpEvents) {
         signedUpEvents.clear();
         signedUpEvents.addAll(newSignedUpEvents);
         signedUpEventsAdapter.notifyDataSetChanged();
@@ -184,10 +185,29 @@ public class EventsFragment extends Fragment implements
         });
     }
 
+    /**
+     * Opens the full event behind a clicked event card; the lists only hold summaries.
+     *
+     * @param summary The summary of the clicked event.
+     */
     @Override
-    public void onEventClick(Event event) {
-        Log.d("EventsFragment", "Event with name " + event.getEventName() + " clicked");
-        showEventInfoPopup(event);
+    public void onEventClick(EventSummary summary) {
+        Log.d("EventsFragment", "Event with name " + summary.getEventName() + " clicked");
+        eventsViewModel.getEvent(summary.getDocumentId()).thenAccept(event -> {
+            if (getActivity() == null) {
+                return;
+            }
+            getActivity().runOnUiThread(() -> {
+                if (event == null) {
+                    Toast.makeText(getContext(), "This event no longer exists", Toast.LENGTH_SHORT).show();
+                } else if (isAdded()) {
+                    showEventInfoPopup(event);
+                }
+            });
+        }).exceptionally(throwable -> {
+            Log.e("EventsFragment", "Failed to load event " + summary.getDocumentId(), throwable);
+            return null;
+        });
     }
 
     private void showEventInfoPopup(Event event) {
@@ -23,11 +23,17 @@ import androidx.lifecycle.ViewModelProvider;
 import com.bumptech.glide.Glide;
 import com.example.eventapp.R;
 import com.example.eventapp.models.Event;
+import com.example.eventapp.repositories.CapacityPendingException;
+import com.example.eventapp.repositories.EventFullException;
 import com.example.eventapp.services.FormatDate;
 import com.example.eventapp.services.GetUserLocationService;
 import com.example.eventapp.viewmodels.EventsViewModel;
 import com.google.android.material.bottomsheet.BottomSheetDialogFragment;
 
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * This is the fragment that displays the information of the event corresponding to the qr code
  * that was scanned.
@@ -36,7 +42,7 @@ public class ScannedEventFragment extends BottomSheetDialogFragment {
 
     private final String TAG = "ScannedEventFragment";
     private EventsViewModel eventsViewModel;
-    private final Event event;
+    private Event event;
     private int currentWaitlistButtonState;
     private Button waitlistButton;
     private GetUserLocationService locationService;
@@ -86,32 +92,10 @@ public class ScannedEventFragment extends BottomSheetDialogFragment {
     public View onCreateView(LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState){
         eventsViewModel = new ViewModelProvider(requireActivity()).get(EventsViewModel.class);
         View view = inflater.inflate(R.layout.scanned_event_popup, null);
-        TextView eventName = view.findViewById(R.id.popup_scanned_event_name_text);
         waitlistButton = view.findViewById(R.id.popup_scanned_event_waitlist_button);
-        ImageView eventImage = view.findViewById(R.id.popup_scanned_event_poster_image);
-        TextView eventDuration = view.findViewById(R.id.popup_scanned_event_duration_text);
-        TextView eventRegistrationDeadline = view.findViewById(R.id.popup_scanned_event_registration_deadline_text);
-        TextView eventDescription = view.findViewById(R.id.popup_scanned_event_description_text);
-        TextView eventEntrantsCount = view.findViewById(R.id.popup_scanned_event_max_entrants);
 
         // Set views
-        eventName.setText(event.getEventName());
-        eventDuration.setText("From: " + FormatDate.format(event.getStartDate()) + " To: " + FormatDate.format(event.getEndDate()));
-        eventRegistrationDeadline.setText("Registration Deadline: " + FormatDate.format(event.getDeadline()));
-        eventDescription.setText(event.getEventDescription());
-
-        if (event.hasPoster()) {
-            Glide.with(this)
-                    .load(event.getPosterUri())
-                    .into(eventImage);
-        } else {
-            eventImage.setImageResource(R.drawable.default_event_poster);
-        }
-        if (event.getMaxEntrants() != -1) {
-            eventEntrantsCount.setText("Entrants: 0/" + event.getMaxEntrants());
-        } else {
-            eventEntrantsCount.setText("No Entrant Limit");
-        }
+        showEvent(view);
 
         boolean isAlreadyInWaitlist = isAlreadyOnWaitlist(event);
 
@@ -147,6 +131,56 @@ public class ScannedEventFragment extends BottomSheetDialogFragment {
         return view;
     }
 
+    /**
+     * Fills the popup with the details of the event.
+     *
+     * @param view The root view of the popup.
+     */
+    @SuppressLint("SetTextI18n")
+    private void showEvent(View view) {
+        TextView eventName = view.findViewById(R.id.popup_scanned_event_name_text);
+        ImageView eventImage = view.findViewById(R.id.popup_scanned_event_poster_image);
+        TextView eventDuration = view.findViewById(R.id.popup_scanned_event_duration_text);
+        TextView eventRegistrationDeadline = view.findViewById(R.id.popup_scanned_event_registration_deadline_text);
+        TextView eventDescription = view.findViewById(R.id.popup_scanned_event_description_text);
+        TextView eventEntrantsCount = view.findViewById(R.id.popup_scanned_event_max_entrants);
+
+        eventName.setText(event.getEventName());
+        eventDuration.setText("From: " + FormatDate.format(event.getStartDate()) + " To: " + FormatDate.format(event.getEndDate()));
+        eventRegistrationDeadline.setText("Registration Deadline: " + FormatDate.format(event.getDeadline()));
+        eventDescription.setText(event.getEventDescription());
+
+        if (event.hasPoster()) {
+            Glide.with(this)
+                    .load(event.getPosterUri())
+                    .into(eventImage);
+        } else {
+            eventImage.setImageResource(R.drawable.default_event_poster);
+        }
+        if (event.getMaxEntrants() != -1) {
+            eventEntrantsCount.setText("Entrants: 0/" + event.getMaxEntrants());
+        } else {
+            eventEntrantsCount.setText("No Entrant Limit");
+        }
+    }
+
+    /**
+     * Replaces the event shown in the popup, e.g. when a newer copy arrives from the server after
+     * the popup was opened with a cached one. Must be called on the main thread.
+     *
+     * @param refreshed The refreshed event; ignored if null, since the event was deleted, or if it
+     *                  is a different event.
+     */
+    public void updateEvent(Event refreshed) {
+        if (refreshed == null || !Objects.equals(refreshed.getDocumentId(), event.getDocumentId())) {
+            return;
+        }
+        event = refreshed;
+        if (getView() != null) {
+            showEvent(getView());
+        }
+    }
+
     /**
      * This method is called once we have location permissions
      * and joins the user with their location to the event with a signup
@@ -206,7 +240,7 @@ public class ScannedEventFragment extends BottomSheetDialogFragment {
      * @param event event to which the user is getting added
      */
     private void joinEventWaitlist(Event event){
-        eventsViewModel.registerToEvent(event);
+        handleJoinResult(eventsViewModel.registerToEvent(event));
     }
 
     /**
@@ -215,7 +249,37 @@ public class ScannedEventFragment extends BottomSheetDialogFragment {
      * @param event event to which the user is getting added
      */
     private void joinEventWaitlist(Event event, double lat, double lon){
-        eventsViewModel.registerToEvent(event, lat, lon);
+        handleJoinResult(eventsViewModel.registerToEvent(event, lat, lon));
+    }
+
+    /**
+     * Switches the waitlist button back if the signup was rejected, e.g. because the event filled
+     * up between showing the screen and joining
+     * @param future The pending signup, or null if there is none
+     */
+    private void handleJoinResult(CompletableFuture<String> future){
+        if (future == null) {
+            return;
+        }
+        future.exceptionally(throwable -> {
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause()
+                    : throwable;
+            if (!isAdded()) {
+                return null;
+            }
+            waitlistButton.setText(R.string.join_waitlist);
+            currentWaitlistButtonState = 0;
+            if (cause instanceof EventFullException) {
+                Toast.makeText(requireContext(), "This event's waitlist is full", Toast.LENGTH_SHORT).show();
+            } else if (cause instanceof CapacityPendingException) {
+                Toast.makeText(requireContext(), "This event is not open for signups yet, try again in a moment",
+                        Toast.LENGTH_SHORT).show();
+            } else {
+                Toast.makeText(requireContext(), "Failed to join the waitlist", Toast.LENGTH_SHORT).show();
+            }
+            return null;
+        });
     }
 
     /**
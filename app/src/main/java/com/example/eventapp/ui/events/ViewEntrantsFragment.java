@@ -11,6 +11,7 @@ import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageButton;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.annotation.NonNull;
@@ -22,6 +23,8 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.eventapp.R;
 import com.example.eventapp.models.Event;
+import com.example.eventapp.models.EventStats;
+import com.example.eventapp.repositories.DTOs.BroadcastProgress;
 import com.example.eventapp.repositories.DTOs.SignupFilter;
 import com.example.eventapp.repositories.DTOs.UserSignupEntry;
 import com.example.eventapp.viewmodels.EntrantsViewModel;
@@ -43,6 +46,7 @@ public class ViewEntrantsFragment extends Fragment implements NotificationMessag
 
     // Cancelled, Waitlisted, Chosen, Enrolled:
     private boolean[] filterOptions;
+    private EventStats currentEventStats;
 
     /**
      * Draws entrants (for the invitation to enroll)
@@ -72,7 +76,17 @@ public class ViewEntrantsFragment extends Fragment implements NotificationMessag
             Toast.makeText(getContext(), "No users selected", Toast.LENGTH_LONG).show();
             return;
         }
-        entrantsViewModel.notifyEntrants(selectedEntrants, messageContents);
+        entrantsViewModel.notifyEntrants(selectedEntrants, messageContents).thenAccept(progress -> {
+            if (progress.getFailed() > 0) {
+                Toast.makeText(getContext(), "Failed to notify " + progress.getFailed() + " of "
+                        + progress.getTotal() + " entrants", Toast.LENGTH_LONG).show();
+            } else {
+                Toast.makeText(getContext(), "Notified " + progress.getWritten() + " entrants", Toast.LENGTH_SHORT).show();
+            }
+        }).exceptionally(throwable -> {
+            Toast.makeText(getContext(), "Failed to notify entrants: " + throwable.getMessage(), Toast.LENGTH_LONG).show();
+            return null;
+        });
     }
 
     /**
@@ -129,15 +143,15 @@ public class ViewEntrantsFragment extends Fragment implements NotificationMessag
         // Lottery Button
         FloatingActionButton lotteryButton = view.findViewById(R.id.fragment_view_entrants_draw_button);
         if(entrantsViewModel.getCurrentEventToQuery().isLotteryProcessed()){
-            int enrolledCount = getEnrolledCount();
-            int maxEnrolledSize = entrantsViewModel.getCurrentEventToQuery().getNumberOfAttendees();
-            if(enrolledCount < maxEnrolledSize){
-                lotteryButton.setOnClickListener(view15 -> {
+            lotteryButton.setOnClickListener(view15 -> {
+                int enrolledCount = getEnrolledCount();
+                int maxEnrolledSize = entrantsViewModel.getCurrentEventToQuery().getNumberOfAttendees();
+                if(enrolledCount < maxEnrolledSize){
                     askForLotteryDrawCount(maxEnrolledSize-enrolledCount);
-                });
-            }else{
-                lotteryButton.setOnClickListener(view13 -> Toast.makeText(getContext(), "Enrollment is Full", Toast.LENGTH_SHORT).show());
-            }
+                }else{
+                    Toast.makeText(getContext(), "Enrollment is Full", Toast.LENGTH_SHORT).show();
+                }
+            });
         }else{
             lotteryButton.setOnClickListener(view14 -> askForLotteryDrawCount(entrantsViewModel.getCurrentEventToQuery().getNumberOfAttendees()));
         }
@@ -165,9 +179,28 @@ public class ViewEntrantsFragment extends Fragment implements NotificationMessag
         }
 
         entrantsViewModel.getFilteredUserSignupEntriesLiveData().observe(getViewLifecycleOwner(), this::updateEntrantsList);
+        entrantsViewModel.getCurrentEventStatsLiveData().observe(getViewLifecycleOwner(), stats -> currentEventStats = stats);
+
+        TextView broadcastProgressText = view.findViewById(R.id.fragment_view_entrants_broadcast_progress);
+        entrantsViewModel.getBroadcastProgressLiveData().observe(getViewLifecycleOwner(),
+                progress -> showBroadcastProgress(broadcastProgressText, progress));
         updateFilter();
     }
 
+    /**
+     * Shows how far a running broadcast has got, and hides the text once it is done
+     * @param progressText the text showing the progress
+     * @param progress the progress of the latest broadcast, or null if there is none
+     */
+    private void showBroadcastProgress(TextView progressText, BroadcastProgress progress) {
+        if (progress == null || progress.isDone()) {
+            progressText.setVisibility(View.GONE);
+            return;
+        }
+        progressText.setText(getString(R.string.broadcast_progress, progress.getWritten(), progress.getTotal()));
+        progressText.setVisibility(View.VISIBLE);
+    }
+
     /**
      * Method for updating the entrants list
      * @param newEntrants Live data list of current entrants
@@ -228,19 +261,13 @@ public class ViewEntrantsFragment extends Fragment implements NotificationMessag
     }
 
     /**
-     * Get the number of entrants that are enrolled in the event.
+     * Get the number of entrants that are enrolled in the event, from the event's signup counters
+     * rather than the (possibly filtered) list on screen.
      *
      * @return the number of entrants that are enrolled in the event
      */
     public int getEnrolledCount() {
-        int enrolledCount = 0;
-        for (UserSignupEntry entry : entrants) {
-            String status = entry.getAttendanceStatus();
-            if(status.equals("Enrolled")){
-                enrolledCount++;
-            }
-        }
-        return enrolledCount;
+        return currentEventStats != null ? (int) currentEventStats.getEnrolled() : 0;
     }
 
     /**
@@ -266,7 +293,16 @@ public class ViewEntrantsFragment extends Fragment implements NotificationMessag
      * Get rid of the selected entrants' signups
      */
     private void cancelSelectedSignups(){
-        entrantsViewModel.cancelEntrants(getSelectedEntrants());
+        List<UserSignupEntry> selectedEntrants = getSelectedEntrants();
+        entrantsViewModel.cancelEntrants(selectedEntrants).thenAccept(result -> {
+            if (!result.isSuccessful()) {
+                Toast.makeText(getContext(), "Failed to cancel " + result.getFailureCount() + " of "
+                        + selectedEntrants.size() + " entrants", Toast.LENGTH_LONG).show();
+            }
+        }).exceptionally(throwable -> {
+            Toast.makeText(getContext(), "Failed to cancel entrants: " + throwable.getMessage(), Toast.LENGTH_LONG).show();
+            return null;
+        });
     }
 
     /**
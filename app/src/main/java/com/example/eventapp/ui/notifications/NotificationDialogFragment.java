@@ -40,6 +40,7 @@ public class NotificationDialogFragment extends DialogFragment {
     private Notification notification;
     private static final String ARG_EVENT = "event";
     private Event event;
+    private View invitationView;
 
     private NotificationDialogViewModel viewModel;
 
@@ -124,10 +125,6 @@ public class NotificationDialogFragment extends DialogFragment {
      * @param view The root view of the dialog layout.
      */
     private void setupInvitationView(View view) {
-        TextView tvEventTitle = view.findViewById(R.id.tvEventTitle);
-        TextView tvEventDate = view.findViewById(R.id.tvEventDate);
-        TextView tvEventDescription = view.findViewById(R.id.tvEventDescription);
-        ImageView ivEventImage = view.findViewById(R.id.ivEventImage);
         Button btnAccept = view.findViewById(R.id.btnAccept);
         Button btnDecline = view.findViewById(R.id.btnDecline);
 
@@ -137,15 +134,8 @@ public class NotificationDialogFragment extends DialogFragment {
             dismiss();
             return;
         }
-        tvEventTitle.setText(event.getEventName());
-        tvEventDate.setText(FormatDate.format(event.getStartDate()));
-        tvEventDescription.setText(event.getEventDescription());
-
-        if (event.hasPoster()) {
-            Glide.with(this).load(event.getPosterUri()).into(ivEventImage);
-        } else {
-            ivEventImage.setImageResource(R.drawable.default_event_poster);
-        }
+        invitationView = view;
+        showEvent(view);
 
         btnAccept.setOnClickListener(v -> {
             viewModel.updateSignupStatus(notification, true)
@@ -164,6 +154,47 @@ public class NotificationDialogFragment extends DialogFragment {
         });
     }
 
+    /**
+     * Fills the invitation view with the details of the event.
+     *
+     * @param view The root view of the invitation layout.
+     */
+    private void showEvent(View view) {
+        TextView tvEventTitle = view.findViewById(R.id.tvEventTitle);
+        TextView tvEventDate = view.findViewById(R.id.tvEventDate);
+        TextView tvEventDescription = view.findViewById(R.id.tvEventDescription);
+        ImageView ivEventImage = view.findViewById(R.id.ivEventImage);
+
+        tvEventTitle.setText(event.getEventName());
+        tvEventDate.setText(FormatDate.format(event.getStartDate()));
+        tvEventDescription.setText(event.getEventDescription());
+
+        if (event.hasPoster()) {
+            Glide.with(this).load(event.getPosterUri()).into(ivEventImage);
+        } else {
+            ivEventImage.setImageResource(R.drawable.default_event_poster);
+        }
+    }
+
+    /**
+     * Replaces the event shown in an invitation, e.g. when a newer copy arrives from the server
+     * after the dialog was opened with a cached one. Must be called on the main thread.
+     *
+     * @param refreshed The refreshed event; ignored if null, since the event was deleted.
+     */
+    public void updateEvent(@Nullable Event refreshed) {
+        if (refreshed == null) {
+            return;
+        }
+        event = refreshed;
+        if (getArguments() != null) {
+            getArguments().putSerializable(ARG_EVENT, refreshed);
+        }
+        if (invitationView != null && isAdded()) {
+            showEvent(invitationView);
+        }
+    }
+
     /**
      * Configures the view for general-type notifications and initializes UI elements.
      *
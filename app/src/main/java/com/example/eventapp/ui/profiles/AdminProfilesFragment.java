@@ -27,8 +27,8 @@ import java.util.List;
  * administrators to view detailed information for individual users.
  *
  * This fragment observes live data from the ProfileViewModel, updating the displayed user list
- * dynamically. When a profile is clicked, it opens a {@link ProfileInfoFragment} as a popup
- * to show more details.
+ * dynamically. Profiles are loaded a page at a time as the list is scrolled. When a profile is
+ * clicked, it opens a {@link ProfileInfoFragment} as a popup to show more details.
  */
 public class AdminProfilesFragment extends Fragment implements
         ProfilesAdapter.OnProfileClickListener {
@@ -55,6 +55,15 @@ public class AdminProfilesFragment extends Fragment implements
         Profiles = new ArrayList<>();
         ProfilesAdapter = new ProfilesAdapter(Profiles, this);
         ProfilesList.setAdapter(ProfilesAdapter);
+        ProfilesList.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (layoutManager != null) {
+                    profileViewModel.onUserVisible(layoutManager.findLastVisibleItemPosition());
+                }
+            }
+        });
 
         profileViewModel.getUsers().observe(getViewLifecycleOwner(), this::updateProfilesList);
     }
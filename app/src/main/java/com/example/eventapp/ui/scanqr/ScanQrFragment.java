@@ -15,6 +15,7 @@ import androidx.lifecycle.ViewModelProvider;
 
 import com.example.eventapp.R;
 import com.example.eventapp.databinding.FragmentScanQrBinding;
+import com.example.eventapp.models.Event;
 import com.example.eventapp.ui.events.ScannedEventFragment;
 import com.example.eventapp.viewmodels.ScanQrViewModel;
 import com.journeyapps.barcodescanner.ScanContract;
@@ -50,7 +51,7 @@ public class ScanQrFragment extends Fragment {
                     String qrData = result.getContents();
                     binding.textScanQr.setText(getString(R.string.scanned, qrData));
 
-                    scanQrViewModel.getEventByQrCodeHash(qrData)
+                    scanQrViewModel.getEventByQrCodeHash(qrData, this::onScannedEventRefreshed)
                         .thenAccept(scannedEvent -> {
                             Log.d(TAG, result.getContents());
                             Log.d(TAG, String.valueOf(scannedEvent));
@@ -89,6 +90,17 @@ public class ScanQrFragment extends Fragment {
         scanLauncher.launch(options);
     }
 
+    /**
+     * Shows the server copy of a scanned event that was first shown from the local cache.
+     *
+     * @param refreshedEvent The refreshed event, or null if it was deleted.
+     */
+    private void onScannedEventRefreshed(Event refreshedEvent) {
+        if (currentScannedEventFragment != null) {
+            currentScannedEventFragment.updateEvent(refreshedEvent);
+        }
+    }
+
     @Override
     public void onDestroyView() {
         super.onDestroyView();
@@ -7,7 +7,11 @@ import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.example.eventapp.models.Event;
+import com.example.eventapp.models.EventStats;
 import com.example.eventapp.models.Notification;
+import com.example.eventapp.models.SignupStatus;
+import com.example.eventapp.repositories.DTOs.BatchWriteResult;
+import com.example.eventapp.repositories.DTOs.BroadcastProgress;
 import com.example.eventapp.repositories.DTOs.SignupFilter;
 import com.example.eventapp.repositories.DTOs.UserSignupEntry;
 import com.example.eventapp.repositories.NotificationRepository;
@@ -17,8 +21,10 @@ import com.google.firebase.functions.FirebaseFunctions;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -37,6 +43,10 @@ public class EntrantsViewModel extends ViewModel {
     private final MediatorLiveData<List<UserSignupEntry>> filteredUserSignupEntriesLiveData = new MediatorLiveData<>();
     private LiveData<List<UserSignupEntry>> currentUserSignupEntriesLiveData;
     private SignupFilter currentFilter;
+    private final MediatorLiveData<EventStats> currentEventStatsLiveData = new MediatorLiveData<>();
+    private LiveData<EventStats> currentEventStatsSource;
+    private final MediatorLiveData<BroadcastProgress> broadcastProgressLiveData = new MediatorLiveData<>();
+    private LiveData<BroadcastProgress> broadcastProgressSource;
 
     /**
      * Default constructor for EntrantsViewModel.
@@ -86,6 +96,24 @@ public class EntrantsViewModel extends ViewModel {
     public void setCurrentEventToQuery(Event currentEventToQuery) {
         this.currentEventToQuery = currentEventToQuery;
         updateFilter(currentFilter != null ? currentFilter : new SignupFilter());
+
+        if (currentEventStatsSource != null) {
+            currentEventStatsLiveData.removeSource(currentEventStatsSource);
+            currentEventStatsSource = null;
+        }
+        if (currentEventToQuery != null && currentEventToQuery.getDocumentId() != null) {
+            currentEventStatsSource = eventRepository.getEventStatsLiveData(currentEventToQuery.getDocumentId());
+            currentEventStatsLiveData.addSource(currentEventStatsSource, currentEventStatsLiveData::setValue);
+        }
+    }
+
+    /**
+     * Gets the signup counters of the event currently being viewed.
+     *
+     * @return LiveData containing the counters of the current event.
+     */
+    public LiveData<EventStats> getCurrentEventStatsLiveData() {
+        return currentEventStatsLiveData;
     }
 
     /**
@@ -110,18 +138,160 @@ public class EntrantsViewModel extends ViewModel {
     }
 
     /**
-     * Sends a notification to entrants.
+     * Sends a notification to entrants. If every entrant matching the current filter is selected,
+     * the notifications are fanned out server-side by the `broadcastNotification` function, which
+     * keeps going if the app is closed and reports progress to
+     * {@link #getBroadcastProgressLiveData()}. Otherwise they are uploaded in batches from the app.
      *
      * @param selectedEntrants the entrants that will receive the notification
      * @param messageContent the contents of the notification
+     * @return A CompletableFuture containing the final progress once every notification is written.
      */
-    public void notifyEntrants(List<UserSignupEntry> selectedEntrants, String messageContent) {
+    public CompletableFuture<BroadcastProgress> notifyEntrants(List<UserSignupEntry> selectedEntrants, String messageContent) {
         String notificationTitle = "Notification for Event \"" +currentEventToQuery.getEventName()+ "\"";
+        List<String> statuses = getFilterStatuses(currentFilter);
+
+        if (!statuses.isEmpty() && isEveryFilteredEntrantSelected(selectedEntrants)) {
+            return broadcastToEntrants(statuses, notificationTitle, messageContent);
+        }
+
+        List<Notification> notifications = new ArrayList<>();
         for(UserSignupEntry userSignupEntry: selectedEntrants) {
             String userId = userSignupEntry.getUser().getUserId();
-            Notification notification = new Notification(userId, notificationTitle, messageContent);
-            notificationRepository.uploadNotification(notification);
+            notifications.add(new Notification(userId, notificationTitle, messageContent));
         }
+        return notificationRepository.uploadNotifications(notifications)
+                .thenApply(result -> {
+                    if (!result.isSuccessful()) {
+                        Log.e(TAG, "notifyEntrants: failed to notify " + result.getFailureCount() + " entrants");
+                    }
+                    return new BroadcastProgress(null, selectedEntrants.size(),
+                            result.getSuccessCount(), result.getFailureCount(), true);
+                });
+    }
+
+    /**
+     * Gets the progress of the latest server-side broadcast started by {@link #notifyEntrants}.
+     *
+     * @return LiveData containing the progress of the latest broadcast.
+     */
+    public LiveData<BroadcastProgress> getBroadcastProgressLiveData() {
+        return broadcastProgressLiveData;
+    }
+
+    /**
+     * Calls the `broadcastNotification` function for the entrants of the current event with the
+     * given statuses, observing its progress while it runs.
+     *
+     * @param statuses the signup statuses of the entrants to notify
+     * @param title the title of the notification
+     * @param message the contents of the notification
+     * @return A CompletableFuture containing the final progress of the broadcast.
+     */
+    private CompletableFuture<BroadcastProgress> broadcastToEntrants(List<String> statuses, String title, String message) {
+        CompletableFuture<BroadcastProgress> future = new CompletableFuture<>();
+        String broadcastId = notificationRepository.newBroadcastId();
+
+        if (broadcastProgressSource != null) {
+            broadcastProgressLiveData.removeSource(broadcastProgressSource);
+        }
+        LiveData<BroadcastProgress> progressSource = notificationRepository.getBroadcastProgressLiveData(broadcastId);
+        broadcastProgressSource = progressSource;
+        broadcastProgressLiveData.addSource(progressSource, broadcastProgressLiveData::setValue);
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("eventId", currentEventToQuery.getDocumentId());
+        data.put("organizerId", currentEventToQuery.getOrganizerId());
+        data.put("statuses", statuses);
+        data.put("title", title);
+        data.put("message", message);
+        data.put("broadcastId", broadcastId);
+
+        firebaseFunctions
+                .getHttpsCallable("broadcastNotification")
+                .call(data)
+                .addOnCompleteListener(task -> {
+                    if (!task.isSuccessful()) {
+                        Log.e(TAG, "Notifying entrants failed:", task.getException());
+                        // The progress document stops being updated; stop showing it as running
+                        if (broadcastProgressSource == progressSource) {
+                            broadcastProgressLiveData.removeSource(progressSource);
+                            broadcastProgressSource = null;
+                            broadcastProgressLiveData.setValue(null);
+                        }
+                        future.completeExceptionally(task.getException());
+                        return;
+                    }
+                    Map<?, ?> response = (Map<?, ?>) task.getResult().getData();
+                    Map<?, ?> result = response != null ? (Map<?, ?>) response.get("result") : null;
+                    if (result == null) {
+                        future.completeExceptionally(new NullPointerException("Broadcast result is null"));
+                        return;
+                    }
+                    BroadcastProgress progress = new BroadcastProgress(
+                            broadcastId,
+                            toLong(result.get("total")),
+                            toLong(result.get("written")),
+                            toLong(result.get("failed")),
+                            true);
+                    Log.i(TAG, "Broadcast " + broadcastId + " wrote " + progress.getWritten()
+                            + " of " + progress.getTotal() + " notifications");
+                    future.complete(progress);
+                });
+        return future;
+    }
+
+    /**
+     * Checks whether the selection covers every entrant currently shown for the filter.
+     *
+     * @param selectedEntrants the selected entrants
+     * @return true if no entrant matching the filter is left out
+     */
+    private boolean isEveryFilteredEntrantSelected(List<UserSignupEntry> selectedEntrants) {
+        List<UserSignupEntry> filteredEntrants = filteredUserSignupEntriesLiveData.getValue();
+        if (filteredEntrants == null || filteredEntrants.isEmpty()) {
+            return false;
+        }
+        Set<String> selectedUserIds = new HashSet<>();
+        for (UserSignupEntry entry : selectedEntrants) {
+            selectedUserIds.add(entry.getUser().getUserId());
+        }
+        for (UserSignupEntry entry : filteredEntrants) {
+            if (!selectedUserIds.contains(entry.getUser().getUserId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts a filter to the signup statuses it selects.
+     *
+     * @param filter the filter, may be null
+     * @return the values of the selected statuses
+     */
+    private static List<String> getFilterStatuses(SignupFilter filter) {
+        List<String> statuses = new ArrayList<>();
+        if (filter == null) {
+            return statuses;
+        }
+        if (Boolean.TRUE.equals(filter.isCancelled)) {
+            statuses.add(SignupStatus.CANCELLED.getValue());
+        }
+        if (Boolean.TRUE.equals(filter.isWaitlisted)) {
+            statuses.add(SignupStatus.WAITLISTED.getValue());
+        }
+        if (Boolean.TRUE.equals(filter.isChosen)) {
+            statuses.add(SignupStatus.CHOSEN.getValue());
+        }
+        if (Boolean.TRUE.equals(filter.isEnrolled)) {
+            statuses.add(SignupStatus.ENROLLED.getValue());
+        }
+        return statuses;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
     }
 
     /**
@@ -141,26 +311,35 @@ public class EntrantsViewModel extends ViewModel {
         String userId = userSignupEntry.getUser().getUserId();
         String eventId = currentEventToQuery.getDocumentId();
 
-        return signupRepository.getSignup(userId, eventId)
-                .thenCompose(signup -> {
-                    if (signup == null) {
-                        Exception ex = new IllegalStateException("Signup not found");
-                        future.completeExceptionally(ex);
-                        return future;
-                    }
-                    return signupRepository.removeSignup(signup);
-                });
+        return signupRepository.removeSignup(userId, eventId);
     }
 
     /**
-     * Cancels the signups of the selected entrants.
+     * Cancels the signups of the selected entrants, removing them with batched deletes.
      *
      * @param selectedEntrants The entrants to cancel.
+     * @return A CompletableFuture containing the result per user ID.
      */
-    public void cancelEntrants(List<UserSignupEntry> selectedEntrants){
+    public CompletableFuture<BatchWriteResult> cancelEntrants(List<UserSignupEntry> selectedEntrants){
+        if (currentEventToQuery == null) {
+            CompletableFuture<BatchWriteResult> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("Current event is null"));
+            return future;
+        }
+        List<String> userIds = new ArrayList<>();
         for(UserSignupEntry userSignupEntry: selectedEntrants) {
-            removeSignupEntry(userSignupEntry);
+            userIds.add(userSignupEntry.getUser().getUserId());
         }
+
+        return signupRepository.removeSignups(currentEventToQuery.getDocumentId(), userIds)
+                .whenComplete((result, throwable) -> {
+                    if (throwable != null) {
+                        Log.e(TAG, "cancelEntrants: failed", throwable);
+                    } else if (!result.isSuccessful()) {
+                        Log.e(TAG, "cancelEntrants: failed to cancel " + result.getFailureCount()
+                                + " of " + selectedEntrants.size() + " entrants");
+                    }
+                });
     }
 
     /**
@@ -229,7 +408,8 @@ public class EntrantsViewModel extends ViewModel {
     /**
      * Used to draw entrants from the waitling list (that will be invited to enroll in the event)
      * @param drawCount
-     * @return
+     * @return the result message; if another draw of the event is already running, a message
+     *         saying so and nothing is drawn
      */
     public CompletableFuture<String> drawEntrants(int drawCount) {
         Log.d("EntrantsViewModel", "drawEntrants called for " + drawCount + " Entrants");
@@ -250,7 +430,11 @@ public class EntrantsViewModel extends ViewModel {
                         future.completeExceptionally(new NullPointerException("Lottery result is null"));
                         return future;
                     }
-                    Log.i(TAG, "Lottery result: " + result.get("result"));
+                    if ("in_progress".equals(result.get("status"))) {
+                        Log.w(TAG, "Lottery draw already in progress for event " + data.get("eventId"));
+                    } else {
+                        Log.i(TAG, "Lottery result: " + result.get("result"));
+                    }
                     future.complete(result.get("result"));
                     return null;
                 }).addOnFailureListener(ex -> {
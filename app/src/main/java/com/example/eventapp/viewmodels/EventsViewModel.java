@@ -8,6 +8,8 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.example.eventapp.models.Event;
+import com.example.eventapp.models.EventStats;
+import com.example.eventapp.models.EventSummary;
 import com.example.eventapp.models.Facility;
 import com.example.eventapp.models.Signup;
 import com.example.eventapp.models.User;
@@ -16,6 +18,8 @@ import com.example.eventapp.repositories.FacilityRepository;
 import com.example.eventapp.repositories.SignupRepository;
 import com.example.eventapp.repositories.UserRepository;
 import com.example.eventapp.services.photos.PhotoManager;
+import com.example.eventapp.repositories.DTOs.SignupCounts;
+import com.example.eventapp.repositories.PollingLiveData;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -39,10 +43,15 @@ public class EventsViewModel extends ViewModel {
     private final FacilityRepository facilityRepository;
     private final LiveData<User> currentUserLiveData;
 
-    private final MediatorLiveData<List<Event>> organizedEventsLiveData = new MediatorLiveData<>();
-    private final MediatorLiveData<List<Event>> signedUpEventsLiveData = new MediatorLiveData<>();
+    private final MediatorLiveData<List<EventSummary>> organizedEventsLiveData = new MediatorLiveData<>();
+    private final MediatorLiveData<List<EventSummary>> signedUpEventsLiveData = new MediatorLiveData<>();
     private final MediatorLiveData<List<Facility>> userFacilitiesLiveData = new MediatorLiveData<>();
 
+    private String loadedUserId;
+    private LiveData<List<EventSummary>> organizedEventsSource;
+    private LiveData<List<EventSummary>> signedUpEventsSource;
+    private LiveData<List<Facility>> userFacilitiesSource;
+
     private Event creatingEvent;
     private boolean creatingEventDatesInitialized;
     private Facility creatingEventFacility;
@@ -90,9 +99,10 @@ public class EventsViewModel extends ViewModel {
             currentUserLiveData = userRepository.getCurrentUserLiveData();
         }
 
-        // Load data when current user data is available
+        // Load data when current user data is available, only re-querying if the user changed
         currentUserLiveData.observeForever(user -> {
-            if (user != null) {
+            if (user != null && !user.getUserId().equals(loadedUserId)) {
+                loadedUserId = user.getUserId();
                 loadOrganizedEvents(user.getUserId());
                 loadSignedUpEvents(user.getUserId());
                 loadUserFacilities(user.getUserId());
@@ -101,20 +111,20 @@ public class EventsViewModel extends ViewModel {
     }
 
     /**
-     * Retrieves LiveData containing a list of events organized by the current user.
+     * Retrieves LiveData containing the summaries of the events organized by the current user.
      *
-     * @return LiveData of a list of organized events.
+     * @return LiveData of a list of organized event summaries.
      */
-    public LiveData<List<Event>> getOrganizedEvents() {
+    public LiveData<List<EventSummary>> getOrganizedEvents() {
         return organizedEventsLiveData;
     }
 
     /**
-     * Retrieves LiveData containing a list of events the user is signed up for.
+     * Retrieves LiveData containing the summaries of the events the user is signed up for.
      *
-     * @return LiveData of a list of signed-up events.
+     * @return LiveData of a list of signed-up event summaries.
      */
-    public LiveData<List<Event>> getSignedUpEvents() {
+    public LiveData<List<EventSummary>> getSignedUpEvents() {
         return signedUpEventsLiveData;
     }
 
@@ -128,23 +138,29 @@ public class EventsViewModel extends ViewModel {
     }
 
     /**
-     * Loads events organized by the specified user and updates the corresponding LiveData.
+     * Loads the summaries of events organized by the specified user and updates the corresponding LiveData.
      *
      * @param userId The ID of the user whose organized events are to be loaded.
      */
     private void loadOrganizedEvents(String userId) {
-        LiveData<List<Event>> organizedEvents = eventRepository.getEventsOfOrganizerLiveData(userId);
-        organizedEventsLiveData.addSource(organizedEvents, organizedEventsLiveData::setValue);
+        if (organizedEventsSource != null) {
+            organizedEventsLiveData.removeSource(organizedEventsSource);
+        }
+        organizedEventsSource = eventRepository.getEventSummariesOfOrganizerLiveData(userId);
+        organizedEventsLiveData.addSource(organizedEventsSource, organizedEventsLiveData::setValue);
     }
 
     /**
-     * Loads events the specified user is signed up for and updates the corresponding LiveData.
+     * Loads the summaries of events the specified user is signed up for and updates the corresponding LiveData.
      *
      * @param userId The ID of the user whose signed-up events are to be loaded.
      */
     private void loadSignedUpEvents(String userId) {
-        LiveData<List<Event>> signedUpEvents = eventRepository.getSignedUpEventsOfUserLiveData(userId);
-        signedUpEventsLiveData.addSource(signedUpEvents, signedUpEventsLiveData::setValue);
+        if (signedUpEventsSource != null) {
+            signedUpEventsLiveData.removeSource(signedUpEventsSource);
+        }
+        signedUpEventsSource = eventRepository.getSignedUpEventSummariesOfUserLiveData(userId);
+        signedUpEventsLiveData.addSource(signedUpEventsSource, signedUpEventsLiveData::setValue);
     }
 
     /**
@@ -153,8 +169,42 @@ public class EventsViewModel extends ViewModel {
      * @param userId The ID of the user whose facilities are to be loaded.
      */
     private void loadUserFacilities(String userId) {
-        LiveData<List<Facility>> userFacilities = facilityRepository.getFacilitiesOfOrganizerLiveData(userId);
-        userFacilitiesLiveData.addSource(userFacilities, userFacilitiesLiveData::setValue);
+        if (userFacilitiesSource != null) {
+            userFacilitiesLiveData.removeSource(userFacilitiesSource);
+        }
+        userFacilitiesSource = facilityRepository.getFacilitiesOfOrganizerLiveData(userId);
+        userFacilitiesLiveData.addSource(userFacilitiesSource, userFacilitiesLiveData::setValue);
+    }
+
+    /**
+     * Retrieves the full event behind a summary shown in a list.
+     *
+     * @param eventId The ID of the event.
+     * @return A CompletableFuture containing the event, or null if it no longer exists.
+     */
+    public CompletableFuture<Event> getEvent(String eventId) {
+        return eventRepository.getEventById(eventId);
+    }
+
+    /**
+     * Retrieves the signup counters of a specific event, summed from its counter shards.
+     *
+     * @param eventId The ID of the event.
+     * @return LiveData of the counters for the event.
+     */
+    public LiveData<EventStats> getEventStatsOfEvent(String eventId) {
+        return eventRepository.getEventStatsLiveData(eventId);
+    }
+
+    /**
+     * Retrieves the signup counts of a specific event, backed by aggregation queries that are
+     * refreshed periodically while observed.
+     *
+     * @param eventId The ID of the event.
+     * @return LiveData of the signup counts for the event.
+     */
+    public PollingLiveData<SignupCounts> getSignupCountsOfEvent(String eventId) {
+        return signupRepository.getSignupCountsLiveData(eventId);
     }
 
     /**
@@ -319,13 +369,13 @@ public class EventsViewModel extends ViewModel {
      * @return True if the user is signed up; otherwise, false.
      */
     public boolean isSignedUp(Event event){
-        List<Event> eventsList = signedUpEventsLiveData.getValue();
+        List<EventSummary> eventsList = signedUpEventsLiveData.getValue();
         if(eventsList == null){
             return false;
         }
         for (int i = 0; i < eventsList.size(); i++){
-            String hash = eventsList.get(i).getQrCodeHash();
-            if( hash != null && hash.equals(event.getQrCodeHash()) ){
+            String eventId = eventsList.get(i).getDocumentId();
+            if( eventId != null && eventId.equals(event.getDocumentId()) ){
                 return true;
             }
         }
@@ -5,6 +5,7 @@ import android.util.Log;
 import androidx.lifecycle.ViewModel;
 
 import com.example.eventapp.models.Notification;
+import com.example.eventapp.models.SignupStatus;
 import com.example.eventapp.repositories.SignupRepository;
 import com.example.eventapp.services.NotificationService;
 
@@ -64,19 +65,9 @@ public class NotificationDialogViewModel extends ViewModel {
             return failedFuture;
         }
 
-        return signupRepository.getSignup(userId, eventId)
-            .thenCompose(signup -> {
-                if (signup == null) {
-                    Log.e(TAG, "updateSignupStatus: No signup found for userId: " + userId + ", eventId: " + eventId);
-                    CompletableFuture<Void> failedFuture = new CompletableFuture<>();
-                    failedFuture.completeExceptionally(new IllegalStateException("Signup not found."));
-                    return failedFuture;
-                }
+        SignupStatus status = userAcceptedInvitation ? SignupStatus.ENROLLED : SignupStatus.CANCELLED;
 
-                signup.setEnrolled(userAcceptedInvitation);
-                signup.setCancelled(!userAcceptedInvitation);
-                return signupRepository.updateSignup(signup);
-            })
+        return signupRepository.updateSignupStatus(userId, eventId, status)
             .thenRun(() -> Log.i(TAG, "updateSignupStatus: Successfully updated signup for userId: " + userId + ", eventId: " + eventId))
             .exceptionally(throwable -> {
                 Log.e(TAG, "updateSignupStatus: Failed to update signup status.", throwable);
@@ -15,6 +15,7 @@ import com.example.eventapp.models.Facility;
 import com.example.eventapp.models.User;
 import com.example.eventapp.services.photos.PhotoManager;
 import com.example.eventapp.repositories.FacilityRepository;
+import com.example.eventapp.repositories.PagedQueryLiveData;
 import com.example.eventapp.repositories.UserRepository;
 
 import java.util.List;
@@ -33,6 +34,7 @@ public class ProfileViewModel extends ViewModel {
     private final FacilityRepository facilityRepository;
     private final MediatorLiveData<List<Facility>> facilitiesLiveData = new MediatorLiveData<>();
     private final MediatorLiveData<List<User>> usersLiveData = new MediatorLiveData<>();
+    private final PagedQueryLiveData<User> pagedUsersLiveData;
     private Facility selectedFacility;
     private LiveData<List<Facility>> currentFacilitiesSource;
 
@@ -61,7 +63,8 @@ public class ProfileViewModel extends ViewModel {
             actualUserLiveData = injectedLiveData;
         }
         currentUserLiveData = actualUserLiveData;
-        usersLiveData.addSource(userRepository.getAllUsersLiveData(), usersLiveData::setValue);
+        pagedUsersLiveData = userRepository.getUsersPagedLiveData();
+        usersLiveData.addSource(pagedUsersLiveData, usersLiveData::setValue);
 
         // load facilities when user data is available
         currentUserLiveData.observeForever(user -> {
@@ -106,6 +109,15 @@ public class ProfileViewModel extends ViewModel {
         return usersLiveData;
     }
 
+    /**
+     * Notifies the ViewModel that a profile in the list is visible, loading more profiles when
+     * the list is scrolled near the end of what has been loaded
+     * @param position The position of the visible profile in the list
+     */
+    public void onUserVisible(int position) {
+        pagedUsersLiveData.onItemVisible(position);
+    }
+
     /**
      * Sets the currently selected user
      * @param user User that is now being selected
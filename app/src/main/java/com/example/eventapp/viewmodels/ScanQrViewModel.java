@@ -6,8 +6,10 @@ import androidx.lifecycle.ViewModel;
 
 import com.example.eventapp.models.Event;
 import com.example.eventapp.repositories.EventRepository;
+import com.example.eventapp.repositories.ReadPolicy;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * ViewModel for handling QR code scanning functionality in the application.
@@ -46,6 +48,18 @@ public class ScanQrViewModel extends ViewModel {
         return eventRepository.getEventByQrCodeHash(qrCodeHash);
     }
 
+    /**
+     * Retrieves an event based on its QR code hash, answering from the local cache when the event
+     * was seen before and delivering the server copy to {@code onRefresh} once it arrives.
+     *
+     * @param qrCodeHash The hash associated with the event's QR code.
+     * @param onRefresh Receives the refreshed event if the first one came from the cache.
+     * @return A CompletableFuture containing the event associated with the QR code.
+     */
+    public CompletableFuture<Event> getEventByQrCodeHash(String qrCodeHash, Consumer<Event> onRefresh) {
+        return eventRepository.getEventByQrCodeHash(qrCodeHash, ReadPolicy.CACHE_THEN_SERVER, onRefresh);
+    }
+
     /**
      * Retrieves the LiveData text label associated with this view model.
      *
@@ -0,0 +1,98 @@
+package com.example.eventapp.repositories;
+
+import com.example.eventapp.repositories.DTOs.BatchWriteResult;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchWriterTest {
+
+    private static final BatchWriter.Operation NO_OP = batch -> { };
+
+    @Test
+    public void testPlanChunksKeepsItemOperationsTogether() {
+        BatchWriter writer = new BatchWriter(operations -> CompletableFuture.completedFuture(null), 4, 1);
+        writer.add("a", NO_OP, NO_OP);
+        writer.add("b", NO_OP, NO_OP);
+        writer.add("c", NO_OP, NO_OP);
+        writer.add("d", NO_OP);
+
+        List<List<String>> chunks = writer.planChunks();
+
+        assertEquals(Arrays.asList(Arrays.asList("a", "b"), Arrays.asList("c", "d")), chunks);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddRejectsItemLargerThanBatch() {
+        BatchWriter writer = new BatchWriter(operations -> CompletableFuture.completedFuture(null), 2, 1);
+        writer.add("a", NO_OP, NO_OP, NO_OP);
+    }
+
+    @Test
+    public void testFailedBatchOnlyFailsItsItems() {
+        AtomicInteger batchNumber = new AtomicInteger();
+        BatchWriter writer = new BatchWriter(operations -> {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            if (batchNumber.getAndIncrement() == 1) {
+                future.completeExceptionally(new IllegalStateException("commit failed"));
+            } else {
+                future.complete(null);
+            }
+            return future;
+        }, 2, 1);
+        for (String key : Arrays.asList("a", "b", "c", "d", "e")) {
+            writer.add(key, NO_OP);
+        }
+
+        BatchWriteResult result = writer.commit().join();
+
+        assertEquals(Arrays.asList("a", "b", "e"), result.getSucceeded());
+        assertEquals(2, result.getFailureCount());
+        assertTrue(result.getFailures().containsKey("c"));
+        assertTrue(result.getFailures().containsKey("d"));
+        assertFalse(result.isSuccessful());
+    }
+
+    @Test
+    public void testParallelismIsBounded() {
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        BatchWriter writer = new BatchWriter(operations -> {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        }, 1, 2);
+        for (int i = 0; i < 5; i++) {
+            writer.add("item" + i, NO_OP);
+        }
+
+        CompletableFuture<BatchWriteResult> result = writer.commit();
+        assertEquals(2, pending.size());
+
+        pending.get(0).complete(null);
+        assertEquals(3, pending.size());
+
+        for (int i = 1; i < 5; i++) {
+            pending.get(i).complete(null);
+        }
+        assertTrue(result.isDone());
+        assertEquals(5, result.join().getSuccessCount());
+    }
+
+    @Test
+    public void testCommitWithoutItemsCompletesImmediately() {
+        BatchWriter writer = new BatchWriter(operations -> {
+            throw new AssertionError("nothing to commit");
+        }, 10, 1);
+
+        BatchWriteResult result = writer.commit().join();
+
+        assertTrue(result.isSuccessful());
+        assertEquals(0, result.getSuccessCount());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.eventapp.repositories;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ChunkedMultiGetLiveDataTest {
+
+    private static Set<String> ids(int from, int to) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (int i = from; i < to; i++) {
+            ids.add("id" + i);
+        }
+        return ids;
+    }
+
+    @Test
+    public void testPlanChunks_splitsIntoBoundedChunks() {
+        List<Set<String>> planned = ChunkedMultiGetLiveData.planChunks(new ArrayList<>(), ids(0, 65), 30);
+
+        assertEquals(3, planned.size());
+        assertEquals(30, planned.get(0).size());
+        assertEquals(30, planned.get(1).size());
+        assertEquals(5, planned.get(2).size());
+    }
+
+    @Test
+    public void testPlanChunks_unchangedIdsKeepChunks() {
+        List<Set<String>> current = ChunkedMultiGetLiveData.planChunks(new ArrayList<>(), ids(0, 60), 30);
+        List<Set<String>> planned = ChunkedMultiGetLiveData.planChunks(current, ids(0, 60), 30);
+
+        assertEquals(2, planned.size());
+        assertSame(current.get(0), planned.get(0));
+        assertSame(current.get(1), planned.get(1));
+    }
+
+    @Test
+    public void testPlanChunks_addingIdsOpensNewChunkOnly() {
+        List<Set<String>> current = ChunkedMultiGetLiveData.planChunks(new ArrayList<>(), ids(0, 60), 30);
+        List<Set<String>> planned = ChunkedMultiGetLiveData.planChunks(current, ids(0, 61), 30);
+
+        assertEquals(3, planned.size());
+        assertSame(current.get(0), planned.get(0));
+        assertSame(current.get(1), planned.get(1));
+        assertEquals(new HashSet<>(Arrays.asList("id60")), planned.get(2));
+    }
+
+    @Test
+    public void testPlanChunks_removalOnlyTouchesAffectedChunk() {
+        List<Set<String>> current = ChunkedMultiGetLiveData.planChunks(new ArrayList<>(), ids(0, 90), 30);
+        Set<String> requested = ids(0, 90);
+        requested.remove("id45");
+        requested.add("id90");
+
+        List<Set<String>> planned = ChunkedMultiGetLiveData.planChunks(current, requested, 30);
+
+        assertEquals(3, planned.size());
+        assertSame(current.get(0), planned.get(0));
+        assertSame(current.get(2), planned.get(2));
+        assertFalse(planned.get(1).contains("id45"));
+        assertTrue(planned.get(1).contains("id90"));
+        assertEquals(30, planned.get(1).size());
+    }
+
+    @Test
+    public void testPlanChunks_emptiedChunkIsDropped() {
+        List<Set<String>> current = ChunkedMultiGetLiveData.planChunks(new ArrayList<>(), ids(0, 60), 30);
+        List<Set<String>> planned = ChunkedMultiGetLiveData.planChunks(current, ids(0, 30), 30);
+
+        assertEquals(2, planned.size());
+        assertSame(current.get(0), planned.get(0));
+        assertTrue(planned.get(1).isEmpty());
+    }
+
+    @Test
+    public void testPlanChunks_largeWaitlistCoversEveryIdOnce() {
+        Set<String> requested = ids(0, 20000);
+        List<Set<String>> planned = ChunkedMultiGetLiveData.planChunks(new ArrayList<>(), requested, 30);
+
+        Set<String> seen = new HashSet<>();
+        for (Set<String> chunk : planned) {
+            assertTrue(chunk.size() <= 30);
+            for (String id : chunk) {
+                assertTrue(seen.add(id));
+            }
+        }
+        assertEquals(requested, seen);
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.eventapp.repositories;
+
+import com.example.eventapp.repositories.DTOs.QueryChangeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class EmissionCoalescerTest {
+
+    /**
+     * Scheduler driven by a manual clock; tasks run when time is advanced past their deadline.
+     */
+    private static class ManualScheduler implements EmissionCoalescer.Scheduler {
+        long now = 0;
+        Runnable task;
+        long taskAt;
+
+        @Override
+        public void schedule(Runnable task, long delayMs) {
+            this.task = task;
+            this.taskAt = now + delayMs;
+        }
+
+        @Override
+        public void cancel(Runnable task) {
+            if (this.task == task) {
+                this.task = null;
+            }
+        }
+
+        void advanceTo(long time) {
+            now = time;
+            if (task != null && taskAt <= now) {
+                Runnable run = task;
+                task = null;
+                run.run();
+            }
+        }
+    }
+
+    private ManualScheduler scheduler;
+    private List<String> emitted;
+
+    @Before
+    public void setUp() {
+        scheduler = new ManualScheduler();
+        emitted = new ArrayList<>();
+    }
+
+    private EmissionCoalescer<String> coalescer(CoalescingWindow window) {
+        return new EmissionCoalescer<>(window, scheduler, () -> scheduler.now, (a, b) -> a + b, emitted::add);
+    }
+
+    @Test
+    public void testFirstValueIsEmittedImmediately() {
+        EmissionCoalescer<String> coalescer = coalescer(CoalescingWindow.of(100, 500));
+
+        coalescer.offer("a");
+
+        assertEquals(Collections.singletonList("a"), emitted);
+        assertFalse(coalescer.hasPending());
+    }
+
+    @Test
+    public void testBurstIsMergedIntoOneEmission() {
+        EmissionCoalescer<String> coalescer = coalescer(CoalescingWindow.of(100, 500));
+        coalescer.offer("a");
+        for (int i = 0; i < 5; i++) {
+            scheduler.advanceTo(10 * (i + 1));
+            coalescer.offer(String.valueOf(i));
+        }
+        assertEquals(Collections.singletonList("a"), emitted);
+
+        scheduler.advanceTo(149);
+        assertEquals(1, emitted.size());
+        scheduler.advanceTo(150);
+
+        assertEquals(Arrays.asList("a", "01234"), emitted);
+        assertEquals(4, coalescer.getMergedCount());
+    }
+
+    @Test
+    public void testLongBurstIsBoundedByMaxLatency() {
+        EmissionCoalescer<String> coalescer = coalescer(CoalescingWindow.of(100, 300));
+        coalescer.offer("a");
+        // one value every 50ms never leaves the stream quiet for the window
+        for (long time = 50; time <= 400; time += 50) {
+            scheduler.advanceTo(time);
+            coalescer.offer("x");
+        }
+
+        // held since 50ms, so flushed at 350ms at the latest
+        assertEquals(Arrays.asList("a", "xxxxxx"), emitted);
+        assertTrue(coalescer.hasPending());
+    }
+
+    @Test
+    public void testNoneEmitsEveryValue() {
+        EmissionCoalescer<String> coalescer = coalescer(CoalescingWindow.NONE);
+
+        coalescer.offer("a");
+        coalescer.offer("b");
+        coalescer.offer("c");
+
+        assertEquals(Arrays.asList("a", "b", "c"), emitted);
+    }
+
+    @Test
+    public void testCancelDropsPendingValue() {
+        EmissionCoalescer<String> coalescer = coalescer(CoalescingWindow.of(100, 500));
+        coalescer.offer("a");
+        scheduler.advanceTo(10);
+        coalescer.offer("b");
+
+        coalescer.cancel();
+        scheduler.advanceTo(1000);
+
+        assertEquals(Collections.singletonList("a"), emitted);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaxLatencyBelowWindowIsRejected() {
+        CoalescingWindow.of(200, 100);
+    }
+
+    @Test
+    public void testMergedChangeSetsKeepChangesInOrder() {
+        QueryChangeSet.Change<String> added = new QueryChangeSet.Change<>(QueryChangeSet.Type.ADDED, "a", "a", -1, 0);
+        QueryChangeSet.Change<String> removed = new QueryChangeSet.Change<>(QueryChangeSet.Type.REMOVED, "b", "b", 1, -1);
+        QueryChangeSet<String> first = new QueryChangeSet<>(Arrays.asList("a", "b"), Collections.singletonList(added), false);
+        QueryChangeSet<String> second = new QueryChangeSet<>(Collections.singletonList("a"), Collections.singletonList(removed), false);
+
+        QueryChangeSet<String> merged = QueryChangeSet.merge(first, second);
+
+        assertEquals(Collections.singletonList("a"), merged.getItems());
+        assertEquals(Arrays.asList(added, removed), merged.getChanges());
+        assertFalse(merged.isFullReload());
+        assertTrue(QueryChangeSet.merge(new QueryChangeSet<>(Collections.<String>emptyList(),
+                Collections.<QueryChangeSet.Change<String>>emptyList(), true), second).isFullReload());
+    }
+}
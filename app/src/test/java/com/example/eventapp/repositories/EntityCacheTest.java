@@ -0,0 +1,89 @@
+package com.example.eventapp.repositories;
+
+import com.example.eventapp.models.Event;
+import com.example.eventapp.repositories.DTOs.QueryChangeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class EntityCacheTest {
+
+    private long now;
+    private EntityCache<Event> cache;
+
+    @Before
+    public void setUp() {
+        now = 0;
+        cache = new EntityCache<>("events", Event.class, 2, 1000, () -> now);
+    }
+
+    private Event event(String name) {
+        return new Event(name, "description");
+    }
+
+    @Test
+    public void testHitReturnsFreshCopy() {
+        cache.put("a", event("A"));
+
+        Event first = cache.get("a");
+        first.setEventName("changed");
+        Event second = cache.get("a");
+
+        assertEquals("A", second.getEventName());
+        assertEquals("a", second.getDocumentId());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    @Test
+    public void testExpiredEntryIsMiss() {
+        cache.put("a", event("A"));
+        now = 1001;
+
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        cache.put("a", event("A"));
+        cache.put("b", event("B"));
+        cache.get("a");
+        cache.put("c", event("C"));
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    public void testUpdateFromChangeSet() {
+        cache.update(Arrays.asList("a", "b"),
+                new QueryChangeSet<>(Arrays.asList(event("A"), event("B")), new ArrayList<>(), true));
+        assertEquals(2, cache.size());
+
+        QueryChangeSet.Change<Event> removed =
+                new QueryChangeSet.Change<>(QueryChangeSet.Type.REMOVED, "a", event("A"), 0, -1);
+        QueryChangeSet.Change<Event> modified =
+                new QueryChangeSet.Change<>(QueryChangeSet.Type.MODIFIED, "b", event("B2"), 0, 0);
+        cache.update(Collections.singletonList("b"),
+                new QueryChangeSet<>(Collections.singletonList(event("B2")), Arrays.asList(removed, modified), false));
+
+        assertNull(cache.get("a"));
+        assertEquals("B2", cache.get("b").getEventName());
+    }
+
+    @Test
+    public void testPutNullInvalidates() {
+        cache.put("a", event("A"));
+        cache.put("a", null);
+
+        assertNull(cache.get("a"));
+    }
+}
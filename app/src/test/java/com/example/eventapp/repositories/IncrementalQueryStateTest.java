@@ -0,0 +1,67 @@
+package com.example.eventapp.repositories;
+
+import com.example.eventapp.models.Signup;
+import com.example.eventapp.repositories.DTOs.QueryChangeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+public class IncrementalQueryStateTest {
+
+    private IncrementalQueryState<Signup> state;
+
+    @Before
+    public void setUp() {
+        state = new IncrementalQueryState<>(Signup.class);
+        state.applyChange(QueryChangeSet.Type.ADDED, -1, 0, "a", new Signup("userA", "event"));
+        state.applyChange(QueryChangeSet.Type.ADDED, -1, 1, "b", new Signup("userB", "event"));
+        state.applyChange(QueryChangeSet.Type.ADDED, -1, 2, "c", new Signup("userC", "event"));
+    }
+
+    @Test
+    public void testAddedInsertsAtNewIndex() {
+        QueryChangeSet.Change<Signup> change =
+                state.applyChange(QueryChangeSet.Type.ADDED, -1, 1, "d", new Signup("userD", "event"));
+
+        assertEquals(Arrays.asList("a", "d", "b", "c"), state.getIds());
+        assertEquals(1, change.getNewIndex());
+        assertEquals(-1, change.getOldIndex());
+    }
+
+    @Test
+    public void testModifiedInPlaceReplacesItem() {
+        Signup updated = new Signup("userB", "event");
+        updated.setChosen(true);
+
+        state.applyChange(QueryChangeSet.Type.MODIFIED, 1, 1, "b", updated);
+
+        assertEquals(Arrays.asList("a", "b", "c"), state.getIds());
+    }
+
+    @Test
+    public void testModifiedWithMoveRepositionsItem() {
+        state.applyChange(QueryChangeSet.Type.MODIFIED, 0, 2, "a", new Signup("userA", "event"));
+
+        assertEquals(Arrays.asList("b", "c", "a"), state.getIds());
+    }
+
+    @Test
+    public void testRemovedReturnsRemovedItem() {
+        QueryChangeSet.Change<Signup> change =
+                state.applyChange(QueryChangeSet.Type.REMOVED, 1, -1, "b", null);
+
+        assertEquals(Arrays.asList("a", "c"), state.getIds());
+        assertNotNull(change.getItem());
+        assertEquals("userB", change.getItem().getUserId());
+        assertEquals(-1, change.getNewIndex());
+    }
+
+    @Test
+    public void testResetClearsState() {
+        state.reset();
+        assertTrue(state.getIds().isEmpty());
+    }
+}
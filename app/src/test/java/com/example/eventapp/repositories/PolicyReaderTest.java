@@ -0,0 +1,99 @@
+package com.example.eventapp.repositories;
+
+import com.google.firebase.firestore.Source;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+public class PolicyReaderTest {
+
+    private Map<Source, CompletableFuture<String>> pending;
+    private List<Source> reads;
+    private List<String> refreshes;
+    private Function<Source, CompletableFuture<String>> reader;
+
+    @Before
+    public void setUp() {
+        pending = new EnumMap<>(Source.class);
+        reads = new ArrayList<>();
+        refreshes = new ArrayList<>();
+        reader = source -> {
+            reads.add(source);
+            CompletableFuture<String> future = new CompletableFuture<>();
+            pending.put(source, future);
+            return future;
+        };
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable throwable) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(throwable);
+        return future;
+    }
+
+    @Test
+    public void testCacheThenServerAnswersFromCacheAndRefreshes() {
+        CompletableFuture<String> result = PolicyReader.read(ReadPolicy.CACHE_THEN_SERVER, reader, refreshes::add);
+
+        pending.get(Source.CACHE).complete("cached");
+        assertEquals("cached", result.join());
+
+        pending.get(Source.SERVER).complete("fresh");
+        assertEquals(1, refreshes.size());
+        assertEquals("fresh", refreshes.get(0));
+    }
+
+    @Test
+    public void testCacheThenServerWaitsForServerOnCacheMiss() {
+        CompletableFuture<String> result = PolicyReader.read(ReadPolicy.CACHE_THEN_SERVER, reader, refreshes::add);
+
+        pending.get(Source.CACHE).completeExceptionally(new IllegalStateException("not cached"));
+        assertFalse(result.isDone());
+
+        pending.get(Source.SERVER).complete("fresh");
+        assertEquals("fresh", result.join());
+        assertTrue(refreshes.isEmpty());
+    }
+
+    @Test
+    public void testFailedRefreshKeepsCachedValue() {
+        CompletableFuture<String> result = PolicyReader.read(ReadPolicy.CACHE_THEN_SERVER, reader, refreshes::add);
+
+        pending.get(Source.CACHE).complete("cached");
+        pending.get(Source.SERVER).completeExceptionally(new IllegalStateException("offline"));
+
+        assertEquals("cached", result.join());
+        assertTrue(refreshes.isEmpty());
+    }
+
+    @Test
+    public void testCacheOnlyTreatsMissAsNotFound() {
+        CompletableFuture<String> result = PolicyReader.read(ReadPolicy.CACHE_ONLY,
+                source -> {
+                    reads.add(source);
+                    return failed(new IllegalStateException("not cached"));
+                }, refreshes::add);
+
+        assertNull(result.join());
+        assertEquals(1, reads.size());
+        assertEquals(Source.CACHE, reads.get(0));
+    }
+
+    @Test
+    public void testServerOnlyAndDefaultUseTheirSource() {
+        PolicyReader.read(ReadPolicy.SERVER_ONLY, reader, refreshes::add);
+        PolicyReader.read(ReadPolicy.DEFAULT, reader, refreshes::add);
+
+        assertEquals(2, reads.size());
+        assertEquals(Source.SERVER, reads.get(0));
+        assertEquals(Source.DEFAULT, reads.get(1));
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.eventapp.repositories;
+
+import com.example.eventapp.models.Signup;
+import com.example.eventapp.repositories.DTOs.BatchWriteResult;
+import com.example.eventapp.repositories.DTOs.SignupCounts;
+import com.example.eventapp.repositories.backend.InMemoryBackend;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs signup flows against the in-memory backend with a realistic number of signups.
+ */
+public class SignupRepositoryScaleTest {
+
+    private static final int EVENT_COUNT = 200;
+    private static final int SIGNUPS_PER_EVENT = 1000;
+
+    private InMemoryBackend backend;
+    private SignupRepository repository;
+
+    @Before
+    public void setUp() {
+        backend = new InMemoryBackend();
+        backend.set("migrations", "signupKeys", Collections.singletonMap("done", true)).join();
+        repository = SignupRepository.withBackend(backend);
+    }
+
+    private void addSignups() {
+        List<Signup> signups = new ArrayList<>();
+        for (int event = 0; event < EVENT_COUNT; event++) {
+            for (int user = 0; user < SIGNUPS_PER_EVENT; user++) {
+                Signup signup = new Signup("user" + user, "event" + event);
+                signup.setDocumentId(SignupRepository.getSignupDocumentId(signup.getUserId(), signup.getEventId()));
+                if (user % 10 == 0) {
+                    signup.setWaitlisted(false);
+                    signup.setChosen(true);
+                }
+                signups.add(signup);
+            }
+        }
+        BatchWriteResult result = repository.updateSignups(signups).join();
+        assertTrue(result.isSuccessful());
+    }
+
+    @Test
+    public void testCountsAndLookupsOverManySignups() {
+        addSignups();
+        assertEquals(EVENT_COUNT * SIGNUPS_PER_EVENT, backend.getDocumentCount("signups"));
+
+        SignupCounts counts = repository.getSignupCounts("event7").join();
+        assertEquals(SIGNUPS_PER_EVENT, counts.getTotal());
+        assertEquals(SIGNUPS_PER_EVENT / 10, counts.getChosen());
+        assertEquals(SIGNUPS_PER_EVENT - SIGNUPS_PER_EVENT / 10, counts.getWaitlisted());
+
+        Signup signup = repository.getSignup("user10", "event199").join();
+        assertNotNull(signup);
+        assertTrue(signup.isChosen());
+    }
+
+    @Test
+    public void testLegacySignupsAreFoundUntilKeysAreMigrated() {
+        backend.set("migrations", "signupKeys", Collections.singletonMap("done", false)).join();
+        Signup legacy = new Signup("user1", "event1");
+        backend.set("signups", "autoId", legacy).join();
+
+        Signup found = repository.getSignup("user1", "event1").join();
+        assertNotNull(found);
+        assertEquals("autoId", found.getDocumentId());
+
+        backend.set("migrations", "signupKeys", Collections.singletonMap("done", true)).join();
+        assertNull(repository.getSignup("user1", "event1").join());
+    }
+
+    @Test
+    public void testBulkRemovalOfEntrants() {
+        addSignups();
+        List<String> userIds = new ArrayList<>();
+        for (int user = 0; user < SIGNUPS_PER_EVENT; user += 2) {
+            userIds.add("user" + user);
+        }
+
+        BatchWriteResult result = repository.removeSignups("event3", userIds).join();
+
+        assertEquals(userIds.size(), result.getSuccessCount());
+        assertEquals(Long.valueOf(SIGNUPS_PER_EVENT / 2), repository.countSignupsOfEvent("event3").join());
+        assertEquals(Long.valueOf(SIGNUPS_PER_EVENT), repository.countSignupsOfEvent("event4").join());
+    }
+
+    @Test
+    public void testConcurrentSignupsNeverExceedCapacity() throws Exception {
+        int capacity = 250;
+        int slots = SignupRepository.CAPACITY_SLOT_COUNT;
+        for (int slot = 0; slot < slots; slot++) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("limit", capacity / slots);
+            data.put("used", 0);
+            backend.set("eventCapacity/full/slots", String.valueOf(slot), data).join();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger admitted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int user = 0; user < 1000; user++) {
+            String userId = "user" + user;
+            tasks.add(executor.submit(() -> {
+                CompletableFuture<String> signup = repository.addSignup(new Signup(userId, "full"));
+                try {
+                    signup.join();
+                    admitted.incrementAndGet();
+                } catch (CompletionException e) {
+                    assertTrue(e.getCause() instanceof EventFullException);
+                    rejected.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> task : tasks) {
+            task.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(capacity, admitted.get());
+        assertEquals(1000 - capacity, rejected.get());
+        assertEquals(Long.valueOf(capacity), repository.countSignupsOfEvent("full").join());
+        long used = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            used += backend.get("eventCapacity/full/slots", String.valueOf(slot)).join().getLong("used");
+        }
+        assertEquals(capacity, used);
+    }
+
+    @Test
+    public void testLimitedEventWithoutSlotsRejectsSignups() {
+        backend.set("events", "pending", Collections.singletonMap("maxEntrants", 10)).join();
+
+        try {
+            repository.addSignup(new Signup("user1", "pending")).join();
+            fail("Signup admitted before the event's capacity was set up");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof CapacityPendingException);
+        }
+        assertEquals(Long.valueOf(0), repository.countSignupsOfEvent("pending").join());
+    }
+
+    @Test
+    public void testUnlimitedEventAdmitsWithoutSlot() {
+        backend.set("events", "open", Collections.singletonMap("maxEntrants", -1)).join();
+
+        repository.addSignup(new Signup("user1", "open")).join();
+
+        Signup signup = repository.getSignup("user1", "open").join();
+        assertNotNull(signup);
+        assertNull(signup.getCapacitySlot());
+    }
+}
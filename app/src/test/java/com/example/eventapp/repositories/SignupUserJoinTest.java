@@ -0,0 +1,116 @@
+package com.example.eventapp.repositories;
+
+import com.example.eventapp.models.Signup;
+import com.example.eventapp.models.User;
+import com.example.eventapp.repositories.DTOs.UserSignupEntry;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+public class SignupUserJoinTest {
+
+    private static Signup signup(String userId, boolean chosen) {
+        Signup signup = new Signup(userId, "event");
+        signup.setWaitlisted(!chosen);
+        signup.setChosen(chosen);
+        return signup;
+    }
+
+    private static User user(String userId) {
+        User user = new User();
+        user.setUserId(userId);
+        return user;
+    }
+
+    private static List<User> users(Set<String> userIds) {
+        List<User> users = new ArrayList<>();
+        for (String userId : userIds) {
+            users.add(user(userId));
+        }
+        return users;
+    }
+
+    private static SignupUserJoin join() {
+        return new SignupUserJoin(signup -> signup.isChosen() ? "Chosen" : "Waitlisted");
+    }
+
+    @Test
+    public void testStatusChangeReadsNoUsers() {
+        SignupUserJoin join = join();
+        Set<String> toFetch = join.onSignups(Arrays.asList(signup("a", false), signup("b", false)));
+        join.onUsersFetched(toFetch, users(toFetch));
+        List<UserSignupEntry> before = join.getEntries();
+        before.get(0).setSelected(true);
+
+        Set<String> refetch = join.onSignups(Arrays.asList(signup("a", true), signup("b", false)));
+        List<UserSignupEntry> after = join.getEntries();
+
+        assertTrue(refetch.isEmpty());
+        assertSame(before.get(0), after.get(0));
+        assertEquals("Chosen", after.get(0).getAttendanceStatus());
+        assertTrue(after.get(0).isSelected());
+        assertEquals("Waitlisted", after.get(1).getAttendanceStatus());
+    }
+
+    @Test
+    public void testOnlyNewUsersAreFetchedAndDepartedAreDropped() {
+        SignupUserJoin join = join();
+        Set<String> toFetch = join.onSignups(Arrays.asList(signup("a", false), signup("b", false)));
+        join.onUsersFetched(toFetch, users(toFetch));
+
+        Set<String> next = join.onSignups(Arrays.asList(signup("b", false), signup("c", false)));
+
+        assertEquals(Collections.singleton("c"), next);
+        assertFalse(join.isSettled());
+        join.onUsersFetched(next, users(next));
+        assertTrue(join.isSettled());
+        assertEquals(2, join.getUserCount());
+        List<UserSignupEntry> entries = join.getEntries();
+        assertEquals("b", entries.get(0).getUser().getUserId());
+        assertEquals("c", entries.get(1).getUser().getUserId());
+    }
+
+    @Test
+    public void testUsersInFlightAreNotRequestedTwice() {
+        SignupUserJoin join = join();
+        Set<String> first = join.onSignups(Collections.singletonList(signup("a", false)));
+
+        Set<String> second = join.onSignups(Arrays.asList(signup("a", true), signup("b", false)));
+
+        assertEquals(Collections.singleton("a"), first);
+        assertEquals(Collections.singleton("b"), second);
+    }
+
+    @Test
+    public void testMissingUsersAreNotRetriedButFailedFetchesAre() {
+        SignupUserJoin join = join();
+        Set<String> toFetch = join.onSignups(Arrays.asList(signup("a", false), signup("gone", false)));
+        join.onUsersFetched(toFetch, users(new LinkedHashSet<>(Collections.singletonList("a"))));
+
+        assertTrue(join.onSignups(Arrays.asList(signup("a", false), signup("gone", true))).isEmpty());
+        assertEquals(1, join.getEntries().size());
+
+        Set<String> failed = join.onSignups(Arrays.asList(signup("a", false), signup("b", false)));
+        join.onFetchFailed(failed);
+        assertEquals(Collections.singleton("b"), join.onSignups(Arrays.asList(signup("a", false), signup("b", false))));
+    }
+
+    @Test
+    public void testUsersOfDepartedSignupsFetchedLateAreIgnored() {
+        SignupUserJoin join = join();
+        Set<String> toFetch = join.onSignups(Collections.singletonList(signup("a", false)));
+        join.onSignups(Collections.<Signup>emptyList());
+
+        join.onUsersFetched(toFetch, users(toFetch));
+
+        assertEquals(0, join.getUserCount());
+        assertTrue(join.getEntries().isEmpty());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.eventapp.repositories;
+
+import com.example.eventapp.models.Signup;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SingleFlightTest {
+
+    private SingleFlight<String, Signup> flight;
+    private AtomicInteger loads;
+    private CompletableFuture<Signup> pending;
+
+    @Before
+    public void setUp() {
+        flight = new SingleFlight<>("test", signup -> {
+            Signup copy = new Signup(signup.getUserId(), signup.getEventId());
+            copy.setChosen(signup.isChosen());
+            return copy;
+        });
+        loads = new AtomicInteger();
+        pending = new CompletableFuture<>();
+    }
+
+    private CompletableFuture<Signup> load() {
+        loads.incrementAndGet();
+        return pending;
+    }
+
+    @Test
+    public void testConcurrentCallsShareOneLoad() throws ExecutionException, InterruptedException {
+        CompletableFuture<Signup> first = flight.run("key", this::load);
+        CompletableFuture<Signup> second = flight.run("key", this::load);
+
+        assertEquals(1, loads.get());
+        assertEquals(1, flight.getCollapsedCount());
+        assertEquals(1, flight.getInFlightCount());
+
+        pending.complete(new Signup("user", "event"));
+
+        assertEquals("user", first.get().getUserId());
+        assertEquals("user", second.get().getUserId());
+        assertNotSame(first.get(), second.get());
+        assertEquals(0, flight.getInFlightCount());
+    }
+
+    @Test
+    public void testCompletedLoadIsNotReused() {
+        flight.run("key", this::load);
+        pending.complete(null);
+        pending = new CompletableFuture<>();
+
+        flight.run("key", this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals(0, flight.getCollapsedCount());
+    }
+
+    @Test
+    public void testForgottenKeyLoadsAgain() throws ExecutionException, InterruptedException {
+        CompletableFuture<Signup> beforeWrite = flight.run("key", this::load);
+        CompletableFuture<Signup> stale = pending;
+        pending = new CompletableFuture<>();
+
+        flight.forget("key");
+        CompletableFuture<Signup> afterWrite = flight.run("key", this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals(0, flight.getCollapsedCount());
+
+        stale.complete(new Signup("user", "event"));
+        assertFalse(beforeWrite.get().isChosen());
+        assertEquals(1, flight.getInFlightCount());
+
+        Signup written = new Signup("user", "event");
+        written.setChosen(true);
+        pending.complete(written);
+        assertTrue(afterWrite.get().isChosen());
+        assertEquals(0, flight.getInFlightCount());
+    }
+
+    @Test
+    public void testDifferentKeysLoadSeparately() {
+        flight.run("a", this::load);
+        flight.run("b", this::load);
+
+        assertEquals(2, loads.get());
+        assertEquals(2, flight.getRequestCount());
+    }
+
+    @Test
+    public void testFailureIsSharedAndReleasesKey() {
+        CompletableFuture<Signup> first = flight.run("key", this::load);
+        CompletableFuture<Signup> second = flight.run("key", this::load);
+
+        pending.completeExceptionally(new IllegalStateException("offline"));
+
+        assertTrue(first.isCompletedExceptionally());
+        assertTrue(second.isCompletedExceptionally());
+        assertEquals(0, flight.getInFlightCount());
+    }
+}
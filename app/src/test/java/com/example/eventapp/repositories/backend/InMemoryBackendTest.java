@@ -0,0 +1,142 @@
+package com.example.eventapp.repositories.backend;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+public class InMemoryBackendTest {
+
+    private InMemoryBackend backend;
+
+    @Before
+    public void setUp() {
+        backend = new InMemoryBackend();
+        put("a", "e1", true, false, 1);
+        put("b", "e1", false, true, 2L);
+        put("c", "e2", true, true, 3.0);
+        put("d", "e1", false, false, 4);
+    }
+
+    private void put(String id, String eventId, boolean chosen, boolean enrolled, Object rank) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("eventId", eventId);
+        data.put("chosen", chosen);
+        data.put("enrolled", enrolled);
+        data.put("rank", rank);
+        backend.set("signups", id, data).join();
+    }
+
+    private static List<String> ids(List<StoredDocument> documents) {
+        List<String> ids = new ArrayList<>();
+        for (StoredDocument document : documents) {
+            ids.add(document.getId());
+        }
+        return ids;
+    }
+
+    private List<String> run(BackendQuery query) {
+        return ids(backend.query(query).join());
+    }
+
+    @Test
+    public void testEqualityAndInQueries() {
+        BackendQuery signups = BackendQuery.collection("signups");
+
+        assertEquals(Arrays.asList("a", "b", "d"), run(signups.whereEqualTo("eventId", "e1")));
+        assertEquals(Arrays.asList("a", "c"), run(signups.whereEqualTo("chosen", true)));
+        assertEquals(Arrays.asList("a", "c", "d"), run(signups.whereIn("rank", Arrays.asList(1, 3, 4))));
+        assertEquals(Arrays.asList("a", "d"), run(signups.whereEqualTo("eventId", "e1").whereIn("rank", Arrays.asList(1.0, 4L))));
+        assertEquals(Long.valueOf(3), backend.count(signups.whereEqualTo("eventId", "e1")).join());
+    }
+
+    @Test
+    public void testOrConditions() {
+        BackendQuery query = BackendQuery.collection("signups")
+                .whereEqualTo("eventId", "e1")
+                .where(Condition.or(Condition.equalTo("chosen", true), Condition.equalTo("enrolled", true)));
+
+        assertEquals(Arrays.asList("a", "b"), run(query));
+    }
+
+    @Test
+    public void testIndexFollowsWrites() {
+        BackendQuery query = BackendQuery.collection("signups").whereEqualTo("eventId", "e1");
+        assertEquals(Arrays.asList("a", "b", "d"), run(query));
+
+        Map<String, Object> moved = new HashMap<>();
+        moved.put("eventId", "e2");
+        backend.update("signups", "a", moved).join();
+        backend.delete("signups", "d").join();
+
+        assertEquals(Arrays.asList("b"), run(query));
+        assertEquals(Arrays.asList("a", "c"), run(BackendQuery.collection("signups").whereEqualTo("eventId", "e2")));
+    }
+
+    @Test
+    public void testLimitKeepsDocumentIdOrder() {
+        assertEquals(Arrays.asList("a", "b"), run(BackendQuery.collection("signups").limit(2)));
+    }
+
+    @Test
+    public void testFailedBatchWritesNothing() {
+        try {
+            backend.commitBatch(batch -> {
+                batch.delete("signups", "a");
+                batch.update("signups", "missing", new HashMap<>());
+            }).join();
+            fail("update of a missing document should fail the batch");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof DocumentNotFoundException);
+        }
+        assertNotNull(backend.get("signups", "a").join());
+    }
+
+    @Test
+    public void testListenerGetsOneSnapshotPerCommit() {
+        List<List<String>> snapshots = new ArrayList<>();
+        StorageBackend.Registration registration = backend.listen(
+                BackendQuery.collection("signups").whereEqualTo("eventId", "e1"),
+                new StorageBackend.QueryListener() {
+                    @Override
+                    public void onSnapshot(List<StoredDocument> documents) {
+                        snapshots.add(ids(documents));
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        fail(e.getMessage());
+                    }
+                });
+
+        backend.commitBatch(batch -> {
+            batch.delete("signups", "a");
+            batch.delete("signups", "b");
+        }).join();
+        put("z", "e2", false, false, 5);
+        registration.remove();
+        put("e", "e1", false, false, 6);
+
+        assertEquals(Arrays.asList(Arrays.asList("a", "b", "d"), Arrays.asList("d")), snapshots);
+    }
+
+    @Test
+    public void testTransactionRejectsReadsAfterWrites() {
+        try {
+            backend.runTransaction(transaction -> {
+                transaction.delete("signups", "a");
+                return transaction.get("signups", "b");
+            }).join();
+            fail("read after write should fail the transaction");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertNotNull(backend.get("signups", "a").join());
+    }
+}
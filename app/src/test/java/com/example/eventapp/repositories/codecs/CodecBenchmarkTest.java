@@ -0,0 +1,179 @@
+package com.example.eventapp.repositories.codecs;
+
+import com.example.eventapp.interfaces.DocumentCodec;
+import com.example.eventapp.interfaces.HasDocumentId;
+import com.example.eventapp.models.Event;
+import com.example.eventapp.models.Signup;
+import com.example.eventapp.models.User;
+import com.google.firebase.firestore.util.CustomClassMapper;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestWatcher;
+import org.junit.runner.Description;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Times the hand-written codecs against Firestore's reflection-based mapper on batches of
+ * 10,000 documents, after a few warm-up rounds, and fails if a codec is slower than the mapper.
+ * The median timings are reported through {@link BenchmarkReport} and in the failure message.
+ *
+ * Opt-in, as timings are too noisy for every build: it is skipped unless the
+ * {@code codecBenchmark} system property is set, e.g.
+ * {@code ./gradlew testDebugUnitTest -PcodecBenchmark --tests '*CodecBenchmarkTest'}.
+ * {@link CodecEquivalenceTest} checks the results of both paths in the regular run.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, manifest = Config.NONE)
+public class CodecBenchmarkTest {
+
+    private static final int BATCH_SIZE = 10_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 11;
+
+    @Rule
+    public final BenchmarkReport report = new BenchmarkReport();
+
+    @Before
+    public void setUp() {
+        assumeTrue("Run with -PcodecBenchmark to time the codecs", Boolean.getBoolean("codecBenchmark"));
+    }
+
+    @Test
+    public void benchmarkSignups() {
+        benchmark(Signup.class, CodecFixtures.signups(BATCH_SIZE));
+    }
+
+    @Test
+    public void benchmarkUsers() {
+        benchmark(User.class, CodecFixtures.users(BATCH_SIZE));
+    }
+
+    @Test
+    public void benchmarkEvents() {
+        benchmark(Event.class, CodecFixtures.events(BATCH_SIZE));
+    }
+
+    /**
+     * Encodes a batch with the codec, then times decoding and encoding it with both the codec and
+     * the reflective mapper.
+     */
+    private <T> void benchmark(Class<T> clazz, List<T> models) {
+        DocumentCodec<T> codec = Codecs.forClass(clazz);
+        List<Map<String, Object>> documents = new ArrayList<>();
+        for (T model : models) {
+            documents.add(codec.encode(model));
+        }
+
+        long codecDecode = medianNanos(() -> decodeWithCodec(codec, documents));
+        long reflectionDecode = medianNanos(() -> decodeWithReflection(clazz, documents));
+        long codecEncode = medianNanos(() -> encodeWithCodec(codec, models));
+        long reflectionEncode = medianNanos(() -> encodeWithReflection(models));
+
+        String decode = report.add(clazz.getSimpleName() + " decode", codecDecode, reflectionDecode);
+        String encode = report.add(clazz.getSimpleName() + " encode", codecEncode, reflectionEncode);
+        assertTrue(decode, codecDecode <= reflectionDecode);
+        assertTrue(encode, codecEncode <= reflectionEncode);
+    }
+
+    /**
+     * Runs a batch through the warm-up rounds, then returns the median time of the measured
+     * rounds. Each round must return the whole batch, so the work cannot be optimized away.
+     */
+    private long medianNanos(Round round) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            assertEquals(BATCH_SIZE, round.run());
+        }
+        long[] times = new long[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            int count = round.run();
+            times[i] = System.nanoTime() - start;
+            assertEquals(BATCH_SIZE, count);
+        }
+        Arrays.sort(times);
+        return times[MEASURED_ROUNDS / 2];
+    }
+
+    private static <T> int decodeWithCodec(DocumentCodec<T> codec, List<Map<String, Object>> documents) {
+        List<T> decoded = new ArrayList<>(documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            decoded.add(codec.decode("doc" + i, documents.get(i)));
+        }
+        return decoded.size();
+    }
+
+    private static <T> int decodeWithReflection(Class<T> clazz, List<Map<String, Object>> documents) {
+        List<T> decoded = new ArrayList<>(documents.size());
+        for (int i = 0; i < documents.size(); i++) {
+            T model = CustomClassMapper.convertToCustomClass(documents.get(i), clazz, null);
+            ((HasDocumentId) model).setDocumentId("doc" + i);
+            decoded.add(model);
+        }
+        return decoded.size();
+    }
+
+    private static <T> int encodeWithCodec(DocumentCodec<T> codec, List<T> models) {
+        List<Map<String, Object>> encoded = new ArrayList<>(models.size());
+        for (T model : models) {
+            encoded.add(codec.encode(model));
+        }
+        return encoded.size();
+    }
+
+    private static <T> int encodeWithReflection(List<T> models) {
+        List<Object> encoded = new ArrayList<>(models.size());
+        for (T model : models) {
+            encoded.add(CustomClassMapper.convertToPlainJavaTypes(model));
+        }
+        return encoded.size();
+    }
+
+    /**
+     * One timed pass over a batch, returning how many documents it produced.
+     */
+    private interface Round {
+        int run();
+    }
+
+    /**
+     * Collects the timings of a test and logs them when it finishes, whether it passed or not.
+     */
+    public static class BenchmarkReport extends TestWatcher {
+
+        private static final Logger LOGGER = Logger.getLogger(CodecBenchmarkTest.class.getName());
+
+        private final List<String> lines = new ArrayList<>();
+
+        /**
+         * Records one comparison and returns its report line.
+         */
+        String add(String name, long codecNanos, long reflectionNanos) {
+            String line = String.format("%s of %,d documents: codec %.2f ms, reflection %.2f ms (%.1fx)",
+                    name, BATCH_SIZE, codecNanos / 1e6, reflectionNanos / 1e6,
+                    (double) reflectionNanos / Math.max(1, codecNanos));
+            lines.add(line);
+            return line;
+        }
+
+        @Override
+        protected void finished(Description description) {
+            for (String line : lines) {
+                LOGGER.info(description.getMethodName() + ": " + line);
+            }
+            lines.clear();
+        }
+    }
+}
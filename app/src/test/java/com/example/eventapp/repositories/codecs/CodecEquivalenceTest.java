@@ -0,0 +1,66 @@
+package com.example.eventapp.repositories.codecs;
+
+import com.example.eventapp.interfaces.DocumentCodec;
+import com.example.eventapp.interfaces.HasDocumentId;
+import com.example.eventapp.models.Event;
+import com.example.eventapp.models.Signup;
+import com.example.eventapp.models.User;
+import com.google.firebase.firestore.util.CustomClassMapper;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks the hand-written codecs against Firestore's reflection-based mapper on batches of
+ * 10,000 documents: every document must decode to the same model either way, as seen through
+ * both the codec and the mapper. {@link CodecBenchmarkTest} times the same batches.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28, manifest = Config.NONE)
+public class CodecEquivalenceTest {
+
+    private static final int BATCH_SIZE = 10_000;
+
+    @Test
+    public void testSignupsMatchReflection() {
+        assertMatchesReflection(Signup.class, CodecFixtures.signups(BATCH_SIZE));
+    }
+
+    @Test
+    public void testUsersMatchReflection() {
+        assertMatchesReflection(User.class, CodecFixtures.users(BATCH_SIZE));
+    }
+
+    @Test
+    public void testEventsMatchReflection() {
+        assertMatchesReflection(Event.class, CodecFixtures.events(BATCH_SIZE));
+    }
+
+    /**
+     * Encodes a batch with the codec, decodes it with both the codec and the reflective mapper,
+     * and checks that the two decoded models encode identically with either.
+     */
+    private <T> void assertMatchesReflection(Class<T> clazz, List<T> models) {
+        DocumentCodec<T> codec = Codecs.forClass(clazz);
+
+        for (int i = 0; i < models.size(); i++) {
+            T model = models.get(i);
+            Map<String, Object> document = codec.encode(model);
+
+            T fromCodec = codec.decode("doc" + i, document);
+            T fromReflection = CustomClassMapper.convertToCustomClass(document, clazz, null);
+            ((HasDocumentId) fromReflection).setDocumentId("doc" + i);
+
+            assertEquals("document " + i, codec.encode(fromReflection), codec.encode(fromCodec));
+            assertEquals("document " + i, CustomClassMapper.convertToPlainJavaTypes(fromReflection),
+                    CustomClassMapper.convertToPlainJavaTypes(fromCodec));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.eventapp.repositories.codecs;
+
+import com.example.eventapp.models.Event;
+import com.example.eventapp.models.Signup;
+import com.example.eventapp.models.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Batches of models shared by the codec equivalence check and the codec benchmark.
+ */
+final class CodecFixtures {
+
+    private CodecFixtures() {
+    }
+
+    static List<Signup> signups(int count) {
+        List<Signup> signups = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Signup signup = new Signup("user" + i, "event", 53.5, -113.5);
+            signup.setSignupTimestamp(i);
+            signup.setChosen(i % 3 == 0);
+            signups.add(signup);
+        }
+        return signups;
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User("User " + i, "user" + i + "@example.com", "780555" + i);
+            user.setUserId("user" + i);
+            users.add(user);
+        }
+        return users;
+    }
+
+    static List<Event> events(int count) {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Event event = new Event("Event " + i, "", "Description " + i, 10, false, 100, i, i + 1, i - 1);
+            event.setOrganizerId("organizer" + (i % 50));
+            events.add(event);
+        }
+        return events;
+    }
+}
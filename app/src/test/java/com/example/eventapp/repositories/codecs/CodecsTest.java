@@ -0,0 +1,202 @@
+package com.example.eventapp.repositories.codecs;
+
+import com.example.eventapp.interfaces.DocumentCodec;
+import com.example.eventapp.models.Event;
+import com.example.eventapp.models.EventSummary;
+import com.example.eventapp.models.Facility;
+import com.example.eventapp.models.Notification;
+import com.example.eventapp.models.Signup;
+import com.example.eventapp.models.SignupStatus;
+import com.example.eventapp.models.User;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class CodecsTest {
+
+    @After
+    public void tearDown() {
+        Codecs.setEnabled(true);
+    }
+
+    @Test
+    public void testEventRoundTrip() {
+        Event event = new Event("Event", null, "Description", 5, true, 20, 1000L, 2000L, 500L);
+        event.setOrganizerId("organizer");
+        event.setFacilityId("facility");
+        event.setQrCodeHash("hash");
+        event.setLotteryProcessed(true);
+
+        DocumentCodec<Event> codec = Codecs.forClass(Event.class);
+        Event decoded = codec.decode("eventId", codec.encode(event));
+
+        assertEquals("eventId", decoded.getDocumentId());
+        assertEquals("organizer", decoded.getOrganizerId());
+        assertEquals("facility", decoded.getFacilityId());
+        assertEquals("hash", decoded.getQrCodeHash());
+        assertTrue(decoded.isLotteryProcessed());
+        assertEquals(5, decoded.getNumberOfAttendees());
+        assertTrue(decoded.isGeolocationRequired());
+        assertEquals(20, decoded.getMaxEntrants());
+        assertEquals(1000L, decoded.getStartDate());
+        assertEquals(2000L, decoded.getEndDate());
+        assertEquals(500L, decoded.getDeadline());
+    }
+
+    @Test
+    public void testEventSummaryKeepsOnlyCardFields() {
+        Event event = new Event("Event", "poster", "A long description", 5, true, 20, 1000L, 2000L, 500L);
+        event.setDocumentId("eventId");
+        event.setOrganizerId("organizer");
+
+        DocumentCodec<EventSummary> codec = Codecs.forClass(EventSummary.class);
+        Map<String, Object> data = codec.encode(EventSummary.of(event));
+        EventSummary decoded = codec.decode("eventId", data);
+
+        assertFalse(data.containsKey("eventDescription"));
+        assertEquals("eventId", decoded.getDocumentId());
+        assertEquals("organizer", decoded.getOrganizerId());
+        assertEquals("Event", decoded.getEventName());
+        assertEquals("poster", decoded.getPosterUriString());
+        assertEquals(1000L, decoded.getStartDate());
+        assertEquals(2000L, decoded.getEndDate());
+        assertEquals(500L, decoded.getDeadline());
+    }
+
+    @Test
+    public void testEventDecodeToleratesZeroAttendees() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("numberOfAttendees", 0L);
+        data.put("maxEntrants", -1L);
+
+        Event decoded = Codecs.forClass(Event.class).decode("eventId", data);
+
+        assertEquals(0, decoded.getNumberOfAttendees());
+        assertEquals(-1, decoded.getMaxEntrants());
+    }
+
+    @Test
+    public void testSignupRoundTripUsesBeanFieldNames() {
+        Signup signup = new Signup("user", "event", 53.5, -113.5);
+        signup.setChosen(true);
+        signup.setWaitlisted(false);
+
+        DocumentCodec<Signup> codec = Codecs.forClass(Signup.class);
+        Map<String, Object> data = codec.encode(signup);
+        assertEquals(true, data.get("chosen"));
+        assertEquals(false, data.get("waitlisted"));
+
+        Signup decoded = codec.decode("signupId", data);
+        assertEquals("signupId", decoded.getDocumentId());
+        assertEquals("user", decoded.getUserId());
+        assertEquals("event", decoded.getEventId());
+        assertEquals(53.5, decoded.getLatitude(), 0.0);
+        assertEquals(-113.5, decoded.getLongitude(), 0.0);
+        assertTrue(decoded.isChosen());
+        assertFalse(decoded.isWaitlisted());
+        assertFalse(decoded.isCancelled());
+        assertFalse(data.containsKey("rank"));
+    }
+
+    @Test
+    public void testSignupRankIsCarriedThrough() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("userId", "user");
+        data.put("rank", 0.25);
+
+        DocumentCodec<Signup> codec = Codecs.forClass(Signup.class);
+        Signup decoded = codec.decode("signupId", data);
+
+        assertEquals(0.25, decoded.getRank(), 0.0);
+        assertEquals(0.25, codec.encode(decoded).get("rank"));
+    }
+
+    @Test
+    public void testSignupStatusIsStoredAndDerivedFromLegacyFlags() {
+        Signup signup = new Signup("user", "event");
+        signup.setStatus(SignupStatus.ENROLLED);
+
+        Map<String, Object> data = Codecs.forClass(Signup.class).encode(signup);
+        assertEquals("enrolled", data.get("status"));
+        assertEquals(true, data.get("enrolled"));
+        assertEquals(false, data.get("chosen"));
+
+        // accepted before the status field existed: chosen was left set
+        Map<String, Object> legacy = new HashMap<>();
+        legacy.put("waitlisted", false);
+        legacy.put("chosen", true);
+        legacy.put("enrolled", true);
+        assertEquals(SignupStatus.ENROLLED, Codecs.forClass(Signup.class).decode("signupId", legacy).getStatus());
+
+        // the status wins over flags that disagree with it
+        legacy.put("status", "cancelled");
+        Signup decoded = Codecs.forClass(Signup.class).decode("signupId", legacy);
+        assertEquals(SignupStatus.CANCELLED, decoded.getStatus());
+        assertTrue(decoded.isCancelled());
+        assertFalse(decoded.isEnrolled());
+    }
+
+    @Test
+    public void testSignupDecodeKeepsModelDefaults() {
+        Signup decoded = Codecs.forClass(Signup.class).decode("signupId", new HashMap<>());
+
+        assertTrue(decoded.isWaitlisted());
+        assertNull(decoded.getLatitude());
+    }
+
+    @Test
+    public void testUserRoundTrip() {
+        User user = new User("Name", "a@b.c", "780", "content://photo");
+        user.setUserId("userId");
+        user.setAdmin(true);
+        user.setNotificationOptOut(true);
+
+        DocumentCodec<User> codec = Codecs.forClass(User.class);
+        Map<String, Object> data = codec.encode(user);
+        assertEquals("userId", data.get("userId"));
+
+        User decoded = codec.decode("userId", data);
+        assertEquals("userId", decoded.getUserId());
+        assertEquals("Name", decoded.getName());
+        assertEquals("a@b.c", decoded.getEmail());
+        assertEquals("780", decoded.getPhoneNumber());
+        assertEquals("content://photo", decoded.getPhotoUriString());
+        assertTrue(decoded.isAdmin());
+        assertFalse(decoded.isOrganizer());
+        assertTrue(decoded.isNotificationOptOut());
+    }
+
+    @Test
+    public void testFacilityAndNotificationRoundTrip() {
+        Facility facility = new Facility("Facility", "Description");
+        facility.setOrganizerId("organizer");
+        DocumentCodec<Facility> facilityCodec = Codecs.forClass(Facility.class);
+        Facility decodedFacility = facilityCodec.decode("facilityId", facilityCodec.encode(facility));
+        assertEquals("facilityId", decodedFacility.getDocumentId());
+        assertEquals("Facility", decodedFacility.getFacilityName());
+        assertEquals("Description", decodedFacility.getFacilityDescription());
+        assertEquals("organizer", decodedFacility.getOrganizerId());
+        assertEquals("", decodedFacility.getPhotoUriString());
+
+        Notification notification = new Notification("user", "Title", "Message", "event");
+        DocumentCodec<Notification> notificationCodec = Codecs.forClass(Notification.class);
+        Notification decodedNotification =
+                notificationCodec.decode("notificationId", notificationCodec.encode(notification));
+        assertEquals("notificationId", decodedNotification.getDocumentId());
+        assertEquals("Invite", decodedNotification.getType());
+        assertEquals("event", decodedNotification.getEventId());
+    }
+
+    @Test
+    public void testDisabledFallsBackToModel() {
+        Codecs.setEnabled(false);
+        Signup signup = new Signup("user", "event");
+
+        assertNull(Codecs.forClass(Signup.class));
+        assertSame(signup, Codecs.encode(signup));
+    }
+}
@@ -0,0 +1,129 @@
+import * as logger from 'firebase-functions/logger';
+import { FieldPath, Timestamp } from 'firebase-admin/firestore';
+import { Signup, SignupStatus } from './types/signup';
+import { AppNotification } from './types/app_notification';
+import { migrateEventSignupStatus } from './signup_status';
+
+/** Signups read (and notifications written) per page; progress is reported after each page. */
+export const BROADCAST_PAGE_SIZE = 500;
+
+/** Attempts per notification write before it is counted as failed. */
+const MAX_WRITE_ATTEMPTS = 3;
+
+/**
+ * Progress of a broadcast, stored in broadcasts/{broadcastId} so the app can show it while the
+ * callable is running.
+ */
+export interface BroadcastProgress {
+  eventId: string;
+  organizerId: string;
+  total: number;
+  written: number;
+  failed: number;
+  done: boolean;
+  updatedAt?: Timestamp;
+}
+
+/**
+ * Sends a general notification to every entrant of an event with one of the given statuses.
+ * Signups are read a page at a time with a cursor, the notifications of each page are written with
+ * a BulkWriter (which batches and retries writes), and the progress document is updated after
+ * every page. A user with several signups to the event is only notified once. Signups are
+ * selected by their status field, so it is first written to those of the event that lack it.
+ * @param {FirebaseFirestore.Firestore} db Firestore instance
+ * @param {string} eventId ID of the event
+ * @param {SignupStatus[]} statuses Statuses of the entrants to notify
+ * @param {string} title Title of the notification
+ * @param {string} message Message of the notification
+ * @param {FirebaseFirestore.DocumentReference} progressRef Document to report progress to
+ * @param {string} organizerId ID of the organizer sending the broadcast
+ * @return {Promise<BroadcastProgress>} Final progress of the broadcast
+ */
+export async function broadcastToEntrants(
+  db: FirebaseFirestore.Firestore,
+  eventId: string,
+  statuses: SignupStatus[],
+  title: string,
+  message: string,
+  progressRef: FirebaseFirestore.DocumentReference,
+  organizerId: string
+): Promise<BroadcastProgress> {
+  await migrateEventSignupStatus(db, eventId);
+  const signups = db
+    .collection('signups')
+    .where('eventId', '==', eventId)
+    .where('status', 'in', statuses);
+
+  const totalSnapshot = await signups.count().get();
+  const progress: BroadcastProgress = {
+    eventId,
+    organizerId,
+    total: totalSnapshot.data().count,
+    written: 0,
+    failed: 0,
+    done: false,
+  };
+  await progressRef.set({ ...progress, updatedAt: Timestamp.now() });
+
+  const bulkWriter = db.bulkWriter();
+  bulkWriter.onWriteResult(() => {
+    progress.written++;
+  });
+  bulkWriter.onWriteError((error) => {
+    if (error.failedAttempts < MAX_WRITE_ATTEMPTS) {
+      return true;
+    }
+    progress.failed++;
+    logger.error(`broadcastToEntrants: failed to write ${error.documentRef.path}:`, error);
+    return false;
+  });
+
+  const notifiedUserIds = new Set<string>();
+  let cursor: string | undefined;
+
+  for (;;) {
+    let query = signups.orderBy(FieldPath.documentId()).limit(BROADCAST_PAGE_SIZE);
+    if (cursor) {
+      query = query.startAfter(cursor);
+    }
+    const snapshot = await query.get();
+    if (snapshot.empty) {
+      break;
+    }
+
+    snapshot.docs.forEach((doc) => {
+      const userId = (doc.data() as Signup).userId;
+      if (!userId || notifiedUserIds.has(userId)) {
+        return;
+      }
+      notifiedUserIds.add(userId);
+
+      const notification: AppNotification = {
+        userId,
+        eventId,
+        title,
+        message,
+        type: 'General',
+      };
+      const notificationRef = db.collection('users').doc(userId).collection('notifications').doc();
+      // Failures are counted by onWriteError
+      bulkWriter.create(notificationRef, notification).catch(() => undefined);
+    });
+
+    await bulkWriter.flush();
+    await progressRef.set({ ...progress, updatedAt: Timestamp.now() });
+    logger.debug(`broadcastToEntrants: ${progress.written} of ${progress.total} notifications written`);
+
+    cursor = snapshot.docs[snapshot.docs.length - 1].id;
+    if (snapshot.size < BROADCAST_PAGE_SIZE) {
+      break;
+    }
+  }
+
+  await bulkWriter.close();
+  progress.done = true;
+  // Duplicate signups of one user are only notified once, so fewer may be written than counted
+  progress.total = progress.written + progress.failed;
+  await progressRef.set({ ...progress, updatedAt: Timestamp.now() });
+  return progress;
+}
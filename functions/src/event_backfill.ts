@@ -0,0 +1,62 @@
+import * as logger from 'firebase-functions/logger';
+import { FieldPath, Firestore, Timestamp } from 'firebase-admin/firestore';
+
+/** Events read per page of a backfill. */
+export const EVENT_BACKFILL_PAGE_SIZE = 100;
+
+/**
+ * Progress of a backfill over all events, stored in migrations/{backfillId} so a run can resume
+ * where the previous one stopped.
+ */
+export interface EventBackfillState {
+  cursor: string | null;
+  scanned: number;
+  updated: number;
+  done: boolean;
+  updatedAt?: Timestamp;
+}
+
+/**
+ * Runs a backfill over every event, a page at a time in document ID order. The cursor is saved
+ * after every page, so the backfill can be stopped and resumed at any point, and once it has gone
+ * through every event further calls do nothing. The handler must skip events that need nothing,
+ * so that redoing a page is harmless.
+ * @param {Firestore} db Firestore instance.
+ * @param {string} backfillId ID of the backfill's progress document.
+ * @param {number} maxPages Maximum number of pages to process in this run.
+ * @param {function(FirebaseFirestore.QueryDocumentSnapshot[]): Promise<number>} handlePage
+ *   Backfills a page of events and returns how many were updated.
+ * @param {number} pageSize Number of events to read per page.
+ * @return {Promise<EventBackfillState>} Progress after this run.
+ */
+export async function backfillEvents(
+  db: Firestore,
+  backfillId: string,
+  maxPages: number,
+  handlePage: (events: FirebaseFirestore.QueryDocumentSnapshot[]) => Promise<number>,
+  pageSize: number = EVENT_BACKFILL_PAGE_SIZE
+): Promise<EventBackfillState> {
+  const stateRef = db.collection('migrations').doc(backfillId);
+  const stateSnapshot = await stateRef.get();
+  const state: EventBackfillState = stateSnapshot.exists ?
+    (stateSnapshot.data() as EventBackfillState) :
+    { cursor: null, scanned: 0, updated: 0, done: false };
+
+  for (let page = 0; page < maxPages && !state.done; page++) {
+    let query = db.collection('events').orderBy(FieldPath.documentId()).limit(pageSize);
+    if (state.cursor) {
+      query = query.startAfter(state.cursor);
+    }
+    const snapshot = await query.get();
+
+    if (!snapshot.empty) {
+      state.updated += await handlePage(snapshot.docs);
+      state.cursor = snapshot.docs[snapshot.docs.length - 1].id;
+    }
+    state.scanned += snapshot.size;
+    state.done = snapshot.size < pageSize;
+    await stateRef.set({ ...state, updatedAt: Timestamp.now() });
+    logger.debug(`backfillEvents(${backfillId}): page done at ${state.cursor}, updated ${state.updated}`);
+  }
+  return state;
+}
@@ -0,0 +1,183 @@
+import { Firestore } from 'firebase-admin/firestore';
+import { backfillEvents, EventBackfillState } from './event_backfill';
+import { signupDocumentId } from './signup_keys';
+import { Signup } from './types/signup';
+
+/**
+ * Number of capacity slots per event; must match SignupRepository.CAPACITY_SLOT_COUNT in the app.
+ * The app admits a signup by taking a place in a random slot with room inside the transaction that
+ * creates it, so a burst of signups to one event is spread across this many documents. Security
+ * rules only let a client raise a slot's "used" count by one, recording the signup it creates in
+ * "admittedSignup" in the same write.
+ */
+export const CAPACITY_SLOT_COUNT = 10;
+
+/**
+ * Capacity of an event after a rebuild.
+ */
+export interface CapacitySummary {
+  maxEntrants: number;
+  used: number;
+  reserved: number;
+}
+
+/**
+ * Gets the reference to the capacity document of an event; slots live in its "slots" subcollection.
+ * @param {Firestore} db Firestore instance.
+ * @param {string} eventId Event ID.
+ * @return {FirebaseFirestore.DocumentReference} Capacity document reference.
+ */
+export function eventCapacityRef(db: Firestore, eventId: string) {
+  return db.collection('eventCapacity').doc(eventId);
+}
+
+/**
+ * Splits a capacity as evenly as possible across the slots.
+ * @param {number} capacity Capacity to split.
+ * @param {number} slotCount Number of slots.
+ * @return {number[]} Limit of each slot.
+ */
+export function splitCapacity(capacity: number, slotCount: number = CAPACITY_SLOT_COUNT): number[] {
+  const base = Math.floor(capacity / slotCount);
+  const remainder = capacity % slotCount;
+  return Array.from({ length: slotCount }, (_, slot) => base + (slot < remainder ? 1 : 0));
+}
+
+/**
+ * Returns the place a removed signup held in its capacity slot. Must run inside the transaction
+ * that de-duplicates the signup trigger; reads the slot, so call it before any transaction writes.
+ * @param {FirebaseFirestore.Transaction} transaction Transaction to write in.
+ * @param {Firestore} db Firestore instance.
+ * @param {string} eventId Event ID.
+ * @param {number} slot Capacity slot of the removed signup.
+ * @return {Promise<() => void>} Applies the write, or does nothing if the slot no longer exists.
+ */
+export async function prepareCapacityRelease(
+  transaction: FirebaseFirestore.Transaction,
+  db: Firestore,
+  eventId: string,
+  slot: number
+): Promise<() => void> {
+  const slotRef = eventCapacityRef(db, eventId).collection('slots').doc(`${slot}`);
+  const slotSnapshot = await transaction.get(slotRef);
+  if (!slotSnapshot.exists) {
+    return () => undefined;
+  }
+  const used = (slotSnapshot.get('used') as number | undefined) ?? 0;
+  return () => {
+    transaction.update(slotRef, { used: Math.max(0, used - 1) });
+  };
+}
+
+/**
+ * Checks whether a deleted signup was moved to the document keyed by its user and event ID, by
+ * migrateSignupKeys or by a client, and the moved signup kept its place. Its slot must then not be
+ * released, or the place would be handed out twice.
+ * @param {Firestore} db Firestore instance.
+ * @param {string} signupId Document ID of the deleted signup.
+ * @param {Signup} signup The deleted signup.
+ * @return {Promise<boolean>} Whether the place is still held by the moved signup.
+ */
+export async function isPlaceKeptByMove(db: Firestore, signupId: string, signup: Signup): Promise<boolean> {
+  if (!signup.userId || !signup.eventId) {
+    return false;
+  }
+  const keyedId = signupDocumentId(signup.userId, signup.eventId);
+  if (keyedId === signupId) {
+    return false;
+  }
+  const keyed = await db.collection('signups').doc(keyedId).get();
+  return keyed.exists && keyed.get('capacitySlot') === signup.capacitySlot;
+}
+
+/**
+ * Rebuilds the capacity slots of an event, e.g. when it is created or its maximum number of
+ * entrants changes. Only the limits are rewritten: each slot keeps the "used" count the app
+ * maintains, and the free places are split evenly on top of those. A missing slot is created with
+ * the number of signups that hold a place in it. Signups admitted before capacity was enforced
+ * hold no slot; they are reserved out of the maximum instead. Everything is read and written in
+ * one transaction, which holds the slots an admission must update, so no admission can commit in
+ * between and be lost.
+ * Events without a maximum have their slots removed.
+ * @param {Firestore} db Firestore instance.
+ * @param {string} eventId Event ID.
+ * @param {number} maxEntrants Maximum number of entrants, or -1 for no limit.
+ * @return {Promise<CapacitySummary | null>} The rebuilt capacity, or null if there is no limit.
+ */
+export async function rebuildEventCapacity(
+  db: Firestore,
+  eventId: string,
+  maxEntrants: number
+): Promise<CapacitySummary | null> {
+  const capacityRef = eventCapacityRef(db, eventId);
+  if (!maxEntrants || maxEntrants < 1) {
+    await db.recursiveDelete(capacityRef);
+    return null;
+  }
+
+  const signups = db.collection('signups').where('eventId', '==', eventId);
+  const slotRefs = Array.from(
+    { length: CAPACITY_SLOT_COUNT },
+    (_, slot) => capacityRef.collection('slots').doc(`${slot}`)
+  );
+
+  return db.runTransaction(async (transaction) => {
+    const slotSnapshots = await transaction.getAll(...slotRefs);
+    const [total, slotted] = await Promise.all([
+      transaction.get(signups.count()),
+      transaction.get(signups.where('capacitySlot', '>=', 0).count()),
+    ]);
+    const usedPerSlot = await Promise.all(slotSnapshots.map(async (snapshot, slot) => {
+      if (snapshot.exists) {
+        return (snapshot.get('used') as number | undefined) ?? 0;
+      }
+      const count = await transaction.get(signups.where('capacitySlot', '==', slot).count());
+      return count.data().count;
+    }));
+
+    const used = usedPerSlot.reduce((sum, count) => sum + count, 0);
+    const reserved = total.data().count - slotted.data().count;
+    // Places already taken stay in their slot; only the free places are split
+    const free = splitCapacity(Math.max(0, maxEntrants - reserved - used));
+
+    transaction.set(capacityRef, { maxEntrants, slotCount: CAPACITY_SLOT_COUNT, reserved });
+    slotSnapshots.forEach((snapshot, slot) => {
+      const limit = usedPerSlot[slot] + free[slot];
+      if (snapshot.exists) {
+        transaction.update(slotRefs[slot], { limit });
+      } else {
+        transaction.set(slotRefs[slot], { limit, used: usedPerSlot[slot] });
+      }
+    });
+    return { maxEntrants, used, reserved };
+  });
+}
+
+/**
+ * Creates the capacity slots of every event with a maximum number of entrants that has none yet,
+ * e.g. events created before capacity was enforced. Progress is kept in migrations/eventCapacity;
+ * see backfillEvents.
+ * @param {Firestore} db Firestore instance.
+ * @param {number} maxPages Maximum number of pages of events to process in this run.
+ * @return {Promise<EventBackfillState>} Progress after this run.
+ */
+export async function backfillEventCapacity(db: Firestore, maxPages: number): Promise<EventBackfillState> {
+  return backfillEvents(db, 'eventCapacity', maxPages, async (events) => {
+    const limited = events.filter((event) => {
+      const maxEntrants = event.get('maxEntrants');
+      return typeof maxEntrants === 'number' && maxEntrants > 0;
+    });
+    if (limited.length === 0) {
+      return 0;
+    }
+    const capacities = await db.getAll(...limited.map((event) => eventCapacityRef(db, event.id)));
+    let created = 0;
+    for (const [index, capacity] of capacities.entries()) {
+      if (!capacity.exists) {
+        await rebuildEventCapacity(db, capacity.id, limited[index].get('maxEntrants') as number);
+        created++;
+      }
+    }
+    return created;
+  });
+}
@@ -0,0 +1,193 @@
+import { FieldValue, Firestore, Timestamp } from 'firebase-admin/firestore';
+import { Signup, SIGNUP_STATUSES } from './types/signup';
+import { migrateEventSignupStatus, signupStatus } from './signup_status';
+import { prepareCapacityRelease } from './event_capacity';
+import { backfillEvents, EventBackfillState } from './event_backfill';
+
+/**
+ * Number of counter shards per event. Each shard absorbs about one write per second,
+ * so bursts of signups are spread across shards instead of contending on one document.
+ */
+export const EVENT_STATS_SHARD_COUNT = 10;
+
+/**
+ * How long applied trigger IDs are kept for de-duplication before the TTL policy removes them.
+ */
+const APPLIED_EVENT_TTL_MS = 7 * 24 * 60 * 60 * 1000;
+
+export type StatsDelta = { [field: string]: number };
+
+/**
+ * What became of a counter change: applied to a shard, skipped because the trigger already ran or
+ * the write is already part of the last count, or left out because the event's counters have not
+ * been counted yet.
+ */
+export type StatsApplyResult = 'applied' | 'skipped' | 'uncounted';
+
+/**
+ * Gets the reference to the stats document of an event; shards live in its "shards" subcollection.
+ * @param {Firestore} db Firestore instance.
+ * @param {string} eventId Event ID.
+ * @return {FirebaseFirestore.DocumentReference} Stats document reference.
+ */
+export function eventStatsRef(db: Firestore, eventId: string) {
+  return db.collection('eventStats').doc(eventId);
+}
+
+/**
+ * Computes how a signup write changes the counters of its event.
+ * @param {Signup | undefined} before Signup before the write, undefined on create.
+ * @param {Signup | undefined} after Signup after the write, undefined on delete.
+ * @return {StatsDelta} Non-zero counter changes, keyed by field.
+ */
+export function computeStatsDelta(before: Signup | undefined, after: Signup | undefined): StatsDelta {
+  const delta: StatsDelta = {};
+  const total = (after ? 1 : 0) - (before ? 1 : 0);
+  if (total !== 0) {
+    delta.total = total;
+  }
+  const beforeStatus = before ? signupStatus(before) : undefined;
+  const afterStatus = after ? signupStatus(after) : undefined;
+  if (beforeStatus !== afterStatus) {
+    if (beforeStatus) {
+      delta[beforeStatus] = -1;
+    }
+    if (afterStatus) {
+      delta[afterStatus] = 1;
+    }
+  }
+  return delta;
+}
+
+/**
+ * Applies a counter change to a random shard of an event's stats. The trigger event ID is
+ * recorded in the same transaction, so a retried trigger is not counted twice. If a removed
+ * signup held a capacity slot, its place is given back in the same transaction.
+ *
+ * The stats document records when the signups were last counted (see rebuildEventStats). Changes
+ * are only applied to counters that have been counted, and only for writes made after the count;
+ * earlier writes are already part of it. Until an event is counted its shards are left alone, so
+ * counters never start from zero partway through an event's life.
+ * @param {Firestore} db Firestore instance.
+ * @param {string} eventId Event ID.
+ * @param {StatsDelta} delta Counter changes to apply.
+ * @param {string} triggerId ID of the trigger event applying the change.
+ * @param {Timestamp} writeTime Time of the signup write causing the change.
+ * @param {number | undefined} releasedSlot Capacity slot of a removed signup, if any.
+ * @return {Promise<StatsApplyResult>} What became of the change.
+ */
+export async function applyStatsDelta(
+  db: Firestore,
+  eventId: string,
+  delta: StatsDelta,
+  triggerId: string,
+  writeTime: Timestamp,
+  releasedSlot?: number
+): Promise<StatsApplyResult> {
+  if (Object.keys(delta).length === 0 && releasedSlot === undefined) {
+    return 'skipped';
+  }
+  const statsRef = eventStatsRef(db, eventId);
+  const shard = Math.floor(Math.random() * EVENT_STATS_SHARD_COUNT);
+  const shardRef = statsRef.collection('shards').doc(`${shard}`);
+  const markerRef = statsRef.collection('appliedEvents').doc(triggerId);
+
+  const increments: { [field: string]: FieldValue } = {};
+  for (const [field, change] of Object.entries(delta)) {
+    increments[field] = FieldValue.increment(change);
+  }
+
+  return db.runTransaction(async (transaction) => {
+    const [marker, stats] = await Promise.all([transaction.get(markerRef), transaction.get(statsRef)]);
+    if (marker.exists) {
+      return 'skipped';
+    }
+    const countedAt = stats.get('countedAt') as Timestamp | undefined;
+    let result: StatsApplyResult = 'applied';
+    if (!countedAt) {
+      result = 'uncounted';
+    } else if (writeTime.toMillis() <= countedAt.toMillis()) {
+      result = 'skipped';
+    }
+    const releaseCapacity = releasedSlot !== undefined ?
+      await prepareCapacityRelease(transaction, db, eventId, releasedSlot) :
+      undefined;
+
+    transaction.set(markerRef, {
+      expireAt: new Date(Date.now() + APPLIED_EVENT_TTL_MS),
+    });
+    if (result === 'applied' && Object.keys(increments).length > 0) {
+      transaction.set(shardRef, increments, { merge: true });
+    }
+    releaseCapacity?.();
+    return result;
+  });
+}
+
+/**
+ * Counts the signups of an event with aggregation queries and brings its counters in line, e.g.
+ * for events created before counters existed. The counts and the shards are read in one
+ * transaction and the difference is added to shard 0, so increments committed concurrently are
+ * kept. The time of the count is recorded as countedAt; changes from writes up to then are part
+ * of the count, and applyStatsDelta skips them. Statuses are counted by their status field, so it
+ * is first written to the signups of the event that lack it.
+ * @param {Firestore} db Firestore instance.
+ * @param {string} eventId Event ID.
+ * @return {Promise<StatsDelta>} The counts.
+ */
+export async function rebuildEventStats(db: Firestore, eventId: string): Promise<StatsDelta> {
+  await migrateEventSignupStatus(db, eventId);
+  const statsRef = eventStatsRef(db, eventId);
+  const signups = db.collection('signups').where('eventId', '==', eventId);
+  const fields = ['total', ...SIGNUP_STATUSES];
+
+  return db.runTransaction(async (transaction) => {
+    const [total, ...statusCounts] = await Promise.all([
+      transaction.get(signups.count()),
+      ...SIGNUP_STATUSES.map((status) => transaction.get(signups.where('status', '==', status).count())),
+    ]);
+    const shards = await transaction.get(statsRef.collection('shards'));
+
+    const counts: StatsDelta = { total: total.data().count };
+    SIGNUP_STATUSES.forEach((status, index) => {
+      counts[status] = statusCounts[index].data().count;
+    });
+
+    const increments: { [field: string]: FieldValue } = {};
+    fields.forEach((field) => {
+      const current = shards.docs.reduce((sum, shard) => sum + ((shard.get(field) as number) || 0), 0);
+      increments[field] = FieldValue.increment(counts[field] - current);
+    });
+
+    // Reads in a transaction hold their locks until it commits, so the latest read time is one
+    // at which every count and shard was current
+    const countedAt = [total, ...statusCounts].reduce(
+      (latest, snapshot) => snapshot.readTime.toMillis() > latest.toMillis() ? snapshot.readTime : latest,
+      shards.readTime
+    );
+    transaction.set(statsRef.collection('shards').doc('0'), increments, { merge: true });
+    transaction.set(statsRef, { countedAt }, { merge: true });
+    return counts;
+  });
+}
+
+/**
+ * Counts the signups of every event whose counters have never been counted. Progress is kept in
+ * migrations/eventStats; see backfillEvents.
+ * @param {Firestore} db Firestore instance.
+ * @param {number} maxPages Maximum number of pages of events to process in this run.
+ * @return {Promise<EventBackfillState>} Progress after this run.
+ */
+export async function backfillEventStats(db: Firestore, maxPages: number): Promise<EventBackfillState> {
+  return backfillEvents(db, 'eventStats', maxPages, async (events) => {
+    const stats = await db.getAll(...events.map((event) => eventStatsRef(db, event.id)));
+    let counted = 0;
+    for (const stat of stats) {
+      if (!stat.get('countedAt')) {
+        await rebuildEventStats(db, stat.id);
+        counted++;
+      }
+    }
+    return counted;
+  });
+}
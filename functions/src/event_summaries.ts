@@ -0,0 +1,100 @@
+import { Firestore } from 'firebase-admin/firestore';
+import { AppEvent } from './types/app_event';
+import { backfillEvents, EventBackfillState } from './event_backfill';
+
+/**
+ * Compact projection of an event for list screens, stored in eventSummaries/{eventId}.
+ * Must match EventSummaryCodec in the app.
+ */
+export interface EventSummary {
+  organizerId: string;
+  facilityId: string | null;
+  eventName: string;
+  posterUriString: string | null;
+  startDate: number;
+  endDate: number;
+  deadline: number;
+}
+
+/**
+ * Gets the reference to the summary document of an event.
+ * @param {Firestore} db Firestore instance.
+ * @param {string} eventId Event ID.
+ * @return {FirebaseFirestore.DocumentReference} Summary document reference.
+ */
+export function eventSummaryRef(db: Firestore, eventId: string) {
+  return db.collection('eventSummaries').doc(eventId);
+}
+
+/**
+ * Builds the summary of an event.
+ * @param {AppEvent} event Event data.
+ * @return {EventSummary} Summary of the event.
+ */
+export function toEventSummary(event: AppEvent): EventSummary {
+  return {
+    organizerId: event.organizerId,
+    facilityId: event.facilityId ?? null,
+    eventName: event.eventName,
+    posterUriString: event.posterUriString ?? null,
+    startDate: event.startDate ?? 0,
+    endDate: event.endDate ?? 0,
+    deadline: event.deadline ?? 0,
+  };
+}
+
+/**
+ * Checks whether a write to an event changes any field of its summary, so that edits to e.g. the
+ * description or lottery state don't rewrite the summary.
+ * @param {AppEvent | undefined} before Event before the write.
+ * @param {AppEvent | undefined} after Event after the write.
+ * @return {boolean} Whether the summary must be written or deleted.
+ */
+export function summaryChanged(before: AppEvent | undefined, after: AppEvent | undefined): boolean {
+  if (!before || !after) {
+    return before !== after;
+  }
+  const fields = [
+    'organizerId', 'facilityId', 'eventName', 'posterUriString', 'startDate', 'endDate', 'deadline',
+  ] as const;
+  return fields.some((field) => (before[field] ?? null) !== (after[field] ?? null));
+}
+
+/**
+ * Writes or deletes the summary of an event after a write to it. Triggers can be delivered out of
+ * order, so the summary is built from the event as it is now, read in the same transaction,
+ * rather than from the trigger's snapshot.
+ * @param {Firestore} db Firestore instance.
+ * @param {string} eventId Event ID.
+ * @return {Promise<boolean>} Whether the summary exists afterwards (false if the event was deleted).
+ */
+export async function syncEventSummary(db: Firestore, eventId: string): Promise<boolean> {
+  const eventRef = db.collection('events').doc(eventId);
+  const summaryRef = eventSummaryRef(db, eventId);
+  return db.runTransaction(async (transaction) => {
+    const eventSnapshot = await transaction.get(eventRef);
+    if (!eventSnapshot.exists) {
+      transaction.delete(summaryRef);
+      return false;
+    }
+    transaction.set(summaryRef, toEventSummary(eventSnapshot.data() as AppEvent));
+    return true;
+  });
+}
+
+/**
+ * Writes the missing summaries of existing events, e.g. events created before summaries were
+ * maintained. Progress is kept in migrations/eventSummaries, which the app checks to know whether
+ * it can serve event lists from summaries yet; see backfillEvents.
+ * @param {Firestore} db Firestore instance.
+ * @param {number} maxPages Maximum number of pages of events to process in this run.
+ * @return {Promise<EventBackfillState>} Progress after this run.
+ */
+export async function backfillEventSummaries(db: Firestore, maxPages: number): Promise<EventBackfillState> {
+  return backfillEvents(db, 'eventSummaries', maxPages, async (events) => {
+    const summaries = await db.getAll(...events.map((event) => eventSummaryRef(db, event.id)));
+    const missing = summaries.filter((summary) => !summary.exists);
+    await Promise.all(missing.map((summary) => syncEventSummary(db, summary.id)));
+    return missing.length;
+  });
+}
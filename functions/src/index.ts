@@ -1,24 +1,60 @@
 import { onTaskDispatched } from 'firebase-functions/v2/tasks';
 import { getFunctions } from 'firebase-admin/functions';
 import { onCall, HttpsError } from 'firebase-functions/v2/https';
+import { onSchedule } from 'firebase-functions/v2/scheduler';
 import { initializeApp } from 'firebase-admin/app';
-import { getFirestore } from 'firebase-admin/firestore';
+import { getFirestore, Timestamp } from 'firebase-admin/firestore';
 import * as logger from 'firebase-functions/logger';
 import {
   onDocumentCreated,
   onDocumentUpdated,
   onDocumentDeleted,
+  onDocumentWritten,
 } from 'firebase-functions/v2/firestore';
 import { User } from './types/user';
 import { deleteDocumentsByQuery } from './utils';
 import { AppEvent } from './types/app_event';
 import { processLottery } from './lottery';
+import { getRankFloor, lotteryRankRef, randomRank } from './lottery_rank';
+import { lotteryRunRef } from './lottery_runs';
+import { lotteryLeaseRef, LotteryLeaseLostError, withLotteryLease } from './lottery_lease';
+import { Signup, SIGNUP_STATUSES, SignupStatus } from './types/signup';
+import {
+  applyStatsDelta,
+  backfillEventStats,
+  computeStatsDelta,
+  eventStatsRef,
+  rebuildEventStats as rebuildStats,
+} from './event_stats';
+import { migrateSignupKeys as migrateKeys } from './signup_keys';
+import {
+  backfillEventCapacity,
+  eventCapacityRef,
+  isPlaceKeptByMove,
+  rebuildEventCapacity,
+} from './event_capacity';
+import { broadcastToEntrants } from './broadcast';
+import {
+  migrateSignupStatus as migrateStatus,
+  pendingStatusSync,
+  statusFields,
+} from './signup_status';
+import {
+  backfillEventSummaries as backfillSummaries,
+  summaryChanged,
+  syncEventSummary,
+} from './event_summaries';
 
 initializeApp();
 const db = getFirestore();
 
+/** Result message of a draw turned away because another draw of the event holds its lease. */
+const LOTTERY_IN_PROGRESS_MESSAGE =
+  'A lottery draw is already in progress for this event. Try again shortly.';
+
 /**
  * Processes an event lottery when called from the app by an organizer.
+ * Returns straight away with status "in_progress" if another draw of the event is running.
  */
 export const runLottery = onCall(async (request) => {
   const db = getFirestore();
@@ -68,10 +104,22 @@ export const runLottery = onCall(async (request) => {
       );
     }
 
-    const lotteryResult = await processLottery(db, eventId, eventData, numberOfAttendees);
+    const lotteryResult = await withLotteryLease(
+      db,
+      eventId,
+      `runLottery by ${organizerId}`,
+      (lease) => processLottery(db, eventId, eventData, numberOfAttendees, lease)
+    );
 
-    return { result: lotteryResult };
+    if (lotteryResult === null) {
+      return { status: 'in_progress', result: LOTTERY_IN_PROGRESS_MESSAGE };
+    }
+    return { status: 'done', result: lotteryResult };
   } catch (error) {
+    if (error instanceof LotteryLeaseLostError) {
+      logger.warn(`Lottery of event ${eventId} was taken over by another draw.`);
+      return { status: 'in_progress', result: LOTTERY_IN_PROGRESS_MESSAGE };
+    }
     logger.error(`Error processing lottery for event ${eventId}:`, error);
     throw new HttpsError('internal', `An error has occurred: ${error}`);
   }
@@ -79,6 +127,8 @@ export const runLottery = onCall(async (request) => {
 
 /**
  * Task Queue Function: Processes the lottery for a given event after the deadline passes.
+ * A retried task resumes the checkpointed run instead of drawing again (see lottery_runs.ts).
+ * If another draw of the event holds its lease, the task fails so that it is retried later.
  */
 export const runLotteryByQueue = onTaskDispatched(
   {
@@ -117,8 +167,18 @@ export const runLotteryByQueue = onTaskDispatched(
         return;
       }
 
-      await processLottery(db, eventId, eventData, eventData.numberOfAttendees);
+      const lotteryResult = await withLotteryLease(db, eventId, 'runLotteryByQueue', async (lease) => {
+        // The draw that held the lease before may have finished the lottery in the meantime
+        const current = (await db.collection('events').doc(eventId).get()).data() as AppEvent | undefined;
+        if (!current || current.lotteryProcessed == true) {
+          return 'Lottery already processed.';
+        }
+        return processLottery(db, eventId, current, current.numberOfAttendees, lease);
+      });
 
+      if (lotteryResult === null) {
+        throw new Error(`Lottery draw already in progress for event ${eventId}, will retry`);
+      }
       logger.debug(`Lottery processed successfully for event: ${eventId}`);
     } catch (error) {
       logger.error(`Error processing lottery for event ${eventId}:`, error);
@@ -165,6 +225,76 @@ export const handleEventCreated = onDocumentCreated(
         error
       );
     }
+
+    if (data.maxEntrants > 0) {
+      try {
+        await rebuildEventCapacity(db, eventId, data.maxEntrants);
+        logger.debug(`Capacity of event ${eventId} set to ${data.maxEntrants} entrants.`);
+      } catch (error) {
+        logger.error(`Failed to set capacity of event ${eventId}:`, error);
+      }
+    }
+  }
+);
+
+/**
+ * When the maximum number of entrants of an event changes
+ * Rebuild its capacity slots.
+ */
+export const handleEventCapacityChanged = onDocumentUpdated(
+  'events/{eventId}',
+  async (event) => {
+    const snapshot = event.data;
+
+    if (!snapshot) {
+      logger.warn('handleEventCapacityChanged: No data found');
+      return;
+    }
+    const dataBefore = snapshot.before.data() as AppEvent;
+    const dataAfter = snapshot.after.data() as AppEvent;
+
+    if (dataBefore?.maxEntrants === dataAfter?.maxEntrants) {
+      return;
+    }
+    const eventId = event.params.eventId;
+
+    try {
+      const capacity = await rebuildEventCapacity(db, eventId, dataAfter.maxEntrants);
+      logger.debug(`Rebuilt capacity of event ${eventId}: ${JSON.stringify(capacity)}`);
+    } catch (error) {
+      logger.error(`Failed to rebuild capacity of event ${eventId}:`, error);
+    }
+  }
+);
+
+/**
+ * When an event is created, updated or deleted
+ * Keep its summary in eventSummaries in sync for the list screens.
+ */
+export const handleEventSummaryWritten = onDocumentWritten(
+  'events/{eventId}',
+  async (event) => {
+    const change = event.data;
+
+    if (!change) {
+      logger.warn('handleEventSummaryWritten: No data found');
+      return;
+    }
+    const before = change.before.exists ? (change.before.data() as AppEvent) : undefined;
+    const after = change.after.exists ? (change.after.data() as AppEvent) : undefined;
+
+    if (!summaryChanged(before, after)) {
+      return;
+    }
+    const eventId = event.params.eventId;
+
+    try {
+      const exists = await syncEventSummary(db, eventId);
+      logger.debug(`${exists ? 'Updated' : 'Deleted'} summary of event ${eventId}.`);
+    } catch (error) {
+      logger.error(`Failed to update summary of event ${eventId}:`, error);
+      throw error;
+    }
   }
 );
 
@@ -308,5 +438,369 @@ export const handleEventDeleted = onDocumentDeleted(
     } catch (error) {
       logger.error(`Failed to delete signups for event ${eventId}:`, error);
     }
+
+    try {
+      await db.recursiveDelete(eventStatsRef(db, eventId));
+      await db.recursiveDelete(eventCapacityRef(db, eventId));
+      await lotteryRankRef(db, eventId).delete();
+      await lotteryRunRef(db, eventId).delete();
+      await lotteryLeaseRef(db, eventId).delete();
+      logger.debug(`Deleted signup counters, capacity and lottery state for event ${eventId}.`);
+    } catch (error) {
+      logger.error(`Failed to delete signup counters and capacity for event ${eventId}:`, error);
+    }
   }
 );
+
+/**
+ * When a signup is created, updated or deleted
+ * Update the sharded signup counters of its event, bring its status field in step with its
+ * flags if it was written by a client that only knows the flags, and assign its lottery rank or
+ * restore it if a client changed it.
+ */
+export const handleSignupWritten = onDocumentWritten(
+  'signups/{signupId}',
+  async (event) => {
+    const change = event.data;
+
+    if (!change) {
+      logger.warn('handleSignupWritten: No data found');
+      return;
+    }
+    const before = change.before.exists ? (change.before.data() as Signup) : undefined;
+    const after = change.after.exists ? (change.after.data() as Signup) : undefined;
+
+    const fixes: { [field: string]: unknown } = {};
+    const pendingStatus = after ? pendingStatusSync(after) : undefined;
+    if (pendingStatus) {
+      Object.assign(fixes, statusFields(pendingStatus));
+    }
+    // New signups get a rank whatever the client wrote; older ones get one on their next write.
+    // A rank, once assigned, is kept: a client that changed it, or left it out of a rewrite, gets
+    // it back, so nobody can move up the draw by rewriting their rank. The restore counts itself in
+    // rankRestores, so that this trigger doesn't take it for another change and undo it.
+    if (before && typeof before.rank === 'number') {
+      const restored = (after?.rankRestores ?? 0) > (before.rankRestores ?? 0);
+      if (after && after.rank !== before.rank && !restored) {
+        fixes.rank = before.rank;
+        fixes.rankRestores = (before.rankRestores ?? 0) + 1;
+        logger.info(`handleSignupWritten: restoring the rank of signup ${change.after.id}`);
+      }
+    } else if (after?.eventId && (!before || typeof after.rank !== 'number')) {
+      fixes.rank = randomRank(await getRankFloor(db, after.eventId));
+    }
+    if (Object.keys(fixes).length > 0) {
+      // Only if nothing was written since; a newer write is fixed by its own trigger
+      const precondition = change.after.updateTime ? { lastUpdateTime: change.after.updateTime } : {};
+      try {
+        await change.after.ref.update(fixes, precondition);
+        logger.debug(`Fixed ${Object.keys(fixes).join(', ')} of signup ${change.after.id}`);
+      } catch (error) {
+        logger.warn(`Failed to fix signup ${change.after.id}:`, error);
+      }
+    }
+
+    // A signup moved between events counts as a removal from one and an addition to the other
+    const updates: { eventId: string; before?: Signup; after?: Signup }[] = [];
+    if (before && after && before.eventId !== after.eventId) {
+      updates.push({ eventId: before.eventId, before });
+      updates.push({ eventId: after.eventId, after });
+    } else {
+      const eventId = (after ?? before)?.eventId;
+      if (eventId) {
+        updates.push({ eventId, before, after });
+      }
+    }
+
+    // Deletes have no update time of their own; the trigger's time is when the delete happened
+    const writeTime = change.after.updateTime ?? Timestamp.fromDate(new Date(event.time));
+
+    for (const update of updates) {
+      if (!update.after) {
+        // Signups of a deleted event are removed with it; don't recreate its counters
+        const eventSnapshot = await db.collection('events').doc(update.eventId).get();
+        if (!eventSnapshot.exists) {
+          continue;
+        }
+      }
+      const delta = computeStatsDelta(update.before, update.after);
+      // A removed signup gives its place back to the slot that admitted it, unless it was moved to
+      // its keyed document, which keeps the place
+      const removed = update.after ? undefined : update.before;
+      const releasedSlot = removed && typeof removed.capacitySlot === 'number' &&
+        !(await isPlaceKeptByMove(db, change.before.id, removed)) ?
+        removed.capacitySlot :
+        undefined;
+
+      try {
+        const result = await applyStatsDelta(
+          db, update.eventId, delta, `${event.id}-${update.eventId}`, writeTime, releasedSlot
+        );
+        if (result === 'applied') {
+          logger.debug(`Updated signup counters for event ${update.eventId}: ${JSON.stringify(delta)}`);
+        } else if (result === 'uncounted') {
+          // First change since counters existed; count the event now rather than waiting for the backfill
+          const counts = await rebuildStats(db, update.eventId);
+          logger.info(`Counted signups of event ${update.eventId}: ${JSON.stringify(counts)}`);
+        }
+      } catch (error) {
+        logger.error(`Failed to update signup counters for event ${update.eventId}:`, error);
+        throw error;
+      }
+    }
+  }
+);
+
+/**
+ * Rebuilds the signup counters and capacity slots of an event from its signups when called from
+ * the app by an organizer, e.g. for events created before counters were maintained.
+ */
+export const rebuildEventStats = onCall(async (request) => {
+  const eventId = request.data.eventId;
+  const organizerId = request.data.organizerId;
+
+  if (!eventId || typeof eventId !== 'string') {
+    throw new HttpsError(
+      'invalid-argument',
+      'The function must be called with a valid "eventId".'
+    );
+  }
+  if (!organizerId || typeof organizerId !== 'string') {
+    throw new HttpsError(
+      'invalid-argument',
+      'The function must be called with a valid "organizerId".'
+    );
+  }
+
+  const eventSnapshot = await db.collection('events').doc(eventId).get();
+  if (!eventSnapshot.exists) {
+    throw new HttpsError('not-found', `Event with ID ${eventId} does not exist.`);
+  }
+  if ((eventSnapshot.data() as AppEvent).organizerId !== organizerId) {
+    throw new HttpsError(
+      'permission-denied',
+      'Only the organizer can rebuild the counters for this event.'
+    );
+  }
+
+  try {
+    const counts = await rebuildStats(db, eventId);
+    const capacity = await rebuildEventCapacity(db, eventId, (eventSnapshot.data() as AppEvent).maxEntrants);
+    logger.info(
+      `Rebuilt signup counters for event ${eventId}: ${JSON.stringify(counts)}, ` +
+      `capacity: ${JSON.stringify(capacity)}`
+    );
+    return { result: counts };
+  } catch (error) {
+    logger.error(`Error rebuilding signup counters for event ${eventId}:`, error);
+    throw new HttpsError('internal', `An error has occurred: ${error}`);
+  }
+});
+
+/**
+ * Backfills derived data for documents written before it was maintained: counts the signups of
+ * events that have no counters yet, creates the capacity slots of events that have none, writes
+ * missing event summaries and migrates the status field of signups. Every step saves its progress
+ * and does nothing once done, so after the first runs following a deploy this costs a few reads.
+ */
+export const runBackfills = onSchedule({ schedule: 'every 15 minutes', timeoutSeconds: 540 }, async () => {
+  const backfills = [
+    { name: 'eventStats', run: () => backfillEventStats(db, 20) },
+    { name: 'eventCapacity', run: () => backfillEventCapacity(db, 20) },
+    { name: 'eventSummaries', run: () => backfillSummaries(db, 20) },
+    { name: 'signupStatus', run: () => migrateStatus(db, 20) },
+  ];
+  for (const backfill of backfills) {
+    try {
+      const state = await backfill.run();
+      if (!state.done) {
+        logger.info(`runBackfills: ${backfill.name} progress: ${JSON.stringify(state)}`);
+      }
+    } catch (error) {
+      logger.error(`runBackfills: ${backfill.name} failed:`, error);
+    }
+  }
+});
+
+/**
+ * Moves signups stored under auto IDs to their deterministic (userId, eventId) document IDs when
+ * called from the app by an admin. Each call processes up to "maxPages" pages and resumes where the
+ * previous call stopped; call it until "done" is true.
+ */
+export const migrateSignupKeys = onCall({ timeoutSeconds: 540 }, async (request) => {
+  const adminId = request.data.adminId;
+  const maxPages = request.data.maxPages ?? 50;
+
+  if (!adminId || typeof adminId !== 'string') {
+    throw new HttpsError(
+      'invalid-argument',
+      'The function must be called with a valid "adminId".'
+    );
+  }
+  if (typeof maxPages !== 'number' || maxPages < 1) {
+    throw new HttpsError(
+      'invalid-argument',
+      'The function must be called with a valid "maxPages".'
+    );
+  }
+
+  const userSnapshot = await db.collection('users').doc(adminId).get();
+  if (!userSnapshot.exists || !(userSnapshot.data() as User).admin) {
+    throw new HttpsError('permission-denied', 'Only an admin can migrate signups.');
+  }
+
+  try {
+    const state = await migrateKeys(db, maxPages);
+    logger.info(`Signup key migration progress: ${JSON.stringify(state)}`);
+    return { result: state };
+  } catch (error) {
+    logger.error('Error migrating signup keys:', error);
+    throw new HttpsError('internal', `An error has occurred: ${error}`);
+  }
+});
+
+/**
+ * Writes the single status field of signups created before it existed when called from the app by
+ * an admin. runBackfills does the same on a schedule. Each call processes up to "maxPages" pages
+ * and resumes where the previous call stopped; call it until "done" is true.
+ */
+export const migrateSignupStatus = onCall({ timeoutSeconds: 540 }, async (request) => {
+  const adminId = request.data.adminId;
+  const maxPages = request.data.maxPages ?? 50;
+
+  if (!adminId || typeof adminId !== 'string') {
+    throw new HttpsError(
+      'invalid-argument',
+      'The function must be called with a valid "adminId".'
+    );
+  }
+  if (typeof maxPages !== 'number' || maxPages < 1) {
+    throw new HttpsError(
+      'invalid-argument',
+      'The function must be called with a valid "maxPages".'
+    );
+  }
+
+  const userSnapshot = await db.collection('users').doc(adminId).get();
+  if (!userSnapshot.exists || !(userSnapshot.data() as User).admin) {
+    throw new HttpsError('permission-denied', 'Only an admin can migrate signups.');
+  }
+
+  try {
+    const state = await migrateStatus(db, maxPages);
+    logger.info(`Signup status migration progress: ${JSON.stringify(state)}`);
+    return { result: state };
+  } catch (error) {
+    logger.error('Error migrating signup status:', error);
+    throw new HttpsError('internal', `An error has occurred: ${error}`);
+  }
+});
+
+/**
+ * Writes the missing summaries of existing events when called from the app by an admin, e.g. for
+ * events created before summaries were maintained. runBackfills does the same on a schedule. Each
+ * call processes up to "maxPages" pages and resumes where the previous call stopped; call it until
+ * "done" is true.
+ */
+export const backfillEventSummaries = onCall({ timeoutSeconds: 540 }, async (request) => {
+  const adminId = request.data.adminId;
+  const maxPages = request.data.maxPages ?? 50;
+
+  if (!adminId || typeof adminId !== 'string') {
+    throw new HttpsError(
+      'invalid-argument',
+      'The function must be called with a valid "adminId".'
+    );
+  }
+  if (typeof maxPages !== 'number' || maxPages < 1) {
+    throw new HttpsError(
+      'invalid-argument',
+      'The function must be called with a valid "maxPages".'
+    );
+  }
+
+  const userSnapshot = await db.collection('users').doc(adminId).get();
+  if (!userSnapshot.exists || !(userSnapshot.data() as User).admin) {
+    throw new HttpsError('permission-denied', 'Only an admin can backfill event summaries.');
+  }
+
+  try {
+    const state = await backfillSummaries(db, maxPages);
+    logger.info(`Event summary backfill progress: ${JSON.stringify(state)}`);
+    return { result: state };
+  } catch (error) {
+    logger.error('Error backfilling event summaries:', error);
+    throw new HttpsError('internal', `An error has occurred: ${error}`);
+  }
+});
+
+/**
+ * Sends a notification to every entrant of an event with one of the given statuses when called
+ * from the app by the organizer. Notifications are written server-side, so the broadcast finishes
+ * even if the app is closed; progress is reported to broadcasts/{broadcastId}.
+ */
+export const broadcastNotification = onCall({ timeoutSeconds: 540 }, async (request) => {
+  const { eventId, organizerId, statuses, title, message, broadcastId } = request.data;
+
+  if (!eventId || typeof eventId !== 'string') {
+    throw new HttpsError(
+      'invalid-argument',
+      'The function must be called with a valid "eventId".'
+    );
+  }
+  if (!organizerId || typeof organizerId !== 'string') {
+    throw new HttpsError(
+      'invalid-argument',
+      'The function must be called with a valid "organizerId".'
+    );
+  }
+  if (
+    !Array.isArray(statuses) ||
+    statuses.length === 0 ||
+    !statuses.every((status) => SIGNUP_STATUSES.includes(status))
+  ) {
+    throw new HttpsError(
+      'invalid-argument',
+      `The function must be called with "statuses" from: ${SIGNUP_STATUSES.join(', ')}.`
+    );
+  }
+  if (!title || typeof title !== 'string' || !message || typeof message !== 'string') {
+    throw new HttpsError(
+      'invalid-argument',
+      'The function must be called with a valid "title" and "message".'
+    );
+  }
+  if (broadcastId !== undefined && (typeof broadcastId !== 'string' || broadcastId.includes('/'))) {
+    throw new HttpsError(
+      'invalid-argument',
+      'The "broadcastId" must be a valid document ID.'
+    );
+  }
+
+  const eventSnapshot = await db.collection('events').doc(eventId).get();
+  if (!eventSnapshot.exists) {
+    throw new HttpsError('not-found', `Event with ID ${eventId} does not exist.`);
+  }
+  if ((eventSnapshot.data() as AppEvent).organizerId !== organizerId) {
+    throw new HttpsError(
+      'permission-denied',
+      'Only the organizer can notify the entrants of this event.'
+    );
+  }
+
+  const progressRef = broadcastId ?
+    db.collection('broadcasts').doc(broadcastId) :
+    db.collection('broadcasts').doc();
+  logger.info(`User ${organizerId} is notifying ${statuses.join('/')} entrants of event ${eventId}`);
+
+  try {
+    const progress = await broadcastToEntrants(
+      db, eventId, statuses as SignupStatus[], title, message, progressRef, organizerId
+    );
+    logger.info(`Broadcast ${progressRef.id} finished: ${JSON.stringify(progress)}`);
+    return { result: { broadcastId: progressRef.id, ...progress } };
+  } catch (error) {
+    logger.error(`Error notifying entrants of event ${eventId}:`, error);
+    throw new HttpsError('internal', `An error has occurred: ${error}`);
+  }
+});
@@ -1,37 +1,135 @@
 import { logger } from 'firebase-functions/v2';
+import { FieldPath, Timestamp } from 'firebase-admin/firestore';
 import { AppEvent } from './types/app_event';
 import { Signup } from './types/signup';
 import { AppNotification } from './types/app_notification';
-import { shuffleArray } from './utils';
-import { messaging } from 'firebase-admin';
+import { migrateEventSignupStatus, signupStatus, statusFields } from './signup_status';
+import { chunkArray, mapWithConcurrency, PhaseTimer } from './utils';
+import { getRankFloor, raiseRankFloor, randomRank } from './lottery_rank';
+import { PushDelivery, sendPushNotifications } from './push_notifications';
+import { LotteryLease } from './lottery_lease';
+import {
+  completeRun,
+  LotteryRun,
+  lotteryNotificationId,
+  lotteryRunRef,
+  saveRunProgress,
+  SelectedSignup,
+} from './lottery_runs';
+
+/** Signups handled per page when assigning missing ranks or writing winners and losers. */
+export const LOTTERY_PAGE_SIZE = 500;
+
+/** Winners moved to chosen at once, each in its own transaction. */
+const WINNER_TRANSACTION_CONCURRENCY = 20;
 
 /**
  * Processes the lottery for a given event.
+ *
+ * Winners are the eligible signups with the lowest lottery ranks (see lottery_rank.ts), read with
+ * one indexed range query, so a draw reads as many signups as it selects rather than the whole
+ * waitlist. Signups are selected by their status field, so it is first written to the signups of
+ * the event that lack it, and eligible signups that have no rank yet are ranked. On the first
+ * draw, the signups left on the waitlist are then told they were not selected, a page at a time;
+ * redraws leave them alone, since they have already been told.
+ *
+ * The run is checkpointed in lotteryRuns/{eventId} (see lottery_runs.ts): the winners are saved
+ * before anything is written, and progress after every page. If the previous run of the event did
+ * not finish, it is resumed where it stopped instead of starting a new draw, and since
+ * notifications have IDs fixed by the run, pages redone on a retry do not notify anyone twice.
+ * A page is checkpointed before its push notifications are sent, so a retry never sends them
+ * again; pushes cut off by a crash are lost, but the notifications they announce are written.
+ * The event is marked as processed in the same transaction that finishes the run. A draw that is
+ * skipped for lack of eligible signups saves nothing and leaves the event unprocessed, so the
+ * lottery can still be drawn once there are enough.
+ *
+ * The caller must hold the event's lottery lease (see lottery_lease.ts). It is renewed before
+ * every page of writes, and if it was lost the run stops with a LotteryLeaseLostError, leaving
+ * the rest to the new holder.
  * @param {FirebaseFirestore.Firestore} db Firestore instance
  * @param {string} eventId ID of the event
  * @param {AppEvent} eventData Data of the event
  * @param {number} numberOfEntrants Number of entrants to select
+ * @param {LotteryLease} lease Lease on the event's lottery held by the caller
  * @return {string} String describing the result of the lottery
  */
 export async function processLottery(
   db: FirebaseFirestore.Firestore,
   eventId: string,
   eventData: AppEvent,
-  numberOfEntrants: number
+  numberOfEntrants: number,
+  lease: LotteryLease
 ): Promise<string> {
-  logger.info(`Starting lottery for event: ${eventId}, ${eventData.eventName}`);
+  const phases = new PhaseTimer(`processLottery(${eventId})`);
+  const runSnapshot = await lotteryRunRef(db, eventId).get();
+  let run: LotteryRun;
 
-  const [eligibleSignupsSnapshot, enrolledSignupsSnapshot] = await Promise.all([
-    fetchEligibleSignups(db, eventId),
-    fetchEnrolledSignups(db, eventId),
+  if (runSnapshot.exists && (runSnapshot.data() as LotteryRun).phase !== 'done') {
+    run = runSnapshot.data() as LotteryRun;
+    run.attempts++;
+    await saveRunProgress(db, eventId, { attempts: run.attempts });
+    logger.info(
+      `Resuming lottery run ${run.runId} for event: ${eventId} in phase ${run.phase}, attempt ${run.attempts}`
+    );
+  } else {
+    logger.info(`Starting lottery for event: ${eventId}, ${eventData.eventName}`);
+    const drawn = await startRun(db, eventId, numberOfEntrants, lease, phases);
+    if (typeof drawn === 'string') {
+      return drawn;
+    }
+    run = drawn;
+  }
+
+  if (run.phase === 'winners') {
+    await processWinners(db, eventId, eventData, run, lease);
+    phases.end('notify winners');
+  }
+  if (run.phase === 'losers') {
+    await processLosers(db, eventId, eventData, run, lease);
+    phases.end('notify losers');
+  }
+
+  const message = `Lottery processed. Selected ${run.selected.length} entrants for the event.`;
+  await lease.renew();
+  await completeRun(db, eventId, message);
+  phases.log();
+  logger.info(`${message} ${run.losersNotified} entrants were told they were not selected.`);
+  return message;
+}
+
+/**
+ * Draws the winners of a new run and saves the run before anything else is written.
+ * @param {FirebaseFirestore.Firestore} db Firestore instance
+ * @param {string} eventId ID of the event
+ * @param {number} numberOfEntrants Number of entrants to select
+ * @param {LotteryLease} lease Lease on the event's lottery
+ * @param {PhaseTimer} phases Timer of the run
+ * @return {Promise<LotteryRun | string>} The run, or a message if the lottery was skipped
+ */
+async function startRun(
+  db: FirebaseFirestore.Firestore,
+  eventId: string,
+  numberOfEntrants: number,
+  lease: LotteryLease,
+  phases: PhaseTimer
+): Promise<LotteryRun | string> {
+  const migrated = await migrateEventSignupStatus(db, eventId);
+  if (migrated > 0) {
+    logger.info(`processLottery: wrote the status of ${migrated} signups of event ${eventId}`);
+    phases.end('migrate status');
+  }
+
+  const [eligibleAmount, rankedAmount, enrolledAmount] = await Promise.all([
+    countSignups(eligibleSignupsQuery(db, eventId)),
+    countSignups(rankedSignupsQuery(db, eventId)),
+    countSignups(enrolledSignupsQuery(db, eventId)),
   ]);
+  phases.end('count');
 
-  const isReroll = !enrolledSignupsSnapshot.empty;
-  const enrolledAmount = enrolledSignupsSnapshot.size;
-  const eligibleAmount = eligibleSignupsSnapshot.size;
+  const isReroll = enrolledAmount > 0;
 
   if (
-    eligibleSignupsSnapshot.empty ||
+    eligibleAmount === 0 ||
     (isReroll && enrolledAmount + eligibleAmount < numberOfEntrants)
   ) {
     const message =
@@ -40,219 +138,327 @@ export async function processLottery(
     return message;
   }
 
-  const { selectedSignups, lostSignups } = selectSignups(
-    eligibleSignupsSnapshot.docs,
-    numberOfEntrants,
-    enrolledAmount,
-    isReroll
-  );
+  if (rankedAmount < eligibleAmount) {
+    const assigned = await assignMissingRanks(db, eventId, lease);
+    logger.info(`processLottery: assigned ranks to ${assigned} signups of event ${eventId}`);
+    phases.end('assign ranks');
+  }
 
-  await processSignups(db, eventId, eventData, selectedSignups, lostSignups);
+  const slotsAvailable = Math.max(0, isReroll ? numberOfEntrants - enrolledAmount : numberOfEntrants);
+  const winners = slotsAvailable > 0 ?
+    (await rankedSignupsQuery(db, eventId).orderBy('rank').limit(slotsAvailable).get()).docs :
+    [];
+  phases.end('draw');
 
-  const message = `Lottery processed. Selected ${selectedSignups.length} entrants for the event.`;
-  logger.info(message);
-  return message;
-}
+  const now = Timestamp.now();
+  const run: LotteryRun = {
+    runId: `${now.toMillis()}`,
+    phase: 'winners',
+    numberOfEntrants,
+    isReroll,
+    selected: winners.map((doc) => ({ signupId: doc.id, userId: (doc.data() as Signup).userId })),
+    winnerPagesDone: 0,
+    loserCursor: null,
+    loserPagesDone: 0,
+    losersNotified: 0,
+    attempts: 1,
+    result: null,
+    startedAt: now,
+    updatedAt: now,
+  };
 
-/**
- * Fetches eligible signups for the lottery.
- * @param {FirebaseFirestore.Firestore} db Firestore instance
- * @param {string} eventId ID of the event
- * @return {Promise<FirebaseFirestore.QuerySnapshot<FirebaseFirestore.DocumentData>>
- * } Promise resolving to QuerySnapshot of eligible signups
- */
-async function fetchEligibleSignups(
-  db: FirebaseFirestore.Firestore,
-  eventId: string
-): Promise<FirebaseFirestore.QuerySnapshot<FirebaseFirestore.DocumentData>> {
-  return db
-    .collection('signups')
-    .where('eventId', '==', eventId)
-    .where('cancelled', '==', false)
-    .where('chosen', '==', false)
-    .where('enrolled', '==', false)
-    .where('waitlisted', '==', true)
-    .get();
+  await lease.renew();
+  if (winners.length > 0) {
+    // Signups created from now on must not rank below the ones left on the waitlist. Raising it
+    // again for a draw that is redone is harmless.
+    await raiseRankFloor(db, eventId, winners[winners.length - 1].get('rank') as number);
+  }
+  await lotteryRunRef(db, eventId).set(run);
+  return run;
 }
 
 /**
- * Fetches currently enrolled signups for the lottery.
+ * Marks the winners of a run as chosen and sends them their invitations, a page at a time,
+ * starting after the last page that was done. Each winner is moved to chosen in a transaction
+ * that only does so from the waitlist, so a winner who withdrew or was enrolled since the draw is
+ * left alone and not invited. A winner already chosen, by an earlier attempt at the page, is
+ * invited again, which overwrites the same notification.
  * @param {FirebaseFirestore.Firestore} db Firestore instance
  * @param {string} eventId ID of the event
- * @return {Promise<FirebaseFirestore.QuerySnapshot<FirebaseFirestore.DocumentData>>
- * } Promise resolving to QuerySnapshot of currently enrolled signups
+ * @param {AppEvent} eventData Data of the event
+ * @param {LotteryRun} run The run; its progress is updated
+ * @param {LotteryLease} lease Lease on the event's lottery
  */
-async function fetchEnrolledSignups(
+async function processWinners(
   db: FirebaseFirestore.Firestore,
-  eventId: string
-): Promise<FirebaseFirestore.QuerySnapshot<FirebaseFirestore.DocumentData>> {
-  return db
-    .collection('signups')
-    .where('eventId', '==', eventId)
-    .where('enrolled', '==', true)
-    .get();
-}
+  eventId: string,
+  eventData: AppEvent,
+  run: LotteryRun,
+  lease: LotteryLease
+) {
+  const pages = chunkArray(run.selected, LOTTERY_PAGE_SIZE);
 
-/**
- * Selects signups for the lottery.
- * @param {FirebaseFirestore.QueryDocumentSnapshot[]} signups Array of signup documents
- * @param {number} numberOfEntrants Number of entrants to select
- * @param {number} enrolledAmount Number of already enrolled entrants
- * @param {boolean} isReroll Indicates if this is a reroll
- * @return {{
- * selectedSignups: FirebaseFirestore.QueryDocumentSnapshot[],
- * lostSignups: FirebaseFirestore.QueryDocumentSnapshot[] }}
- *         Object containing selected and lost signups
- */
-function selectSignups(
-  signups: FirebaseFirestore.QueryDocumentSnapshot[],
-  numberOfEntrants: number,
-  enrolledAmount: number,
-  isReroll: boolean
-): {
-  selectedSignups: FirebaseFirestore.QueryDocumentSnapshot[];
-  lostSignups: FirebaseFirestore.QueryDocumentSnapshot[];
-} {
-  const shuffledSignups = shuffleArray(signups);
-  const slotsAvailable = isReroll
-    ? numberOfEntrants - enrolledAmount
-    : numberOfEntrants;
-
-  const selectedSignups = shuffledSignups.slice(0, slotsAvailable);
-  const lostSignups = shuffledSignups.slice(slotsAvailable);
-
-  return { selectedSignups, lostSignups };
+  for (let page = run.winnerPagesDone; page < pages.length; page++) {
+    await lease.renew();
+    const chosen = await mapWithConcurrency(pages[page], WINNER_TRANSACTION_CONCURRENCY, (signup) =>
+      chooseWinner(db, signup.signupId)
+    );
+    const bulkWriter = db.bulkWriter();
+    const writes: Promise<unknown>[] = [];
+    const deliveries: PushDelivery[] = [];
+
+    pages[page].filter((signup, index) => chosen[index]).forEach((signup) => {
+      const notification: AppNotification = {
+        userId: signup.userId,
+        eventId: eventId,
+        title: `Invitation to ${eventData.eventName}`,
+        message: `You have been selected to attend ${eventData.eventName}. Please confirm your attendance.`,
+        type: 'Invite',
+      };
+
+      writes.push(bulkWriter.set(notificationRef(db, signup.userId, run.runId), notification));
+      deliveries.push({ userId: signup.userId, notification });
+    });
+
+    await closeAndCheck(bulkWriter, writes);
+    run.winnerPagesDone = page + 1;
+    await saveRunProgress(db, eventId, { winnerPagesDone: run.winnerPagesDone });
+    await sendPushNotifications(db, deliveries);
+  }
+
+  // "done" is only saved by completeRun, together with lotteryProcessed
+  run.phase = run.isReroll ? 'done' : 'losers';
+  if (run.phase === 'losers') {
+    await saveRunProgress(db, eventId, { phase: run.phase });
+  }
 }
 
 /**
- * Processes the selected and lost signups by updating their status and sending notifications.
+ * Tells the signups left on the waitlist after a draw that they were not selected, a page at a
+ * time in rank order, starting after the last page that was done. They stay on the waitlist for
+ * redraws.
  * @param {FirebaseFirestore.Firestore} db Firestore instance
  * @param {string} eventId ID of the event
  * @param {AppEvent} eventData Data of the event
- * @param {FirebaseFirestore.QueryDocumentSnapshot[]} selectedSignups Array of selected signup documents
- * @param {FirebaseFirestore.QueryDocumentSnapshot[]} lostSignups Array of lost signup documents
+ * @param {LotteryRun} run The run; its progress is updated
+ * @param {LotteryLease} lease Lease on the event's lottery
  */
-async function processSignups(
+async function processLosers(
   db: FirebaseFirestore.Firestore,
   eventId: string,
   eventData: AppEvent,
-  selectedSignups: FirebaseFirestore.QueryDocumentSnapshot[],
-  lostSignups: FirebaseFirestore.QueryDocumentSnapshot[]
+  run: LotteryRun,
+  lease: LotteryLease
 ) {
-  const bulkWriter = db.bulkWriter();
-  const notificationPromises: Promise<void>[] = [];
+  for (;;) {
+    let query = rankedSignupsQuery(db, eventId)
+      .orderBy('rank')
+      .orderBy(FieldPath.documentId())
+      .limit(LOTTERY_PAGE_SIZE);
+    if (run.loserCursor) {
+      query = query.startAfter(run.loserCursor.rank, run.loserCursor.signupId);
+    }
+    const snapshot = await query.get();
+    if (snapshot.empty) {
+      break;
+    }
+
+    await lease.renew();
+    const bulkWriter = db.bulkWriter();
+    const writes: Promise<unknown>[] = [];
+    const deliveries: PushDelivery[] = [];
 
-  selectedSignups.forEach((signupDoc) => {
-    const signupRef = signupDoc.ref;
-    const signupData = signupDoc.data() as Signup;
+    snapshot.docs.forEach((doc) => {
+      const userId = (doc.data() as Signup).userId;
+      const notification: AppNotification = {
+        userId,
+        eventId: eventId,
+        title: `Information for "${eventData.eventName}"`,
+        message:
+          'Unfortunately, you have not been selected to attend the event. We are sorry.',
+        type: 'General',
+      };
 
-    bulkWriter.update(signupRef, {
-      chosen: true,
-      waitlisted: false,
-      cancelled: false,
+      writes.push(bulkWriter.set(notificationRef(db, userId, run.runId), notification));
+      deliveries.push({ userId, notification });
     });
 
-    const notificationRef = db
-      .collection('users')
-      .doc(signupData.userId)
-      .collection('notifications')
-      .doc();
+    await closeAndCheck(bulkWriter, writes);
 
-    const notification: AppNotification = {
-      userId: signupData.userId,
-      eventId: eventId,
-      title: `Invitation to ${eventData.eventName}`,
-      message: `You have been selected to attend ${eventData.eventName}. Please confirm your attendance.`,
-      type: 'Invite',
-    };
+    const last = snapshot.docs[snapshot.docs.length - 1];
+    run.loserCursor = { rank: last.get('rank') as number, signupId: last.id };
+    run.loserPagesDone++;
+    run.losersNotified += snapshot.size;
+    await saveRunProgress(db, eventId, {
+      loserCursor: run.loserCursor,
+      loserPagesDone: run.loserPagesDone,
+      losersNotified: run.losersNotified,
+    });
+    await sendPushNotifications(db, deliveries);
+    if (snapshot.size < LOTTERY_PAGE_SIZE) {
+      break;
+    }
+  }
 
-    bulkWriter.create(notificationRef, notification);
+  run.phase = 'done';
+}
 
-    notificationPromises.push(
-      sendPushNotificationToUser(db, signupData.userId, notification)
-    );
+/**
+ * Moves a winner from the waitlist to chosen, in a transaction so that a change to the signup
+ * since the draw is not overwritten.
+ * @param {FirebaseFirestore.Firestore} db Firestore instance
+ * @param {string} signupId ID of the winner's signup
+ * @return {Promise<boolean>} Whether the signup is chosen, i.e. the winner is to be invited
+ */
+async function chooseWinner(db: FirebaseFirestore.Firestore, signupId: string): Promise<boolean> {
+  const ref = db.collection('signups').doc(signupId);
+  return db.runTransaction(async (transaction) => {
+    const snapshot = await transaction.get(ref);
+    if (!snapshot.exists) {
+      return false;
+    }
+    const status = signupStatus(snapshot.data() as Signup);
+    if (status === 'waitlisted') {
+      transaction.update(ref, statusFields('chosen'));
+    }
+    return status === 'waitlisted' || status === 'chosen';
   });
+}
 
-  lostSignups.forEach((signupDoc) => {
-    const signupRef = signupDoc.ref;
-    const signupData = signupDoc.data() as Signup;
+/**
+ * Gets the reference to the notification a run sends to a user.
+ * @param {FirebaseFirestore.Firestore} db Firestore instance
+ * @param {string} userId ID of the user
+ * @param {string} runId ID of the run
+ * @return {FirebaseFirestore.DocumentReference} Notification document reference
+ */
+function notificationRef(db: FirebaseFirestore.Firestore, userId: string, runId: string) {
+  return db
+    .collection('users')
+    .doc(userId)
+    .collection('notifications')
+    .doc(lotteryNotificationId(runId));
+}
 
-    bulkWriter.update(signupRef, {
-      chosen: false,
-      waitlisted: true,
-      enrolled: false,
-      cancelled: false,
-    });
+/**
+ * Waits for a page of writes and fails if any of them failed after BulkWriter's own retries, so
+ * the page is not checkpointed and is redone by the next attempt.
+ * @param {FirebaseFirestore.BulkWriter} bulkWriter Writer of the page
+ * @param {Promise<unknown>[]} writes Results of the writes of the page
+ */
+async function closeAndCheck(bulkWriter: FirebaseFirestore.BulkWriter, writes: Promise<unknown>[]) {
+  const failures: unknown[] = [];
+  const settled = writes.map((write) => write.catch((error) => {
+    failures.push(error);
+  }));
+  await bulkWriter.close();
+  await Promise.all(settled);
+  if (failures.length > 0) {
+    throw new Error(`${failures.length} of ${writes.length} lottery writes failed: ${failures[0]}`);
+  }
+}
 
-    const notificationRef = db
-      .collection('users')
-      .doc(signupData.userId)
-      .collection('notifications')
-      .doc();
-
-    const notification: AppNotification = {
-      userId: signupData.userId,
-      eventId: eventId,
-      title: `Information for "${eventData.eventName}"`,
-      message:
-        'Unfortunately, you have not been selected to attend the event. We are sorry.',
-      type: 'General',
-    };
-
-    bulkWriter.create(notificationRef, notification);
-
-    notificationPromises.push(
-      sendPushNotificationToUser(db, signupData.userId, notification)
-    );
-  });
+/**
+ * Builds the query for the signups eligible for the lottery.
+ * @param {FirebaseFirestore.Firestore} db Firestore instance
+ * @param {string} eventId ID of the event
+ * @return {FirebaseFirestore.Query} Query of eligible signups
+ */
+function eligibleSignupsQuery(
+  db: FirebaseFirestore.Firestore,
+  eventId: string
+): FirebaseFirestore.Query {
+  return db
+    .collection('signups')
+    .where('eventId', '==', eventId)
+    .where('status', '==', 'waitlisted');
+}
 
-  await bulkWriter.close();
-  await Promise.all(notificationPromises);
+/**
+ * Builds the query for the eligible signups that have a rank, served by the
+ * (eventId, status, rank) index.
+ * @param {FirebaseFirestore.Firestore} db Firestore instance
+ * @param {string} eventId ID of the event
+ * @return {FirebaseFirestore.Query} Query of ranked eligible signups
+ */
+function rankedSignupsQuery(
+  db: FirebaseFirestore.Firestore,
+  eventId: string
+): FirebaseFirestore.Query {
+  return eligibleSignupsQuery(db, eventId).where('rank', '>=', 0);
 }
 
 /**
- * Sends an android push notification to the selected user.
- * @param {FirebaseFirestore.Firestore} db Firestore instance.
- * @param {string} userId ID of the user.
- * @param {AppNotification} notificationData Data to send to the user.
+ * Builds the query for the currently enrolled signups of an event.
+ * @param {FirebaseFirestore.Firestore} db Firestore instance
+ * @param {string} eventId ID of the event
+ * @return {FirebaseFirestore.Query} Query of currently enrolled signups
  */
-async function sendPushNotificationToUser(
+function enrolledSignupsQuery(
   db: FirebaseFirestore.Firestore,
-  userId: string,
-  notificationData: AppNotification
-) {
-  try {
-    const userDoc = await db.collection('users').doc(userId).get();
+  eventId: string
+): FirebaseFirestore.Query {
+  return db
+    .collection('signups')
+    .where('eventId', '==', eventId)
+    .where('status', '==', 'enrolled');
+}
+
+/**
+ * Counts the signups matching a query with an aggregation, without reading them.
+ * @param {FirebaseFirestore.Query} query Query to count
+ * @return {Promise<number>} Number of matching signups
+ */
+async function countSignups(query: FirebaseFirestore.Query): Promise<number> {
+  const snapshot = await query.count().get();
+  return snapshot.data().count;
+}
+
+/**
+ * Ranks the eligible signups of an event that have no rank yet, e.g. ones created before ranks
+ * existed. Reads the whole waitlist once; later draws find every signup ranked.
+ * @param {FirebaseFirestore.Firestore} db Firestore instance
+ * @param {string} eventId ID of the event
+ * @param {LotteryLease} lease Lease on the event's lottery
+ * @return {Promise<number>} Number of signups ranked
+ */
+async function assignMissingRanks(
+  db: FirebaseFirestore.Firestore,
+  eventId: string,
+  lease: LotteryLease
+): Promise<number> {
+  const floor = await getRankFloor(db, eventId);
+  const bulkWriter = db.bulkWriter();
+  let assigned = 0;
+  let cursor: string | undefined;
 
-    if (!userDoc.exists) {
-      console.log(`User ${userId} does not exist.`);
-      return;
+  for (;;) {
+    let query = eligibleSignupsQuery(db, eventId)
+      .orderBy(FieldPath.documentId())
+      .limit(LOTTERY_PAGE_SIZE);
+    if (cursor) {
+      query = query.startAfter(cursor);
     }
-    const userData = userDoc.data();
-    const fcmToken = userData?.fcmToken;
-
-    if (!fcmToken) {
-      logger.warn(
-        `No FCM token for user ${userId}. Cannot send push notification.`
-      );
-      return;
+    const snapshot = await query.get();
+    if (snapshot.empty) {
+      break;
     }
 
-    const message = {
-      token: fcmToken,
-      notification: {
-        title: notificationData.title,
-        body: notificationData.message,
-      },
-      data: {
-        eventId: notificationData.eventId,
-        type: notificationData.type,
-      },
-    };
-
-    await messaging().send(message);
-    console.log(`Successfully sent push notification to user ${userId}.`);
-  } catch (error) {
-    console.error(`Error sending push notification to user ${userId}:`, error);
+    await lease.renew();
+    snapshot.docs.forEach((doc) => {
+      if (typeof (doc.data() as Signup).rank !== 'number') {
+        bulkWriter.update(doc.ref, { rank: randomRank(floor) });
+        assigned++;
+      }
+    });
+    await bulkWriter.flush();
+
+    cursor = snapshot.docs[snapshot.docs.length - 1].id;
+    if (snapshot.size < LOTTERY_PAGE_SIZE) {
+      break;
+    }
   }
+
+  await bulkWriter.close();
+  return assigned;
 }
@@ -0,0 +1,165 @@
+import * as logger from 'firebase-functions/logger';
+import { Firestore, Timestamp } from 'firebase-admin/firestore';
+import { randomUUID } from 'crypto';
+
+/**
+ * How long a lease lasts without a heartbeat. The holder renews it before every page of a run, so
+ * this must comfortably exceed the time one page takes; a lease left by a crashed instance is
+ * reclaimed once it expires.
+ */
+export const LOTTERY_LEASE_TTL_MS = 2 * 60 * 1000;
+
+/** A lease on an event's lottery, stored in lotteryLeases/{eventId}. */
+export interface LotteryLeaseData {
+  holder: string;
+  owner: string;
+  acquiredAt: Timestamp;
+  heartbeatAt: Timestamp;
+  expiresAt: Timestamp;
+}
+
+/** Thrown when a holder finds that its lease expired and was taken over by another run. */
+export class LotteryLeaseLostError extends Error {
+  /**
+   * @param {string} eventId ID of the event whose lease was lost
+   */
+  constructor(eventId: string) {
+    super(`Lost the lottery lease of event ${eventId}`);
+    this.name = 'LotteryLeaseLostError';
+  }
+}
+
+/**
+ * Gets the reference to the lottery lease document of an event.
+ * @param {Firestore} db Firestore instance.
+ * @param {string} eventId Event ID.
+ * @return {FirebaseFirestore.DocumentReference} Lottery lease document reference.
+ */
+export function lotteryLeaseRef(db: Firestore, eventId: string) {
+  return db.collection('lotteryLeases').doc(eventId);
+}
+
+/**
+ * A held lease on an event's lottery. Only the holder of the lease runs the lottery of the event,
+ * so the organizer's draw and the deadline draw never write winners at the same time.
+ */
+export class LotteryLease {
+  /**
+   * @param {Firestore} db Firestore instance.
+   * @param {string} eventId Event ID.
+   * @param {string} holder Unique ID of this holder.
+   */
+  constructor(
+    private readonly db: Firestore,
+    readonly eventId: string,
+    readonly holder: string
+  ) {}
+
+  /**
+   * Extends the lease. Called before every page of writes, so a holder whose lease was reclaimed
+   * stops before writing anything more.
+   * @return {Promise<void>} Resolves once extended.
+   * @throws {LotteryLeaseLostError} If the lease is no longer held by this holder.
+   */
+  async renew(): Promise<void> {
+    const ref = lotteryLeaseRef(this.db, this.eventId);
+    await this.db.runTransaction(async (transaction) => {
+      const snapshot = await transaction.get(ref);
+      if (!snapshot.exists || (snapshot.data() as LotteryLeaseData).holder !== this.holder) {
+        throw new LotteryLeaseLostError(this.eventId);
+      }
+      const now = Timestamp.now();
+      transaction.update(ref, {
+        heartbeatAt: now,
+        expiresAt: Timestamp.fromMillis(now.toMillis() + LOTTERY_LEASE_TTL_MS),
+      });
+    });
+  }
+
+  /**
+   * Gives the lease up, unless it was already taken over by another holder.
+   * @return {Promise<void>} Resolves once released.
+   */
+  async release(): Promise<void> {
+    const ref = lotteryLeaseRef(this.db, this.eventId);
+    await this.db.runTransaction(async (transaction) => {
+      const snapshot = await transaction.get(ref);
+      if (snapshot.exists && (snapshot.data() as LotteryLeaseData).holder === this.holder) {
+        transaction.delete(ref);
+      }
+    });
+  }
+}
+
+/**
+ * Tries to take the lease on an event's lottery. Fails if another holder has a lease that has not
+ * expired; an expired lease is taken over.
+ * @param {Firestore} db Firestore instance.
+ * @param {string} eventId Event ID.
+ * @param {string} owner Description of who is taking the lease, for logs.
+ * @return {Promise<LotteryLease | null>} The lease, or null if the lottery is already running.
+ */
+export async function acquireLotteryLease(
+  db: Firestore,
+  eventId: string,
+  owner: string
+): Promise<LotteryLease | null> {
+  const ref = lotteryLeaseRef(db, eventId);
+  const holder = randomUUID();
+
+  const acquired = await db.runTransaction(async (transaction) => {
+    const snapshot = await transaction.get(ref);
+    const now = Timestamp.now();
+    if (snapshot.exists) {
+      const current = snapshot.data() as LotteryLeaseData;
+      if (current.expiresAt.toMillis() > now.toMillis()) {
+        logger.info(`Lottery of event ${eventId} is already held by ${current.owner}`);
+        return false;
+      }
+      logger.warn(
+        `Reclaiming expired lottery lease of event ${eventId} from ${current.owner}, ` +
+        `last heartbeat at ${current.heartbeatAt.toDate().toISOString()}`
+      );
+    }
+    const lease: LotteryLeaseData = {
+      holder,
+      owner,
+      acquiredAt: now,
+      heartbeatAt: now,
+      expiresAt: Timestamp.fromMillis(now.toMillis() + LOTTERY_LEASE_TTL_MS),
+    };
+    transaction.set(ref, lease);
+    return true;
+  });
+
+  return acquired ? new LotteryLease(db, eventId, holder) : null;
+}
+
+/**
+ * Runs a function while holding the lease on an event's lottery, and releases the lease when it
+ * finishes or fails.
+ * @param {Firestore} db Firestore instance.
+ * @param {string} eventId Event ID.
+ * @param {string} owner Description of who is taking the lease, for logs.
+ * @param {function(LotteryLease): Promise<T>} fn Function to run.
+ * @return {Promise<T | null>} Result of the function, or null if the lottery is already running.
+ */
+export async function withLotteryLease<T>(
+  db: Firestore,
+  eventId: string,
+  owner: string,
+  fn: (lease: LotteryLease) => Promise<T>
+): Promise<T | null> {
+  const lease = await acquireLotteryLease(db, eventId, owner);
+  if (!lease) {
+    return null;
+  }
+  try {
+    return await fn(lease);
+  } finally {
+    // A lease that fails to be released simply expires
+    await lease.release().catch((error) => {
+      logger.warn(`Failed to release lottery lease of event ${eventId}:`, error);
+    });
+  }
+}
@@ -0,0 +1,70 @@
+import { FieldValue, Firestore } from 'firebase-admin/firestore';
+
+/**
+ * Lottery ranks.
+ *
+ * Every signup is given a uniformly random rank when it is created, and a draw takes the waitlisted
+ * signups with the lowest ranks, so picking n winners reads n documents instead of the whole
+ * waitlist. Ranks are assigned by Cloud Functions only; whatever rank a client writes on create is
+ * replaced.
+ *
+ * After a draw, the signups left on the waitlist all rank above the last winner, so a signup
+ * created later must not be ranked below that either, or it would jump the queue in the next
+ * draw. Each event therefore has a rank floor, raised to the last winner's rank after every draw,
+ * and new ranks are drawn uniformly from [floor, 1): the waitlisted ranks stay independent and
+ * uniform over the same range, so every waitlisted signup is equally likely to win a redraw.
+ */
+
+/**
+ * Gets the reference to the document holding an event's rank floor.
+ * @param {Firestore} db Firestore instance.
+ * @param {string} eventId Event ID.
+ * @return {FirebaseFirestore.DocumentReference} Rank floor document reference.
+ */
+export function lotteryRankRef(db: Firestore, eventId: string) {
+  return db.collection('lotteryRanks').doc(eventId);
+}
+
+/**
+ * Draws a rank uniformly from [floor, 1).
+ * @param {number} floor Rank floor of the event.
+ * @param {function(): number} random Source of uniform numbers in [0, 1).
+ * @return {number} The rank.
+ */
+export function randomRank(floor: number, random: () => number = Math.random): number {
+  return floor + (1 - floor) * random();
+}
+
+/**
+ * Reads the rank floor of an event.
+ * @param {Firestore} db Firestore instance.
+ * @param {string} eventId Event ID.
+ * @return {Promise<number>} The floor, 0 before the first draw.
+ */
+export async function getRankFloor(db: Firestore, eventId: string): Promise<number> {
+  const snapshot = await lotteryRankRef(db, eventId).get();
+  const floor = snapshot.get('floor');
+  return typeof floor === 'number' ? floor : 0;
+}
+
+/**
+ * Raises the rank floor of an event after a draw. The floor never goes down.
+ * @param {Firestore} db Firestore instance.
+ * @param {string} eventId Event ID.
+ * @param {number} lastWinnerRank Highest rank among the winners of the draw.
+ * @return {Promise<number>} The new floor.
+ */
+export async function raiseRankFloor(
+  db: Firestore,
+  eventId: string,
+  lastWinnerRank: number
+): Promise<number> {
+  const ref = lotteryRankRef(db, eventId);
+  return db.runTransaction(async (transaction) => {
+    const snapshot = await transaction.get(ref);
+    const current = snapshot.get('floor');
+    const floor = Math.max(typeof current === 'number' ? current : 0, lastWinnerRank);
+    transaction.set(ref, { floor, updatedAt: FieldValue.serverTimestamp() });
+    return floor;
+  });
+}
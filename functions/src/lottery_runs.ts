@@ -0,0 +1,94 @@
+import { Firestore, Timestamp } from 'firebase-admin/firestore';
+
+/**
+ * Where a lottery run is. A run moves from "winners" (invitations being written page by page) to
+ * "losers" (the rest of the waitlist being told, first draws only) to "done".
+ */
+export type LotteryPhase = 'winners' | 'losers' | 'done';
+
+/** A signup selected by a draw. */
+export interface SelectedSignup {
+  signupId: string;
+  userId: string;
+}
+
+/**
+ * Checkpoint of the latest lottery run of an event, stored in lotteryRuns/{eventId}. The winners
+ * are fixed when the run starts and progress is saved after every page, so a retried run resumes
+ * where the previous attempt stopped instead of drawing again.
+ */
+export interface LotteryRun {
+  runId: string;
+  phase: LotteryPhase;
+  numberOfEntrants: number;
+  isReroll: boolean;
+  selected: SelectedSignup[];
+  // Pages of winners whose signups and notifications are written. Saved before the page's pushes
+  // are sent, so pushes are sent at most once.
+  winnerPagesDone: number;
+  // Last signup of the last page of losers that is done, null before the first one
+  loserCursor: { rank: number; signupId: string } | null;
+  loserPagesDone: number;
+  losersNotified: number;
+  attempts: number;
+  result: string | null;
+  startedAt: Timestamp;
+  updatedAt: Timestamp;
+}
+
+/**
+ * Gets the reference to the lottery run document of an event.
+ * @param {Firestore} db Firestore instance.
+ * @param {string} eventId Event ID.
+ * @return {FirebaseFirestore.DocumentReference} Lottery run document reference.
+ */
+export function lotteryRunRef(db: Firestore, eventId: string) {
+  return db.collection('lotteryRuns').doc(eventId);
+}
+
+/**
+ * Builds the ID of the notification a run sends to a user, so that writing it again on a retry
+ * overwrites it instead of notifying the user twice.
+ * @param {string} runId ID of the run.
+ * @return {string} Notification document ID.
+ */
+export function lotteryNotificationId(runId: string): string {
+  return `lottery-${runId}`;
+}
+
+/**
+ * Saves the progress of a run.
+ * @param {Firestore} db Firestore instance.
+ * @param {string} eventId Event ID.
+ * @param {Partial<LotteryRun>} progress Fields that changed.
+ * @return {Promise<void>} Resolves once saved.
+ */
+export async function saveRunProgress(
+  db: Firestore,
+  eventId: string,
+  progress: Partial<LotteryRun>
+): Promise<void> {
+  await lotteryRunRef(db, eventId).update({ ...progress, updatedAt: Timestamp.now() });
+}
+
+/**
+ * Finishes a run and marks the event's lottery as processed in the same transaction.
+ * @param {Firestore} db Firestore instance.
+ * @param {string} eventId Event ID.
+ * @param {string} result Message describing the result of the run.
+ * @return {Promise<void>} Resolves once committed.
+ */
+export async function completeRun(db: Firestore, eventId: string, result: string): Promise<void> {
+  const eventRef = db.collection('events').doc(eventId);
+  await db.runTransaction(async (transaction) => {
+    const event = await transaction.get(eventRef);
+    transaction.set(
+      lotteryRunRef(db, eventId),
+      { phase: 'done', result, updatedAt: Timestamp.now() },
+      { merge: true }
+    );
+    if (event.exists) {
+      transaction.update(eventRef, { lotteryProcessed: true });
+    }
+  });
+}
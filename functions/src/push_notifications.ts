@@ -0,0 +1,183 @@
+import * as logger from 'firebase-functions/logger';
+import { getMessaging, TokenMessage } from 'firebase-admin/messaging';
+import { AppNotification } from './types/app_notification';
+import { User } from './types/user';
+import { chunkArray, mapWithConcurrency, sleep } from './utils';
+
+/** User documents read per getAll call when resolving recipients. */
+export const RECIPIENT_READ_CHUNK_SIZE = 100;
+
+/** Messages per sendEach call, the most FCM accepts. */
+export const FCM_BATCH_SIZE = 500;
+
+/** sendEach calls in flight at once. */
+export const FCM_MAX_CONCURRENT_BATCHES = 4;
+
+/** Attempts per message before it is counted as failed. */
+const FCM_MAX_ATTEMPTS = 3;
+
+/** Delay before the first retry; doubled for each further one. */
+const FCM_RETRY_BASE_DELAY_MS = 500;
+
+/** FCM errors worth retrying; anything else (e.g. an unregistered token) fails for good. */
+const RETRYABLE_FCM_ERRORS = new Set([
+  'messaging/internal-error',
+  'messaging/server-unavailable',
+  'messaging/unavailable',
+  'messaging/message-rate-exceeded',
+  'messaging/quota-exceeded',
+]);
+
+/** A push notification to send to a user. */
+export interface PushDelivery {
+  userId: string;
+  notification: AppNotification;
+}
+
+/** Outcome of sending push notifications. */
+export interface PushResult {
+  requested: number;
+  skipped: number;
+  sent: number;
+  failed: number;
+}
+
+/**
+ * Looks up the FCM tokens of users with batched reads, leaving out users that do not exist,
+ * have opted out of notifications or have no token.
+ * @param {FirebaseFirestore.Firestore} db Firestore instance
+ * @param {string[]} userIds IDs of the users; duplicates are read once
+ * @return {Promise<Map<string, string>>} FCM token of each user that can be notified
+ */
+export async function resolvePushTokens(
+  db: FirebaseFirestore.Firestore,
+  userIds: string[]
+): Promise<Map<string, string>> {
+  const tokens = new Map<string, string>();
+  const chunks = chunkArray([...new Set(userIds)], RECIPIENT_READ_CHUNK_SIZE);
+
+  for (const chunk of chunks) {
+    const refs = chunk.map((userId) => db.collection('users').doc(userId));
+    const snapshots = await db.getAll(...refs, { fieldMask: ['fcmToken', 'notificationOptOut'] });
+    snapshots.forEach((snapshot) => {
+      const user = snapshot.data() as User | undefined;
+      if (user && !user.notificationOptOut && user.fcmToken) {
+        tokens.set(snapshot.id, user.fcmToken);
+      }
+    });
+  }
+  return tokens;
+}
+
+/**
+ * Sends push notifications. Recipients are resolved with batched reads, users who cannot be
+ * notified are skipped before anything is sent, and messages go out with sendEach in batches of
+ * {@link FCM_BATCH_SIZE}, at most {@link FCM_MAX_CONCURRENT_BATCHES} at a time. Messages that
+ * fail with a transient error are retried with backoff. Failures are logged and counted, never
+ * thrown.
+ * @param {FirebaseFirestore.Firestore} db Firestore instance
+ * @param {PushDelivery[]} deliveries Notifications to send
+ * @return {Promise<PushResult>} How many were sent, skipped and failed
+ */
+export async function sendPushNotifications(
+  db: FirebaseFirestore.Firestore,
+  deliveries: PushDelivery[]
+): Promise<PushResult> {
+  const result: PushResult = { requested: deliveries.length, skipped: 0, sent: 0, failed: 0 };
+  if (deliveries.length === 0) {
+    return result;
+  }
+
+  const resolveStart = Date.now();
+  const tokens = await resolvePushTokens(db, deliveries.map((delivery) => delivery.userId));
+  const resolveMs = Date.now() - resolveStart;
+
+  const messages: TokenMessage[] = [];
+  deliveries.forEach((delivery) => {
+    const token = tokens.get(delivery.userId);
+    if (token) {
+      messages.push(toMessage(token, delivery.notification));
+    } else {
+      result.skipped++;
+    }
+  });
+
+  const sendStart = Date.now();
+  const batches = await mapWithConcurrency(
+    chunkArray(messages, FCM_BATCH_SIZE),
+    FCM_MAX_CONCURRENT_BATCHES,
+    sendBatch
+  );
+  batches.forEach((batch) => {
+    result.sent += batch.sent;
+    result.failed += batch.failed;
+  });
+
+  logger.info(
+    `sendPushNotifications: ${result.sent} sent, ${result.skipped} skipped, ${result.failed} failed; ` +
+    `recipients resolved in ${resolveMs} ms, sent in ${Date.now() - sendStart} ms`
+  );
+  return result;
+}
+
+/**
+ * Builds the FCM message for a notification.
+ * @param {string} token FCM token of the recipient
+ * @param {AppNotification} notification Notification to send
+ * @return {TokenMessage} The message
+ */
+function toMessage(token: string, notification: AppNotification): TokenMessage {
+  return {
+    token,
+    notification: {
+      title: notification.title,
+      body: notification.message,
+    },
+    data: {
+      eventId: notification.eventId,
+      type: notification.type,
+    },
+  };
+}
+
+/**
+ * Sends one batch with sendEach, retrying the messages that failed with a transient error.
+ * @param {TokenMessage[]} messages Messages of the batch, at most {@link FCM_BATCH_SIZE}
+ * @return {Promise<{ sent: number, failed: number }>} Outcome of the batch
+ */
+async function sendBatch(messages: TokenMessage[]): Promise<{ sent: number; failed: number }> {
+  let pending = messages;
+  let sent = 0;
+  let failed = 0;
+
+  for (let attempt = 1; pending.length > 0; attempt++) {
+    const retry: TokenMessage[] = [];
+    try {
+      const response = await getMessaging().sendEach(pending);
+      response.responses.forEach((messageResponse, index) => {
+        if (messageResponse.success) {
+          sent++;
+        } else if (messageResponse.error && RETRYABLE_FCM_ERRORS.has(messageResponse.error.code)) {
+          retry.push(pending[index]);
+        } else {
+          failed++;
+          logger.debug(`sendPushNotifications: message failed: ${messageResponse.error?.code}`);
+        }
+      });
+    } catch (error) {
+      logger.warn(`sendPushNotifications: sendEach failed on attempt ${attempt}:`, error);
+      retry.push(...pending);
+    }
+
+    if (retry.length > 0 && attempt >= FCM_MAX_ATTEMPTS) {
+      failed += retry.length;
+      logger.error(`sendPushNotifications: gave up on ${retry.length} messages after ${attempt} attempts`);
+      break;
+    }
+    if (retry.length > 0) {
+      await sleep(FCM_RETRY_BASE_DELAY_MS * 2 ** (attempt - 1));
+    }
+    pending = retry;
+  }
+  return { sent, failed };
+}
@@ -0,0 +1,143 @@
+import * as logger from 'firebase-functions/logger';
+import { FieldPath, Timestamp } from 'firebase-admin/firestore';
+import { Signup, SignupStatus } from './types/signup';
+import { signupStatus } from './signup_status';
+
+/** Signups whose keyed document is written (or replaced) and whose old document is deleted per batch. */
+export const MIGRATION_PAGE_SIZE = 200;
+
+const MIGRATION_ID = 'signupKeys';
+
+const STATUS_RANKS: Record<SignupStatus, number> = { enrolled: 4, chosen: 3, waitlisted: 2, cancelled: 1 };
+
+/**
+ * Builds the document ID of the signup of a user to an event.
+ * Must match SignupRepository.getSignupDocumentId in the app.
+ * @param {string} userId User ID of the signup
+ * @param {string} eventId Event ID of the signup
+ * @return {string} Document ID of the signup
+ */
+export function signupDocumentId(userId: string, eventId: string): string {
+  return `${userId}_${eventId}`;
+}
+
+/**
+ * Progress of the signup key migration, stored in migrations/signupKeys so a run can resume where
+ * the previous one stopped.
+ */
+export interface SignupKeyMigrationState {
+  cursor: string | null;
+  scanned: number;
+  migrated: number;
+  duplicatesRemoved: number;
+  done: boolean;
+  updatedAt?: Timestamp;
+}
+
+/**
+ * Ranks a signup's status, so that when a user has several signups to the same event the one
+ * furthest along is kept.
+ * @param {Signup} signup Signup to rank
+ * @return {number} Rank, higher is further along
+ */
+function statusRank(signup: Signup): number {
+  return STATUS_RANKS[signupStatus(signup)];
+}
+
+/**
+ * Moves signups stored under auto IDs to their deterministic document IDs, one page at a time.
+ * Each page is committed as a single batch (a write and a delete per signup) and the cursor is
+ * saved after every page, so the migration can be stopped and resumed at any point. Rerunning a
+ * page is harmless: signups already under their keyed ID are skipped.
+ *
+ * When a user has more than one signup to an event, the one with the furthest status is kept and
+ * the others are deleted.
+ * @param {FirebaseFirestore.Firestore} db Firestore instance
+ * @param {number} maxPages Maximum number of pages to process in this run
+ * @param {number} pageSize Number of signups to read per page
+ * @return {Promise<SignupKeyMigrationState>} Progress after this run
+ */
+export async function migrateSignupKeys(
+  db: FirebaseFirestore.Firestore,
+  maxPages: number,
+  pageSize: number = MIGRATION_PAGE_SIZE
+): Promise<SignupKeyMigrationState> {
+  const stateRef = db.collection('migrations').doc(MIGRATION_ID);
+  const stateSnapshot = await stateRef.get();
+  const state: SignupKeyMigrationState = stateSnapshot.exists ?
+    (stateSnapshot.data() as SignupKeyMigrationState) :
+    { cursor: null, scanned: 0, migrated: 0, duplicatesRemoved: 0, done: false };
+
+  if (state.done) {
+    return state;
+  }
+
+  for (let page = 0; page < maxPages; page++) {
+    let query = db.collection('signups').orderBy(FieldPath.documentId()).limit(pageSize);
+    if (state.cursor) {
+      query = query.startAfter(state.cursor);
+    }
+    const snapshot = await query.get();
+
+    if (snapshot.empty) {
+      state.done = true;
+      break;
+    }
+
+    const legacy = snapshot.docs.filter((doc) => {
+      const signup = doc.data() as Signup;
+      return signup.userId && signup.eventId && doc.id !== signupDocumentId(signup.userId, signup.eventId);
+    });
+
+    if (legacy.length > 0) {
+      const targets = legacy.map((doc) => {
+        const signup = doc.data() as Signup;
+        return db.collection('signups').doc(signupDocumentId(signup.userId, signup.eventId));
+      });
+      const existing = await db.getAll(...targets);
+
+      // The signup kept for each key so far, including ones chosen earlier in this page
+      const kept = new Map<string, Signup>();
+      existing.forEach((doc) => {
+        if (doc.exists) {
+          kept.set(doc.id, doc.data() as Signup);
+        }
+      });
+
+      const batch = db.batch();
+      legacy.forEach((doc, i) => {
+        const signup = doc.data() as Signup;
+        const target = targets[i];
+        const current = kept.get(target.id);
+
+        if (current) {
+          state.duplicatesRemoved++;
+        } else {
+          state.migrated++;
+        }
+        if (!current || statusRank(signup) > statusRank(current)) {
+          batch.set(target, signup);
+          kept.set(target.id, signup);
+        }
+        batch.delete(doc.ref);
+      });
+      await batch.commit();
+    }
+
+    state.scanned += snapshot.size;
+    state.cursor = snapshot.docs[snapshot.docs.length - 1].id;
+    state.done = snapshot.size < pageSize;
+    await stateRef.set({ ...state, updatedAt: Timestamp.now() });
+
+    logger.debug(
+      `migrateSignupKeys: page done at ${state.cursor}, migrated ${state.migrated}, ` +
+      `removed ${state.duplicatesRemoved} duplicates`
+    );
+    if (state.done) {
+      break;
+    }
+  }
+
+  await stateRef.set({ ...state, updatedAt: Timestamp.now() });
+  return state;
+}
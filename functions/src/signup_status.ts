@@ -0,0 +1,226 @@
+import * as logger from 'firebase-functions/logger';
+import { FieldPath, Timestamp } from 'firebase-admin/firestore';
+import { Signup, SIGNUP_STATUSES, SignupStatus } from './types/signup';
+
+/** Signups read (and updated in one batch) per page of the status migration. */
+export const STATUS_MIGRATION_PAGE_SIZE = 400;
+
+const MIGRATION_ID = 'signupStatus';
+
+/** The status field of a signup together with the flags mirroring it. */
+export type SignupStatusFields = {
+  status: SignupStatus;
+  cancelled: boolean;
+  waitlisted: boolean;
+  chosen: boolean;
+  enrolled: boolean;
+};
+
+/**
+ * Derives a signup's status from its boolean flags. Accepting or declining an invitation used to
+ * leave "chosen" set, so cancelled and enrolled take precedence over chosen.
+ * Must match SignupStatus.fromFlags in the app.
+ * @param {Signup} signup Signup to read the flags of
+ * @return {SignupStatus} Status described by the flags
+ */
+export function statusFromFlags(signup: Signup): SignupStatus {
+  if (signup.cancelled) return 'cancelled';
+  if (signup.enrolled) return 'enrolled';
+  if (signup.chosen) return 'chosen';
+  return 'waitlisted';
+}
+
+/**
+ * Gets the status of a signup, deriving it from the flags if it was written before the status
+ * field existed.
+ * @param {Signup} signup Signup to get the status of
+ * @return {SignupStatus} Status of the signup
+ */
+export function signupStatus(signup: Signup): SignupStatus {
+  return signup.status && SIGNUP_STATUSES.includes(signup.status) ? signup.status : statusFromFlags(signup);
+}
+
+/**
+ * Builds the fields to write to move a signup to a status, with the flags kept in step for
+ * readers that have not moved to the status field.
+ * @param {SignupStatus} status New status
+ * @return {SignupStatusFields} Fields to write
+ */
+export function statusFields(status: SignupStatus): SignupStatusFields {
+  return {
+    status,
+    cancelled: status === 'cancelled',
+    waitlisted: status === 'waitlisted',
+    chosen: status === 'chosen',
+    enrolled: status === 'enrolled',
+  };
+}
+
+/**
+ * Checks whether a signup's status field is missing or out of step with its flags, as happens
+ * when a client that only knows the flags updates it. The flags written last win.
+ * @param {Signup} signup Signup to check
+ * @return {SignupStatus | undefined} Status to write, or undefined if the signup is consistent
+ */
+export function pendingStatusSync(signup: Signup): SignupStatus | undefined {
+  const status = statusFromFlags(signup);
+  const fields = statusFields(status);
+  const consistent = signup.status === status &&
+    signup.cancelled === fields.cancelled &&
+    signup.waitlisted === fields.waitlisted &&
+    signup.chosen === fields.chosen &&
+    signup.enrolled === fields.enrolled;
+  return consistent ? undefined : status;
+}
+
+/**
+ * Progress of the signup status migration, stored in migrations/signupStatus so a run can resume
+ * where the previous one stopped.
+ */
+export interface SignupStatusMigrationState {
+  cursor: string | null;
+  scanned: number;
+  migrated: number;
+  done: boolean;
+  updatedAt?: Timestamp;
+}
+
+/**
+ * Writes the status field of signups created before it existed (and fixes signups whose flags
+ * were changed without it), one page at a time. Each page is committed as a single batch and the
+ * cursor is saved after every page, so the migration can be stopped and resumed at any point.
+ * Signups that are already consistent are skipped, so rerunning a page is harmless.
+ * @param {FirebaseFirestore.Firestore} db Firestore instance
+ * @param {number} maxPages Maximum number of pages to process in this run
+ * @param {number} pageSize Number of signups to read per page
+ * @return {Promise<SignupStatusMigrationState>} Progress after this run
+ */
+export async function migrateSignupStatus(
+  db: FirebaseFirestore.Firestore,
+  maxPages: number,
+  pageSize: number = STATUS_MIGRATION_PAGE_SIZE
+): Promise<SignupStatusMigrationState> {
+  const stateRef = db.collection('migrations').doc(MIGRATION_ID);
+  const stateSnapshot = await stateRef.get();
+  const state: SignupStatusMigrationState = stateSnapshot.exists ?
+    (stateSnapshot.data() as SignupStatusMigrationState) :
+    { cursor: null, scanned: 0, migrated: 0, done: false };
+
+  if (state.done) {
+    return state;
+  }
+
+  for (let page = 0; page < maxPages; page++) {
+    let query = db.collection('signups').orderBy(FieldPath.documentId()).limit(pageSize);
+    if (state.cursor) {
+      query = query.startAfter(state.cursor);
+    }
+    const snapshot = await query.get();
+
+    if (snapshot.empty) {
+      state.done = true;
+      break;
+    }
+
+    const batch = db.batch();
+    let writes = 0;
+    snapshot.docs.forEach((doc) => {
+      const status = pendingStatusSync(doc.data() as Signup);
+      if (status) {
+        batch.update(doc.ref, statusFields(status));
+        writes++;
+      }
+    });
+    if (writes > 0) {
+      await batch.commit();
+    }
+
+    state.migrated += writes;
+    state.scanned += snapshot.size;
+    state.cursor = snapshot.docs[snapshot.docs.length - 1].id;
+    state.done = snapshot.size < pageSize;
+    await stateRef.set({ ...state, updatedAt: Timestamp.now() });
+
+    logger.debug(`migrateSignupStatus: page done at ${state.cursor}, migrated ${state.migrated}`);
+    if (state.done) {
+      break;
+    }
+  }
+
+  await stateRef.set({ ...state, updatedAt: Timestamp.now() });
+  return state;
+}
+
+/** gRPC status of a write whose precondition failed, e.g. a signup changed since it was read. */
+const FAILED_PRECONDITION = 9;
+
+/**
+ * Writes the status field of the signups of one event that were created before it existed, so
+ * that queries on status see all of them before migrateSignupStatus has reached the event. Called
+ * before reading an event's signups by status; once the full migration is done it costs one read.
+ * A signup written since it was read is left alone: that write runs handleSignupWritten, which
+ * brings its status in step.
+ * @param {FirebaseFirestore.Firestore} db Firestore instance
+ * @param {string} eventId ID of the event
+ * @param {number} pageSize Number of signups to read per page
+ * @return {Promise<number>} Number of signups migrated
+ */
+export async function migrateEventSignupStatus(
+  db: FirebaseFirestore.Firestore,
+  eventId: string,
+  pageSize: number = STATUS_MIGRATION_PAGE_SIZE
+): Promise<number> {
+  const stateSnapshot = await db.collection('migrations').doc(MIGRATION_ID).get();
+  if (stateSnapshot.exists && (stateSnapshot.data() as SignupStatusMigrationState).done) {
+    return 0;
+  }
+
+  const bulkWriter = db.bulkWriter();
+  const writes: Promise<void>[] = [];
+  const failures: unknown[] = [];
+  let migrated = 0;
+  let cursor: string | undefined;
+
+  for (;;) {
+    let query = db.collection('signups')
+      .where('eventId', '==', eventId)
+      .orderBy(FieldPath.documentId())
+      .limit(pageSize);
+    if (cursor) {
+      query = query.startAfter(cursor);
+    }
+    const snapshot = await query.get();
+    if (snapshot.empty) {
+      break;
+    }
+
+    snapshot.docs.forEach((doc) => {
+      const status = pendingStatusSync(doc.data() as Signup);
+      if (status) {
+        const write = bulkWriter.update(doc.ref, statusFields(status), { lastUpdateTime: doc.updateTime });
+        writes.push(write.then(
+          () => {
+            migrated++;
+          },
+          (error) => {
+            if ((error as { code?: number })?.code !== FAILED_PRECONDITION) {
+              failures.push(error);
+            }
+          }
+        ));
+      }
+    });
+
+    cursor = snapshot.docs[snapshot.docs.length - 1].id;
+    if (snapshot.size < pageSize) {
+      break;
+    }
+  }
+
+  await bulkWriter.close();
+  await Promise.all(writes);
+  if (failures.length > 0) {
+    throw new Error(`Migrating the signup status of event ${eventId} failed: ${failures[0]}`);
+  }
+  return migrated;
+}
@@ -0,0 +1,110 @@
+import { test } from 'node:test';
+import * as assert from 'node:assert/strict';
+import { randomRank } from '../lottery_rank';
+
+const TRIALS = 30000;
+
+// Chi-square critical values at p = 0.001, by degrees of freedom
+const CRITICAL_9_DF = 27.88;
+const CRITICAL_14_DF = 36.12;
+
+/**
+ * Seeded uniform generator (mulberry32), so the test is deterministic.
+ * @param {number} seed Seed
+ * @return {function(): number} Generator of numbers in [0, 1)
+ */
+function seededRandom(seed: number): () => number {
+  let state = seed >>> 0;
+  return () => {
+    state = (state + 0x6d2b79f5) >>> 0;
+    let t = state;
+    t = Math.imul(t ^ (t >>> 15), t | 1);
+    t ^= t + Math.imul(t ^ (t >>> 7), t | 61);
+    return ((t ^ (t >>> 14)) >>> 0) / 4294967296;
+  };
+}
+
+/**
+ * Picks winners the way processLottery's orderBy('rank').limit(n) query does.
+ * @param {Map<number, number>} waitlist Rank of each waitlisted signup, keyed by signup
+ * @param {number} n Number of winners
+ * @return {number[]} Winners, lowest rank first
+ */
+function draw(waitlist: Map<number, number>, n: number): number[] {
+  return [...waitlist.entries()]
+    .sort((a, b) => a[1] - b[1])
+    .slice(0, n)
+    .map(([signup]) => signup);
+}
+
+/**
+ * Computes the chi-square statistic of observed counts against expected counts.
+ * @param {number[]} observed Observed counts
+ * @param {number[]} expected Expected counts
+ * @return {number} The statistic
+ */
+function chiSquare(observed: number[], expected: number[]): number {
+  return observed.reduce((sum, count, i) => sum + (count - expected[i]) ** 2 / expected[i], 0);
+}
+
+/**
+ * Runs a first draw of 3 out of 10 signups, then 5 more signups join and 2 are redrawn.
+ * @param {boolean} useFloor Whether late signups are ranked from the floor, as in the app
+ * @return {{ redrawWins: number[], eligible: number[] }} Per signup, redraws won and entered
+ */
+function simulateRedraws(useFloor: boolean): { redrawWins: number[]; eligible: number[] } {
+  const random = seededRandom(useFloor ? 2 : 3);
+  const redrawWins = new Array(15).fill(0);
+  const eligible = new Array(15).fill(0);
+
+  for (let trial = 0; trial < TRIALS; trial++) {
+    const waitlist = new Map<number, number>();
+    for (let signup = 0; signup < 10; signup++) {
+      waitlist.set(signup, randomRank(0, random));
+    }
+    const winners = draw(waitlist, 3);
+    const floor = waitlist.get(winners[winners.length - 1]) as number;
+    winners.forEach((signup) => waitlist.delete(signup));
+
+    for (let signup = 10; signup < 15; signup++) {
+      waitlist.set(signup, randomRank(useFloor ? floor : 0, random));
+    }
+    waitlist.forEach((_, signup) => eligible[signup]++);
+    draw(waitlist, 2).forEach((signup) => redrawWins[signup]++);
+  }
+  return { redrawWins, eligible };
+}
+
+test('every signup is equally likely to win the first draw', () => {
+  const random = seededRandom(1);
+  const wins = new Array(10).fill(0);
+
+  for (let trial = 0; trial < TRIALS; trial++) {
+    const waitlist = new Map<number, number>();
+    for (let signup = 0; signup < 10; signup++) {
+      waitlist.set(signup, randomRank(0, random));
+    }
+    draw(waitlist, 3).forEach((signup) => wins[signup]++);
+  }
+
+  const expected = new Array(10).fill(TRIALS * 3 / 10);
+  assert.ok(chiSquare(wins, expected) < CRITICAL_9_DF, `win counts are not uniform: ${wins}`);
+});
+
+test('signups that join after a draw are no more likely to win the redraw', () => {
+  const { redrawWins, eligible } = simulateRedraws(true);
+
+  // 12 signups are on the waitlist for every redraw: 7 left from the first draw and 5 new ones
+  const expected = eligible.map((entered) => entered * 2 / 12);
+  assert.ok(
+    chiSquare(redrawWins, expected) < CRITICAL_14_DF,
+    `redraw wins are not uniform: ${redrawWins} for ${eligible} entries`
+  );
+});
+
+test('ranking late signups without the floor would favour them', () => {
+  const { redrawWins, eligible } = simulateRedraws(false);
+
+  const expected = eligible.map((entered) => entered * 2 / 12);
+  assert.ok(chiSquare(redrawWins, expected) > CRITICAL_14_DF);
+});
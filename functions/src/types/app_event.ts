@@ -7,4 +7,6 @@ export interface AppEvent {
   numberOfAttendees: number;
   eventName: string;
   organizerId: string;
+  facilityId?: string;
+  posterUriString?: string;
 }
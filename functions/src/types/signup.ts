@@ -1,8 +1,18 @@
+export const SIGNUP_STATUSES = ['cancelled', 'waitlisted', 'chosen', 'enrolled'] as const;
+export type SignupStatus = typeof SIGNUP_STATUSES[number];
+
 export interface Signup {
   userId: string;
-  eventId: boolean;
+  eventId: string;
+  // Missing on signups written before the status field existed; derived from the flags then
+  status?: SignupStatus;
   waitlisted: boolean;
   cancelled: boolean;
   chosen: boolean;
   enrolled: boolean;
+  capacitySlot?: number | null;
+  // Lottery rank, assigned by Cloud Functions; see lottery_rank.ts
+  rank?: number | null;
+  // Number of times Cloud Functions restored a rank a client changed, so the restore is told apart
+  rankRestores?: number;
 }
@@ -3,4 +3,5 @@ export interface User {
   admin: boolean;
   organizer: boolean;
   fcmToken: string;
+  notificationOptOut?: boolean;
 }
@@ -1,3 +1,5 @@
+import * as logger from 'firebase-functions/logger';
+
 /**
  * Delete all documents that fit a query.
  * @param {FirebaseFirestore.Query} query Query.
@@ -21,16 +23,80 @@ export async function deleteDocumentsByQuery(query: FirebaseFirestore.Query) {
   return count;
 }
 
+
+/**
+ * Maps items with an async function, running at most "limit" calls at a time.
+ * @param {T[]} items Items to map
+ * @param {number} limit Maximum number of calls in flight
+ * @param {function(T): Promise<R>} fn Function to apply
+ * @return {Promise<R[]>} Results, in the order of the items
+ */
+export async function mapWithConcurrency<T, R>(
+  items: T[],
+  limit: number,
+  fn: (item: T) => Promise<R>
+): Promise<R[]> {
+  const results: R[] = new Array(items.length);
+  let next = 0;
+  const workers = Array.from({ length: Math.min(limit, items.length) }, async () => {
+    while (next < items.length) {
+      const index = next++;
+      results[index] = await fn(items[index]);
+    }
+  });
+  await Promise.all(workers);
+  return results;
+}
+
+/**
+ * Splits an array into chunks.
+ * @param {T[]} array Array to split
+ * @param {number} size Maximum chunk size
+ * @return {T[][]} The chunks
+ */
+export function chunkArray<T>(array: T[], size: number): T[][] {
+  const chunks: T[][] = [];
+  for (let i = 0; i < array.length; i += size) {
+    chunks.push(array.slice(i, i + size));
+  }
+  return chunks;
+}
+
+/**
+ * Waits for a while.
+ * @param {number} ms Milliseconds to wait
+ * @return {Promise<void>} Resolves after the wait
+ */
+export function sleep(ms: number): Promise<void> {
+  return new Promise((resolve) => setTimeout(resolve, ms));
+}
+
 /**
- * Shuffles an array using the Fisher-Yates algorithm.
- * @param {T[]} array Array to shuffle
- * @return {T[]} Shuffled array
+ * Measures how long the phases of a long-running job take, for logging.
  */
-export function shuffleArray<T>(array: T[]): T[] {
-  const shuffled = array.slice();
-  for (let i = shuffled.length - 1; i > 0; i--) {
-    const j = Math.floor(Math.random() * (i + 1));
-    [shuffled[i], shuffled[j]] = [shuffled[j], shuffled[i]];
+export class PhaseTimer {
+  private readonly durations: string[] = [];
+  private last = Date.now();
+
+  /**
+   * @param {string} label Name of the job, used as the log prefix
+   */
+  constructor(private readonly label: string) {}
+
+  /**
+   * Ends the current phase; the next one starts now.
+   * @param {string} phase Name of the phase that ended
+   */
+  end(phase: string) {
+    const now = Date.now();
+    this.durations.push(`${phase} ${now - this.last} ms`);
+    this.last = now;
+  }
+
+  /**
+   * Logs the duration of every phase ended so far.
+   */
+  log() {
+    logger.info(`${this.label}: ${this.durations.join(', ')}`);
   }
-  return shuffled;
 }